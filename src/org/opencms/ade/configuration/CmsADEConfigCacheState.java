@@ -36,6 +36,7 @@ import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
 import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
+import org.opencms.util.CmsUUIDMap;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -171,7 +172,8 @@ public class CmsADEConfigCacheState {
         List<CmsADEConfigDataInternal> moduleUpdates,
         Map<CmsUUID, CmsElementView> elementViewUpdates) {
 
-        Map<CmsUUID, CmsADEConfigDataInternal> newSitemapConfigs = Maps.newHashMap(m_siteConfigurations);
+        Map<CmsUUID, CmsADEConfigDataInternal> newSitemapConfigs = new CmsUUIDMap<CmsADEConfigDataInternal>(
+            m_siteConfigurations);
         if (sitemapUpdates != null) {
             for (Map.Entry<CmsUUID, CmsADEConfigDataInternal> entry : sitemapUpdates.entrySet()) {
                 CmsUUID key = entry.getKey();
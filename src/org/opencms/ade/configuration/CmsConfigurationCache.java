@@ -42,6 +42,7 @@ import org.opencms.main.CmsRuntimeException;
 import org.opencms.main.OpenCms;
 import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
+import org.opencms.util.CmsUUIDMap;
 import org.opencms.util.CmsWaitHandle;
 
 import java.util.ArrayList;
@@ -286,7 +287,7 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
     public CmsADEConfigCacheState readCompleteConfiguration() {
 
         long beginTime = System.currentTimeMillis();
-        Map<CmsUUID, CmsADEConfigDataInternal> siteConfigurations = Maps.newHashMap();
+        Map<CmsUUID, CmsADEConfigDataInternal> siteConfigurations = new CmsUUIDMap<CmsADEConfigDataInternal>();
         if (m_cms.existsResource("/")) {
             try {
                 @SuppressWarnings("deprecation")
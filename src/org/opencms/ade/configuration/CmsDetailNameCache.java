@@ -38,7 +38,7 @@ import org.opencms.file.types.I_CmsResourceType;
 import org.opencms.loader.CmsLoaderException;
 import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
-import org.opencms.util.CmsManyToOneMap;
+import org.opencms.util.CmsConcurrentManyToOneMap;
 import org.opencms.util.CmsUUID;
 
 import java.util.Collections;
@@ -65,8 +65,9 @@ public class CmsDetailNameCache implements I_CmsGlobalConfigurationCache {
     /** The CMS context used by this cache. */
     private CmsObject m_cms;
 
-    /** The internal map from URL names to structure ids. */
-    private CmsManyToOneMap<String, CmsUUID> m_detailIdCache = new CmsManyToOneMap<String, CmsUUID>();
+    /** The internal map from URL names to structure ids, updated in place and replaced on full reloads. */
+    private volatile CmsConcurrentManyToOneMap<String, CmsUUID> m_detailIdCache = new CmsConcurrentManyToOneMap<String, CmsUUID>(
+        16);
 
     /** The set of structure ids for which the URL names have to be updated. */
     private Set<CmsUUID> m_updateSet = Sets.newHashSet();
@@ -165,15 +166,11 @@ public class CmsDetailNameCache implements I_CmsGlobalConfigurationCache {
                 reload();
             } else {
                 LOG.info("Updating detail name cache. Number of changed files: " + copiedIds.size());
-                CmsManyToOneMap<String, CmsUUID> cacheCopy = new CmsManyToOneMap<String, CmsUUID>(m_detailIdCache);
+                // the map is updated in place, so the update cost only depends on the number of changed contents
+                CmsConcurrentManyToOneMap<String, CmsUUID> cache = m_detailIdCache;
                 for (CmsUUID id : copiedIds) {
-                    Set<String> urlNames = getUrlNames(id);
-                    cacheCopy.removeValue(id);
-                    for (String urlName : urlNames) {
-                        cacheCopy.put(urlName, id);
-                    }
+                    cache.replaceKeys(id, getUrlNames(id));
                 }
-                m_detailIdCache = cacheCopy;
             }
         }
     }
@@ -232,10 +229,11 @@ public class CmsDetailNameCache implements I_CmsGlobalConfigurationCache {
      */
     private void reload() {
 
-        CmsManyToOneMap<String, CmsUUID> newMap = new CmsManyToOneMap<String, CmsUUID>();
         try {
             List<CmsUrlNameMappingEntry> mappings = m_cms.readUrlNameMappings(CmsUrlNameMappingFilter.ALL);
             LOG.info("Initializing detail name cache with " + mappings.size() + " entries");
+            CmsConcurrentManyToOneMap<String, CmsUUID> newMap = new CmsConcurrentManyToOneMap<String, CmsUUID>(
+                mappings.size());
             for (CmsUrlNameMappingEntry entry : mappings) {
                 newMap.put(entry.getName(), entry.getStructureId());
             }
@@ -42,6 +42,8 @@ import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
 import org.opencms.util.CmsUUID;
 import org.opencms.util.CmsWaitHandle;
+import org.opencms.xml.containerpage.CmsFlexFormatterBean;
+import org.opencms.xml.containerpage.CmsMacroFormatterBean;
 import org.opencms.xml.containerpage.I_CmsFormatterBean;
 import org.opencms.xml.content.CmsXmlContent;
 import org.opencms.xml.content.CmsXmlContentFactory;
@@ -53,13 +55,19 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 
@@ -76,6 +84,53 @@ import com.google.common.collect.Maps;
  **/
 public class CmsFormatterConfigurationCache implements I_CmsGlobalConfigurationCache {
 
+    /**
+     * A parsed formatter bean, together with the modification date of its formatter configuration.<p>
+     */
+    private static class CmsParsedFormatter {
+
+        /** The modification date of the formatter configuration. */
+        private long m_dateLastModified;
+
+        /** The formatter bean. */
+        private I_CmsFormatterBean m_formatter;
+
+        /**
+         * Creates a new instance.<p>
+         *
+         * @param formatterRes the formatter configuration resource
+         * @param formatter the formatter bean parsed from the formatter configuration
+         */
+        CmsParsedFormatter(CmsResource formatterRes, I_CmsFormatterBean formatter) {
+
+            m_dateLastModified = formatterRes.getDateLastModified();
+            m_formatter = formatter;
+        }
+
+        /**
+         * Gets the modification date of the formatter configuration.<p>
+         *
+         * @return the modification date
+         */
+        long getDateLastModified() {
+
+            return m_dateLastModified;
+        }
+
+        /**
+         * Gets the formatter bean.<p>
+         *
+         * @return the formatter bean
+         */
+        I_CmsFormatterBean getFormatter() {
+
+            return m_formatter;
+        }
+    }
+
+    /** The maximum number of threads used for parsing formatter configurations during a reload. */
+    public static final int MAX_PARSE_THREADS = 4;
+
     /** A UUID which is used to mark the configuration cache for complete reloading. */
     public static final CmsUUID RELOAD_MARKER = CmsUUID.getNullUUID();
 
@@ -97,6 +152,12 @@ public class CmsFormatterConfigurationCache implements I_CmsGlobalConfigurationC
     /** The logger for this class. */
     private static final Log LOG = CmsLog.getLog(CmsFormatterConfigurationCache.class);
 
+    /** The counter used for naming the parser threads. */
+    private static final AtomicInteger PARSE_THREAD_COUNTER = new AtomicInteger();
+
+    /** The executor for parsing formatter configurations in parallel, shared by all formatter caches. */
+    private static final ThreadPoolExecutor PARSE_EXECUTOR = createParseExecutor();
+
     /** The future for the scheduled task. */
     private volatile ScheduledFuture<?> m_taskFuture;
 
@@ -109,6 +170,12 @@ public class CmsFormatterConfigurationCache implements I_CmsGlobalConfigurationC
     /** The cache name. */
     private String m_name;
 
+    /** The formatter beans parsed so far, by structure id of the formatter configuration. */
+    private Map<CmsUUID, CmsParsedFormatter> m_parsedFormatters = new ConcurrentHashMap<>();
+
+    /** The modification dates of the setting configurations from which the setting configurations were read. */
+    private Map<CmsUUID, Long> m_settingConfigDates = Collections.emptyMap();
+
     /** Additional setting configurations. */
     private volatile Map<CmsUUID, List<CmsXmlContentProperty>> m_settingConfigs;
 
@@ -230,8 +297,12 @@ public class CmsFormatterConfigurationCache implements I_CmsGlobalConfigurationC
 
     /**
      * Reloads the formatter cache.<p>
+     *
+     * Formatter configurations which have not changed since they were last parsed are not parsed again, and the
+     * remaining formatter configurations are parsed in parallel. The cache state is only replaced if the
+     * formatters have actually changed.<p>
      */
-    public void reload() {
+    public synchronized void reload() {
 
         List<CmsResource> settingConfigResources = new ArrayList<>();
         try {
@@ -241,11 +312,20 @@ public class CmsFormatterConfigurationCache implements I_CmsGlobalConfigurationC
         } catch (CmsException e) {
             LOG.warn(e.getLocalizedMessage(), e);
         }
-        Map<CmsUUID, List<CmsXmlContentProperty>> settingConfigs = new HashMap<>();
+        Map<CmsUUID, Long> settingConfigDates = new HashMap<>();
         for (CmsResource resource : settingConfigResources) {
-            parseSettingsConfig(resource, settingConfigs);
+            settingConfigDates.put(resource.getStructureId(), Long.valueOf(resource.getDateLastModified()));
+        }
+        if ((m_settingConfigs == null) || !settingConfigDates.equals(m_settingConfigDates)) {
+            Map<CmsUUID, List<CmsXmlContentProperty>> settingConfigs = new HashMap<>();
+            for (CmsResource resource : settingConfigResources) {
+                parseSettingsConfig(resource, settingConfigs);
+            }
+            m_settingConfigs = settingConfigs;
+            m_settingConfigDates = settingConfigDates;
+            // the formatter beans contain the combined settings, so they all have to be parsed again
+            m_parsedFormatters.clear();
         }
-        m_settingConfigs = settingConfigs;
 
         List<CmsResource> formatterResources = new ArrayList<CmsResource>();
         try {
@@ -269,15 +349,17 @@ public class CmsFormatterConfigurationCache implements I_CmsGlobalConfigurationC
         } catch (CmsException e) {
             LOG.warn(e.getLocalizedMessage(), e);
         }
-        Map<CmsUUID, I_CmsFormatterBean> newFormatters = Maps.newHashMap();
-        for (CmsResource formatterResource : formatterResources) {
-            I_CmsFormatterBean formatterBean = readFormatter(formatterResource.getStructureId());
-            if (formatterBean != null) {
-                newFormatters.put(formatterResource.getStructureId(), formatterBean);
+        Map<CmsUUID, I_CmsFormatterBean> newFormatters = readFormatters(formatterResources);
+        m_parsedFormatters.keySet().retainAll(newFormatters.keySet());
+
+        // only apply the differences, so the state is kept if nothing has changed
+        Map<CmsUUID, I_CmsFormatterBean> formattersToUpdate = Maps.newHashMap(newFormatters);
+        for (CmsUUID structureId : m_state.getFormatters().keySet()) {
+            if (!newFormatters.containsKey(structureId)) {
+                formattersToUpdate.put(structureId, null);
             }
         }
-        m_state = new CmsFormatterConfigurationCacheState(newFormatters);
-
+        m_state = m_state.createUpdatedCopy(formattersToUpdate);
     }
 
     /**
@@ -333,27 +415,52 @@ public class CmsFormatterConfigurationCache implements I_CmsGlobalConfigurationC
      */
     protected I_CmsFormatterBean readFormatter(CmsUUID structureId) {
 
-        I_CmsFormatterBean formatterBean = null;
         CmsResource formatterRes = null;
         try {
             formatterRes = m_cms.readResource(structureId);
-            CmsFile formatterFile = m_cms.readFile(formatterRes);
-            CmsFormatterBeanParser parser = new CmsFormatterBeanParser(m_cms, m_settingConfigs);
-            CmsXmlContent content = CmsXmlContentFactory.unmarshal(m_cms, formatterFile);
-            formatterBean = parser.parse(content, formatterRes.getRootPath(), "" + formatterRes.getStructureId());
         } catch (Exception e) {
+            // normal case if resources get deleted, should not be written to the error channel
+            LOG.info("Could not read formatter with id " + structureId);
+            m_parsedFormatters.remove(structureId);
+            return null;
+        }
+        return readFormatter(m_cms, formatterRes);
+    }
 
-            if (formatterRes == null) {
-                // normal case if resources get deleted, should not be written to the error channel
-                LOG.info("Could not read formatter with id " + structureId);
-            } else {
-                LOG.error(
-                    "Error while trying to read formatter configuration "
-                        + formatterRes.getRootPath()
-                        + ":    "
-                        + e.getLocalizedMessage(),
-                    e);
-            }
+    /**
+     * Reads a formatter from the given formatter configuration, or returns the formatter parsed from it before
+     * if the formatter configuration has not changed since.<p>
+     *
+     * @param cms the CMS context to use
+     * @param formatterRes the formatter configuration resource
+     *
+     * @return the formatter bean, or null if no formatter could be read for some reason
+     */
+    protected I_CmsFormatterBean readFormatter(CmsObject cms, CmsResource formatterRes) {
+
+        CmsUUID structureId = formatterRes.getStructureId();
+        CmsParsedFormatter parsed = m_parsedFormatters.get(structureId);
+        if ((parsed != null) && isUnchanged(cms, parsed, formatterRes)) {
+            return parsed.getFormatter();
+        }
+        I_CmsFormatterBean formatterBean = null;
+        try {
+            CmsFile formatterFile = cms.readFile(formatterRes);
+            CmsFormatterBeanParser parser = new CmsFormatterBeanParser(cms, m_settingConfigs);
+            CmsXmlContent content = CmsXmlContentFactory.unmarshal(cms, formatterFile);
+            formatterBean = parser.parse(content, formatterRes.getRootPath(), "" + structureId);
+        } catch (Exception e) {
+            LOG.error(
+                "Error while trying to read formatter configuration "
+                    + formatterRes.getRootPath()
+                    + ":    "
+                    + e.getLocalizedMessage(),
+                e);
+        }
+        if (formatterBean != null) {
+            m_parsedFormatters.put(structureId, new CmsParsedFormatter(formatterRes, formatterBean));
+        } else {
+            m_parsedFormatters.remove(structureId);
         }
         return formatterBean;
     }
@@ -388,6 +495,97 @@ public class CmsFormatterConfigurationCache implements I_CmsGlobalConfigurationC
         }
     }
 
+    /**
+     * Creates the executor for parsing formatter configurations.<p>
+     *
+     * The executor uses at most {@link #MAX_PARSE_THREADS} daemon threads, but not more than the number
+     * of available processors. The threads are stopped when idle.<p>
+     *
+     * @return the executor
+     */
+    private static ThreadPoolExecutor createParseExecutor() {
+
+        int threads = Math.max(1, Math.min(MAX_PARSE_THREADS, Runtime.getRuntime().availableProcessors()));
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            threads,
+            threads,
+            60,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            runnable -> {
+                Thread thread = new Thread(
+                    runnable,
+                    "OpenCms: Formatter configuration parser " + PARSE_THREAD_COUNTER.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Checks if the resource with the given structure id still has the given root path.<p>
+     *
+     * @param cms the CMS context to use
+     * @param structureId the structure id, may be null
+     * @param rootPath the expected root path
+     *
+     * @return true if the structure id is null or the resource still has the given root path
+     */
+    private boolean hasRootPath(CmsObject cms, CmsUUID structureId, String rootPath) {
+
+        if (structureId == null) {
+            return true;
+        }
+        try {
+            return cms.readResource(structureId).getRootPath().equals(rootPath);
+        } catch (CmsException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks if a previously parsed formatter is still up to date.<p>
+     *
+     * This is the case if the formatter configuration has neither been modified nor moved, and the resources
+     * referenced from the formatter bean by path have not been moved.<p>
+     *
+     * @param cms the CMS context to use
+     * @param parsed the previously parsed formatter
+     * @param formatterRes the current formatter configuration resource
+     *
+     * @return true if the parsed formatter can be used
+     */
+    private boolean isUnchanged(CmsObject cms, CmsParsedFormatter parsed, CmsResource formatterRes) {
+
+        if (parsed.getDateLastModified() != formatterRes.getDateLastModified()) {
+            return false;
+        }
+        I_CmsFormatterBean formatter = parsed.getFormatter();
+        if (!formatterRes.getRootPath().equals(formatter.getLocation())) {
+            // moving keeps the modification date, but the formatter location is used for matching formatters
+            return false;
+        }
+        if (!hasRootPath(cms, formatter.getJspStructureId(), formatter.getJspRootPath())) {
+            return false;
+        }
+        if (formatter instanceof CmsMacroFormatterBean) {
+            CmsMacroFormatterBean macroFormatter = (CmsMacroFormatterBean)formatter;
+            return hasRootPath(
+                cms,
+                macroFormatter.getDefaultContentStructureId(),
+                macroFormatter.getDefaultContentRootPath());
+        }
+        if (formatter instanceof CmsFlexFormatterBean) {
+            CmsFlexFormatterBean flexFormatter = (CmsFlexFormatterBean)formatter;
+            return hasRootPath(
+                cms,
+                flexFormatter.getDefaultContentStructureId(),
+                flexFormatter.getDefaultContentRootPath());
+        }
+        return true;
+    }
+
     /**
      * Adds a formatter structure id to the update set, and schedule an update task unless one is already scheduled.<p>
      *
@@ -398,6 +596,57 @@ public class CmsFormatterConfigurationCache implements I_CmsGlobalConfigurationC
         m_workQueue.add(structureId);
     }
 
+    /**
+     * Reads the formatters from the given formatter configurations.<p>
+     *
+     * The formatter configurations are parsed in parallel with the shared parser executor,
+     * each thread using its own copy of the CMS context.<p>
+     *
+     * @param formatterResources the formatter configuration resources
+     *
+     * @return the formatter beans by structure id of the formatter configuration
+     */
+    private Map<CmsUUID, I_CmsFormatterBean> readFormatters(List<CmsResource> formatterResources) {
+
+        Map<CmsUUID, I_CmsFormatterBean> result = Maps.newHashMap();
+        int threads = Math.min(
+            MAX_PARSE_THREADS,
+            Math.min(formatterResources.size(), Runtime.getRuntime().availableProcessors()));
+        if (threads < 2) {
+            for (CmsResource formatterResource : formatterResources) {
+                I_CmsFormatterBean formatterBean = readFormatter(m_cms, formatterResource);
+                if (formatterBean != null) {
+                    result.put(formatterResource.getStructureId(), formatterBean);
+                }
+            }
+            return result;
+        }
+        Map<CmsUUID, Future<I_CmsFormatterBean>> futures = new LinkedHashMap<>();
+        try {
+            for (final CmsResource formatterResource : formatterResources) {
+                futures.put(
+                    formatterResource.getStructureId(),
+                    PARSE_EXECUTOR.submit(() -> readFormatter(OpenCms.initCmsObject(m_cms), formatterResource)));
+            }
+            for (Map.Entry<CmsUUID, Future<I_CmsFormatterBean>> entry : futures.entrySet()) {
+                try {
+                    I_CmsFormatterBean formatterBean = entry.getValue().get();
+                    if (formatterBean != null) {
+                        result.put(entry.getKey(), formatterBean);
+                    }
+                } catch (ExecutionException e) {
+                    LOG.error(e.getLocalizedMessage(), e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (Future<I_CmsFormatterBean> future : futures.values()) {
+                future.cancel(true);
+            }
+        }
+        return result;
+    }
+
     /**
      * Helper method for parsing a settings configuration file.<p>
      *
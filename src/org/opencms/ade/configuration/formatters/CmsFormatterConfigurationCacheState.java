@@ -81,7 +81,8 @@ public class CmsFormatterConfigurationCacheState {
     /**
      * Creates a new copy of this state in which some entries are removed or replaced.<p>
      *
-     * This does not change the state object on which the method is called.
+     * This does not change the state object on which the method is called. If none of the given entries changes
+     * the formatters of this state, this state itself is returned.<p>
      *
      * @param updateFormatters a map of formatters to change, where the key is the structure id and the value is either the replacement or null if the map entry should be removed
      *
@@ -90,15 +91,20 @@ public class CmsFormatterConfigurationCacheState {
     public CmsFormatterConfigurationCacheState createUpdatedCopy(Map<CmsUUID, I_CmsFormatterBean> updateFormatters) {
 
         Map<CmsUUID, I_CmsFormatterBean> newFormatters = Maps.newHashMap(getFormatters());
+        boolean changed = false;
         for (Map.Entry<CmsUUID, I_CmsFormatterBean> entry : updateFormatters.entrySet()) {
             CmsUUID key = entry.getKey();
             I_CmsFormatterBean value = entry.getValue();
             if (value != null) {
-                newFormatters.put(key, value);
+                changed |= newFormatters.put(key, value) != value;
             } else {
-                newFormatters.remove(key);
+                changed |= newFormatters.remove(key) != null;
             }
         }
+        if (!changed) {
+            // keep this state, including the formatter maps derived from it
+            return this;
+        }
         return new CmsFormatterConfigurationCacheState(newFormatters);
     }
 
@@ -442,6 +442,7 @@ public class CmsElementUtil {
         Collection<CmsContainer> containers)
     throws CmsException {
 
+        long start = System.currentTimeMillis();
         Locale requestLocale = m_cms.getRequestContext().getLocale();
         m_cms.getRequestContext().setLocale(m_locale);
         element.initResource(m_cms);
@@ -573,6 +574,15 @@ public class CmsElementUtil {
         }
         elementData.setContents(contents);
         m_cms.getRequestContext().setLocale(requestLocale);
+        elementData.setRenderTime(System.currentTimeMillis() - start);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(
+                "Element data for "
+                    + element.getResource().getRootPath()
+                    + " read in "
+                    + elementData.getRenderTime()
+                    + " ms.");
+        }
         return elementData;
     }
 
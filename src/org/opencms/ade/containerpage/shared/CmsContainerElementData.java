@@ -79,6 +79,9 @@ public class CmsContainerElementData extends CmsContainerElement {
     /** The element navText property. */
     private String m_navText;
 
+    /** The time in milliseconds needed for reading and rendering the element data. */
+    private long m_renderTime;
+
     /** The settings for this container entry. */
     private Map<String, String> m_settings;
 
@@ -260,6 +263,16 @@ public class CmsContainerElementData extends CmsContainerElement {
         return m_navText;
     }
 
+    /**
+     * Returns the time in milliseconds needed for reading and rendering the element data.<p>
+     *
+     * @return the render time
+     */
+    public long getRenderTime() {
+
+        return m_renderTime;
+    }
+
     /**
      * Gets the setting configuration for this container element.<p>
      *
@@ -492,6 +505,16 @@ public class CmsContainerElementData extends CmsContainerElement {
         m_navText = navText;
     }
 
+    /**
+     * Sets the time in milliseconds needed for reading and rendering the element data.<p>
+     *
+     * @param renderTime the render time to set
+     */
+    public void setRenderTime(long renderTime) {
+
+        m_renderTime = renderTime;
+    }
+
     /**
      * Sets the settings for this container element.<p>
      *
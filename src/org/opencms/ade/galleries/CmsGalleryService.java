@@ -794,7 +794,7 @@ public class CmsGalleryService extends CmsGwtService implements I_CmsGalleryServ
                             }
                             notFound = resultItem == null;
                             if (!notFound) {
-                                result = buildSingleSearchResultItem(getCmsObject(), resultItem, null);
+                                result = buildSingleSearchResultItem(getCmsObject(), resultItem, null, null);
                             }
                         }
                     } catch (CmsException ex) {
@@ -1660,9 +1660,31 @@ public class CmsGalleryService extends CmsGwtService implements I_CmsGalleryServ
             return list;
         }
         CmsObject cms = getCmsObject();
+        // read the resources of all results at once, instead of once for every result
+        List<CmsUUID> structureIds = new ArrayList<CmsUUID>(searchResult.size());
         for (CmsGallerySearchResult sResult : searchResult) {
+            if (CmsUUID.isValidUUID(sResult.getStructureId())) {
+                structureIds.add(new CmsUUID(sResult.getStructureId()));
+            }
+        }
+        Map<String, CmsResource> resources = new HashMap<String, CmsResource>();
+        try {
+            for (CmsResource resource : cms.readResources(
+                structureIds,
+                CmsResourceFilter.ONLY_VISIBLE_NO_DELETED)) {
+                resources.put(resource.getStructureId().toString(), resource);
+            }
+        } catch (CmsException e) {
+            logError(e);
+        }
+        for (CmsGallerySearchResult sResult : searchResult) {
+            CmsResource resource = resources.get(sResult.getStructureId());
+            if (resource == null) {
+                // not readable, or deleted since the index was updated
+                continue;
+            }
             try {
-                CmsResultItemBean bean = buildSingleSearchResultItem(cms, sResult, presetResult);
+                CmsResultItemBean bean = buildSingleSearchResultItem(cms, sResult, resource, presetResult);
                 list.add(bean);
             } catch (Exception e) {
                 logError(e);
@@ -1676,6 +1698,7 @@ public class CmsGalleryService extends CmsGwtService implements I_CmsGalleryServ
      *
      * @param cms the current CMS context
      * @param sResult the server-side search result
+     * @param resultResource the resource of the search result, or <code>null</code> to read it
      * @param presetResult the preselected result
      *
      * @return the client side search result item
@@ -1686,6 +1709,7 @@ public class CmsGalleryService extends CmsGwtService implements I_CmsGalleryServ
     private CmsResultItemBean buildSingleSearchResultItem(
         CmsObject cms,
         CmsGallerySearchResult sResult,
+        CmsResource resultResource,
         CmsGallerySearchResult presetResult)
     throws CmsException, ParseException {
 
@@ -1709,9 +1733,11 @@ public class CmsGalleryService extends CmsGwtService implements I_CmsGalleryServ
         bean.setRawTitle(rawTitle);
         // resource type
         bean.setType(sResult.getResourceType());
-        CmsResource resultResource = cms.readResource(
-            new CmsUUID(sResult.getStructureId()),
-            CmsResourceFilter.ONLY_VISIBLE_NO_DELETED);
+        if (resultResource == null) {
+            resultResource = cms.readResource(
+                new CmsUUID(sResult.getStructureId()),
+                CmsResourceFilter.ONLY_VISIBLE_NO_DELETED);
+        }
         bean.setBigIconClasses(
             CmsIconUtil.getIconClasses(CmsIconUtil.getDisplayType(cms, resultResource), path, false));
         String detailType = CmsResourceIcon.getDefaultFileOrDetailType(cms, resultResource);
@@ -1763,21 +1789,14 @@ public class CmsGalleryService extends CmsGwtService implements I_CmsGalleryServ
                 CmsListInfoBean.CSS_CLASS_MULTI_LINE);
         }
         if (type instanceof CmsResourceTypeImage) {
-            CmsProperty copyrightProp = cms.readPropertyObject(
-                resultResource,
-                CmsPropertyDefinition.PROPERTY_COPYRIGHT,
-                false);
-            if (!copyrightProp.isNullProperty()) {
+            String copyright = sResult.getCopyright();
+            if (CmsStringUtil.isNotEmpty(copyright)) {
                 bean.addAdditionalInfo(
                     Messages.get().getBundle(getWorkplaceLocale()).key(Messages.GUI_RESULT_LABEL_COPYRIGHT_0),
-                    copyrightProp.getValue());
-            }
-            CmsProperty imageDimensionProp = cms.readPropertyObject(
-                resultResource,
-                CmsPropertyDefinition.PROPERTY_IMAGE_SIZE,
-                false);
-            if (!imageDimensionProp.isNullProperty()) {
-                String dimensions = imageDimensionProp.getValue();
+                    copyright);
+            }
+            String dimensions = sResult.getImageSize();
+            if (CmsStringUtil.isNotEmpty(dimensions) && (dimensions.length() > 2)) {
                 dimensions = dimensions.substring(2).replace(",h:", " x ");
                 bean.setDimension(dimensions);
                 bean.addAdditionalInfo(
@@ -1787,14 +1806,8 @@ public class CmsGalleryService extends CmsGwtService implements I_CmsGalleryServ
         }
 
         if (type instanceof CmsResourceTypeXmlContent) {
-            CmsProperty elementModelProperty = cms.readPropertyObject(
-                resultResource,
-                CmsPropertyDefinition.PROPERTY_ELEMENT_MODEL,
-                true);
-            if (!elementModelProperty.isNullProperty()) {
-                if (Boolean.valueOf(elementModelProperty.getValue()).booleanValue()) {
-                    bean.setIsCopyModel(true);
-                }
+            if (Boolean.valueOf(sResult.getElementModel()).booleanValue()) {
+                bean.setIsCopyModel(true);
             }
         }
         bean.setResourceState(resultResource.getState());
@@ -129,6 +129,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Locale;
@@ -244,6 +245,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
     /** "driver.vfs" string in the configuration-file. */
     public static final String CONFIGURATION_VFS = "driver.vfs";
 
+    /** The number of publish tags processed at a time by the bulk history purge. */
+    public static final int HISTORY_PURGE_PUBLISH_TAG_RANGE = 500;
+
     /** DBC attribute key needed to fix publishing behavior involving siblings. */
     public static final String KEY_CHANGED_AND_DELETED = "changedAndDeleted";
 
@@ -337,6 +341,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
     /** Constant mode parameter to read all files and folders in the {@link #readChangedResourcesInsideProject(CmsDbContext, CmsUUID, CmsReadChangedProjectResourceMode)}} method. */
     private static final CmsReadChangedProjectResourceMode RCPRM_FOLDERS_ONLY_MODE = new CmsReadChangedProjectResourceMode();
 
+    /** The minimum page size for reading sorted and limited lists of resources. */
+    private static final int READ_PAGE_SIZE_MIN = 32;
+
     /** The history driver. */
     private I_CmsHistoryDriver m_historyDriver;
 
@@ -1229,7 +1236,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
         copyAccessControlEntries(dbc, source, newResource, false);
 
         // clear the cache
-        m_monitor.clearAccessControlListCache();
+        m_monitor.clearAccessControlListCache(isOnlineChange(dbc));
 
         List<CmsResource> modifiedResources = new ArrayList<CmsResource>();
         modifiedResources.add(source);
@@ -1933,8 +1940,12 @@ public final class CmsDriverManager implements I_CmsEventListener {
             }
         } finally {
             // clear the internal caches
-            m_monitor.clearAccessControlListCache();
-            m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROPERTY, CmsMemoryMonitor.CacheType.PROPERTY_LIST);
+            m_monitor.clearAccessControlListCache(isOnlineChange(dbc));
+            if (newResource != null) {
+                uncachePropertyLists(dbc, newResource, false);
+            } else {
+                m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROPERTY, CmsMemoryMonitor.CacheType.PROPERTY_LIST);
+            }
 
             if (newResource != null) {
                 // fire an event that a new resource has been created
@@ -2100,7 +2111,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
         copyRelations(dbc, source, newResource);
 
         // clear the caches
-        m_monitor.clearAccessControlListCache();
+        m_monitor.clearAccessControlListCache(isOnlineChange(dbc));
 
         List<CmsResource> modifiedResources = new ArrayList<CmsResource>();
         modifiedResources.add(source);
@@ -2289,7 +2300,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
             }
         } finally {
             // clear the driver manager cache
-            m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROPERTY, CmsMemoryMonitor.CacheType.PROPERTY_LIST);
+            if (resource != null) {
+                uncachePropertyLists(dbc, resource, false);
+            }
 
             // fire an event that all properties of a resource have been deleted
             OpenCms.fireCmsEvent(
@@ -2719,8 +2732,8 @@ public final class CmsDriverManager implements I_CmsEventListener {
 
         // unlock all resources in the project
         m_lockManager.removeResourcesInProject(deleteProject.getUuid(), true);
-        m_monitor.clearAccessControlListCache();
-        m_monitor.clearResourceCache();
+        m_monitor.clearAccessControlListCache(isOnlineChange(dbc));
+        m_monitor.clearResourceCache(isOnlineChange(dbc));
 
         // set project to online project if current project is the one which will be deleted
         if (projectId.equals(dbc.currentProject().getUuid())) {
@@ -3051,11 +3064,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
         }
 
         // flush all caches
-        m_monitor.clearAccessControlListCache();
-        m_monitor.flushCache(
-            CmsMemoryMonitor.CacheType.PROPERTY,
-            CmsMemoryMonitor.CacheType.PROPERTY_LIST,
-            CmsMemoryMonitor.CacheType.PROJECT_RESOURCES);
+        m_monitor.clearAccessControlListCache(isOnlineChange(dbc));
+        m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROJECT_RESOURCES);
+        uncachePropertyLists(dbc, resource, true);
 
         Map<String, Object> eventData = new HashMap<String, Object>();
         eventData.put(I_CmsEventListener.KEY_RESOURCES, resources);
@@ -5010,7 +5021,58 @@ public final class CmsDriverManager implements I_CmsEventListener {
         while (i.hasNext()) {
             userDriver.writeAccessControlEntry(dbc, dbc.currentProject(), i.next());
         }
-        m_monitor.clearAccessControlListCache();
+        m_monitor.clearAccessControlListCache(isOnlineChange(dbc));
+    }
+
+    /**
+     * Imports the given relations of a resource, writing them with a single batched statement.<p>
+     *
+     * In contrast to {@link #addRelationToResource(CmsDbContext, CmsResource, CmsResource, CmsRelationType, boolean)},
+     * the source resource is neither touched nor is the change logged, as it is done for a single imported relation.<p>
+     *
+     * Relations which can not be imported, because they are defined in the content or because they do not
+     * have the given resource as source, are skipped one by one and logged, all other relations are imported.<p>
+     *
+     * @param dbc the current database context
+     * @param resource the source resource of the relations
+     * @param relations the relations to import, all with the given resource as source
+     *
+     * @return the relations which were skipped
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsRelation> importRelations(CmsDbContext dbc, CmsResource resource, List<CmsRelation> relations)
+    throws CmsException {
+
+        List<CmsRelation> validRelations = new ArrayList<CmsRelation>(relations.size());
+        List<CmsRelation> skippedRelations = new ArrayList<CmsRelation>();
+        for (CmsRelation relation : relations) {
+            CmsMessageContainer error = null;
+            if (relation.getType().isDefinedInContent()) {
+                error = Messages.get().container(
+                    Messages.ERR_ADD_RELATION_IN_CONTENT_3,
+                    dbc.removeSiteRoot(resource.getRootPath()),
+                    dbc.removeSiteRoot(relation.getTargetPath()),
+                    relation.getType().getLocalizedName(dbc.getRequestContext().getLocale()));
+            } else if (!relation.getSourceId().equals(resource.getStructureId())) {
+                error = Messages.get().container(
+                    Messages.ERR_ADD_RELATION_TO_RESOURCE_3,
+                    dbc.removeSiteRoot(relation.getSourcePath()),
+                    dbc.removeSiteRoot(relation.getTargetPath()),
+                    relation.getType().getLocalizedName(dbc.getRequestContext().getLocale()));
+            }
+            if (error != null) {
+                // only the invalid relation is skipped, as if the relations were imported one by one
+                LOG.warn(error.key(dbc.getRequestContext().getLocale()));
+                skippedRelations.add(relation);
+            } else {
+                validRelations.add(relation);
+            }
+        }
+        if (!validRelations.isEmpty()) {
+            getVfsDriver(dbc).createRelations(dbc, dbc.currentProject().getUuid(), validRelations);
+        }
+        return skippedRelations;
     }
 
     /**
@@ -5409,7 +5471,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
     public void lockResource(CmsDbContext dbc, CmsResource resource, CmsLockType type) throws CmsException {
 
         // update the resource cache
-        m_monitor.clearResourceCache();
+        m_monitor.clearResourceCache(isOnlineChange(dbc));
 
         CmsProject project = dbc.currentProject();
 
@@ -5710,6 +5772,39 @@ public final class CmsDriverManager implements I_CmsEventListener {
         getSubscriptionDriver().markResourceAsVisitedBy(dbc, poolName, resource, user);
     }
 
+    /**
+     * Moves the historical file contents which are still stored in the content table
+     * to the deduplicating history content store.<p>
+     *
+     * @param dbc the current database context
+     * @param batchSize the number of resources to process per batch
+     * @param report the report for output logging
+     *
+     * @throws CmsException if something goes wrong
+     *
+     * @see CmsSecurityManager#migrateHistoryContents(CmsRequestContext, int, I_CmsReport)
+     */
+    public void migrateHistoryContents(CmsDbContext dbc, int batchSize, I_CmsReport report) throws CmsException {
+
+        report.println(
+            Messages.get().container(Messages.RPT_START_MIGRATE_HISTORY_CONTENTS_0),
+            I_CmsReport.FORMAT_HEADLINE);
+        int total = 0;
+        int migrated;
+        do {
+            migrated = getHistoryDriver(dbc).migrateContents(dbc, batchSize);
+            total += migrated;
+            if (migrated > 0) {
+                report.println(
+                    Messages.get().container(Messages.RPT_MIGRATED_HISTORY_CONTENTS_1, Integer.valueOf(total)),
+                    I_CmsReport.FORMAT_NOTE);
+            }
+        } while (migrated > 0);
+        report.println(
+            Messages.get().container(Messages.RPT_END_MIGRATE_HISTORY_CONTENTS_0),
+            I_CmsReport.FORMAT_HEADLINE);
+    }
+
     /**
      * Moves a resource.<p>
      *
@@ -5778,11 +5873,11 @@ public final class CmsDriverManager implements I_CmsEventListener {
         m_lockManager.moveResource(source.getRootPath(), destRes.getRootPath());
 
         // flush all relevant caches
-        m_monitor.clearAccessControlListCache();
-        m_monitor.flushCache(
-            CmsMemoryMonitor.CacheType.PROPERTY,
-            CmsMemoryMonitor.CacheType.PROPERTY_LIST,
-            CmsMemoryMonitor.CacheType.PROJECT_RESOURCES);
+        m_monitor.clearAccessControlListCache(isOnlineChange(dbc));
+        m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROJECT_RESOURCES);
+        // the paths of the moved resources and the inherited properties have changed
+        uncachePropertyLists(dbc, source, true);
+        uncachePropertyLists(dbc, destRes, true);
 
         List<CmsResource> resources = new ArrayList<CmsResource>(4);
         // source
@@ -6036,6 +6131,82 @@ public final class CmsDriverManager implements I_CmsEventListener {
         addPool(pool);
     }
 
+    /**
+     * Deletes the versions from the history tables using the bulk purge.<p>
+     *
+     * The versions to delete, keeping the given number of versions per resource, are computed by the history driver
+     * for ranges of {@link #HISTORY_PURGE_PUBLISH_TAG_RANGE} publish tags at a time, and deleted in database batches
+     * of the given size. Between two ranges, the purge pauses for the given time, so it can run alongside live traffic.<p>
+     *
+     * The versions of deleted resources are removed like in
+     * {@link #deleteHistoricalVersions(CmsDbContext, int, int, long, I_CmsReport)}.<p>
+     *
+     * @param dbc the current database context
+     * @param versionsToKeep number of versions to keep, is ignored if negative
+     * @param versionsDeleted number of versions to keep for deleted resources, is ignored if negative
+     * @param timeDeleted deleted resources older than this will also be deleted, is ignored if negative
+     * @param batchSize the maximal number of statements per database batch
+     * @param pause the time in milliseconds to pause between two publish tag ranges
+     * @param report the report for output logging
+     *
+     * @throws CmsException if operation was not successful
+     */
+    public void purgeHistoricalVersions(
+        CmsDbContext dbc,
+        int versionsToKeep,
+        int versionsDeleted,
+        long timeDeleted,
+        int batchSize,
+        long pause,
+        I_CmsReport report)
+    throws CmsException {
+
+        if (versionsToKeep == 0) {
+            // deleting all versions also needs the folder cleanup of the per resource deletion
+            deleteHistoricalVersions(dbc, versionsToKeep, versionsDeleted, timeDeleted, report);
+            return;
+        }
+        if (versionsToKeep > 0) {
+            report.println(
+                Messages.get().container(Messages.RPT_START_DELETE_ACT_VERSIONS_1, new Integer(versionsToKeep)),
+                I_CmsReport.FORMAT_HEADLINE);
+            I_CmsHistoryDriver historyDriver = getHistoryDriver(dbc);
+            int maxPublishTag = historyDriver.readNextPublishTag(dbc) - 1;
+            int total = 0;
+            for (int from = 1; from <= maxPublishTag; from += HISTORY_PURGE_PUBLISH_TAG_RANGE) {
+                int to = Math.min((from + HISTORY_PURGE_PUBLISH_TAG_RANGE) - 1, maxPublishTag);
+                int cleaned = historyDriver.deleteObsoleteEntries(dbc, versionsToKeep, from, to, batchSize);
+                total += cleaned;
+                report.println(
+                    Messages.get().container(
+                        Messages.RPT_PURGE_VERSIONS_RANGE_4,
+                        new Object[] {
+                            Integer.valueOf(from),
+                            Integer.valueOf(to),
+                            Integer.valueOf(maxPublishTag),
+                            Integer.valueOf(cleaned)}),
+                    I_CmsReport.FORMAT_NOTE);
+                if ((pause > 0) && (to < maxPublishTag)) {
+                    try {
+                        Thread.sleep(pause);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+            report.println(
+                Messages.get().container(Messages.RPT_VERSION_DELETING_1, new Integer(total)),
+                I_CmsReport.FORMAT_OK);
+            report.println(
+                Messages.get().container(Messages.RPT_END_DELETE_ACT_VERSIONS_0),
+                I_CmsReport.FORMAT_HEADLINE);
+        }
+        if ((versionsDeleted >= 0) || (timeDeleted >= 0)) {
+            deleteHistoricalVersions(dbc, -1, versionsDeleted, timeDeleted, report);
+        }
+    }
+
     /**
      * Publishes the given publish job.<p>
      *
@@ -6558,7 +6729,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
                     resource.getRootPath()},
                 dbc);
 
-            resourceList = m_monitor.getCachedResourceList(cacheKey);
+            resourceList = m_monitor.getCachedResourceList(cacheKey, dbc.currentProject().isOnlineProject());
         }
         if ((resourceList == null) || !dbc.getProjectId().isNullUUID()) {
             // read the result form the database
@@ -6571,7 +6742,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
             }
             // cache the sub resources
             if (dbc.getProjectId().isNullUUID()) {
-                m_monitor.cacheResourceList(cacheKey, resourceList);
+                m_monitor.cacheResourceList(cacheKey, resourceList, dbc.currentProject().isOnlineProject());
             }
         }
 
@@ -7174,15 +7345,16 @@ public final class CmsDriverManager implements I_CmsEventListener {
 
         String cp = currentPath.toString();
         CmsUUID projectId = getProjectIdForContext(dbc);
+        boolean online = CmsProject.isOnlineProject(projectId);
 
         // key to cache the resources
         String cacheKey = getCacheKey(null, false, projectId, cp);
         // the current resource
-        CmsResource currentResource = m_monitor.getCachedResource(cacheKey);
+        CmsResource currentResource = m_monitor.getCachedResource(cacheKey, online);
         if ((currentResource == null) || !dbc.getProjectId().isNullUUID()) {
             currentResource = getVfsDriver(dbc).readFolder(dbc, projectId, cp);
             if (dbc.getProjectId().isNullUUID()) {
-                m_monitor.cacheResource(cacheKey, currentResource);
+                m_monitor.cacheResource(cacheKey, currentResource, online);
             }
         }
 
@@ -7204,11 +7376,11 @@ public final class CmsDriverManager implements I_CmsEventListener {
             // read the folder
             cp = currentPath.toString();
             cacheKey = getCacheKey(null, false, projectId, cp);
-            currentResource = m_monitor.getCachedResource(cacheKey);
+            currentResource = m_monitor.getCachedResource(cacheKey, online);
             if ((currentResource == null) || !dbc.getProjectId().isNullUUID()) {
                 currentResource = getVfsDriver(dbc).readFolder(dbc, projectId, cp);
                 if (dbc.getProjectId().isNullUUID()) {
-                    m_monitor.cacheResource(cacheKey, currentResource);
+                    m_monitor.cacheResource(cacheKey, currentResource, online);
                 }
             }
 
@@ -7231,11 +7403,11 @@ public final class CmsDriverManager implements I_CmsEventListener {
             // read the file
             cp = currentPath.toString();
             cacheKey = getCacheKey(null, false, projectId, cp);
-            currentResource = m_monitor.getCachedResource(cacheKey);
+            currentResource = m_monitor.getCachedResource(cacheKey, online);
             if ((currentResource == null) || !dbc.getProjectId().isNullUUID()) {
                 currentResource = getVfsDriver(dbc).readResource(dbc, projectId, cp, filter.includeDeleted());
                 if (dbc.getProjectId().isNullUUID()) {
-                    m_monitor.cacheResource(cacheKey, currentResource);
+                    m_monitor.cacheResource(cacheKey, currentResource, online);
                 }
             }
 
@@ -7388,8 +7560,8 @@ public final class CmsDriverManager implements I_CmsEventListener {
 
         // NOTE: Do not call readPropertyObject(dbc, resource, key, search, null) for performance reasons
 
-        // use the list reading method to obtain all properties for the resource
-        List<CmsProperty> properties = readPropertyObjects(dbc, resource, search);
+        // use the shared property list of the resource, no copy is required for a single lookup
+        List<CmsProperty> properties = readPropertyList(dbc, resource, search);
 
         int i = properties.indexOf(new CmsProperty(key, null, null));
         if (i >= 0) {
@@ -7426,8 +7598,8 @@ public final class CmsDriverManager implements I_CmsEventListener {
         Locale locale)
     throws CmsException {
 
-        // use the list reading method to obtain all properties for the resource
-        List<CmsProperty> properties = readPropertyObjects(dbc, resource, search);
+        // use the shared property list of the resource, no copy is required for a single lookup
+        List<CmsProperty> properties = readPropertyList(dbc, resource, search);
         // create a lookup property object and look this up in the result map
         CmsProperty result = null;
         // handle the case without locale separately to improve performance
@@ -7463,60 +7635,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
     public List<CmsProperty> readPropertyObjects(CmsDbContext dbc, CmsResource resource, boolean search)
     throws CmsException {
 
-        // check if we have the result already cached
-        CmsUUID projectId = getProjectIdForContext(dbc);
-        String cacheKey = getCacheKey(CACHE_ALL_PROPERTIES, search, projectId, resource.getRootPath());
-
-        List<CmsProperty> properties = m_monitor.getCachedPropertyList(cacheKey);
-
-        if ((properties == null) || !dbc.getProjectId().isNullUUID()) {
-            // result not cached, let's look it up in the DB
-            if (search) {
-                boolean cont;
-                properties = new ArrayList<CmsProperty>();
-                List<CmsProperty> parentProperties = null;
-
-                do {
-                    try {
-                        parentProperties = readPropertyObjects(dbc, resource, false);
-
-                        // make sure properties from lower folders "overwrite" properties from upper folders
-                        parentProperties.removeAll(properties);
-                        parentProperties.addAll(properties);
-
-                        properties.clear();
-                        properties.addAll(parentProperties);
-
-                        cont = resource.getRootPath().length() > 1;
-                    } catch (CmsSecurityException se) {
-                        // a security exception (probably no read permission) we return the current result
-                        cont = false;
-                    }
-                    if (cont) {
-                        // no permission check on parent folder is required since we must have "read"
-                        // permissions to read the child resource anyway
-                        resource = readResource(
-                            dbc,
-                            CmsResource.getParentFolder(resource.getRootPath()),
-                            CmsResourceFilter.ALL);
-                    }
-                } while (cont);
-            } else {
-                properties = getVfsDriver(dbc).readPropertyObjects(dbc, dbc.currentProject(), resource);
-                //                for (CmsProperty prop : properties) {
-                //                    prop.setOrigin(resource.getRootPath());
-                //                }
-            }
-
-            // set all properties in the result list as frozen
-            CmsProperty.setFrozen(properties);
-            if (dbc.getProjectId().isNullUUID()) {
-                // store the result in the cache if needed
-                m_monitor.cachePropertyList(cacheKey, properties);
-            }
-        }
-
-        return new ArrayList<CmsProperty>(properties);
+        return new ArrayList<CmsProperty>(readPropertyList(dbc, resource, search));
     }
 
     /**
@@ -7688,6 +7807,52 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return resource;
     }
 
+    /**
+     * Reads the resources with the given structure ids, using the specified resource filter.<p>
+     *
+     * Resources which do not exist, do not match the filter or can not be read by the current user
+     * are left out of the result.<p>
+     *
+     * @param dbc the current database context
+     * @param structureIds the structure ids of the resources to read
+     * @param filter the resource filter to use while reading
+     *
+     * @return the resources that were read, in the order of the given structure ids
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsResource> readResources(
+        CmsDbContext dbc,
+        Collection<CmsUUID> structureIds,
+        CmsResourceFilter filter)
+    throws CmsException {
+
+        if (structureIds.isEmpty()) {
+            return new ArrayList<CmsResource>();
+        }
+        CmsUUID projectId = getProjectIdForContext(dbc);
+        List<CmsResource> resourceList = getVfsDriver(dbc).readResources(
+            dbc,
+            projectId,
+            structureIds,
+            filter.includeDeleted());
+        resourceList = filterPermissions(dbc, resourceList, filter);
+        // restore the order of the given structure ids
+        Map<CmsUUID, CmsResource> resourcesById = new HashMap<CmsUUID, CmsResource>();
+        for (CmsResource resource : resourceList) {
+            resourcesById.put(resource.getStructureId(), resource);
+        }
+        List<CmsResource> result = new ArrayList<CmsResource>(resourcesById.size());
+        for (CmsUUID structureId : structureIds) {
+            CmsResource resource = resourcesById.remove(structureId);
+            if (resource != null) {
+                result.add(resource);
+            }
+        }
+        // apply the time range of the filter and update the context dates
+        return updateContextDates(dbc, result, filter);
+    }
+
     /**
      * Reads all resources below the given path matching the filter criteria,
      * including the full tree below the path only in case the <code>readTree</code>
@@ -7715,7 +7880,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
             new String[] {dbc.currentUser().getName(), filter.getCacheId(), readTree ? "+" : "-", parent.getRootPath()},
             dbc);
 
-        List<CmsResource> resourceList = m_monitor.getCachedResourceList(cacheKey);
+        List<CmsResource> resourceList = m_monitor.getCachedResourceList(cacheKey, dbc.currentProject().isOnlineProject());
         if ((resourceList == null) || !dbc.getProjectId().isNullUUID()) {
             // read the result from the database
             resourceList = getVfsDriver(dbc).readResourceTree(
@@ -7746,13 +7911,128 @@ public final class CmsDriverManager implements I_CmsEventListener {
             }
             // store the result in the resourceList cache
             if (dbc.getProjectId().isNullUUID()) {
-                m_monitor.cacheResourceList(cacheKey, resourceList);
+                m_monitor.cacheResourceList(cacheKey, resourceList, dbc.currentProject().isOnlineProject());
             }
         }
         // we must always apply the result filter and update the context dates
         return updateContextDates(dbc, resourceList, filter);
     }
 
+    /**
+     * Reads the first resources below the given path matching the filter criteria, sorted by the given order.<p>
+     *
+     * The sorting and limiting is done by the database. Since permissions and the time range of the filter
+     * are checked after reading, the resources are read in pages larger than the requested number of results,
+     * until enough resources passed these checks or no more resources are available.
+     * For orders the database may sort differently with its collation, all resources are read and sorted
+     * in memory instead, see {@link CmsResourceOrder#isSortedByDatabase()}.<p>
+     *
+     * @param dbc the current database context
+     * @param parent the parent path to read the resources from
+     * @param filter the filter
+     * @param readTree <code>true</code> to read all subresources
+     * @param order the sort order
+     * @param maxResults the maximum number of resources to return, if not positive, all resources are returned
+     *
+     * @return a list of <code>{@link CmsResource}</code> objects matching the filter criteria, sorted by the given order
+     *
+     * @throws CmsDataAccessException if the bare reading of the resources fails
+     * @throws CmsException if security and permission checks for the resources read fail
+     */
+    public List<CmsResource> readResources(
+        CmsDbContext dbc,
+        CmsResource parent,
+        CmsResourceFilter filter,
+        boolean readTree,
+        CmsResourceOrder order,
+        int maxResults)
+    throws CmsException, CmsDataAccessException {
+
+        if ((maxResults <= 0) || !order.isSortedByDatabase()) {
+            List<CmsResource> result = readResources(dbc, parent, filter, readTree);
+            Collections.sort(result, order.getComparator());
+            return maxResults > 0 ? shrinkResourceList(result, maxResults) : result;
+        }
+        boolean online = dbc.currentProject().isOnlineProject();
+        String[] keys = new String[] {
+            dbc.currentUser().getName(),
+            filter.getCacheId(),
+            readTree ? "+" : "-",
+            parent.getRootPath(),
+            order.name(),
+            String.valueOf(maxResults),
+            ""};
+        // complete lists contain all matching resources, partial lists only the resources of the pages read
+        keys[keys.length - 1] = "*";
+        String completeCacheKey = getCacheKey(keys, dbc);
+        keys[keys.length - 1] = "#";
+        String partialCacheKey = getCacheKey(keys, dbc);
+        boolean useCache = dbc.getProjectId().isNullUUID();
+        if (useCache) {
+            List<CmsResource> resourceList = m_monitor.getCachedResourceList(completeCacheKey, online);
+            if (resourceList != null) {
+                return shrinkResourceList(updateContextDates(dbc, resourceList, filter), maxResults);
+            }
+            resourceList = m_monitor.getCachedResourceList(partialCacheKey, online);
+            if (resourceList != null) {
+                List<CmsResource> result = updateContextDates(dbc, resourceList, filter);
+                if (result.size() >= maxResults) {
+                    return shrinkResourceList(result, maxResults);
+                }
+                // some of the cached resources have expired in the meantime, so read the resources again
+            }
+        }
+
+        int pageSize = Math.max(2 * maxResults, READ_PAGE_SIZE_MIN);
+        List<CmsResource> resourceList = new ArrayList<CmsResource>();
+        int validCount = 0;
+        boolean complete = false;
+        for (int page = 1; !complete && (validCount < maxResults); page++) {
+            List<CmsResource> pageList = getVfsDriver(dbc).readResourceTree(
+                dbc,
+                dbc.currentProject().getUuid(),
+                (readTree ? parent.getRootPath() : parent.getStructureId().toString()),
+                filter.getType(),
+                filter.getState(),
+                filter.getModifiedAfter(),
+                filter.getModifiedBefore(),
+                filter.getReleaseAfter(),
+                filter.getReleaseBefore(),
+                filter.getExpireAfter(),
+                filter.getExpireBefore(),
+                (readTree ? CmsDriverManager.READMODE_INCLUDE_TREE : CmsDriverManager.READMODE_EXCLUDE_TREE)
+                    | (filter.excludeType() ? CmsDriverManager.READMODE_EXCLUDE_TYPE : 0)
+                    | (filter.excludeState() ? CmsDriverManager.READMODE_EXCLUDE_STATE : 0)
+                    | ((filter.getOnlyFolders() != null)
+                    ? (filter.getOnlyFolders().booleanValue()
+                    ? CmsDriverManager.READMODE_ONLY_FOLDERS
+                    : CmsDriverManager.READMODE_ONLY_FILES)
+                    : 0),
+                order,
+                pageSize,
+                page);
+            complete = pageList.size() < pageSize;
+            // HACK: do not take care of permissions if reading organizational units
+            if (!parent.getRootPath().startsWith("/system/orgunits/")) {
+                // apply permission filter
+                pageList = filterPermissions(dbc, pageList, filter);
+            }
+            for (CmsResource resource : pageList) {
+                if (filter.isValid(dbc.getRequestContext(), resource)) {
+                    validCount++;
+                }
+            }
+            resourceList.addAll(pageList);
+        }
+        // resources with the same sort value may be returned in any order, so sort again like unlimited reads
+        Collections.sort(resourceList, order.getComparator());
+        if (useCache) {
+            m_monitor.cacheResourceList(complete ? completeCacheKey : partialCacheKey, resourceList, online);
+        }
+        // we must always apply the result filter and update the context dates
+        return shrinkResourceList(updateContextDates(dbc, resourceList, filter), maxResults);
+    }
+
     /**
      * Returns the resources that were visited by a user set in the filter.<p>
      *
@@ -7819,7 +8099,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
                     filter.getCacheId()},
                 dbc);
         }
-        List<CmsResource> resourceList = m_monitor.getCachedResourceList(cacheKey);
+        List<CmsResource> resourceList = m_monitor.getCachedResourceList(cacheKey, dbc.currentProject().isOnlineProject());
         if ((resourceList == null) || !dbc.getProjectId().isNullUUID()) {
             // first read the property definition
             CmsPropertyDefinition propDef = readPropertyDefinition(dbc, propertyDefinition);
@@ -7834,7 +8114,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
             resourceList = filterPermissions(dbc, resourceList, filter);
             // store the result in the resourceList cache
             if (dbc.getProjectId().isNullUUID()) {
-                m_monitor.cacheResourceList(cacheKey, resourceList);
+                m_monitor.cacheResourceList(cacheKey, resourceList, dbc.currentProject().isOnlineProject());
             }
         }
         // we must always apply the result filter and update the context dates
@@ -8408,7 +8688,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
         if ((properties != null) && !properties.isEmpty()) {
             // write the properties
             getVfsDriver(dbc).writePropertyObjects(dbc, dbc.currentProject(), resource, properties);
-            m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROPERTY, CmsMemoryMonitor.CacheType.PROPERTY_LIST);
+            uncachePropertyLists(dbc, resource, false);
         }
 
         // update the resource state
@@ -8434,7 +8714,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
         deleteRelationsWithSiblings(dbc, resource);
 
         // clear the cache
-        m_monitor.clearResourceCache();
+        m_monitor.clearResourceCache(isOnlineChange(dbc));
 
         if ((properties != null) && !properties.isEmpty()) {
             // resource and properties were modified
@@ -8746,7 +9026,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
             // write them to the restored resource
             writePropertyObjects(dbc, newResource, historyProperties, false);
 
-            m_monitor.clearResourceCache();
+            m_monitor.clearResourceCache(isOnlineChange(dbc));
         }
 
         Map<String, Object> data = new HashMap<String, Object>(2);
@@ -8851,7 +9131,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
             false);
 
         // clear the cache
-        m_monitor.clearResourceCache();
+        m_monitor.clearResourceCache(isOnlineChange(dbc));
 
         // fire the event
         Map<String, Object> data = new HashMap<String, Object>(2);
@@ -8896,7 +9176,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
             false);
 
         // clear the cache
-        m_monitor.clearResourceCache();
+        m_monitor.clearResourceCache(isOnlineChange(dbc));
 
         // fire the event
         Map<String, Object> data = new HashMap<String, Object>(2);
@@ -8940,7 +9220,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
             false);
 
         // clear the cache
-        m_monitor.clearResourceCache();
+        m_monitor.clearResourceCache(isOnlineChange(dbc));
 
         // fire the event
         Map<String, Object> data = new HashMap<String, Object>(2);
@@ -9113,7 +9393,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
                 new String[] {resource.getRootPath()}),
             false);
         // clear the cache
-        m_monitor.clearResourceCache();
+        m_monitor.clearResourceCache(isOnlineChange(dbc));
 
         // fire change event
         Map<String, Object> data = new HashMap<String, Object>(2);
@@ -9224,7 +9504,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
     throws CmsException {
 
         // update the resource cache
-        m_monitor.clearResourceCache();
+        m_monitor.clearResourceCache(isOnlineChange(dbc));
 
         // now update lock status
         m_lockManager.removeResource(dbc, resource, force, removeSystemLock);
@@ -9819,7 +10099,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
         deleteRelationsWithSiblings(dbc, resource);
 
         // update the cache
-        m_monitor.clearResourceCache();
+        m_monitor.clearResourceCache(isOnlineChange(dbc));
 
         Map<String, Object> data = new HashMap<String, Object>(2);
         data.put(I_CmsEventListener.KEY_RESOURCE, resource);
@@ -10010,8 +10290,8 @@ public final class CmsDriverManager implements I_CmsEventListener {
 
         } finally {
             // update the driver manager cache
-            m_monitor.clearResourceCache();
-            m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROPERTY, CmsMemoryMonitor.CacheType.PROPERTY_LIST);
+            m_monitor.clearResourceCache(isOnlineChange(dbc));
+            uncachePropertyLists(dbc, resource, false);
 
             // fire an event that a property of a resource has been modified
             Map<String, Object> data = new HashMap<String, Object>();
@@ -10094,8 +10374,8 @@ public final class CmsDriverManager implements I_CmsEventListener {
             }
         } finally {
             // update the driver manager cache
-            m_monitor.clearResourceCache();
-            m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROPERTY, CmsMemoryMonitor.CacheType.PROPERTY_LIST);
+            m_monitor.clearResourceCache(isOnlineChange(dbc));
+            uncachePropertyLists(dbc, resource, false);
 
             // fire an event that the properties of a resource have been modified
             OpenCms.fireCmsEvent(
@@ -10163,7 +10443,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
         }
 
         // update the cache
-        m_monitor.clearResourceCache();
+        m_monitor.clearResourceCache(isOnlineChange(dbc));
         Map<String, Object> data = new HashMap<String, Object>(2);
         data.put(I_CmsEventListener.KEY_RESOURCE, resource);
         data.put(I_CmsEventListener.KEY_CHANGE, new Integer(CHANGED_RESOURCE));
@@ -11467,6 +11747,21 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return allUsers;
     }
 
+    /**
+     * Checks if a change made with the given database context may affect the resources read in the online project.<p>
+     *
+     * Changes in an offline project are only visible in offline projects until they are published,
+     * and publishing clears all caches anyway.<p>
+     *
+     * @param dbc the current database context
+     *
+     * @return <code>false</code> if only the caches for offline projects need to be cleared
+     */
+    private boolean isOnlineChange(CmsDbContext dbc) {
+
+        return !dbc.getProjectId().isNullUUID() || dbc.currentProject().isOnlineProject();
+    }
+
     /**
      * Reads all resources that are inside and changed in a specified project.<p>
      *
@@ -11543,6 +11838,105 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return result;
     }
 
+    /**
+     * Reads the list of property objects of a resource, either from the cache or from the database.<p>
+     *
+     * When searching, the properties are resolved level by level: the result for a resource is built from
+     * its own properties and the (cached) search result of its parent folder, so all resources in a folder
+     * share the inherited properties of the folder instead of walking up the folder chain again.<p>
+     *
+     * The returned list is frozen and may be shared with the cache, so it must not be modified.<p>
+     *
+     * @param dbc the current database context
+     * @param resource the resource where the properties are read from
+     * @param search true, if the properties should be searched on all parent folders  if not found on the resource
+     *
+     * @return the (shared) list of property objects of the resource
+     *
+     * @throws CmsException if something goes wrong
+     */
+    private List<CmsProperty> readPropertyList(CmsDbContext dbc, CmsResource resource, boolean search)
+    throws CmsException {
+
+        // check if we have the result already cached
+        CmsUUID projectId = getProjectIdForContext(dbc);
+        String cacheKey = getCacheKey(CACHE_ALL_PROPERTIES, search, projectId, resource.getRootPath());
+
+        List<CmsProperty> properties = m_monitor.getCachedPropertyList(cacheKey);
+
+        if ((properties == null) || !dbc.getProjectId().isNullUUID()) {
+            // result not cached, let's look it up in the DB
+            boolean complete = true;
+            if (search) {
+                List<CmsProperty> ownProperties;
+                try {
+                    ownProperties = readPropertyList(dbc, resource, false);
+                } catch (CmsSecurityException se) {
+                    // a security exception (probably no read permission), return the (empty) result found so far
+                    ownProperties = Collections.emptyList();
+                    complete = false;
+                }
+                List<CmsProperty> parentProperties = Collections.emptyList();
+                if (complete && (resource.getRootPath().length() > 1)) {
+                    try {
+                        // no permission check on parent folder is required since we must have "read"
+                        // permissions to read the child resource anyway
+                        CmsResource parent = readResource(
+                            dbc,
+                            CmsResource.getParentFolder(resource.getRootPath()),
+                            CmsResourceFilter.ALL);
+                        parentProperties = readPropertyList(dbc, parent, true);
+                    } catch (CmsSecurityException se) {
+                        // a security exception (probably no read permission), only use the properties found so far
+                    }
+                }
+                // make sure properties from lower folders "overwrite" properties from upper folders
+                Map<String, CmsProperty> merged = new LinkedHashMap<String, CmsProperty>(
+                    2 * (parentProperties.size() + ownProperties.size()));
+                for (CmsProperty property : parentProperties) {
+                    merged.put(property.getName(), property);
+                }
+                for (CmsProperty property : ownProperties) {
+                    // remove first, so the overwriting property is appended at the end like before
+                    merged.remove(property.getName());
+                    merged.put(property.getName(), property);
+                }
+                properties = new ArrayList<CmsProperty>(merged.values());
+            } else {
+                properties = getVfsDriver(dbc).readPropertyObjects(dbc, dbc.currentProject(), resource);
+            }
+
+            // set all properties in the result list as frozen
+            CmsProperty.setFrozen(properties);
+            if (complete && dbc.getProjectId().isNullUUID()) {
+                // store the result in the cache if needed, but not a result cut short by missing permissions
+                m_monitor.cachePropertyList(
+                    cacheKey,
+                    resource,
+                    search,
+                    CmsProject.isOnlineProject(projectId),
+                    properties);
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * Cuts off a list of resources after the given number of resources.<p>
+     *
+     * @param resourceList the list of resources
+     * @param maxResults the maximum number of resources
+     *
+     * @return the shortened list of resources
+     */
+    private List<CmsResource> shrinkResourceList(List<CmsResource> resourceList, int maxResults) {
+
+        if (resourceList.size() > maxResults) {
+            return new ArrayList<CmsResource>(resourceList.subList(0, maxResults));
+        }
+        return resourceList;
+    }
+
     /**
      * Sorts the given list of {@link CmsAccessControlEntry} objects.<p>
      *
@@ -11649,6 +12043,21 @@ public final class CmsDriverManager implements I_CmsEventListener {
         }
     }
 
+    /**
+     * Removes the cached property lists affected by a change of the given resource in the current project.<p>
+     *
+     * @param dbc the current database context
+     * @param resource the changed resource
+     * @param tree <code>true</code> if the resource has been moved or deleted, so the property lists
+     *      of all resources below it are affected
+     */
+    private void uncachePropertyLists(CmsDbContext dbc, CmsResource resource, boolean tree) {
+
+        // the property cache is not indexed by resource, but also not filled by the driver manager
+        m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROPERTY);
+        m_monitor.uncachePropertyLists(resource, dbc.currentProject().isOnlineProject(), tree);
+    }
+
     /**
      * Undoes all content changes of a resource.<p>
      *
@@ -11840,8 +12249,11 @@ public final class CmsDriverManager implements I_CmsEventListener {
         }
 
         // update the cache
-        m_monitor.clearResourceCache();
-        m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROPERTY, CmsMemoryMonitor.CacheType.PROPERTY_LIST);
+        m_monitor.clearResourceCache(isOnlineChange(dbc));
+        uncachePropertyLists(dbc, onlineResource, moveUndone);
+        if (offlineResource != null) {
+            uncachePropertyLists(dbc, offlineResource, moveUndone);
+        }
 
         if ((offlineResource == null) || offlineResource.getRootPath().equals(onlineResource.getRootPath())) {
             log(
@@ -0,0 +1,111 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.db;
+
+import org.opencms.file.I_CmsResource;
+
+import java.util.Collections;
+import java.util.Comparator;
+
+/**
+ * Sort orders for reading a limited number of resources from a resource tree.<p>
+ *
+ * Each order corresponds to an ORDER BY clause of the VFS driver and to a comparator
+ * which sorts the resources in memory the same way.<p>
+ *
+ * @since 11.0.0
+ */
+public enum CmsResourceOrder {
+
+    /** Descending by release date, resources without release date are sorted by their last modification date. */
+    DATE_RELEASED_DESC("C_RESOURCES_ORDER_BY_DATE_RELEASED_DESC", I_CmsResource.COMPARE_DATE_RELEASED, true),
+
+    /**
+     * Descending by root path.<p>
+     *
+     * The database compares paths with its own collation, which may differ from the Java string order,
+     * so the first resources in this order can not be selected by the database.<p>
+     */
+    ROOT_PATH_DESC("C_RESOURCES_ORDER_BY_PATH_DESC", Collections.reverseOrder(I_CmsResource.COMPARE_ROOT_PATH), false);
+
+    /** The comparator matching the sort order. */
+    private final Comparator<I_CmsResource> m_comparator;
+
+    /** The key of the SQL query fragment for the ORDER BY clause. */
+    private final String m_queryKey;
+
+    /** True if the database sorts exactly like the comparator. */
+    private final boolean m_sortedByDatabase;
+
+    /**
+     * Creates a new sort order.<p>
+     *
+     * @param queryKey the key of the SQL query fragment for the ORDER BY clause
+     * @param comparator the comparator matching the sort order
+     * @param sortedByDatabase true if the database sorts exactly like the comparator
+     */
+    private CmsResourceOrder(String queryKey, Comparator<I_CmsResource> comparator, boolean sortedByDatabase) {
+
+        m_queryKey = queryKey;
+        m_comparator = comparator;
+        m_sortedByDatabase = sortedByDatabase;
+    }
+
+    /**
+     * Returns the comparator which sorts resources in memory by this order.<p>
+     *
+     * @return the comparator
+     */
+    public Comparator<I_CmsResource> getComparator() {
+
+        return m_comparator;
+    }
+
+    /**
+     * Returns the key of the SQL query fragment for the ORDER BY clause, without the ORDER BY keyword.<p>
+     *
+     * @return the query key
+     */
+    public String getQueryKey() {
+
+        return m_queryKey;
+    }
+
+    /**
+     * Returns if the database sorts exactly like the comparator of this order, regardless of its collation.<p>
+     *
+     * Only then the database can select the first resources in this order, otherwise all resources
+     * must be read and sorted in memory.<p>
+     *
+     * @return <code>true</code> if the database sorts exactly like the comparator
+     */
+    public boolean isSortedByDatabase() {
+
+        return m_sortedByDatabase;
+    }
+}
@@ -3224,6 +3224,42 @@ public final class CmsSecurityManager {
         }
     }
 
+    /**
+     * Imports the given relations of a resource.<p>
+     *
+     * @param context the current request context
+     * @param resource the source resource of the relations
+     * @param relations the relations to import
+     *
+     * @return the relations which were skipped because they can not be imported
+     *
+     * @throws CmsException if something goes wrong
+     *
+     * @see CmsObject#importRelations(CmsResource, List)
+     */
+    public List<CmsRelation> importRelations(
+        CmsRequestContext context,
+        CmsResource resource,
+        List<CmsRelation> relations)
+    throws CmsException {
+
+        List<CmsRelation> result = null;
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            checkOfflineProject(dbc);
+            checkPermissions(dbc, resource, CmsPermissionSet.ACCESS_WRITE, true, CmsResourceFilter.ALL);
+            result = m_driverManager.importRelations(dbc, resource, relations);
+        } catch (Exception e) {
+            dbc.report(
+                null,
+                Messages.get().container(Messages.ERR_IMPORT_RELATIONS_1, context.getSitePath(resource)),
+                e);
+        } finally {
+            dbc.clear();
+        }
+        return result;
+    }
+
     /**
      * Creates a new resource with the provided content and properties.<p>
      *
@@ -3724,6 +3760,31 @@ public final class CmsSecurityManager {
         return ret;
     }
 
+    /**
+     * Moves the historical file contents which are still stored in the content table
+     * to the deduplicating history content store.<p>
+     *
+     * @param context the current request context
+     * @param batchSize the number of resources to process per batch
+     * @param report the report for output logging
+     *
+     * @throws CmsException if operation was not successful
+     * @throws CmsRoleViolationException if the current user does not own the role {@link CmsRole#WORKPLACE_MANAGER}
+     */
+    public void migrateHistoryContents(CmsRequestContext context, int batchSize, I_CmsReport report)
+    throws CmsException, CmsRoleViolationException {
+
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            checkRole(dbc, CmsRole.WORKPLACE_MANAGER.forOrgUnit(null));
+            m_driverManager.migrateHistoryContents(dbc, batchSize, report);
+        } catch (Exception e) {
+            dbc.report(null, Messages.get().container(Messages.ERR_MIGRATE_HISTORY_CONTENTS_0), e);
+        } finally {
+            dbc.clear();
+        }
+    }
+
     /**
      * Moves a resource.<p>
      *
@@ -3865,6 +3926,61 @@ public final class CmsSecurityManager {
         return publishList.getPublishHistoryId();
     }
 
+    /**
+     * Deletes the versions from the history tables using the bulk purge.<p>
+     *
+     * @param context the current request context
+     * @param versionsToKeep number of versions to keep, is ignored if negative
+     * @param versionsDeleted number of versions to keep for deleted resources, is ignored if negative
+     * @param timeDeleted deleted resources older than this will also be deleted, is ignored if negative
+     * @param batchSize the maximal number of statements per database batch
+     * @param pause the time in milliseconds to pause between two publish tag ranges
+     * @param report the report for output logging
+     *
+     * @throws CmsException if operation was not successful
+     * @throws CmsRoleViolationException if the current user does not own the role {@link CmsRole#WORKPLACE_MANAGER}
+     *
+     * @see #deleteHistoricalVersions(CmsRequestContext, int, int, long, I_CmsReport)
+     */
+    public void purgeHistoricalVersions(
+        CmsRequestContext context,
+        int versionsToKeep,
+        int versionsDeleted,
+        long timeDeleted,
+        int batchSize,
+        long pause,
+        I_CmsReport report)
+    throws CmsException, CmsRoleViolationException {
+
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            CmsFolder root = readFolder(dbc, "/", CmsResourceFilter.ALL);
+            checkRole(dbc, CmsRole.WORKPLACE_MANAGER.forOrgUnit(null));
+            checkPermissions(dbc, root, CmsPermissionSet.ACCESS_WRITE, false, CmsResourceFilter.ALL);
+            m_driverManager.purgeHistoricalVersions(
+                dbc,
+                versionsToKeep,
+                versionsDeleted,
+                timeDeleted,
+                batchSize,
+                pause,
+                report);
+        } catch (Exception e) {
+            dbc.report(
+                null,
+                Messages.get().container(
+                    Messages.ERR_DELETE_HISTORY_4,
+                    new Object[] {
+                        "/",
+                        new Integer(versionsToKeep),
+                        new Integer(versionsDeleted),
+                        new Date(timeDeleted)}),
+                e);
+        } finally {
+            dbc.clear();
+        }
+    }
+
     /**
      * Reads the alias with a given path in a given site.<p>
      *
@@ -5077,6 +5193,43 @@ public final class CmsSecurityManager {
         return result;
     }
 
+    /**
+     * Reads the resources with the given structure ids, using the specified resource filter.<p>
+     *
+     * Resources which do not exist, do not match the filter or can not be read by the current user
+     * are left out of the result.<p>
+     *
+     * @param context the current request context
+     * @param structureIds the structure ids of the resources to read
+     * @param filter the resource filter to use while reading
+     *
+     * @return the resources that were read, in the order of the given structure ids
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsResource> readResources(
+        CmsRequestContext context,
+        Collection<CmsUUID> structureIds,
+        CmsResourceFilter filter)
+    throws CmsException {
+
+        List<CmsResource> result = null;
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            result = m_driverManager.readResources(dbc, structureIds, filter);
+        } catch (Exception e) {
+            dbc.report(
+                null,
+                Messages.get().container(
+                    Messages.ERR_READ_RESOURCES_FOR_IDS_1,
+                    Integer.valueOf(structureIds.size())),
+                e);
+        } finally {
+            dbc.clear();
+        }
+        return result;
+    }
+
     /**
      * Reads all resources below the given path matching the filter criteria,
      * including the full tree below the path only in case the <code>readTree</code>
@@ -5117,6 +5270,49 @@ public final class CmsSecurityManager {
         return result;
     }
 
+    /**
+     * Reads the first resources below the given path matching the filter criteria, sorted by the given order,
+     * including the full tree below the path only in case the <code>readTree</code>
+     * parameter is <code>true</code>.<p>
+     *
+     * @param context the current request context
+     * @param parent the parent path to read the resources from
+     * @param filter the filter
+     * @param readTree <code>true</code> to read all subresources
+     * @param order the sort order
+     * @param maxResults the maximum number of resources to return, if not positive, all resources are returned
+     *
+     * @return a list of <code>{@link CmsResource}</code> objects matching the filter criteria, sorted by the given order
+     *
+     * @throws CmsSecurityException if the user has insufficient permission for the given resource (read is required)
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsResource> readResources(
+        CmsRequestContext context,
+        CmsResource parent,
+        CmsResourceFilter filter,
+        boolean readTree,
+        CmsResourceOrder order,
+        int maxResults)
+    throws CmsException, CmsSecurityException {
+
+        List<CmsResource> result = null;
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            // check the access permissions
+            checkPermissions(dbc, parent, CmsPermissionSet.ACCESS_READ, true, CmsResourceFilter.ALL);
+            result = m_driverManager.readResources(dbc, parent, filter, readTree, order, maxResults);
+        } catch (Exception e) {
+            dbc.report(
+                null,
+                Messages.get().container(Messages.ERR_READ_RESOURCES_1, context.removeSiteRoot(parent.getRootPath())),
+                e);
+        } finally {
+            dbc.clear();
+        }
+        return result;
+    }
+
     /**
      * Returns the resources that were visited by a user set in the filter.<p>
      *
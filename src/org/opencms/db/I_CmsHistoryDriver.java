@@ -86,6 +86,27 @@ public interface I_CmsHistoryDriver {
     int deleteEntries(CmsDbContext dbc, I_CmsHistoryResource histResource, int versionsToKeep, long time)
     throws CmsDataAccessException;
 
+    /**
+     * Deletes the historical versions published in the given publish tag range which are no longer needed
+     * to keep <code>versionsToKeep</code> versions of each resource.<p>
+     *
+     * In contrast to {@link #deleteEntries(CmsDbContext, I_CmsHistoryResource, int, long)}, the versions to delete
+     * are computed for all resources of the publish tag range with a single query, and the deletions are
+     * executed as JDBC batches of at most <code>batchSize</code> statements.<p>
+     *
+     * @param dbc the current database context
+     * @param versionsToKeep the number of versions to keep, must be greater than zero
+     * @param minPublishTag the first publish tag of the range
+     * @param maxPublishTag the last publish tag of the range
+     * @param batchSize the maximal number of statements per JDBC batch
+     *
+     * @return the number of resources for which versions were deleted
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    int deleteObsoleteEntries(CmsDbContext dbc, int versionsToKeep, int minPublishTag, int maxPublishTag, int batchSize)
+    throws CmsDataAccessException;
+
     /**
      * Deletes a property definition.<p>
      *
@@ -141,6 +162,23 @@ public interface I_CmsHistoryDriver {
      */
     CmsSqlManager initSqlManager(String classname);
 
+    /**
+     * Moves historical file contents to the deduplicating history content store.<p>
+     *
+     * Publishing writes the historical contents to the content table as before, so that it is not slowed
+     * down by the content store. This method has to be called regularly to move them to the content store,
+     * and also migrates the historical contents written before the content store was enabled.
+     * It does nothing if the content store is not enabled for this driver.<p>
+     *
+     * @param dbc the current database context
+     * @param maxResources the maximum number of resources to process in this call
+     *
+     * @return the number of moved historical contents, zero if there is nothing left to migrate
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    int migrateContents(CmsDbContext dbc, int maxResources) throws CmsDataAccessException;
+
     /**
      * Reads all file headers of the resource with the given structure id.<p>
      *
@@ -184,6 +184,18 @@ public interface I_CmsVfsDriver {
      */
     void createRelation(CmsDbContext dbc, CmsUUID projectId, CmsRelation relation) throws CmsDataAccessException;
 
+    /**
+     * Creates new {@link CmsRelation} objects in the database, using a single batched statement.<p>
+     *
+     * @param dbc the current database context
+     * @param projectId the id of the project to execute the query in
+     * @param relations the relations to create
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    void createRelations(CmsDbContext dbc, CmsUUID projectId, List<CmsRelation> relations)
+    throws CmsDataAccessException;
+
     /**
      * Creates a new resource from a given {@link CmsResource} object.<p>
      *
@@ -613,6 +625,27 @@ public interface I_CmsVfsDriver {
     CmsResource readResource(CmsDbContext dbc, CmsUUID projectId, String filename, boolean includeDeleted)
     throws CmsDataAccessException;
 
+    /**
+     * Reads the resources with the given structure ids.<p>
+     *
+     * Structure ids for which no resource exists are ignored, and the order of the result is not defined.<p>
+     *
+     * @param dbc the current database context
+     * @param projectId the id of the project
+     * @param structureIds the structure ids of the resources to read
+     * @param includeDeleted <code>true</code> if already deleted resources are included
+     *
+     * @return the resources that were read
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    List<CmsResource> readResources(
+        CmsDbContext dbc,
+        CmsUUID projectId,
+        Collection<CmsUUID> structureIds,
+        boolean includeDeleted)
+    throws CmsDataAccessException;
+
     /**
      * Reads all resources inside a given project and with a given state.<p>
      *
@@ -732,6 +765,51 @@ public interface I_CmsVfsDriver {
         long expiredBefore,
         int mode) throws CmsDataAccessException;
 
+    /**
+     * Reads one page of the resources inside a given project matching the criteria specified by parameter values,
+     * sorted by the given order.<p>
+     *
+     * This works like {@link #readResourceTree(CmsDbContext, CmsUUID, String, int, CmsResourceState, long, long, long, long, long, long, int)},
+     * but the sorting and limiting is done by the database, so only the requested page of resources is read.<p>
+     *
+     * @param dbc the current database context
+     * @param projectId the project id for matching resources
+     * @param parent the path to the resource used as root of the searched subtree or the UUID of the parent folder,
+     *               see {@link #readResourceTree(CmsDbContext, CmsUUID, String, int, CmsResourceState, long, long, long, long, long, long, int)}
+     * @param type the resource type of matching resources or {@link CmsDriverManager#READ_IGNORE_TYPE}
+     * @param state the state of matching resources or <code>null</code> to ignore
+     * @param startTime the start of the time range for the last modification date of matching resources or READ_IGNORE_TIME
+     * @param endTime the end of the time range for the last modification date of matching resources or READ_IGNORE_TIME
+     * @param releasedAfter the start of the time range for the release date of matching resources
+     * @param releasedBefore the end of the time range for the release date of matching resources
+     * @param expiredAfter the start of the time range for the expire date of matching resources
+     * @param expiredBefore the end of the time range for the expire date of matching resources
+     * @param mode additional mode flags, see {@link #readResourceTree(CmsDbContext, CmsUUID, String, int, CmsResourceState, long, long, long, long, long, long, int)}
+     * @param order the sort order
+     * @param pageSize the maximum number of resources to read
+     * @param page the page to read (counting starts at 1)
+     *
+     * @return the requested page of the CmsResource objects matching the given criteria, sorted by the given order
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    List<CmsResource> readResourceTree(
+        CmsDbContext dbc,
+        CmsUUID projectId,
+        String parent,
+        int type,
+        CmsResourceState state,
+        long startTime,
+        long endTime,
+        long releasedAfter,
+        long releasedBefore,
+        long expiredAfter,
+        long expiredBefore,
+        int mode,
+        CmsResourceOrder order,
+        int pageSize,
+        int page) throws CmsDataAccessException;
+
     /**
      * Reads the rewrite aliases matching a given filter.<p>
      *
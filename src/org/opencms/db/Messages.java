@@ -327,6 +327,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_IMPORT_FOLDER_2 = "ERR_IMPORT_FOLDER_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_IMPORT_RELATIONS_1 = "ERR_IMPORT_RELATIONS_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_IMPORT_RESOURCE_2 = "ERR_IMPORT_RESOURCE_2";
 
@@ -363,6 +366,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_MERGING_PUBLISH_LISTS_0 = "ERR_MERGING_PUBLISH_LISTS_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_MIGRATE_HISTORY_CONTENTS_0 = "ERR_MIGRATE_HISTORY_CONTENTS_0";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_MODE_ENUM_PARSE_2 = "ERR_MODE_ENUM_PARSE_2";
 
@@ -534,6 +540,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_READ_RESOURCES_1 = "ERR_READ_RESOURCES_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_READ_RESOURCES_FOR_IDS_1 = "ERR_READ_RESOURCES_FOR_IDS_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_READ_RESOURCES_FOR_PRINCIPAL_LOG_1 = "ERR_READ_RESOURCES_FOR_PRINCIPAL_LOG_1";
 
@@ -909,6 +918,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String RPT_END_DELETE_VERSIONS_0 = "RPT_END_DELETE_VERSIONS_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_END_MIGRATE_HISTORY_CONTENTS_0 = "RPT_END_MIGRATE_HISTORY_CONTENTS_0";
+
     /** Message constant for key in the resource bundle. */
     public static final String RPT_EXPORT_POINTS_DELETE_0 = "RPT_EXPORT_POINTS_DELETE_0";
 
@@ -921,12 +933,18 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String RPT_EXPORT_POINTS_WRITE_END_0 = "RPT_EXPORT_POINTS_WRITE_END_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_MIGRATED_HISTORY_CONTENTS_1 = "RPT_MIGRATED_HISTORY_CONTENTS_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String RPT_PARENT_FOLDER_NOT_PUBLISHED_1 = "RPT_PARENT_FOLDER_NOT_PUBLISHED_1";
 
     /** Message constant for key in the resource bundle. */
     public static final String RPT_PUBLISH_REMOVED_RESOURCE_1 = "RPT_PUBLISH_REMOVED_RESOURCE_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_PURGE_VERSIONS_RANGE_4 = "RPT_PURGE_VERSIONS_RANGE_4";
+
     /** Message constant for key in the resource bundle. */
     public static final String RPT_START_DELETE_ACT_VERSIONS_1 = "RPT_START_DELETE_ACT_VERSIONS_1";
 
@@ -939,6 +957,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String RPT_START_DELETE_VERSIONS_0 = "RPT_START_DELETE_VERSIONS_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_START_MIGRATE_HISTORY_CONTENTS_0 = "RPT_START_MIGRATE_HISTORY_CONTENTS_0";
+
     /** Message constant for key in the resource bundle. */
     public static final String RPT_VERSION_DELETING_1 = "RPT_VERSION_DELETING_1";
 
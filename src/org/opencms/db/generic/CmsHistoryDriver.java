@@ -32,6 +32,7 @@ import org.opencms.configuration.CmsParameterConfiguration;
 import org.opencms.db.CmsDbConsistencyException;
 import org.opencms.db.CmsDbContext;
 import org.opencms.db.CmsDbEntryNotFoundException;
+import org.opencms.db.CmsDbIoException;
 import org.opencms.db.CmsDbSqlException;
 import org.opencms.db.CmsDriverManager;
 import org.opencms.db.CmsResourceState;
@@ -58,17 +59,27 @@ import org.opencms.security.I_CmsPrincipal;
 import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.logging.Log;
 
 /**
@@ -78,9 +89,30 @@ import org.apache.commons.logging.Log;
  */
 public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
 
+    /** Configuration key for the history content storage mode. */
+    public static final String CONFIGURATION_CONTENT_STORE = "db.history.contentstore";
+
+    /** Configuration key for enabling compression in the deduplicating history content store. */
+    public static final String CONFIGURATION_CONTENT_STORE_COMPRESS = "db.history.contentstore.compress";
+
+    /** Value for the history content storage mode which stores each distinct historical content only once. */
+    public static final String CONTENT_STORE_DEDUP = "dedup";
+
+    /** Compression type for uncompressed contents in the history content store. */
+    protected static final int COMPRESSION_NONE = 0;
+
+    /** Compression type for deflate compressed contents in the history content store. */
+    protected static final int COMPRESSION_DEFLATE = 1;
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(org.opencms.db.generic.CmsHistoryDriver.class);
 
+    /** Flag indicating if contents should be compressed in the history content store. */
+    protected boolean m_contentStoreCompress;
+
+    /** Flag indicating if historical contents are moved to the deduplicating history content store. */
+    protected boolean m_contentStoreEnabled;
+
     /** The driver manager instance. */
     protected CmsDriverManager m_driverManager;
 
@@ -263,6 +295,9 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
 
             // make sure the statement and the result is closed
             m_sqlManager.closeAll(dbc, conn, stmt, res);
+            if (m_contentStoreEnabled) {
+                internalDeleteStoredContents(dbc, resource.getResourceId(), minResPublishTagToKeep);
+            }
             internalCleanup(dbc, resource);
             return Math.max(structureVersions, resourceVersions);
         } catch (SQLException e) {
@@ -274,6 +309,141 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
         }
     }
 
+    /**
+     * @see org.opencms.db.I_CmsHistoryDriver#deleteObsoleteEntries(org.opencms.db.CmsDbContext, int, int, int, int)
+     */
+    public int deleteObsoleteEntries(
+        CmsDbContext dbc,
+        int versionsToKeep,
+        int minPublishTag,
+        int maxPublishTag,
+        int batchSize)
+    throws CmsDataAccessException {
+
+        if (versionsToKeep < 1) {
+            throw new IllegalArgumentException("versionsToKeep: " + versionsToKeep);
+        }
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        PreparedStatement stmt2 = null;
+        ResultSet res = null;
+
+        // the maximal obsolete publish tag for each structure id
+        Map<CmsUUID, Integer> obsoleteTags = new HashMap<CmsUUID, Integer>();
+        Set<CmsUUID> resourceIds = new HashSet<CmsUUID>();
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_STRUCTURE_HISTORY_READ_OBSOLETE");
+            stmt.setInt(1, minPublishTag);
+            stmt.setInt(2, maxPublishTag);
+            stmt.setInt(3, versionsToKeep);
+            res = stmt.executeQuery();
+            while (res.next()) {
+                CmsUUID structureId = new CmsUUID(res.getString(1));
+                resourceIds.add(new CmsUUID(res.getString(2)));
+                int tag = res.getInt(3);
+                Integer oldTag = obsoleteTags.get(structureId);
+                if ((oldTag == null) || (oldTag.intValue() < tag)) {
+                    obsoleteTags.put(structureId, Integer.valueOf(tag));
+                }
+            }
+            m_sqlManager.closeAll(dbc, null, stmt, res);
+            res = null;
+            stmt = null;
+            if (obsoleteTags.isEmpty()) {
+                return 0;
+            }
+
+            // delete the properties and structure entries
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_PROPERTIES_HISTORY_DELETE");
+            stmt2 = m_sqlManager.getPreparedStatement(conn, "C_STRUCTURE_HISTORY_DELETE");
+            int count = 0;
+            for (Map.Entry<CmsUUID, Integer> entry : obsoleteTags.entrySet()) {
+                int minPublishTagToKeep = entry.getValue().intValue() + 1;
+                stmt.setString(1, entry.getKey().toString());
+                stmt.setInt(2, minPublishTagToKeep);
+                stmt.addBatch();
+                stmt2.setString(1, entry.getKey().toString());
+                stmt2.setInt(2, minPublishTagToKeep);
+                stmt2.addBatch();
+                count++;
+                if ((count % batchSize) == 0) {
+                    stmt.executeBatch();
+                    stmt2.executeBatch();
+                }
+            }
+            if ((count % batchSize) != 0) {
+                stmt.executeBatch();
+                stmt2.executeBatch();
+            }
+            m_sqlManager.closeAll(dbc, null, stmt, null);
+            m_sqlManager.closeAll(dbc, null, stmt2, null);
+            stmt = null;
+            stmt2 = null;
+
+            // the resource and content entries can be deleted up to the first publish tag still in use
+            Map<CmsUUID, Integer> minUsedTags = new HashMap<CmsUUID, Integer>();
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_HISTORY_READ_MIN_USED_TAG");
+            for (CmsUUID resourceId : resourceIds) {
+                stmt.setString(1, resourceId.toString());
+                res = stmt.executeQuery();
+                if (res.next()) {
+                    int minUsedTag = res.getInt(1);
+                    if (!res.wasNull()) {
+                        minUsedTags.put(resourceId, Integer.valueOf(minUsedTag));
+                    }
+                    while (res.next()) {
+                        // do nothing only move through all rows because of mssql odbc driver
+                    }
+                }
+                res.close();
+                res = null;
+            }
+            m_sqlManager.closeAll(dbc, null, stmt, null);
+            stmt = null;
+
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_RESOURCES_HISTORY_DELETE");
+            stmt2 = m_sqlManager.getPreparedStatement(conn, "C_CONTENT_HISTORY_DELETE");
+            count = 0;
+            for (Map.Entry<CmsUUID, Integer> entry : minUsedTags.entrySet()) {
+                stmt.setString(1, entry.getKey().toString());
+                stmt.setInt(2, entry.getValue().intValue());
+                stmt.addBatch();
+                stmt2.setString(1, entry.getKey().toString());
+                stmt2.setInt(2, entry.getValue().intValue());
+                stmt2.addBatch();
+                count++;
+                if ((count % batchSize) == 0) {
+                    stmt.executeBatch();
+                    stmt2.executeBatch();
+                }
+            }
+            if ((count % batchSize) != 0) {
+                stmt.executeBatch();
+                stmt2.executeBatch();
+            }
+            m_sqlManager.closeAll(dbc, null, stmt2, null);
+            stmt2 = null;
+            m_sqlManager.closeAll(dbc, conn, stmt, null);
+            conn = null;
+            stmt = null;
+
+            if (m_contentStoreEnabled) {
+                for (Map.Entry<CmsUUID, Integer> entry : minUsedTags.entrySet()) {
+                    internalDeleteStoredContents(dbc, entry.getKey(), entry.getValue().intValue());
+                }
+            }
+            return obsoleteTags.size();
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(
+                Messages.get().container(Messages.ERR_GENERIC_SQL_1, CmsDbSqlException.getErrorQuery(stmt)),
+                e);
+        } finally {
+            m_sqlManager.closeAll(dbc, null, stmt2, null);
+            m_sqlManager.closeAll(dbc, conn, stmt, res);
+        }
+    }
+
     /**
      * @see org.opencms.db.I_CmsHistoryDriver#deletePropertyDefinition(org.opencms.db.CmsDbContext, org.opencms.file.CmsPropertyDefinition)
      */
@@ -429,6 +599,16 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
 
         m_driverManager = driverManager;
 
+        m_contentStoreEnabled = CONTENT_STORE_DEDUP.equalsIgnoreCase(
+            configuration.getString(CONFIGURATION_CONTENT_STORE, ""));
+        m_contentStoreCompress = configuration.getBoolean(CONFIGURATION_CONTENT_STORE_COMPRESS, true);
+        if (m_contentStoreEnabled && CmsLog.INIT.isInfoEnabled()) {
+            CmsLog.INIT.info(
+                Messages.get().getBundle().key(
+                    Messages.INIT_HISTORY_CONTENT_STORE_1,
+                    Boolean.valueOf(m_contentStoreCompress)));
+        }
+
         if (CmsLog.INIT.isInfoEnabled()) {
             CmsLog.INIT.info(Messages.get().getBundle().key(Messages.INIT_ASSIGNED_POOL_1, poolUrl));
         }
@@ -451,6 +631,47 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
         return CmsSqlManager.getInstance(classname);
     }
 
+    /**
+     * @see org.opencms.db.I_CmsHistoryDriver#migrateContents(org.opencms.db.CmsDbContext, int)
+     */
+    public int migrateContents(CmsDbContext dbc, int maxResources) throws CmsDataAccessException {
+
+        if (!m_contentStoreEnabled) {
+            return 0;
+        }
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet res = null;
+        List<CmsUUID> resourceIds = new ArrayList<CmsUUID>();
+
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_HISTORY_CONTENTS_READ_UNSTORED_RESOURCES");
+            stmt.setMaxRows(maxResources);
+            res = stmt.executeQuery();
+            while (res.next() && (resourceIds.size() < maxResources)) {
+                resourceIds.add(new CmsUUID(res.getString(1)));
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(
+                Messages.get().container(Messages.ERR_GENERIC_SQL_1, CmsDbSqlException.getErrorQuery(stmt)),
+                e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, res);
+        }
+
+        int migrated = 0;
+        for (CmsUUID resourceId : resourceIds) {
+            try {
+                migrated += internalStoreContents(dbc, resourceId);
+            } catch (CmsDataAccessException e) {
+                // the contents of this resource stay in the content table and are moved by a later run
+                LOG.warn(e.getLocalizedMessage(), e);
+            }
+        }
+        return migrated;
+    }
+
     /**
      * @see org.opencms.db.I_CmsHistoryDriver#readAllAvailableVersions(CmsDbContext, CmsUUID)
      */
@@ -603,10 +824,34 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
                     // do nothing only move through all rows because of mssql odbc driver
                 }
             }
+            m_sqlManager.closeAll(dbc, null, stmt, res);
+            res = null;
+
+            // contents which have already been moved to the content store are read from there
+            if ((content == null) && m_contentStoreEnabled) {
+                stmt = m_sqlManager.getPreparedStatement(conn, "C_HISTORY_READ_STORED_CONTENT");
+                stmt.setString(1, resourceId.toString());
+                stmt.setInt(2, publishTag);
+                stmt.setInt(3, publishTag);
+                res = stmt.executeQuery();
+                if (res.next()) {
+                    int compression = res.getInt(1);
+                    content = internalDecodeContent(
+                        m_sqlManager.getBytes(res, m_sqlManager.readQuery("C_RESOURCES_FILE_CONTENT")),
+                        compression);
+                    while (res.next()) {
+                        // do nothing only move through all rows because of mssql odbc driver
+                    }
+                }
+            }
         } catch (SQLException e) {
             throw new CmsDbSqlException(
                 Messages.get().container(Messages.ERR_GENERIC_SQL_1, CmsDbSqlException.getErrorQuery(stmt)),
                 e);
+        } catch (IOException e) {
+            throw new CmsDbIoException(
+                Messages.get().container(Messages.ERR_HISTORY_CONTENT_DECODE_2, resourceId, Integer.valueOf(publishTag)),
+                e);
         } finally {
             m_sqlManager.closeAll(dbc, conn, stmt, res);
         }
@@ -1797,6 +2042,170 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
         }
     }
 
+    /**
+     * Decodes a content read from the history content store.<p>
+     *
+     * @param data the stored data
+     * @param compression the compression type of the stored data
+     *
+     * @return the decoded content
+     *
+     * @throws IOException if the stored data can not be decompressed
+     */
+    protected byte[] internalDecodeContent(byte[] data, int compression) throws IOException {
+
+        if ((data == null) || (compression == COMPRESSION_NONE)) {
+            return data;
+        }
+        InputStream in = new InflaterInputStream(new ByteArrayInputStream(data));
+        try {
+            return IOUtils.toByteArray(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Deletes the references to stored historical contents of a resource older than the given publish tag,
+     * and removes the stored contents which are no longer referenced.<p>
+     *
+     * This is done in one transaction, and each stored content is locked before it is checked for
+     * references, see {@link #internalLockStoredContent(CmsDbContext, Connection, String)}.<p>
+     *
+     * @param dbc the current database context
+     * @param resourceId the resource id
+     * @param minPublishTagToKeep the minimal publish tag to keep
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    protected void internalDeleteStoredContents(CmsDbContext dbc, CmsUUID resourceId, int minPublishTagToKeep)
+    throws CmsDataAccessException {
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet res = null;
+        // sorted, so concurrent purges lock the stored contents in the same order
+        Set<String> hashes = new TreeSet<String>();
+        boolean wasInTransaction = false;
+        boolean committed = false;
+
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            wasInTransaction = !conn.getAutoCommit();
+            if (!wasInTransaction) {
+                conn.setAutoCommit(false);
+            }
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_HISTORY_CONTENT_REFS_READ_HASHES");
+            stmt.setString(1, resourceId.toString());
+            stmt.setInt(2, minPublishTagToKeep);
+            res = stmt.executeQuery();
+            while (res.next()) {
+                hashes.add(res.getString(1));
+            }
+            m_sqlManager.closeAll(dbc, null, stmt, res);
+            stmt = null;
+            res = null;
+
+            if (!hashes.isEmpty()) {
+                stmt = m_sqlManager.getPreparedStatement(conn, "C_HISTORY_CONTENT_REFS_DELETE");
+                stmt.setString(1, resourceId.toString());
+                stmt.setInt(2, minPublishTagToKeep);
+                stmt.executeUpdate();
+                m_sqlManager.closeAll(dbc, null, stmt, null);
+                stmt = null;
+
+                // identical contents may still be referenced by other resources or versions
+                for (String hash : hashes) {
+                    if (!internalLockStoredContent(dbc, conn, hash)) {
+                        continue;
+                    }
+                    stmt = m_sqlManager.getPreparedStatement(conn, "C_HISTORY_CONTENT_STORE_DELETE_UNUSED");
+                    stmt.setString(1, hash);
+                    stmt.setString(2, hash);
+                    stmt.executeUpdate();
+                    m_sqlManager.closeAll(dbc, null, stmt, null);
+                    stmt = null;
+                }
+            }
+
+            if (!wasInTransaction) {
+                conn.commit();
+            }
+            committed = true;
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(
+                Messages.get().container(Messages.ERR_GENERIC_SQL_1, CmsDbSqlException.getErrorQuery(stmt)),
+                e);
+        } finally {
+            if ((conn != null) && !wasInTransaction) {
+                try {
+                    if (!committed) {
+                        conn.rollback();
+                    }
+                    conn.setAutoCommit(true);
+                } catch (SQLException e) {
+                    LOG.error(e.getLocalizedMessage(), e);
+                }
+            }
+            m_sqlManager.closeAll(dbc, conn, stmt, res);
+        }
+    }
+
+    /**
+     * Encodes a content for the history content store, compressing it if this is enabled and saves space.<p>
+     *
+     * @param content the content to encode
+     *
+     * @return an array with the encoded data as first and the compression type as second element
+     */
+    protected Object[] internalEncodeContent(byte[] content) {
+
+        if (m_contentStoreCompress && (content.length > 128)) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(content.length / 2);
+            try {
+                DeflaterOutputStream out = new DeflaterOutputStream(bytes);
+                out.write(content);
+                out.close();
+                if (bytes.size() < content.length) {
+                    return new Object[] {bytes.toByteArray(), Integer.valueOf(COMPRESSION_DEFLATE)};
+                }
+            } catch (IOException e) {
+                // can not happen for byte array streams, store the content uncompressed
+                LOG.warn(e.getLocalizedMessage(), e);
+            }
+        }
+        return new Object[] {content, Integer.valueOf(COMPRESSION_NONE)};
+    }
+
+    /**
+     * Locks the entry with the given hash in the history content store until the end of the current transaction,
+     * and checks if it exists.<p>
+     *
+     * The lock is taken with an update that does not change the entry, since not all supported
+     * databases know <code>SELECT ... FOR UPDATE</code>. Storing a content and deleting unused contents
+     * both lock the entry first, so a content can not be deleted between checking that it exists and
+     * writing a reference to it.<p>
+     *
+     * @param dbc the current database context
+     * @param conn the connection to use, must not be in auto commit mode
+     * @param hash the content hash
+     *
+     * @return <code>true</code> if the content exists
+     *
+     * @throws SQLException if something goes wrong
+     */
+    protected boolean internalLockStoredContent(CmsDbContext dbc, Connection conn, String hash) throws SQLException {
+
+        PreparedStatement stmt = null;
+        try {
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_HISTORY_CONTENT_STORE_LOCK");
+            stmt.setString(1, hash);
+            return stmt.executeUpdate() > 0;
+        } finally {
+            m_sqlManager.closeAll(dbc, null, stmt, null);
+        }
+    }
+
     /**
      * Merges an historical entry for a sibling, based on the structure data from the given historical resource
      * and result set for the resource entry.<p>
@@ -1880,6 +2289,159 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
         }
     }
 
+    /**
+     * Moves a single historical content of a resource from the content table to the deduplicating
+     * history content store.<p>
+     *
+     * Storing the content, writing the reference and deleting the content from the content table
+     * is done in one transaction, so the content is never lost or stored twice. The stored content
+     * is locked before it is referenced, so a concurrent purge can not delete it in between.<p>
+     *
+     * @param dbc the current database context
+     * @param resourceId the resource id
+     * @param publishTagFrom the publish tag from which the content is valid
+     * @param publishTagTo the publish tag up to which the content is valid
+     *
+     * @return <code>true</code> if the content was moved
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    protected boolean internalStoreContent(
+        CmsDbContext dbc,
+        CmsUUID resourceId,
+        int publishTagFrom,
+        int publishTagTo)
+    throws CmsDataAccessException {
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet res = null;
+        boolean wasInTransaction = false;
+        boolean committed = false;
+
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            wasInTransaction = !conn.getAutoCommit();
+            if (!wasInTransaction) {
+                conn.setAutoCommit(false);
+            }
+
+            byte[] content = null;
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_HISTORY_CONTENTS_READ_UNSTORED");
+            stmt.setString(1, resourceId.toString());
+            stmt.setInt(2, publishTagFrom);
+            res = stmt.executeQuery();
+            if (res.next()) {
+                content = m_sqlManager.getBytes(res, m_sqlManager.readQuery("C_RESOURCES_FILE_CONTENT"));
+                while (res.next()) {
+                    // do nothing only move through all rows because of mssql odbc driver
+                }
+            }
+            m_sqlManager.closeAll(dbc, null, stmt, res);
+            stmt = null;
+            res = null;
+            if (content == null) {
+                return false;
+            }
+
+            String hash = DigestUtils.sha256Hex(content);
+            if (!internalLockStoredContent(dbc, conn, hash)) {
+                Object[] encoded = internalEncodeContent(content);
+                internalWriteStoredContent(dbc, conn, hash, ((Integer)encoded[1]).intValue(), (byte[])encoded[0]);
+            }
+
+            // remove a reference left over by an interrupted earlier attempt
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_HISTORY_CONTENT_REF_DELETE_ENTRY");
+            stmt.setString(1, resourceId.toString());
+            stmt.setInt(2, publishTagFrom);
+            stmt.executeUpdate();
+            m_sqlManager.closeAll(dbc, null, stmt, null);
+
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_HISTORY_CONTENT_REF_WRITE");
+            stmt.setString(1, resourceId.toString());
+            stmt.setInt(2, publishTagFrom);
+            stmt.setInt(3, publishTagTo);
+            stmt.setString(4, hash);
+            stmt.executeUpdate();
+            m_sqlManager.closeAll(dbc, null, stmt, null);
+
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_HISTORY_CONTENTS_DELETE_UNSTORED");
+            stmt.setString(1, resourceId.toString());
+            stmt.setInt(2, publishTagFrom);
+            stmt.executeUpdate();
+            m_sqlManager.closeAll(dbc, null, stmt, null);
+            stmt = null;
+
+            if (!wasInTransaction) {
+                conn.commit();
+            }
+            committed = true;
+            return true;
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(
+                Messages.get().container(Messages.ERR_GENERIC_SQL_1, CmsDbSqlException.getErrorQuery(stmt)),
+                e);
+        } finally {
+            if ((conn != null) && !wasInTransaction) {
+                try {
+                    if (!committed) {
+                        conn.rollback();
+                    }
+                    conn.setAutoCommit(true);
+                } catch (SQLException e) {
+                    LOG.error(e.getLocalizedMessage(), e);
+                }
+            }
+            m_sqlManager.closeAll(dbc, conn, stmt, res);
+        }
+    }
+
+    /**
+     * Moves the historical contents of a resource from the content table to the deduplicating history content store.<p>
+     *
+     * Each distinct content is stored only once, identified by its SHA-256 hash, and all versions with
+     * the same content only reference the stored entry.<p>
+     *
+     * @param dbc the current database context
+     * @param resourceId the resource id
+     *
+     * @return the number of moved historical contents
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    protected int internalStoreContents(CmsDbContext dbc, CmsUUID resourceId) throws CmsDataAccessException {
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet res = null;
+        Map<Integer, Integer> publishTags = new HashMap<Integer, Integer>();
+
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_HISTORY_CONTENTS_READ_UNSTORED_TAGS");
+            stmt.setString(1, resourceId.toString());
+            res = stmt.executeQuery();
+            while (res.next()) {
+                publishTags.put(Integer.valueOf(res.getInt(1)), Integer.valueOf(res.getInt(2)));
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(
+                Messages.get().container(Messages.ERR_GENERIC_SQL_1, CmsDbSqlException.getErrorQuery(stmt)),
+                e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, res);
+        }
+
+        // contents are moved one by one to avoid having all versions of a big file in memory at the same time
+        int count = 0;
+        for (Map.Entry<Integer, Integer> entry : publishTags.entrySet()) {
+            if (internalStoreContent(dbc, resourceId, entry.getKey().intValue(), entry.getValue().intValue())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     /**
      * Tests if a history resource does exist.<p>
      *
@@ -1917,4 +2479,39 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
         return exists;
     }
 
+    /**
+     * Writes a new entry to the history content store.<p>
+     *
+     * @param dbc the current database context
+     * @param conn the connection to use
+     * @param hash the content hash
+     * @param compression the compression type of the data
+     * @param data the data to store
+     *
+     * @throws SQLException if something goes wrong
+     */
+    protected void internalWriteStoredContent(
+        CmsDbContext dbc,
+        Connection conn,
+        String hash,
+        int compression,
+        byte[] data)
+    throws SQLException {
+
+        PreparedStatement stmt = null;
+        try {
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_HISTORY_CONTENT_STORE_WRITE");
+            stmt.setString(1, hash);
+            stmt.setInt(2, compression);
+            if (data.length < 2000) {
+                stmt.setBytes(3, data);
+            } else {
+                stmt.setBinaryStream(3, new ByteArrayInputStream(data), data.length);
+            }
+            stmt.executeUpdate();
+        } finally {
+            m_sqlManager.closeAll(dbc, null, stmt, null);
+        }
+    }
+
 }
@@ -37,11 +37,16 @@ import org.opencms.db.CmsDbEntryNotFoundException;
 import org.opencms.db.CmsDbSqlException;
 import org.opencms.db.CmsDbUtil;
 import org.opencms.db.CmsDriverManager;
+import org.opencms.db.CmsPagingQuery;
 import org.opencms.db.CmsPreparedStatementIntParameter;
 import org.opencms.db.CmsPreparedStatementStringParameter;
+import org.opencms.db.CmsResourceOrder;
 import org.opencms.db.CmsResourceState;
 import org.opencms.db.CmsRewriteAlias;
 import org.opencms.db.CmsRewriteAliasFilter;
+import org.opencms.db.CmsSelectQuery;
+import org.opencms.db.CmsSimpleQueryFragment;
+import org.opencms.db.CmsStatementBuilder;
 import org.opencms.db.CmsVfsOnlineResourceAlreadyExistsException;
 import org.opencms.db.I_CmsDriver;
 import org.opencms.db.I_CmsPreparedStatementParameter;
@@ -90,6 +95,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -109,6 +115,9 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
     /** Contains the macro replacement value for the online project. */
     protected static final String ONLINE = "ONLINE";
 
+    /** The maximum number of structure ids used as parameters of a single query. */
+    protected static final int READ_BY_IDS_BATCH_SIZE = 500;
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(org.opencms.db.generic.CmsVfsDriver.class);
 
@@ -625,6 +634,55 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         }
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#createRelations(org.opencms.db.CmsDbContext, org.opencms.util.CmsUUID, java.util.List)
+     */
+    public void createRelations(CmsDbContext dbc, CmsUUID projectId, List<CmsRelation> relations)
+    throws CmsDataAccessException {
+
+        List<CmsRelation> localeRelations = new ArrayList<CmsRelation>();
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            stmt = m_sqlManager.getPreparedStatement(conn, projectId, "C_CREATE_RELATION");
+            int count = 0;
+            for (CmsRelation relation : relations) {
+                if (relation.getType().getId() == CmsRelationType.LOCALE_VARIANT.getId()) {
+                    // locale relations need to be normalized after creation, so they are created one by one
+                    localeRelations.add(relation);
+                    continue;
+                }
+                stmt.setString(1, relation.getSourceId().toString());
+                stmt.setString(2, relation.getSourcePath());
+                stmt.setString(3, relation.getTargetId().toString());
+                stmt.setString(4, relation.getTargetPath());
+                stmt.setInt(5, relation.getType().getId());
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(
+                        Messages.get().getBundle().key(
+                            Messages.LOG_CREATE_RELATION_2,
+                            String.valueOf(projectId),
+                            relation));
+                }
+                stmt.addBatch();
+                count++;
+            }
+            if (count > 0) {
+                stmt.executeBatch();
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(
+                Messages.get().container(Messages.ERR_GENERIC_SQL_1, CmsDbSqlException.getErrorQuery(stmt)),
+                e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, null);
+        }
+        for (CmsRelation relation : localeRelations) {
+            createRelation(dbc, projectId, relation);
+        }
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#createResource(org.opencms.db.CmsDbContext, CmsUUID, org.opencms.file.CmsResource, byte[])
      */
@@ -2401,6 +2459,61 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         return resource;
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#readResources(org.opencms.db.CmsDbContext, org.opencms.util.CmsUUID, java.util.Collection, boolean)
+     */
+    public List<CmsResource> readResources(
+        CmsDbContext dbc,
+        CmsUUID projectId,
+        Collection<CmsUUID> structureIds,
+        boolean includeDeleted)
+    throws CmsDataAccessException {
+
+        List<CmsUUID> ids = new ArrayList<CmsUUID>(new LinkedHashSet<CmsUUID>(structureIds));
+        List<CmsResource> result = new ArrayList<CmsResource>(ids.size());
+        ResultSet res = null;
+        PreparedStatement stmt = null;
+        Connection conn = null;
+
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            // keep the number of parameters per query below the limits of the supported databases
+            for (int start = 0; start < ids.size(); start += READ_BY_IDS_BATCH_SIZE) {
+                List<CmsUUID> batch = ids.subList(start, Math.min(start + READ_BY_IDS_BATCH_SIZE, ids.size()));
+                StringBuffer query = new StringBuffer(m_sqlManager.readQuery(projectId, "C_RESOURCES_READ_BY_IDS"));
+                query.append(BEGIN_CONDITION);
+                for (int i = 0; i < batch.size(); i++) {
+                    if (i > 0) {
+                        query.append(", ");
+                    }
+                    query.append("?");
+                }
+                query.append(END_CONDITION);
+                stmt = m_sqlManager.getPreparedStatementForSql(conn, query.toString());
+                for (int i = 0; i < batch.size(); i++) {
+                    stmt.setString(i + 1, batch.get(i).toString());
+                }
+                res = stmt.executeQuery();
+                while (res.next()) {
+                    CmsResource resource = createResource(res, projectId);
+                    if (includeDeleted || !resource.getState().isDeleted()) {
+                        result.add(resource);
+                    }
+                }
+                m_sqlManager.closeAll(dbc, null, stmt, res);
+                stmt = null;
+                res = null;
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(
+                Messages.get().container(Messages.ERR_GENERIC_SQL_1, CmsDbSqlException.getErrorQuery(stmt)),
+                e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, res);
+        }
+        return result;
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#readResources(org.opencms.db.CmsDbContext, CmsUUID, CmsResourceState, int)
      */
@@ -2651,6 +2764,81 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         return result;
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#readResourceTree(org.opencms.db.CmsDbContext, CmsUUID, java.lang.String, int, CmsResourceState, long, long, long, long, long, long, int, org.opencms.db.CmsResourceOrder, int, int)
+     */
+    public List<CmsResource> readResourceTree(
+        CmsDbContext dbc,
+        CmsUUID projectId,
+        String parentPath,
+        int type,
+        CmsResourceState state,
+        long lastModifiedAfter,
+        long lastModifiedBefore,
+        long releasedAfter,
+        long releasedBefore,
+        long expiredAfter,
+        long expiredBefore,
+        int mode,
+        CmsResourceOrder order,
+        int pageSize,
+        int page)
+    throws CmsDataAccessException {
+
+        List<CmsResource> result = new ArrayList<CmsResource>();
+
+        StringBuffer conditions = new StringBuffer();
+        List<Object> params = new ArrayList<Object>(5);
+
+        // prepare the selection criteria
+        prepareProjectCondition(projectId, mode, conditions, params);
+        prepareResourceCondition(projectId, mode, conditions);
+        prepareTypeCondition(projectId, type, mode, conditions, params);
+        prepareTimeRangeCondition(projectId, lastModifiedAfter, lastModifiedBefore, conditions, params);
+        prepareReleasedTimeRangeCondition(projectId, releasedAfter, releasedBefore, conditions, params);
+        prepareExpiredTimeRangeCondition(projectId, expiredAfter, expiredBefore, conditions, params);
+        preparePathCondition(projectId, parentPath, mode, conditions, params);
+        prepareStateCondition(projectId, state, mode, conditions, params);
+
+        CmsSelectQuery select = new CmsSelectQuery();
+        select.addColumn(m_sqlManager.readQuery(projectId, "C_RESOURCES_READ_TREE_COLUMNS"));
+        select.addTable(m_sqlManager.readQuery(projectId, "C_RESOURCES_SELECT_TABLES"));
+        select.addCondition(
+            new CmsSimpleQueryFragment(
+                m_sqlManager.readQuery(projectId, "C_JOIN_RESOURCE_STRUCTURE") + conditions.toString(),
+                params));
+        select.setOrdering(m_sqlManager.readQuery(projectId, order.getQueryKey()));
+        CmsPagingQuery paging = new CmsPagingQuery(select);
+        paging.setUseWindowFunctions(useWindowFunctionsForPaging());
+        paging.setNameSubquery(shouldNameSubqueries());
+        paging.setPaging(pageSize, page);
+        CmsStatementBuilder builder = new CmsStatementBuilder();
+        paging.visit(builder);
+
+        ResultSet res = null;
+        PreparedStatement stmt = null;
+        Connection conn = null;
+
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            stmt = m_sqlManager.getPreparedStatementForSql(conn, builder.getQuery());
+            CmsDbUtil.fillParameters(stmt, builder.getParameters());
+            res = stmt.executeQuery();
+            while (res.next()) {
+                CmsResource resource = createResource(res, projectId);
+                result.add(resource);
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(
+                Messages.get().container(Messages.ERR_GENERIC_SQL_1, CmsDbSqlException.getErrorQuery(stmt)),
+                e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, res);
+        }
+
+        return result;
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#readRewriteAliases(org.opencms.db.CmsDbContext, org.opencms.db.CmsRewriteAliasFilter)
      */
@@ -4669,6 +4857,16 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         }
     }
 
+    /**
+     * Checks whether subqueries for paging should be named.<p>
+     *
+     * @return true if subqueries for paging should be named
+     */
+    protected boolean shouldNameSubqueries() {
+
+        return false;
+    }
+
     /**
      * Updates broken links.<p>
      *
@@ -4712,6 +4910,18 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
 
     }
 
+    /**
+     * Checks whether window functions should be used for paging sorted resource tree reads.<p>
+     *
+     * If this returns false, a LIMIT/OFFSET clause is used instead.<p>
+     *
+     * @return true if window functions should be used for paging
+     */
+    protected boolean useWindowFunctionsForPaging() {
+
+        return false;
+    }
+
     /**
      * Wrap a SQL exception into a CmsDbSqlException.<p>
      *
@@ -76,6 +76,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_GROUP_WITH_NAME_ALREADY_EXISTS_1 = "ERR_GROUP_WITH_NAME_ALREADY_EXISTS_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_HISTORY_CONTENT_DECODE_2 = "ERR_HISTORY_CONTENT_DECODE_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_HISTORY_FILE_NOT_FOUND_1 = "ERR_HISTORY_FILE_NOT_FOUND_1";
 
@@ -283,6 +286,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String INIT_DIGEST_ALGORITHM_1 = "INIT_DIGEST_ALGORITHM_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_HISTORY_CONTENT_STORE_1 = "INIT_HISTORY_CONTENT_STORE_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String INIT_DIGEST_ENC_3 = "INIT_DIGEST_ENC_3";
 
@@ -34,6 +34,8 @@ import org.opencms.db.generic.CmsSqlManager;
 import org.opencms.file.CmsDataAccessException;
 import org.opencms.file.history.CmsHistoryProject;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -96,4 +98,49 @@ public class CmsHistoryDriver extends org.opencms.db.generic.CmsHistoryDriver {
         }
         return projects;
     }
+
+    /**
+     * Writes a new entry to the history content store.<p>
+     *
+     * The entry is created with an empty blob first, which is then selected for update and filled
+     * with the data, like the file contents in {@link CmsVfsDriver}. The caller has to run this
+     * in a transaction.<p>
+     *
+     * @see org.opencms.db.generic.CmsHistoryDriver#internalWriteStoredContent(org.opencms.db.CmsDbContext, java.sql.Connection, java.lang.String, int, byte[])
+     */
+    @Override
+    protected void internalWriteStoredContent(
+        CmsDbContext dbc,
+        Connection conn,
+        String hash,
+        int compression,
+        byte[] data)
+    throws SQLException {
+
+        PreparedStatement stmt = null;
+        ResultSet res = null;
+        try {
+            // create the entry with an empty blob
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_ORACLE_HISTORY_CONTENT_STORE_WRITE");
+            stmt.setString(1, hash);
+            stmt.setInt(2, compression);
+            stmt.executeUpdate();
+            m_sqlManager.closeAll(dbc, null, stmt, null);
+
+            // now write the data to the blob
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_ORACLE_HISTORY_CONTENT_STORE_UPDATECONTENT");
+            stmt.setString(1, hash);
+            res = stmt.executeQuery();
+            if (!res.next()) {
+                throw new SQLException("History content store entry " + hash + " not found");
+            }
+            OutputStream output = CmsUserDriver.getOutputStreamFromBlob(res, "FILE_CONTENT");
+            output.write(data, 0, data.length);
+            output.close();
+        } catch (IOException e) {
+            throw new SQLException(e.getLocalizedMessage(), e);
+        } finally {
+            m_sqlManager.closeAll(dbc, null, stmt, res);
+        }
+    }
 }
\ No newline at end of file
@@ -262,4 +262,13 @@ public class CmsVfsDriver extends org.opencms.db.generic.CmsVfsDriver {
                 wasInTransaction);
         }
     }
+
+    /**
+     * @see org.opencms.db.generic.CmsVfsDriver#useWindowFunctionsForPaging()
+     */
+    @Override
+    protected boolean useWindowFunctionsForPaging() {
+
+        return true;
+    }
 }
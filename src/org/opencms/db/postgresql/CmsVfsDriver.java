@@ -44,4 +44,13 @@ public class CmsVfsDriver extends org.opencms.db.generic.CmsVfsDriver {
 
         return CmsSqlManager.getInstance(classname);
     }
-}
\ No newline at end of file
+
+    /**
+     * @see org.opencms.db.generic.CmsVfsDriver#shouldNameSubqueries()
+     */
+    @Override
+    protected boolean shouldNameSubqueries() {
+
+        return true;
+    }
+}
@@ -29,6 +29,7 @@ package org.opencms.file;
 
 import org.opencms.db.CmsDbEntryNotFoundException;
 import org.opencms.db.CmsPublishedResource;
+import org.opencms.db.CmsResourceOrder;
 import org.opencms.db.CmsResourceState;
 import org.opencms.db.CmsSecurityManager;
 import org.opencms.db.log.CmsLogEntry;
@@ -44,6 +45,7 @@ import org.opencms.i18n.CmsLocaleGroupService;
 import org.opencms.lock.CmsLock;
 import org.opencms.lock.CmsLockFilter;
 import org.opencms.lock.CmsLockType;
+import org.opencms.main.CmsEventBatch;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsIllegalArgumentException;
 import org.opencms.main.I_CmsEventListener;
@@ -68,6 +70,7 @@ import org.opencms.util.CmsUUID;
 import org.opencms.xml.content.CmsNumberSuffixNameSequence;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -592,8 +595,10 @@ public final class CmsObject {
     public void copyResource(String source, String destination, CmsResource.CmsResourceCopyMode siblingMode)
     throws CmsException, CmsIllegalArgumentException {
 
-        CmsResource resource = readResource(source, CmsResourceFilter.IGNORE_EXPIRATION);
-        getResourceType(resource).copyResource(this, m_securityManager, resource, destination, siblingMode);
+        try (CmsEventBatch batch = startEventBatch()) {
+            CmsResource resource = readResource(source, CmsResourceFilter.IGNORE_EXPIRATION);
+            getResourceType(resource).copyResource(this, m_securityManager, resource, destination, siblingMode);
+        }
     }
 
     /**
@@ -2000,6 +2005,25 @@ public final class CmsObject {
         createRelation(resourceName, targetPath, relationType, true);
     }
 
+    /**
+     * Imports new relations of the given resource.<p>
+     *
+     * All relations are written at once, so this is faster than importing them one by one
+     * with {@link #importRelation(String, String, String)}. Relations which can not be imported,
+     * e.g. relations of a type defined in the content, are skipped, all other relations are imported.<p>
+     *
+     * @param resource the source resource of all relations
+     * @param relations the relations to import
+     *
+     * @return the relations which were skipped
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsRelation> importRelations(CmsResource resource, List<CmsRelation> relations) throws CmsException {
+
+        return m_securityManager.importRelations(m_context, resource, relations);
+    }
+
     /**
      * Imports a resource to the OpenCms VFS.<p>
      *
@@ -2242,6 +2266,20 @@ public final class CmsObject {
         return m_securityManager.lookupPrincipal(m_context, principalName);
     }
 
+    /**
+     * Moves the historical file contents which are still stored in the content table
+     * to the deduplicating history content store.<p>
+     *
+     * @param batchSize the number of resources to process per batch
+     * @param report the report for output logging
+     *
+     * @throws CmsException if operation was not successful
+     */
+    public void migrateHistoryContents(int batchSize, I_CmsReport report) throws CmsException {
+
+        m_securityManager.migrateHistoryContents(m_context, batchSize, report);
+    }
+
     /**
      * Moves a resource to the given destination.<p>
      *
@@ -2259,8 +2297,10 @@ public final class CmsObject {
      */
     public void moveResource(String source, String destination) throws CmsException {
 
-        CmsResource resource = readResource(source, CmsResourceFilter.IGNORE_EXPIRATION);
-        getResourceType(resource).moveResource(this, m_securityManager, resource, destination);
+        try (CmsEventBatch batch = startEventBatch()) {
+            CmsResource resource = readResource(source, CmsResourceFilter.IGNORE_EXPIRATION);
+            getResourceType(resource).moveResource(this, m_securityManager, resource, destination);
+        }
     }
 
     /**
@@ -2287,6 +2327,40 @@ public final class CmsObject {
         return m_securityManager.moveToLostAndFound(m_context, resource, false);
     }
 
+    /**
+     * Deletes the versions from the history tables using the bulk purge, which computes the versions
+     * to delete per publish tag range and deletes them in batches.<p>
+     *
+     * @param versionsToKeep number of versions to keep, is ignored if negative
+     * @param versionsDeleted number of versions to keep for deleted resources, is ignored if negative
+     * @param timeDeleted deleted resources older than this will also be deleted, is ignored if negative
+     * @param batchSize the maximal number of statements per database batch
+     * @param pause the time in milliseconds to pause between two publish tag ranges, to reduce the database load
+     * @param report the report for output logging
+     *
+     * @throws CmsException if operation was not successful
+     *
+     * @see #deleteHistoricalVersions(int, int, long, I_CmsReport)
+     */
+    public void purgeHistoricalVersions(
+        int versionsToKeep,
+        int versionsDeleted,
+        long timeDeleted,
+        int batchSize,
+        long pause,
+        I_CmsReport report)
+    throws CmsException {
+
+        m_securityManager.purgeHistoricalVersions(
+            m_context,
+            versionsToKeep,
+            versionsDeleted,
+            timeDeleted,
+            batchSize,
+            pause,
+            report);
+    }
+
     /**
      * Reads all available versions for a given resource.<p>
      *
@@ -3228,6 +3302,27 @@ public final class CmsObject {
         return m_securityManager.readResource(m_context, addSiteRoot(resourcename), filter);
     }
 
+    /**
+     * Reads the resources with the given structure ids, using the specified resource filter.<p>
+     *
+     * All resources are read with a single database access per batch of ids, which is much
+     * faster than reading them one by one with <code>{@link #readResource(CmsUUID, CmsResourceFilter)}</code>.
+     * Resources which do not exist, do not match the filter or can not be read by the current user
+     * are silently left out of the result.<p>
+     *
+     * @param structureIds the structure ids of the resources to read
+     * @param filter the resource filter to use while reading
+     *
+     * @return the resources that were read, in the order of the given structure ids
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsResource> readResources(Collection<CmsUUID> structureIds, CmsResourceFilter filter)
+    throws CmsException {
+
+        return m_securityManager.readResources(m_context, structureIds, filter);
+    }
+
     /**
      * Reads all resources below the given resource matching the filter criteria,
      * including the full tree below the path only in case the <code>readTree</code>
@@ -3289,6 +3384,36 @@ public final class CmsObject {
         return m_securityManager.readResources(m_context, resource, filter, readTree);
     }
 
+    /**
+     * Reads the first resources below the given path matching the filter criteria, sorted by the given order,
+     * including the full tree below the path only in case the <code>readTree</code>
+     * parameter is <code>true</code>.<p>
+     *
+     * Sorting and limiting the result is done by the database, so this is much faster than reading
+     * all resources and sorting them if only a few of many resources are needed.<p>
+     *
+     * @param resourcename the parent path to read the resources from
+     * @param filter the filter
+     * @param readTree <code>true</code> to read all sub resources
+     * @param order the sort order
+     * @param maxResults the maximum number of resources to return, if not positive, all resources are returned
+     *
+     * @return a list of <code>{@link CmsResource}</code> objects matching the filter criteria, sorted by the given order
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsResource> readResources(
+        String resourcename,
+        CmsResourceFilter filter,
+        boolean readTree,
+        CmsResourceOrder order,
+        int maxResults)
+    throws CmsException {
+
+        CmsResource resource = readResource(resourcename, CmsResourceFilter.ALL);
+        return m_securityManager.readResources(m_context, resource, filter, readTree, order, maxResults);
+    }
+
     /**
      * Reads all resources that have a value set for the specified property.<p>
      *
@@ -3875,6 +4000,21 @@ public final class CmsObject {
         m_securityManager.resetPassword(m_context, username, oldPassword, newPassword);
     }
 
+    /**
+     * Starts collecting the resource modification events fired by the current thread,
+     * for use in a try-with-resources statement around bulk operations.<p>
+     *
+     * The collected events are delivered as events for lists of resources when the returned batch is closed.<p>
+     *
+     * @return the event batch, which must be closed in the current thread
+     *
+     * @see CmsEventBatch
+     */
+    public CmsEventBatch startEventBatch() {
+
+        return OpenCms.getEventManager().startEventBatch();
+    }
+
     /**
      * Helper method to temporarily change the site root in a try-with-resources statement.
      *
@@ -400,6 +400,19 @@ public abstract class A_CmsResourceCollector implements I_CmsResourceCollector {
         return getCreateInFolder(cms, new CmsCollectorData(param));
     }
 
+    /**
+     * Returns the maximum number of results to read.<p>
+     *
+     * @param maxSize the maximum size from the collector parameters
+     * @param explicitNumResults the value of the numResults parameter given to the getResults method (this overrides maxSize if it is positive)
+     *
+     * @return the maximum number of results, or a value &lt;= 0 if the number of results is not limited
+     */
+    protected int getMaxResults(int maxSize, int explicitNumResults) {
+
+        return explicitNumResults > 0 ? explicitNumResults : maxSize;
+    }
+
     /**
      * Shrinks a List to fit a maximum size.<p>
      *
@@ -429,6 +442,6 @@ public abstract class A_CmsResourceCollector implements I_CmsResourceCollector {
      */
     protected List<CmsResource> shrinkToFit(List<CmsResource> result, int maxSize, int explicitNumResults) {
 
-        return shrinkToFit(result, explicitNumResults > 0 ? explicitNumResults : maxSize);
+        return shrinkToFit(result, getMaxResults(maxSize, explicitNumResults));
     }
 }
\ No newline at end of file
@@ -27,11 +27,11 @@
 
 package org.opencms.file.collectors;
 
+import org.opencms.db.CmsResourceOrder;
 import org.opencms.file.CmsDataAccessException;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
-import org.opencms.file.I_CmsResource;
 import org.opencms.jsp.CmsJspNavBuilder;
 import org.opencms.jsp.CmsJspNavElement;
 import org.opencms.main.CmsException;
@@ -234,9 +234,13 @@ public class CmsDefaultResourceCollector extends A_CmsResourceCollector {
             // include all not yet released and expired resources in an offline project
             filter = filter.addExcludeTimerange();
         }
-        List<CmsResource> result = cms.readResources(foldername, filter, tree);
-
-        Collections.sort(result, I_CmsResource.COMPARE_DATE_RELEASED);
+        // let the database sort and limit the result, so only the required resources are read
+        List<CmsResource> result = cms.readResources(
+            foldername,
+            filter,
+            tree,
+            CmsResourceOrder.DATE_RELEASED_DESC,
+            getMaxResults(data.getCount(), numResults));
 
         return shrinkToFit(result, data.getCount(), numResults);
     }
@@ -329,10 +333,13 @@ public class CmsDefaultResourceCollector extends A_CmsResourceCollector {
             // include all not yet released and expired resources in an offline project
             filter = filter.addExcludeTimerange();
         }
-        List<CmsResource> result = cms.readResources(foldername, filter, tree);
-
-        Collections.sort(result, I_CmsResource.COMPARE_ROOT_PATH);
-        Collections.reverse(result);
+        // let the database sort and limit the result, so only the required resources are read
+        List<CmsResource> result = cms.readResources(
+            foldername,
+            filter,
+            tree,
+            CmsResourceOrder.ROOT_PATH_DESC,
+            getMaxResults(data.getCount(), numResults));
 
         return shrinkToFit(result, data.getCount(), numResults);
     }
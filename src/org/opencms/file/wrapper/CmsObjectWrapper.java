@@ -423,6 +423,26 @@ public class CmsObjectWrapper {
         return m_cms.getSitePath(resource);
     }
 
+    /**
+     * Returns the child resources of a folder as they exist in the VFS, without asking the resource wrappers.<p>
+     *
+     * This is a delegate method for {@link CmsObject#getResourcesInFolder(String, CmsResourceFilter)}.
+     * It can be used to look up the original resources of the children returned by
+     * {@link #getResourcesInFolder(String, CmsResourceFilter)} without reading each of them again.<p>
+     *
+     * @param resourcename the full path of the folder
+     * @param filter the resource filter to use
+     *
+     * @return the child resources of the folder in the VFS
+     *
+     * @throws CmsException if something goes wrong, e.g. if the folder only exists as a wrapped resource
+     */
+    public List<CmsResource> getVfsResourcesInFolder(String resourcename, CmsResourceFilter filter)
+    throws CmsException {
+
+        return m_cms.getResourcesInFolder(resourcename, filter);
+    }
+
     /**
      * Returns the configured resource wrappers used by this instance.<p>
      *
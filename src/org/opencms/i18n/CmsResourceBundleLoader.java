@@ -36,6 +36,7 @@ import java.io.InputStream;
 import java.net.URL;
 import java.security.AccessControlException;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -225,19 +226,14 @@ public final class CmsResourceBundleLoader {
         if (baseName != null) {
             synchronized (m_bundleCache) {
 
-                // first check and clear the bundle cache
-                Map<BundleKey, ResourceBundle> bundleCacheNew = new ConcurrentHashMap<BundleKey, ResourceBundle>(
-                    m_bundleCache.size());
-                for (Map.Entry<BundleKey, ResourceBundle> entry : m_bundleCache.entrySet()) {
-                    if (!entry.getKey().isSameBase(baseName)) {
-                        // entry has a different base name, keep it
-                        bundleCacheNew.put(entry.getKey(), entry.getValue());
+                // first clear the bundle cache, entries are removed in place so lookups of other bundles
+                // are not affected and never have to wait
+                Iterator<BundleKey> keys = m_bundleCache.keySet().iterator();
+                while (keys.hasNext()) {
+                    if (keys.next().isSameBase(baseName)) {
+                        keys.remove();
                     }
                 }
-                if (bundleCacheNew.size() < m_bundleCache.size()) {
-                    // switch caches if only if at least one entry was removed
-                    m_bundleCache = bundleCacheNew;
-                }
                 if (flushPermanent) {
                     flushPermanentCache(baseName);
                 }
@@ -356,6 +352,25 @@ public final class CmsResourceBundleLoader {
         return ResourceBundle.getBundle(baseName, locale);
     }
 
+    /**
+     * Removes the given resource bundle from the permanent cache.<p>
+     *
+     * The bundle is only removed if it is still cached for the given base name and locale,
+     * so a bundle which has already been replaced by a newer version is left untouched.<p>
+     *
+     * @param baseName the raw bundle name, without locale qualifiers
+     * @param locale the locale
+     * @param bundle the bundle to remove
+     */
+    public static void removeBundleFromCache(String baseName, Locale locale, I_CmsResourceBundle bundle) {
+
+        String key = baseName;
+        if (locale != null) {
+            key += "_" + locale;
+        }
+        m_permanentCache.remove(key, bundle);
+    }
+
     /**
      * Tries to load a property file with the specified name.
      *
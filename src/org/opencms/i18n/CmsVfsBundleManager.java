@@ -31,6 +31,7 @@ import org.opencms.db.CmsPublishedResource;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
+import org.opencms.file.CmsVfsResourceNotFoundException;
 import org.opencms.file.types.I_CmsResourceType;
 import org.opencms.main.CmsEvent;
 import org.opencms.main.CmsException;
@@ -40,10 +41,14 @@ import org.opencms.main.OpenCms;
 import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.logging.Log;
@@ -55,6 +60,62 @@ import com.google.common.collect.Lists;
  */
 public class CmsVfsBundleManager implements I_CmsEventListener {
 
+    /**
+     * The message bundles registered for a single bundle resource.<p>
+     */
+    private static class BundleRegistration {
+
+        /** The base name. */
+        private String m_baseName;
+
+        /** The registered bundles by locale, the locale may be <code>null</code>. */
+        private Map<Locale, I_CmsResourceBundle> m_bundles = new HashMap<Locale, I_CmsResourceBundle>();
+
+        /**
+         * Creates a new instance.<p>
+         *
+         * @param baseName the base name
+         */
+        BundleRegistration(String baseName) {
+
+            m_baseName = baseName;
+        }
+
+        /**
+         * Adds a bundle to the permanent bundle cache and to this registration.<p>
+         *
+         * @param locale the locale of the bundle
+         * @param bundle the bundle
+         */
+        void add(Locale locale, I_CmsResourceBundle bundle) {
+
+            CmsResourceBundleLoader.addBundleToCache(m_baseName, locale, bundle);
+            m_bundles.put(locale, bundle);
+        }
+
+        /**
+         * Gets the base name.<p>
+         *
+         * @return the base name
+         */
+        String getBaseName() {
+
+            return m_baseName;
+        }
+
+        /**
+         * Removes the bundles of this registration from the permanent bundle cache.<p>
+         *
+         * Bundles which have already been replaced in the cache by another registration are kept.<p>
+         */
+        void remove() {
+
+            for (Map.Entry<Locale, I_CmsResourceBundle> entry : m_bundles.entrySet()) {
+                CmsResourceBundleLoader.removeBundleFromCache(m_baseName, entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
     /**
      * Data holder for a base name and locale of a message bundle.<p>
      */
@@ -108,12 +169,18 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
     /** The logger instance for this class. */
     protected static final Log LOG = CmsLog.getLog(CmsVfsBundleManager.class);
 
-    /** The set of bundle base names. */
-    private Set<String> m_bundleBaseNames;
+    /** The registered bundles by structure id of the bundle resource. */
+    private Map<CmsUUID, BundleRegistration> m_bundles;
 
     /** The CMS context to use. */
     private CmsObject m_cms;
 
+    /** The structure ids of the changed bundle resources which have not been reloaded yet. */
+    private Set<CmsUUID> m_changedBundleIds;
+
+    /** Indicates if the scheduled reload has to reload all bundles. */
+    private volatile boolean m_fullReloadIsScheduled;
+
     /** Indicated if a reload is already scheduled. */
     private boolean m_reloadIsScheduled;
 
@@ -128,7 +195,8 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
     public CmsVfsBundleManager(CmsObject cms) {
 
         m_cms = cms;
-        m_bundleBaseNames = new HashSet<String>();
+        m_bundles = new HashMap<CmsUUID, BundleRegistration>();
+        m_changedBundleIds = Collections.synchronizedSet(new HashSet<CmsUUID>());
         CmsVfsResourceBundle.setCmsObject(cms);
         OpenCms.getEventManager().addCmsEventListener(
             this,
@@ -176,12 +244,17 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
     /**
      * Re-initializes the resource bundles.<p>
      *
+     * All bundle resources are read from the VFS. The new bundles replace the cached ones before the
+     * bundles which no longer exist are removed, so bundle lookups never see an empty cache.<p>
+     *
      * @param isStartup true when this is called during startup
      */
     public synchronized void reload(boolean isStartup) {
 
         if ((OpenCms.getRunLevel() > OpenCms.RUNLEVEL_1_CORE_OBJECT)
             && OpenCms.getResourceManager().hasResourceType(TYPE_XML_BUNDLE)) {
+            // changes collected so far are covered by the full reload
+            m_changedBundleIds.clear();
             List<CmsResource> xmlBundles = Lists.newArrayList();
             List<CmsResource> propertyBundles = Lists.newArrayList();
             try {
@@ -197,22 +270,21 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
                 logError(e, isStartup);
             }
             try {
-
-                synchronized (CmsResourceBundleLoader.class) {
-                    CmsResourceBundleLoader.flushBundleCache();
-                    for (String baseName : m_bundleBaseNames) {
-                        CmsResourceBundleLoader.flushPermanentCache(baseName);
-                    }
-                    m_bundleBaseNames.clear();
-                    for (CmsResource xmlBundle : xmlBundles) {
-                        addXmlBundle(xmlBundle);
-                    }
-                    for (CmsResource propertyBundle : propertyBundles) {
-                        addPropertyBundle(propertyBundle);
-                    }
-                    if (OpenCms.getWorkplaceManager() != null) {
-                        OpenCms.getWorkplaceManager().flushMessageCache();
-                    }
+                Map<CmsUUID, BundleRegistration> oldBundles = m_bundles;
+                Map<CmsUUID, BundleRegistration> newBundles = new HashMap<CmsUUID, BundleRegistration>();
+                for (CmsResource xmlBundle : xmlBundles) {
+                    newBundles.put(xmlBundle.getStructureId(), addXmlBundle(xmlBundle));
+                }
+                for (CmsResource propertyBundle : propertyBundles) {
+                    newBundles.put(propertyBundle.getStructureId(), addPropertyBundle(propertyBundle));
+                }
+                m_bundles = newBundles;
+                for (BundleRegistration registration : oldBundles.values()) {
+                    registration.remove();
+                }
+                CmsResourceBundleLoader.flushBundleCache();
+                if (OpenCms.getWorkplaceManager() != null) {
+                    OpenCms.getWorkplaceManager().flushMessageCache();
                 }
             } catch (Exception e) {
                 logError(e, isStartup);
@@ -220,6 +292,59 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
         }
     }
 
+    /**
+     * Reloads the bundles of the bundle resources with the given structure ids.<p>
+     *
+     * Only the bundles of the changed resources are replaced, and only the resolved bundles with
+     * the affected base names are flushed from the bundle cache.<p>
+     *
+     * @param structureIds the structure ids of the changed bundle resources
+     */
+    public synchronized void reloadChanged(Collection<CmsUUID> structureIds) {
+
+        if (OpenCms.getRunLevel() <= OpenCms.RUNLEVEL_1_CORE_OBJECT) {
+            return;
+        }
+        Set<String> changedBaseNames = new HashSet<String>();
+        for (CmsUUID structureId : structureIds) {
+            CmsResource bundleResource = null;
+            try {
+                bundleResource = m_cms.readResource(structureId, CmsResourceFilter.ALL);
+            } catch (CmsVfsResourceNotFoundException e) {
+                // the bundle resource has been deleted
+            } catch (CmsException e) {
+                logError(e, false);
+                continue;
+            }
+            BundleRegistration newRegistration = null;
+            if (bundleResource != null) {
+                String typeName = OpenCms.getResourceManager().getResourceType(bundleResource).getTypeName();
+                if (TYPE_XML_BUNDLE.equals(typeName)) {
+                    newRegistration = addXmlBundle(bundleResource);
+                } else if (TYPE_PROPERTIES_BUNDLE.equals(typeName)) {
+                    newRegistration = addPropertyBundle(bundleResource);
+                }
+            }
+            BundleRegistration oldRegistration;
+            if (newRegistration != null) {
+                oldRegistration = m_bundles.put(structureId, newRegistration);
+                changedBaseNames.add(newRegistration.getBaseName());
+            } else {
+                oldRegistration = m_bundles.remove(structureId);
+            }
+            if (oldRegistration != null) {
+                oldRegistration.remove();
+                changedBaseNames.add(oldRegistration.getBaseName());
+            }
+        }
+        for (String baseName : changedBaseNames) {
+            CmsResourceBundleLoader.flushBundleCache(baseName, false);
+        }
+        if (!changedBaseNames.isEmpty() && (OpenCms.getWorkplaceManager() != null)) {
+            OpenCms.getWorkplaceManager().flushMessageCache();
+        }
+    }
+
     /**
      * Sets the information if a reload thread is currently scheduled.
      *
@@ -265,30 +390,20 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
         setReloadScheduled(false);
     }
 
-    /**
-     * Internal method for adding a resource bundle to the internal cache.<p>
-     *
-     * @param baseName the base name of the resource bundle
-     * @param locale the locale of the resource bundle
-     * @param bundle the resource bundle to add
-     */
-    private void addBundle(String baseName, Locale locale, I_CmsResourceBundle bundle) {
-
-        CmsResourceBundleLoader.addBundleToCache(baseName, locale, bundle);
-    }
-
     /**
      * Adds a resource bundle based on a properties file in the VFS.<p>
      *
      * @param bundleResource the properties file
+     *
+     * @return the registration for the added bundle
      */
-    private void addPropertyBundle(CmsResource bundleResource) {
+    private BundleRegistration addPropertyBundle(CmsResource bundleResource) {
 
         NameAndLocale nameAndLocale = getNameAndLocale(bundleResource);
         Locale locale = nameAndLocale.getLocale();
 
         String baseName = nameAndLocale.getName();
-        m_bundleBaseNames.add(baseName);
+        BundleRegistration registration = new BundleRegistration(baseName);
         LOG.info(
             String.format(
                 "Adding property VFS bundle (path=%s, name=%s, locale=%s)",
@@ -303,19 +418,22 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
             locale == null,
             CmsVfsResourceBundle.TYPE_PROPERTIES);
         CmsVfsResourceBundle bundle = new CmsVfsResourceBundle(params);
-        addBundle(baseName, locale, bundle);
+        registration.add(locale, bundle);
+        return registration;
     }
 
     /**
      * Adds an XML based message bundle.<p>
      *
      * @param xmlBundle the XML content containing the message bundle data
+     *
+     * @return the registration for the added bundles
      */
-    private void addXmlBundle(CmsResource xmlBundle) {
+    private BundleRegistration addXmlBundle(CmsResource xmlBundle) {
 
         String name = xmlBundle.getName();
         String path = xmlBundle.getRootPath();
-        m_bundleBaseNames.add(name);
+        BundleRegistration registration = new BundleRegistration(name);
 
         LOG.info(String.format("Adding property VFS bundle (path=%s, name=%s)", xmlBundle.getRootPath(), name));
         for (Locale locale : getAllLocales()) {
@@ -326,8 +444,9 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
                 false,
                 CmsVfsResourceBundle.TYPE_XML);
             CmsVfsResourceBundle bundle = new CmsVfsResourceBundle(params);
-            addBundle(name, locale, bundle);
+            registration.add(locale, bundle);
         }
+        return registration;
     }
 
     /**
@@ -376,13 +495,14 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
                             for (CmsPublishedResource res : publishedResources) {
                                 for (String typeName : typesToMatch) {
                                     if (OpenCms.getResourceManager().matchResourceType(typeName, res.getType())) {
+                                        m_changedBundleIds.add(res.getStructureId());
                                         reload = true;
                                         break;
                                     }
                                 }
                             }
                             if (reload) {
-                                scheduleReload();
+                                scheduleReload(false);
                             }
                         }
                     } catch (CmsException e) {
@@ -391,7 +511,7 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
                 }
                 break;
             case I_CmsEventListener.EVENT_CLEAR_CACHES:
-                scheduleReload();
+                scheduleReload(true);
                 break;
             default:
         }
@@ -399,9 +519,15 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
 
     /**
      * Schedules a bundle reload.<p>
+     *
+     * @param full <code>true</code> if all bundles should be reloaded, <code>false</code> if only the bundles
+     *      of the changed bundle resources should be reloaded
      */
-    private void scheduleReload() {
+    private void scheduleReload(boolean full) {
 
+        if (full) {
+            m_fullReloadIsScheduled = true;
+        }
         if (!isReloadScheduled() && (OpenCms.getRunLevel() > OpenCms.RUNLEVEL_1_CORE_OBJECT)) {
             // only schedule a reload if the system is not going down already
             m_threadCount++;
@@ -417,9 +543,23 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
                         // ignore
                     }
                     if (isReloadScheduled()) {
-                        reload(false);
+                        if (m_fullReloadIsScheduled) {
+                            m_fullReloadIsScheduled = false;
+                            reload(false);
+                        } else {
+                            List<CmsUUID> changedIds;
+                            synchronized (m_changedBundleIds) {
+                                changedIds = new ArrayList<CmsUUID>(m_changedBundleIds);
+                                m_changedBundleIds.clear();
+                            }
+                            reloadChanged(changedIds);
+                        }
                     }
                     setReloadScheduled(false);
+                    if (m_fullReloadIsScheduled || !m_changedBundleIds.isEmpty()) {
+                        // bundles were changed while reloading
+                        scheduleReload(false);
+                    }
                 }
             };
             thread.start();
@@ -67,14 +67,21 @@ import org.opencms.util.CmsXmlSaxWriter;
 import org.opencms.workplace.CmsWorkplace;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import org.apache.commons.codec.binary.Base64;
@@ -93,22 +100,62 @@ import org.xml.sax.SAXException;
  * It will also contain a <code>manifest.xml</code> file in which all meta-information
  * about this files are stored, like permissions etc.<p>
  *
+ * The contents of the exported files are read and compressed by a small thread pool,
+ * while the resources are written to the export in the order in which they were found.
+ * The number of resources read ahead is limited, to keep the memory usage bounded.<p>
+ *
  * @since 6.0.0
  */
 public class CmsExport {
 
+    /**
+     * A resource queued for writing to the export.<p>
+     */
+    private static class CmsQueuedResource {
+
+        /** The prepared content of the file, or <code>null</code> if no content is written for the resource. */
+        private Future<CmsExportHelper.CmsExportEntry> m_content;
+
+        /** The resource. */
+        private CmsResource m_resource;
+
+        /**
+         * Creates a new queued resource.<p>
+         *
+         * @param resource the resource
+         * @param content the prepared content of the file, or <code>null</code> if no content is written
+         */
+        CmsQueuedResource(CmsResource resource, Future<CmsExportHelper.CmsExportEntry> content) {
+
+            m_resource = resource;
+            m_content = content;
+        }
+    }
+
+    /** The maximum number of threads used to read the file contents. */
+    static final int MAX_THREADS = 4;
+
+    /** The maximum number of resources read ahead of the export writer. */
+    static final int QUEUE_SIZE = 32;
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsExport.class);
 
     /** The cms context. */
     private CmsObject m_cms;
 
+    /** The thread pool reading and compressing the file contents. */
+    private ExecutorService m_contentReader;
+
     /** Counter for the export. */
     private int m_exportCount;
 
     /** Set of all exported files, required for preventing redundant sibling export. */
     private Set<CmsUUID> m_exportedResources;
 
+    /** The resources queued for writing to the export, in export order. */
+    private Deque<CmsQueuedResource> m_exportQueue;
+
     /** The export writer. */
     private CmsExportHelper m_exportWriter;
 
@@ -268,7 +315,7 @@ public class CmsExport {
                         String export = getCms().getSitePath(file);
                         if (checkExportResource(export)) {
                             if (isInExportableProject(file)) {
-                                exportFile(getCms().readFile(export, CmsResourceFilter.IGNORE_EXPIRATION));
+                                exportFile(file);
                             }
                         }
                     }
@@ -294,7 +341,7 @@ public class CmsExport {
                         // default for selected age (if not set by user) is <code>long 0</code> (i.e. 1970)
                         if (age >= m_parameters.getContentAge()) {
                             // only export folder data to manifest.xml if it has changed
-                            appendResourceToManifest(folder, false);
+                            queueResource(new CmsQueuedResource(folder, null));
                         }
 
                         // export all sub-resources in this folder
@@ -340,6 +387,8 @@ public class CmsExport {
                     if (!file.getState().isDeleted() && !CmsWorkplace.isTemporaryFile(file)) {
                         if (checkExportResource(fileName)) {
                             if (m_parameters.isRecursive()) {
+                                // the parent folders must be written before all queued resources
+                                flushExportQueue();
                                 addParentFolders(fileName);
                             }
                             if (isInExportableProject(file)) {
@@ -839,48 +888,16 @@ public class CmsExport {
         }
 
         m_exportedResources = new HashSet<CmsUUID>();
-
-        // export the folders
-        for (int i = 0; i < folderNames.size(); i++) {
-            String path = folderNames.get(i);
-            if (m_parameters.isRecursive()) {
-                // first add super folders to the xml-config file
-                addParentFolders(path);
-                addChildResources(path);
-            } else {
-                CmsFolder folder;
-                try {
-                    folder = getCms().readFolder(path, CmsResourceFilter.IGNORE_EXPIRATION);
-                } catch (CmsException e) {
-                    CmsMessageContainer message = Messages.get().container(
-                        Messages.ERR_IMPORTEXPORT_ERROR_ADDING_PARENT_FOLDERS_1,
-                        path);
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug(message.key(), e);
-                    }
-                    throw new CmsImportExportException(message, e);
-                }
-                CmsResourceState state = folder.getState();
-                long age = folder.getDateLastModified() < folder.getDateCreated()
-                ? folder.getDateCreated()
-                : folder.getDateLastModified();
-
-                if (getCms().getRequestContext().getCurrentProject().isOnlineProject()
-                    || (m_parameters.isIncludeUnchangedResources())
-                    || state.isNew()
-                    || state.isChanged()) {
-                    if (!state.isDeleted() && (age >= m_parameters.getContentAge())) {
-                        // check if this is a system-folder and if it should be included.
-                        String export = getCms().getSitePath(folder);
-                        if (checkExportResource(export)) {
-                            appendResourceToManifest(folder, true);
-                        }
-                    }
-                }
-            }
+        m_exportQueue = new ArrayDeque<CmsQueuedResource>(QUEUE_SIZE);
+        m_contentReader = Executors.newFixedThreadPool(
+            Math.max(1, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors())));
+        try {
+            exportResources(folderNames, fileNames);
+        } finally {
+            m_contentReader.shutdownNow();
+            m_contentReader = null;
+            m_exportQueue = null;
         }
-        // export the files
-        addFiles(fileNames);
 
         // write the XML
         getSaxWriter().writeClose(m_resourceNode);
@@ -891,6 +908,9 @@ public class CmsExport {
     /**
      * Exports one single file with all its data and content.<p>
      *
+     * This is called for the files given explicitly in the export parameters,
+     * use {@link #exportFile(CmsResource)} to export a resource without reading its content first.<p>
+     *
      * @param file the file to be exported
      *
      * @throws CmsImportExportException if something goes wrong
@@ -899,42 +919,32 @@ public class CmsExport {
      */
     protected void exportFile(CmsFile file) throws CmsImportExportException, SAXException, IOException {
 
-        String source = trimResourceName(getCms().getSitePath(file));
-        I_CmsReport report = getReport();
-        m_exportCount++;
-        report.print(
-            org.opencms.report.Messages.get().container(
-                org.opencms.report.Messages.RPT_SUCCESSION_1,
-                String.valueOf(m_exportCount)),
-            I_CmsReport.FORMAT_NOTE);
-        report.print(Messages.get().container(Messages.RPT_EXPORT_0), I_CmsReport.FORMAT_NOTE);
-        report.print(
-            org.opencms.report.Messages.get().container(
-                org.opencms.report.Messages.RPT_ARGUMENT_1,
-                getCms().getSitePath(file)));
-        report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+        exportFile((CmsResource)file);
+    }
 
-        // store content in zip-file
+    /**
+     * Exports one single file with all its data and content.<p>
+     *
+     * The content of the file is read and compressed in the background, and the file is written
+     * to the export after all resources exported before it.<p>
+     *
+     * @param file the file to be exported, if this is not a {@link CmsFile} the content is read
+     *
+     * @throws CmsImportExportException if something goes wrong
+     * @throws SAXException if something goes wrong processing the manifest.xml
+     * @throws IOException if the ZIP entry for the file could be appended to the ZIP archive
+     */
+    protected void exportFile(CmsResource file) throws CmsImportExportException, SAXException, IOException {
+
+        Future<CmsExportHelper.CmsExportEntry> content = null;
         // check if the content of this resource was not already exported
         if (!m_exportedResources.contains(file.getResourceId())) {
-            // write the file using the export writer
-            m_exportWriter.writeFile(file, source);
             // add the resource id to the storage to mark that this resource was already exported
             m_exportedResources.add(file.getResourceId());
-            // create the manifest-entries
-            appendResourceToManifest(file, true);
-        } else {
-            // only create the manifest-entries
-            appendResourceToManifest(file, false);
-        }
-
-        if (LOG.isInfoEnabled()) {
-            LOG.info(
-                Messages.get().getBundle().key(Messages.LOG_EXPORTING_OK_2, String.valueOf(m_exportCount), source));
+            content = m_contentReader.submit(
+                createContentReader(file, trimResourceName(getCms().getSitePath(file))));
         }
-        report.println(
-            org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
-            I_CmsReport.FORMAT_OK);
+        queueResource(new CmsQueuedResource(file, content));
     }
 
     /**
@@ -1235,6 +1245,64 @@ public class CmsExport {
         }
     }
 
+    /**
+     * Exports the given folders and files.<p>
+     *
+     * @param folderNames the folders to export
+     * @param fileNames the files to export
+     *
+     * @throws CmsImportExportException if something goes wrong
+     * @throws SAXException if something goes wrong processing the manifest.xml
+     * @throws IOException if not all resources could be appended to the ZIP archive
+     */
+    protected void exportResources(List<String> folderNames, List<String> fileNames)
+    throws CmsImportExportException, IOException, SAXException {
+
+        // export the folders
+        for (int i = 0; i < folderNames.size(); i++) {
+            String path = folderNames.get(i);
+            if (m_parameters.isRecursive()) {
+                // first add super folders to the xml-config file
+                flushExportQueue();
+                addParentFolders(path);
+                addChildResources(path);
+            } else {
+                CmsFolder folder;
+                try {
+                    folder = getCms().readFolder(path, CmsResourceFilter.IGNORE_EXPIRATION);
+                } catch (CmsException e) {
+                    CmsMessageContainer message = Messages.get().container(
+                        Messages.ERR_IMPORTEXPORT_ERROR_ADDING_PARENT_FOLDERS_1,
+                        path);
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug(message.key(), e);
+                    }
+                    throw new CmsImportExportException(message, e);
+                }
+                CmsResourceState state = folder.getState();
+                long age = folder.getDateLastModified() < folder.getDateCreated()
+                ? folder.getDateCreated()
+                : folder.getDateLastModified();
+
+                if (getCms().getRequestContext().getCurrentProject().isOnlineProject()
+                    || (m_parameters.isIncludeUnchangedResources())
+                    || state.isNew()
+                    || state.isChanged()) {
+                    if (!state.isDeleted() && (age >= m_parameters.getContentAge())) {
+                        // check if this is a system-folder and if it should be included.
+                        String export = getCms().getSitePath(folder);
+                        if (checkExportResource(export)) {
+                            appendResourceToManifest(folder, true);
+                        }
+                    }
+                }
+            }
+        }
+        // export the files
+        addFiles(fileNames);
+        flushExportQueue();
+    }
+
     /**
      * Exports one single user with all its data.<p>
      *
@@ -1384,6 +1452,20 @@ public class CmsExport {
         return true;
     }
 
+    /**
+     * Writes all queued resources to the export.<p>
+     *
+     * @throws CmsImportExportException if something goes wrong
+     * @throws SAXException if something goes wrong processing the manifest.xml
+     * @throws IOException if a file could not be appended to the ZIP archive
+     */
+    protected void flushExportQueue() throws CmsImportExportException, SAXException, IOException {
+
+        while (!m_exportQueue.isEmpty()) {
+            writeQueuedResource(m_exportQueue.poll());
+        }
+    }
+
     /**
      * Returns the OpenCms context object this export was initialized with.<p>
      *
@@ -1562,6 +1644,36 @@ public class CmsExport {
         return resourceName;
     }
 
+    /**
+     * Creates the task reading and compressing the content of a file in the background.<p>
+     *
+     * The task uses its own copy of the user context, since the context is not thread safe.<p>
+     *
+     * @param file the file to read, if this is already a {@link CmsFile} the content is not read again
+     * @param name the name of the file in the export
+     *
+     * @return the task preparing the file for the export
+     */
+    private Callable<CmsExportHelper.CmsExportEntry> createContentReader(final CmsResource file, final String name) {
+
+        final CmsObject cms = getCms();
+        final CmsExportHelper exportWriter = m_exportWriter;
+        return new Callable<CmsExportHelper.CmsExportEntry>() {
+
+            public CmsExportHelper.CmsExportEntry call() throws CmsException {
+
+                CmsFile content;
+                if (file instanceof CmsFile) {
+                    content = (CmsFile)file;
+                } else {
+                    CmsObject taskCms = OpenCms.initCmsObject(cms);
+                    content = taskCms.readFile(taskCms.getSitePath(file), CmsResourceFilter.IGNORE_EXPIRATION);
+                }
+                return exportWriter.prepareFile(content, name);
+            }
+        };
+    }
+
     /** Returns the manifest entry for the <code>&lt;datelastmodified&gt;</code> node of the resource.
      * Depending on the export.timestamp property, the time stamp from the VFS (default) or
      * special macros are used.
@@ -1602,4 +1714,93 @@ public class CmsExport {
         }
 
     }
+
+    /**
+     * Adds a resource to the export queue.<p>
+     *
+     * If the queue is full, the oldest queued resources are written to the export first.<p>
+     *
+     * @param queued the resource to add
+     *
+     * @throws CmsImportExportException if something goes wrong
+     * @throws SAXException if something goes wrong processing the manifest.xml
+     * @throws IOException if a file could not be appended to the ZIP archive
+     */
+    private void queueResource(CmsQueuedResource queued)
+    throws CmsImportExportException, SAXException, IOException {
+
+        while (m_exportQueue.size() >= QUEUE_SIZE) {
+            writeQueuedResource(m_exportQueue.poll());
+        }
+        m_exportQueue.add(queued);
+    }
+
+    /**
+     * Writes a queued resource to the export, waiting for its content to be prepared if required.<p>
+     *
+     * @param queued the queued resource
+     *
+     * @throws CmsImportExportException if something goes wrong
+     * @throws SAXException if something goes wrong processing the manifest.xml
+     * @throws IOException if the file could not be appended to the ZIP archive
+     */
+    private void writeQueuedResource(CmsQueuedResource queued)
+    throws CmsImportExportException, SAXException, IOException {
+
+        CmsResource resource = queued.m_resource;
+        if (resource.isFolder()) {
+            appendResourceToManifest(resource, false);
+            return;
+        }
+        String source = trimResourceName(getCms().getSitePath(resource));
+        I_CmsReport report = getReport();
+        m_exportCount++;
+        report.print(
+            org.opencms.report.Messages.get().container(
+                org.opencms.report.Messages.RPT_SUCCESSION_1,
+                String.valueOf(m_exportCount)),
+            I_CmsReport.FORMAT_NOTE);
+        report.print(Messages.get().container(Messages.RPT_EXPORT_0), I_CmsReport.FORMAT_NOTE);
+        report.print(
+            org.opencms.report.Messages.get().container(
+                org.opencms.report.Messages.RPT_ARGUMENT_1,
+                getCms().getSitePath(resource)));
+        report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+
+        // store content in zip-file
+        if (queued.m_content != null) {
+            CmsExportHelper.CmsExportEntry content;
+            try {
+                content = queued.m_content.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CmsImportExportException(
+                    Messages.get().container(Messages.ERR_IMPORTEXPORT_ERROR_ADDING_FILE_1, source),
+                    e);
+            } catch (ExecutionException e) {
+                CmsMessageContainer message = Messages.get().container(
+                    Messages.ERR_IMPORTEXPORT_ERROR_ADDING_FILE_1,
+                    source);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(message.key(), e.getCause());
+                }
+                throw new CmsImportExportException(message, e.getCause());
+            }
+            // write the file using the export writer
+            m_exportWriter.writeFile(content);
+            // create the manifest-entries
+            appendResourceToManifest(resource, true);
+        } else {
+            // the content was already exported with a sibling, only create the manifest-entries
+            appendResourceToManifest(resource, false);
+        }
+
+        if (LOG.isInfoEnabled()) {
+            LOG.info(
+                Messages.get().getBundle().key(Messages.LOG_EXPORTING_OK_2, String.valueOf(m_exportCount), source));
+        }
+        report.println(
+            org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
+            I_CmsReport.FORMAT_OK);
+    }
 }
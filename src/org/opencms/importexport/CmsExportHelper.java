@@ -33,14 +33,20 @@ import org.opencms.main.OpenCms;
 import org.opencms.util.CmsFileUtil;
 import org.opencms.util.CmsXmlSaxWriter;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
 
 import org.dom4j.io.SAXWriter;
 import org.xml.sax.SAXException;
@@ -48,10 +54,59 @@ import org.xml.sax.SAXException;
 /**
  * Wrapper to write exported OpenCms resources either to a .ZIP file or to the file system.<p>
  *
+ * Files can be prepared for the export with {@link #prepareFile(CmsFile, String)} in other threads,
+ * which already compresses the content in case of a ZIP export. The prepared files are then written
+ * with {@link #writeFile(CmsExportEntry)}, which must always be called by the same thread.<p>
+ *
  * @since 7.5.1
  */
 public class CmsExportHelper {
 
+    /**
+     * A file prepared for writing to the export.<p>
+     */
+    public static class CmsExportEntry {
+
+        /** The CRC-32 checksum of the uncompressed content, only set for a ZIP export. */
+        private long m_crc;
+
+        /** The content, compressed in case of a ZIP export. */
+        private byte[] m_data;
+
+        /** The date of the last modification of the file. */
+        private long m_dateLastModified;
+
+        /** The name of the file in the export. */
+        private String m_name;
+
+        /** The size of the uncompressed content. */
+        private long m_size;
+
+        /**
+         * Creates a new export entry.<p>
+         *
+         * @param name the name of the file in the export
+         * @param dateLastModified the date of the last modification of the file
+         * @param size the size of the uncompressed content
+         */
+        CmsExportEntry(String name, long dateLastModified, long size) {
+
+            m_name = name;
+            m_dateLastModified = dateLastModified;
+            m_size = size;
+        }
+
+        /**
+         * Returns the name of the file in the export.<p>
+         *
+         * @return the name of the file in the export
+         */
+        public String getName() {
+
+            return m_name;
+        }
+    }
+
     /** Length that can be safely written to ZIP output. */
     private static final int SUB_LENGTH = 4096;
 
@@ -59,7 +114,7 @@ public class CmsExportHelper {
     private String m_exportPath;
 
     /** The export ZIP stream to write resources to. */
-    private ZipOutputStream m_exportZipStream;
+    private ZipArchiveOutputStream m_exportZipStream;
 
     /** Indicates if the resources are exported in one export .ZIP file or as individual files. */
     private boolean m_isExportAsFiles;
@@ -99,7 +154,7 @@ public class CmsExportHelper {
             File rfsFile = new File(m_exportPath);
             rfsFile.getParentFile().mkdirs();
             // create the export ZIP stream
-            m_exportZipStream = new ZipOutputStream(new FileOutputStream(m_exportPath));
+            m_exportZipStream = new ZipArchiveOutputStream(new File(m_exportPath));
             // delegate writing to a String writer
             writer = new StringWriter(SUB_LENGTH);
         }
@@ -133,6 +188,46 @@ public class CmsExportHelper {
         return m_saxWriter;
     }
 
+    /**
+     * Prepares a single OpenCms VFS file for writing it to the export.<p>
+     *
+     * In case of a ZIP export, the content is compressed here already. This method does not change the state
+     * of the export helper, so it can be called by multiple threads in parallel.<p>
+     *
+     * @param file the OpenCms VFS file to prepare
+     * @param name the name of the file in the export
+     *
+     * @return the prepared file, to be written with {@link #writeFile(CmsExportEntry)}
+     */
+    public CmsExportEntry prepareFile(CmsFile file, String name) {
+
+        byte[] content = file.getContents();
+        CmsExportEntry entry = new CmsExportEntry(name, file.getDateLastModified(), content.length);
+        if (m_isExportAsFiles) {
+            entry.m_data = content;
+            return entry;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        entry.m_crc = crc.getValue();
+        // use the same settings as the default ZIP output stream
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(content);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, content.length / 2));
+            byte[] buffer = new byte[SUB_LENGTH];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                out.write(buffer, 0, length);
+            }
+            entry.m_data = out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+        return entry;
+    }
+
     /**
      * Writes a single OpenCms VFS file to the export.<p>
      *
@@ -143,10 +238,24 @@ public class CmsExportHelper {
      */
     public void writeFile(CmsFile file, String name) throws IOException {
 
+        writeFile(prepareFile(file, name));
+    }
+
+    /**
+     * Writes a single prepared OpenCms VFS file to the export.<p>
+     *
+     * @param entry the prepared file to write
+     *
+     * @throws IOException in case of file access issues
+     *
+     * @see #prepareFile(CmsFile, String)
+     */
+    public void writeFile(CmsExportEntry entry) throws IOException {
+
         if (m_isExportAsFiles) {
-            writeFile2Rfs(file, name);
+            writeFile2Rfs(entry);
         } else {
-            writeFile2Zip(file, name);
+            writeFile2Zip(entry);
         }
     }
 
@@ -204,42 +313,44 @@ public class CmsExportHelper {
     }
 
     /**
-     * Writes a single OpenCms VFS file to the RFS export.<p>
+     * Writes a single prepared OpenCms VFS file to the RFS export.<p>
      *
-     * @param file the OpenCms VFS file to write
-     * @param name the name of the file in the export
+     * @param entry the prepared file to write
      *
      * @throws IOException in case of file access issues
      */
-    protected void writeFile2Rfs(CmsFile file, String name) throws IOException {
+    protected void writeFile2Rfs(CmsExportEntry entry) throws IOException {
 
-        String fileName = getRfsFileName(name);
+        String fileName = getRfsFileName(entry.m_name);
         File rfsFile = new File(fileName);
         if (!rfsFile.getParentFile().exists()) {
             rfsFile.getParentFile().mkdirs();
         }
         rfsFile.createNewFile();
         FileOutputStream rfsFileOut = new FileOutputStream(rfsFile);
-        rfsFileOut.write(file.getContents());
+        rfsFileOut.write(entry.m_data);
         rfsFileOut.close();
     }
 
     /**
-     * Writes a single OpenCms VFS file to the ZIP export.<p>
+     * Writes a single prepared OpenCms VFS file to the ZIP export.<p>
      *
-     * @param file the OpenCms VFS file to write
-     * @param name the name of the file in the export
+     * The content of the file has already been compressed, so it is copied to the ZIP file as it is.<p>
+     *
+     * @param entry the prepared file to write
      *
      * @throws IOException in case of file access issues
      */
-    protected void writeFile2Zip(CmsFile file, String name) throws IOException {
+    protected void writeFile2Zip(CmsExportEntry entry) throws IOException {
 
-        ZipEntry entry = new ZipEntry(name);
+        ZipArchiveEntry zipEntry = new ZipArchiveEntry(entry.m_name);
         // save the time of the last modification in the zip
-        entry.setTime(file.getDateLastModified());
-        m_exportZipStream.putNextEntry(entry);
-        m_exportZipStream.write(file.getContents());
-        m_exportZipStream.closeEntry();
+        zipEntry.setTime(entry.m_dateLastModified);
+        zipEntry.setMethod(ZipEntry.DEFLATED);
+        zipEntry.setSize(entry.m_size);
+        zipEntry.setCompressedSize(entry.m_data.length);
+        zipEntry.setCrc(entry.m_crc);
+        m_exportZipStream.addRawArchiveEntry(zipEntry, new ByteArrayInputStream(entry.m_data));
     }
 
     /**
@@ -278,8 +389,8 @@ public class CmsExportHelper {
         xmlSaxWriter.getWriter().close();
 
         // create ZIP entry for the manifest XML document
-        ZipEntry entry = new ZipEntry(CmsImportExportManager.EXPORT_MANIFEST);
-        m_exportZipStream.putNextEntry(entry);
+        ZipArchiveEntry entry = new ZipArchiveEntry(CmsImportExportManager.EXPORT_MANIFEST);
+        m_exportZipStream.putArchiveEntry(entry);
 
         // complex substring operation is required to ensure handling for very large export manifest files
         StringBuffer result = ((StringWriter)xmlSaxWriter.getWriter()).getBuffer();
@@ -297,7 +408,7 @@ public class CmsExportHelper {
         }
 
         // close the zip entry for the manifest XML document
-        m_exportZipStream.closeEntry();
+        m_exportZipStream.closeArchiveEntry();
 
         // finally close the zip stream
         m_exportZipStream.close();
@@ -50,10 +50,12 @@ import org.opencms.i18n.CmsMessageContainer;
 import org.opencms.importexport.CmsImportExportManager.TimestampMode;
 import org.opencms.loader.CmsLoaderException;
 import org.opencms.lock.CmsLock;
+import org.opencms.main.CmsEventBatch;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsIllegalStateException;
 import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
+import org.opencms.relations.CmsRelation;
 import org.opencms.relations.CmsRelationType;
 import org.opencms.relations.I_CmsLinkParseable;
 import org.opencms.report.I_CmsReport;
@@ -555,6 +557,9 @@ public class CmsImportVersion10 implements I_CmsImport {
     /** The export version. */
     protected int m_version;
 
+    /** The event batch collecting the modification events while the resources are imported. */
+    private CmsEventBatch m_eventBatch;
+
     /**
      * Maps index of files in import to structure ids of imported resources.
      * Necessary because not all entries in the manifest may have a structure id, and even for entries
@@ -879,7 +884,9 @@ public class CmsImportVersion10 implements I_CmsImport {
 
                 m_indexToStructureId = new HashMap<>();
                 m_relationData = ArrayListMultimap.create();
-
+                // deliver the modification events of the imported resources in batches,
+                // the batch is closed before the imported resources are read back
+                m_eventBatch = getCms().startEventBatch();
             }
         });
 
@@ -1588,6 +1595,7 @@ public class CmsImportVersion10 implements I_CmsImport {
                 // noop
             }
             m_helper.closeFile();
+            closeEventBatch();
         }
     }
 
@@ -1895,6 +1903,8 @@ public class CmsImportVersion10 implements I_CmsImport {
      */
     public void importRelations() {
 
+        // the caches must be up to date when the imported resources are read back
+        closeEventBatch();
         if ((m_relationData == null) || m_relationData.isEmpty()) {
             // no relations to add
             return;
@@ -1906,6 +1916,9 @@ public class CmsImportVersion10 implements I_CmsImport {
 
         int i = 0;
         CmsResourceFilter filter = CmsResourceFilter.ALL;
+        // many resources usually link to the same targets, so every target is only read once
+        Map<CmsUUID, CmsResource> targetsById = new HashMap<CmsUUID, CmsResource>();
+        Map<String, CmsResource> targetsByPath = new HashMap<String, CmsResource>();
         for (Integer importIndex : m_relationData.keySet()) {
             CmsUUID structureId = m_indexToStructureId.get(importIndex);
             if (structureId == null) {
@@ -1932,38 +1945,56 @@ public class CmsImportVersion10 implements I_CmsImport {
                     I_CmsReport.FORMAT_NOTE);
                 getReport().print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
                 boolean withErrors = false;
+                List<CmsRelation> relations = new ArrayList<CmsRelation>(relationDataList.size());
                 for (RelationData relationData : relationDataList) {
                     CmsResource target = null;
                     if (relationData.getTargetId() != null) {
-                        try {
-                            target = m_cms.readResource(relationData.getTargetId(), filter);
-                        } catch (CmsVfsResourceNotFoundException e) {
-                            // ignore
+                        target = targetsById.get(relationData.getTargetId());
+                        if ((target == null) && !targetsById.containsKey(relationData.getTargetId())) {
+                            try {
+                                target = m_cms.readResource(relationData.getTargetId(), filter);
+                            } catch (CmsVfsResourceNotFoundException e) {
+                                // ignore
+                            }
+                            targetsById.put(relationData.getTargetId(), target);
                         }
                     }
                     if (target == null) {
-                        try {
-                            target = m_cms.readResource(relationData.getTarget(), filter);
-                        } catch (CmsVfsResourceNotFoundException e) {
-                            // ignore
+                        target = targetsByPath.get(relationData.getTarget());
+                        if ((target == null) && !targetsByPath.containsKey(relationData.getTarget())) {
+                            try {
+                                target = m_cms.readResource(relationData.getTarget(), filter);
+                            } catch (CmsVfsResourceNotFoundException e) {
+                                // ignore
+                            }
+                            targetsByPath.put(relationData.getTarget(), target);
                         }
                     }
 
                     if (target != null) {
-                        try {
-                            getCms().importRelation(
-                                m_cms.getSitePath(src),
-                                m_cms.getSitePath(target),
-                                relationData.getType().toString());
-                        } catch (CmsException e) {
-                            getReport().addWarning(e);
+                        relations.add(new CmsRelation(src, target, relationData.getType()));
+                    }
+                }
+                if (!relations.isEmpty()) {
+                    // all relations of the resource are written at once, invalid relations are skipped one by one
+                    try {
+                        for (CmsRelation skipped : getCms().importRelations(src, relations)) {
                             withErrors = true;
-                            if (LOG.isWarnEnabled()) {
-                                LOG.warn(e.getLocalizedMessage());
-                            }
-                            if (LOG.isDebugEnabled()) {
-                                LOG.debug(e.getLocalizedMessage(), e);
-                            }
+                            getReport().addWarning(
+                                Messages.get().getBundle(getReport().getLocale()).key(
+                                    Messages.ERR_IMPORTEXPORT_RELATION_SKIPPED_3,
+                                    src.getRootPath(),
+                                    skipped.getTargetPath(),
+                                    skipped.getType().getName()));
+                        }
+                    } catch (CmsException e) {
+                        getReport().addWarning(e);
+                        withErrors = true;
+                        if (LOG.isWarnEnabled()) {
+                            LOG.warn(e.getLocalizedMessage());
+                        }
+                        if (LOG.isDebugEnabled()) {
+                            LOG.debug(e.getLocalizedMessage(), e);
                         }
                     }
                 }
@@ -3592,6 +3623,17 @@ public class CmsImportVersion10 implements I_CmsImport {
         }
     }
 
+    /**
+     * Closes the event batch of the resource import, if open, and delivers the collected events.<p>
+     */
+    private void closeEventBatch() {
+
+        if (m_eventBatch != null) {
+            m_eventBatch.close();
+            m_eventBatch = null;
+        }
+    }
+
     /**
      * Checks whether the content for the resource being imported exists either in the VFS or in the import file.<p>
      *
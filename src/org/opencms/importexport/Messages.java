@@ -130,6 +130,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_IMPORTEXPORT_LINK_CONVERSION_FAILED_2 = "ERR_IMPORTEXPORT_LINK_CONVERSION_FAILED_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_IMPORTEXPORT_RELATION_SKIPPED_3 = "ERR_IMPORTEXPORT_RELATION_SKIPPED_3";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_IMPORTEXPORT_EXPORT_INVALID_TIMESTAMPMODE_2 = "ERR_IMPORTEXPORT_EXPORT_INVALID_TIMESTAMPMODE_2";
 
@@ -27,28 +27,104 @@
 
 package org.opencms.jlan;
 
+import org.opencms.main.CmsLog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.apache.commons.logging.Log;
+
 /**
- * Buffer class which holds file contents for JLAN file access in memory before they are written to the VFS.<p>
+ * Buffer class which holds file contents for JLAN file access before they are written to the VFS.<p>
  *
- * This is implemented as a CmsByteBuffer instance together with a 'position' index which marks the next write position
+ * Small contents are kept in memory in a CmsByteBuffer instance. As soon as the contents grow beyond a threshold,
+ * they are moved to a temporary file, and all further reads and writes access that file directly at the requested
+ * position. A 'position' index marks the next write position.<p>
+ *
+ * The temporary file is deleted when the buffer is closed.<p>
  */
 public class CmsFileBuffer {
 
-    /** The buffer used to store the file contents. */
+    /** The default size in bytes above which the contents are moved to a temporary file. */
+    public static final int DEFAULT_SPILL_THRESHOLD = 1024 * 1024;
+
+    /** The size of the chunks used when moving the contents to the temporary file. */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    /** The logger instance for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsFileBuffer.class);
+
+    /** The buffer used to store the file contents, as long as they are kept in memory. */
     CmsByteBuffer m_buffer = new CmsByteBuffer(8192);
 
     /** The current write position. */
     long m_position;
 
+    /** The channel for the temporary file, or null if the contents are kept in memory. */
+    private FileChannel m_channel;
+
+    /** The size of the contents stored in the temporary file. */
+    private long m_size;
+
+    /** The size in bytes above which the contents are moved to a temporary file. */
+    private int m_spillThreshold;
+
+    /** The temporary file, or null if the contents are kept in memory. */
+    private File m_tempFile;
+
+    /**
+     * Creates a new buffer which moves its contents to a temporary file above the default threshold.<p>
+     */
+    public CmsFileBuffer() {
+
+        this(DEFAULT_SPILL_THRESHOLD);
+    }
+
+    /**
+     * Creates a new buffer which moves its contents to a temporary file above the given threshold.<p>
+     *
+     * @param spillThreshold the size in bytes above which the contents are moved to a temporary file
+     */
+    public CmsFileBuffer(int spillThreshold) {
+
+        m_spillThreshold = spillThreshold;
+    }
+
+    /**
+     * Releases the resources of this buffer and deletes the temporary file, if one was created.<p>
+     *
+     * After this, the buffer is empty.<p>
+     */
+    public void close() {
+
+        deleteTempFile();
+        m_buffer = new CmsByteBuffer(8192);
+        m_size = 0;
+        m_position = 0;
+    }
+
     /**
      * Gets the contents of this buffer as a byte array.<p>
      *
      * @return the file content
+     *
+     * @throws IOException if reading the temporary file fails
      */
-    public byte[] getContents() {
+    public byte[] getContents() throws IOException {
 
-        byte[] contents = new byte[m_buffer.size()];
-        m_buffer.readBytes(contents, 0, 0, m_buffer.size());
+        if (m_channel == null) {
+            byte[] contents = new byte[m_buffer.size()];
+            m_buffer.readBytes(contents, 0, 0, m_buffer.size());
+            return contents;
+        }
+        if (m_size > Integer.MAX_VALUE) {
+            throw new IOException("File too large: " + m_size);
+        }
+        byte[] contents = new byte[(int)m_size];
+        readFully(ByteBuffer.wrap(contents), 0);
         return contents;
     }
 
@@ -60,7 +136,7 @@ public class CmsFileBuffer {
      */
     public long getLength() {
 
-        return m_buffer.size();
+        return m_channel == null ? m_buffer.size() : m_size;
     }
 
     /**
@@ -77,11 +153,23 @@ public class CmsFileBuffer {
      * Initializes the file content data.<p>
      *
      * @param data the file content data
+     *
+     * @throws IOException if writing the temporary file fails
      */
-    public void init(byte[] data) {
+    public void init(byte[] data) throws IOException {
 
         m_position = 0;
-        m_buffer.writeBytes(data, 0, 0, data.length);
+        write(data);
+    }
+
+    /**
+     * Checks if the contents of this buffer have been moved to a temporary file.<p>
+     *
+     * @return true if the contents are stored in a temporary file
+     */
+    public boolean isSpilled() {
+
+        return m_channel != null;
     }
 
     /**
@@ -94,17 +182,21 @@ public class CmsFileBuffer {
      * @param fileOffset the start index for this instance
      *
      * @return the number of bytes read, or -1 if we are at the end of the file
+     *
+     * @throws IOException if reading the temporary file fails
      */
-    public int read(byte[] dest, int length, int bufferOffset, int fileOffset) {
+    public int read(byte[] dest, int length, int bufferOffset, long fileOffset) throws IOException {
 
-        if (fileOffset >= m_buffer.size()) {
+        long size = getLength();
+        if (fileOffset >= size) {
             return -1;
         }
-        int readEnd = fileOffset + length;
-        if (readEnd > m_buffer.size()) {
-            length = length - (readEnd - m_buffer.size());
+        length = (int)Math.min(length, size - fileOffset);
+        if (m_channel == null) {
+            m_buffer.readBytes(dest, (int)fileOffset, bufferOffset, length);
+        } else {
+            readFully(ByteBuffer.wrap(dest, bufferOffset, length), fileOffset);
         }
-        m_buffer.readBytes(dest, fileOffset, bufferOffset, length);
         return length;
     }
 
@@ -122,10 +214,25 @@ public class CmsFileBuffer {
      * Changes the size of this buffer.<p>
      *
      * @param size the new size
+     *
+     * @throws IOException if changing the size of the temporary file fails
      */
-    public void truncate(int size) {
+    public void truncate(long size) throws IOException {
 
-        m_buffer.truncate(size);
+        if ((m_channel == null) && (size > m_spillThreshold)) {
+            spill();
+        }
+        if (m_channel == null) {
+            m_buffer.truncate((int)size);
+        } else {
+            if (size < m_size) {
+                m_channel.truncate(size);
+            } else if (size > m_size) {
+                // the gap is filled with zeros by the file system
+                writeFully(ByteBuffer.wrap(new byte[1]), size - 1);
+            }
+            m_size = size;
+        }
         m_position = Math.min(size, m_position);
     }
 
@@ -133,9 +240,123 @@ public class CmsFileBuffer {
      * Writes the data to the internal buffer.<p>
      *
      * @param data the data to write
+     *
+     * @throws IOException if writing the temporary file fails
+     */
+    public void write(byte[] data) throws IOException {
+
+        write(data, 0, data.length);
+    }
+
+    /**
+     * Writes a part of the given data to the internal buffer at the current write position.<p>
+     *
+     * @param data the array containing the data to write
+     * @param offset the start index in the data array
+     * @param length the number of bytes to write
+     *
+     * @throws IOException if writing the temporary file fails
+     */
+    public void write(byte[] data, int offset, int length) throws IOException {
+
+        long end = m_position + length;
+        if ((m_channel == null) && (end > m_spillThreshold)) {
+            spill();
+        }
+        if (m_channel == null) {
+            m_buffer.writeBytes(data, offset, (int)m_position, length);
+        } else if (length > 0) {
+            writeFully(ByteBuffer.wrap(data, offset, length), m_position);
+            m_size = Math.max(m_size, end);
+        } else if (end > m_size) {
+            // an empty write behind the end still extends the contents, like for the in-memory buffer
+            truncate(end);
+        }
+    }
+
+    /**
+     * Closes and deletes the temporary file, if one was created.<p>
+     */
+    private void deleteTempFile() {
+
+        if (m_channel != null) {
+            try {
+                m_channel.close();
+            } catch (IOException e) {
+                LOG.warn(e.getLocalizedMessage(), e);
+            }
+            m_channel = null;
+        }
+        if ((m_tempFile != null) && !m_tempFile.delete()) {
+            LOG.warn("Could not delete temporary file " + m_tempFile.getAbsolutePath());
+        }
+        m_tempFile = null;
+    }
+
+    /**
+     * Reads from the temporary file until the target buffer is full.<p>
+     *
+     * @param target the buffer to read into
+     * @param position the file position to start reading at
+     *
+     * @throws IOException if reading fails
+     */
+    private void readFully(ByteBuffer target, long position) throws IOException {
+
+        while (target.hasRemaining()) {
+            int read = m_channel.read(target, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of temporary file " + m_tempFile.getAbsolutePath());
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * Moves the contents from memory to a new temporary file.<p>
+     *
+     * @throws IOException if creating or writing the temporary file fails
      */
-    public void write(byte[] data) {
+    @SuppressWarnings("resource")
+    private void spill() throws IOException {
 
-        m_buffer.writeBytes(data, 0, (int)m_position, data.length);
+        m_tempFile = File.createTempFile("opencms-jlan-", ".tmp");
+        try {
+            m_channel = new RandomAccessFile(m_tempFile, "rw").getChannel();
+            int size = m_buffer.size();
+            byte[] chunk = new byte[Math.min(size, CHUNK_SIZE)];
+            int position = 0;
+            while (position < size) {
+                int length = Math.min(chunk.length, size - position);
+                m_buffer.readBytes(chunk, position, 0, length);
+                writeFully(ByteBuffer.wrap(chunk, 0, length), position);
+                position += length;
+            }
+            m_size = size;
+        } catch (IOException e) {
+            // keep the contents in memory
+            deleteTempFile();
+            throw e;
+        }
+        // release the memory
+        m_buffer = null;
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Moved file buffer of " + m_size + " bytes to " + m_tempFile.getAbsolutePath());
+        }
+    }
+
+    /**
+     * Writes the whole content of the source buffer to the temporary file.<p>
+     *
+     * @param source the buffer to write
+     * @param position the file position to start writing at
+     *
+     * @throws IOException if writing fails
+     */
+    private void writeFully(ByteBuffer source, long position) throws IOException {
+
+        while (source.hasRemaining()) {
+            position += m_channel.write(source, position);
+        }
     }
 }
@@ -39,7 +39,6 @@ import org.opencms.util.CmsUUID;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -101,18 +100,29 @@ public class CmsJlanNetworkFile extends NetworkFile {
     @Override
     public void closeFile() throws IOException {
 
-        if (hasDeleteOnClose()) {
-            delete();
-        } else {
-            flushFile();
-            if ((getWriteCount() > 0) && m_needToUnlock) {
-                try {
-                    m_cms.unlockResource(m_cms.getSitePath(m_resource));
-                    m_needToUnlock = false;
-                } catch (CmsException e) {
-                    LOG.error("Couldn't unlock file: " + m_resource.getRootPath());
+        try {
+            if (hasDeleteOnClose()) {
+                delete();
+            } else {
+                flushFile();
+                if ((getWriteCount() > 0) && m_needToUnlock) {
+                    try {
+                        m_cms.unlockResource(m_cms.getSitePath(m_resource));
+                        m_needToUnlock = false;
+                    } catch (CmsException e) {
+                        LOG.error("Couldn't unlock file: " + m_resource.getRootPath());
+                    }
                 }
             }
+        } finally {
+            // delete the temporary file of a large buffer
+            m_buffer.close();
+            // the buffer has to be loaded again if the file is accessed after closing it, and since the cached
+            // content may be outdated after writing the file, it is read again from the VFS
+            m_bufferInitialized = false;
+            if (getFile() != null) {
+                m_resource = m_resource.getCopy();
+            }
         }
     }
 
@@ -270,7 +280,7 @@ public class CmsJlanNetworkFile extends NetworkFile {
 
         try {
             load(true);
-            int result = m_buffer.read(buffer, length, bufferOffset, (int)fileOffset);
+            int result = m_buffer.read(buffer, length, bufferOffset, fileOffset);
             return result;
         } catch (CmsException e) {
             throw CmsJlanDiskInterface.convertCmsException(e);
@@ -374,7 +384,7 @@ public class CmsJlanNetworkFile extends NetworkFile {
 
         try {
             load(true);
-            m_buffer.truncate((int)size);
+            m_buffer.truncate(size);
             incrementWriteCount();
         } catch (CmsException e) {
             throw CmsJlanDiskInterface.convertCmsException(e);
@@ -393,8 +403,7 @@ public class CmsJlanNetworkFile extends NetworkFile {
             }
             load(true);
             m_buffer.seek(offset);
-            byte[] dataToWrite = Arrays.copyOfRange(data, pos, pos + len);
-            m_buffer.write(dataToWrite);
+            m_buffer.write(data, pos, len);
             incrementWriteCount();
         } catch (CmsException e) {
             throw CmsJlanDiskInterface.convertCmsException(e);
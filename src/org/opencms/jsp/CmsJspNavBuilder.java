@@ -540,7 +540,14 @@ public class CmsJspNavBuilder {
         CmsResourceFilter resourceFilter) {
 
         folder = CmsFileUtil.removeTrailingSeparator(folder);
-        List<CmsJspNavElement> result = new ArrayList<CmsJspNavElement>();
+        CmsJspNavIndex navIndex = CmsJspNavIndex.getInstance();
+        if ((navIndex != null) && navIndex.isIndexed(m_cms, resourceFilter)) {
+            List<CmsJspNavElement> elements = navIndex.getNavigationForFolder(m_cms, folder, m_locale);
+            if (elements != null) {
+                // the elements from the navigation index are already sorted
+                return filterNavigation(elements, visibility, resourceFilter);
+            }
+        }
 
         List<CmsResource> resources = null;
         try {
@@ -553,17 +560,14 @@ public class CmsJspNavBuilder {
         if (resources == null) {
             return Collections.<CmsJspNavElement> emptyList();
         }
-        boolean includeAll = visibility == Visibility.all;
-        boolean includeHidden = visibility == Visibility.includeHidden;
+        List<CmsJspNavElement> elements = new ArrayList<CmsJspNavElement>(resources.size());
         for (CmsResource r : resources) {
             CmsJspNavElement element = getNavigationForResource(m_cms.getSitePath(r), resourceFilter);
-            if ((element != null)
-                && (includeAll
-                    || (element.isInNavigation() && (includeHidden || !element.isHiddenNavigationEntry())))) {
-                element.setNavContext(new NavContext(this, visibility, resourceFilter));
-                result.add(element);
+            if (element != null) {
+                elements.add(element);
             }
         }
+        List<CmsJspNavElement> result = filterNavigation(elements, visibility, resourceFilter);
         Collections.sort(result);
         return result;
     }
@@ -782,6 +786,32 @@ public class CmsJspNavBuilder {
         m_requestUriFolder = CmsResource.getFolderPath(m_requestUri);
     }
 
+    /**
+     * Filters the given navigation elements by visibility and sets the navigation context.<p>
+     *
+     * @param elements the navigation elements to filter
+     * @param visibility the visibility mode
+     * @param resourceFilter the filter used to read the resources
+     *
+     * @return the navigation elements matching the visibility mode
+     */
+    private List<CmsJspNavElement> filterNavigation(
+        List<CmsJspNavElement> elements,
+        Visibility visibility,
+        CmsResourceFilter resourceFilter) {
+
+        List<CmsJspNavElement> result = new ArrayList<CmsJspNavElement>(elements.size());
+        boolean includeAll = visibility == Visibility.all;
+        boolean includeHidden = visibility == Visibility.includeHidden;
+        for (CmsJspNavElement element : elements) {
+            if (includeAll || (element.isInNavigation() && (includeHidden || !element.isHiddenNavigationEntry()))) {
+                element.setNavContext(new NavContext(this, visibility, resourceFilter));
+                result.add(element);
+            }
+        }
+        return result;
+    }
+
     /**
      * Collect all navigation elements from the files in the given folder.<p>
     *
@@ -0,0 +1,654 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.jsp;
+
+import org.opencms.db.CmsPublishedResource;
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProject;
+import org.opencms.file.CmsProperty;
+import org.opencms.file.CmsPropertyDefinition;
+import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
+import org.opencms.main.CmsEvent;
+import org.opencms.main.CmsException;
+import org.opencms.main.CmsLog;
+import org.opencms.main.I_CmsEventListener;
+import org.opencms.main.OpenCms;
+import org.opencms.security.CmsPermissionSet;
+import org.opencms.security.CmsRole;
+import org.opencms.util.CmsCollectionsGenericWrapper;
+import org.opencms.util.CmsFileUtil;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * In-memory index of the navigation of the online project, used by the <code>{@link CmsJspNavBuilder}</code>.<p>
+ *
+ * For every folder requested, the index stores the child resources together with their properties,
+ * and the order of the children by navigation position for every locale that was requested.
+ * Entries are removed incrementally for the folders affected by a publish operation,
+ * so navigation lookups for unchanged folders do not need to read from the VFS.
+ * The number of folders in the index is limited, the least recently used folders are removed first.<p>
+ *
+ * Since the children of a folder depend on the release and expiration dates, every folder entry
+ * is only used for the time range in which none of these dates are reached. Permissions and the
+ * default files of folders are checked with the current user for every lookup, so the entries can be
+ * shared between all users. The navigation elements get unmodifiable properties and copies of the resources.<p>
+ *
+ * @since 11.0.0
+ */
+public final class CmsJspNavIndex implements I_CmsEventListener {
+
+    /**
+     * Navigation data of a single resource.<p>
+     */
+    private static class CmsNavEntry {
+
+        /** The properties of the resource, not modifiable since they are shared by all navigation elements. */
+        private final Map<String, String> m_properties;
+
+        /** The resource. */
+        private final CmsResource m_resource;
+
+        /**
+         * Creates a new entry.<p>
+         *
+         * @param resource the resource
+         * @param properties the properties of the resource
+         */
+        CmsNavEntry(CmsResource resource, Map<String, String> properties) {
+
+            m_resource = resource;
+            m_properties = Collections.unmodifiableMap(properties);
+        }
+
+        /**
+         * Creates a navigation element for this entry.<p>
+         *
+         * The element gets its own copy of the resource, so changes to it do not affect the index.<p>
+         *
+         * @param sitePath the site path to use
+         * @param level the navigation tree level
+         * @param locale the locale for which properties should be read
+         *
+         * @return the navigation element
+         */
+        CmsJspNavElement createElement(String sitePath, int level, Locale locale) {
+
+            return new CmsJspNavElement(sitePath, m_resource.getCopy(), m_properties, level, locale);
+        }
+
+        /**
+         * Returns the resource.<p>
+         *
+         * @return the resource
+         */
+        CmsResource getResource() {
+
+            return m_resource;
+        }
+
+        /**
+         * Returns if this entry is a folder which is only shown if its default file is released and not expired.<p>
+         *
+         * @return <code>true</code> if the default file of this entry must be checked
+         */
+        boolean isDefaultFileChecked() {
+
+            return m_resource.isFolder() && !isNavigationLevel();
+        }
+
+        /**
+         * Returns if this entry is a folder marked as navigation level.<p>
+         *
+         * @return <code>true</code> if this entry is a navigation level folder
+         */
+        boolean isNavigationLevel() {
+
+            return m_resource.isFolder()
+                && CmsJspNavBuilder.NAVIGATION_LEVEL_FOLDER.equals(
+                    m_properties.get(CmsPropertyDefinition.PROPERTY_DEFAULT_FILE));
+        }
+    }
+
+    /**
+     * Navigation data of a folder.<p>
+     */
+    private static class CmsNavFolder {
+
+        /** The child entries, in the order in which they were read. */
+        private final List<CmsNavEntry> m_entries;
+
+        /** The child entries sorted by navigation position, by locale. */
+        private final Map<String, List<CmsNavEntry>> m_sortedEntries;
+
+        /** The entries are valid for request times after this time. */
+        private final long m_validFrom;
+
+        /** The entries are valid for request times before this time. */
+        private final long m_validUntil;
+
+        /**
+         * Creates a new folder entry.<p>
+         *
+         * @param entries the child entries
+         * @param validFrom the entries are valid for request times after this time
+         * @param validUntil the entries are valid for request times before this time
+         */
+        CmsNavFolder(List<CmsNavEntry> entries, long validFrom, long validUntil) {
+
+            m_entries = entries;
+            m_validFrom = validFrom;
+            m_validUntil = validUntil;
+            m_sortedEntries = new ConcurrentHashMap<String, List<CmsNavEntry>>(4);
+        }
+
+        /**
+         * Checks if one of the child entries belongs to one of the given resource ids.<p>
+         *
+         * @param resourceIds the resource ids
+         *
+         * @return <code>true</code> if one of the child entries belongs to one of the given resource ids
+         */
+        boolean containsResource(Set<CmsUUID> resourceIds) {
+
+            for (CmsNavEntry entry : m_entries) {
+                if (resourceIds.contains(entry.getResource().getResourceId())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns the child entries sorted by their navigation position for the given locale.<p>
+         *
+         * @param locale the locale for which properties should be read
+         *
+         * @return the sorted child entries
+         */
+        List<CmsNavEntry> getSortedEntries(Locale locale) {
+
+            String key = String.valueOf(locale);
+            List<CmsNavEntry> result = m_sortedEntries.get(key);
+            if (result == null) {
+                final Map<CmsNavEntry, Float> positions = new IdentityHashMap<CmsNavEntry, Float>();
+                for (CmsNavEntry entry : m_entries) {
+                    CmsResource resource = entry.getResource();
+                    positions.put(
+                        entry,
+                        Float.valueOf(entry.createElement(resource.getRootPath(), -1, locale).getNavPosition()));
+                }
+                result = new ArrayList<CmsNavEntry>(m_entries);
+                // the sort is stable, so entries with the same position keep the order in which they were read
+                Collections.sort(result, new Comparator<CmsNavEntry>() {
+
+                    public int compare(CmsNavEntry e1, CmsNavEntry e2) {
+
+                        return Float.compare(positions.get(e1).floatValue(), positions.get(e2).floatValue());
+                    }
+                });
+                result = Collections.unmodifiableList(result);
+                m_sortedEntries.put(key, result);
+            }
+            return result;
+        }
+
+        /**
+         * Checks if the entries can be used for the given request time.<p>
+         *
+         * @param time the request time
+         *
+         * @return <code>true</code> if the entries can be used for the given request time
+         */
+        boolean isValid(long time) {
+
+            return (time > m_validFrom) && (time < m_validUntil);
+        }
+    }
+
+    /** The default maximum number of folders in the index. */
+    public static final int DEFAULT_MAX_FOLDERS = 2000;
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsJspNavIndex.class);
+
+    /** The navigation index instance. */
+    private static CmsJspNavIndex m_instance;
+
+    /** The folder entries, by root path of the folder, in the order in which they were used. */
+    private final Map<String, CmsNavFolder> m_folders;
+
+    /** Counter for invalidations, used to detect folder entries which were read during an invalidation. */
+    private long m_generation;
+
+    /** Admin user context for the online project. */
+    private final CmsObject m_onlineCms;
+
+    /**
+     * Creates a new navigation index.<p>
+     *
+     * @param onlineCms an admin user context for the online project
+     * @param maxFolders the maximum number of folders in the index
+     */
+    CmsJspNavIndex(CmsObject onlineCms, int maxFolders) {
+
+        m_onlineCms = onlineCms;
+        m_folders = Collections.synchronizedMap(
+            CmsCollectionsGenericWrapper.<String, CmsNavFolder> createLRUMap(maxFolders));
+    }
+
+    /**
+     * Returns the navigation index, or <code>null</code> if it has not been initialized.<p>
+     *
+     * @return the navigation index
+     */
+    public static CmsJspNavIndex getInstance() {
+
+        return m_instance;
+    }
+
+    /**
+     * Initializes the navigation index.<p>
+     *
+     * @param cms an initialized admin OpenCms user context
+     *
+     * @throws CmsException in case the initialization fails
+     */
+    public static void initialize(CmsObject cms) throws CmsException {
+
+        CmsJspNavIndex index = new CmsJspNavIndex(createOnlineCms(cms), DEFAULT_MAX_FOLDERS);
+        OpenCms.addCmsEventListener(
+            index,
+            new int[] {
+                I_CmsEventListener.EVENT_PUBLISH_PROJECT,
+                I_CmsEventListener.EVENT_CLEAR_CACHES,
+                I_CmsEventListener.EVENT_CLEAR_ONLINE_CACHES});
+        m_instance = index;
+    }
+
+    /**
+     * Creates an admin user context for the online project and the root site.<p>
+     *
+     * @param cms an initialized admin OpenCms user context
+     *
+     * @return the online user context
+     *
+     * @throws CmsException in case the user context can not be created
+     */
+    static CmsObject createOnlineCms(CmsObject cms) throws CmsException {
+
+        OpenCms.getRoleManager().checkRole(cms, CmsRole.ADMINISTRATOR);
+        CmsObject onlineCms = OpenCms.initCmsObject(cms);
+        onlineCms.getRequestContext().setSiteRoot("");
+        onlineCms.getRequestContext().setCurrentProject(onlineCms.readProject(CmsProject.ONLINE_PROJECT_ID));
+        return onlineCms;
+    }
+
+    /**
+     * Clears the whole navigation index.<p>
+     */
+    public synchronized void clear() {
+
+        m_generation++;
+        m_folders.clear();
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsEventListener#cmsEvent(org.opencms.main.CmsEvent)
+     */
+    public void cmsEvent(CmsEvent event) {
+
+        switch (event.getType()) {
+            case I_CmsEventListener.EVENT_PUBLISH_PROJECT:
+                String publishIdStr = (String)event.getData().get(I_CmsEventListener.KEY_PUBLISHID);
+                if (!CmsUUID.isValidUUID(publishIdStr)) {
+                    clear();
+                    break;
+                }
+                try {
+                    List<CmsPublishedResource> publishedResources = m_onlineCms.readPublishedResources(
+                        new CmsUUID(publishIdStr));
+                    if (publishedResources.isEmpty()) {
+                        // not coming from a normal publish process, so clear the whole index to be on the safe side
+                        clear();
+                    } else {
+                        removeFolders(publishedResources);
+                    }
+                } catch (CmsException e) {
+                    LOG.error(e.getLocalizedMessage(), e);
+                    clear();
+                }
+                break;
+            case I_CmsEventListener.EVENT_CLEAR_CACHES:
+            case I_CmsEventListener.EVENT_CLEAR_ONLINE_CACHES:
+                clear();
+                break;
+            default:
+                // ignore
+        }
+    }
+
+    /**
+     * Returns the navigation elements for all resources in the given folder, sorted by their navigation position.<p>
+     *
+     * Only resources the current user can read are included. Elements are created from scratch for every call,
+     * so the caller may modify them.<p>
+     *
+     * @param cms the current user context, must be in the online project
+     * @param folder the site path of the folder
+     * @param locale the locale for which properties should be read
+     *
+     * @return the sorted navigation elements, or <code>null</code> if the navigation can not be read from the index
+     */
+    public List<CmsJspNavElement> getNavigationForFolder(CmsObject cms, String folder, Locale locale) {
+
+        long time = cms.getRequestContext().getRequestTime();
+        CmsNavFolder navFolder = getFolder(cms.getRequestContext().addSiteRoot(folder), time);
+        if (navFolder == null) {
+            return null;
+        }
+        List<CmsNavEntry> entries = navFolder.getSortedEntries(locale);
+        List<CmsJspNavElement> result = new ArrayList<CmsJspNavElement>(entries.size());
+        for (CmsNavEntry entry : entries) {
+            if (!isVisible(cms, entry, time)) {
+                continue;
+            }
+            String sitePath = cms.getSitePath(entry.getResource());
+            int level = CmsResource.getPathLevel(sitePath);
+            if (sitePath.endsWith("/")) {
+                level--;
+            }
+            if (entry.isNavigationLevel()) {
+                // link to the first sub element of the navigation level
+                String subSitePath = getNavigationLevelTarget(cms, entry, time, locale);
+                if (subSitePath != null) {
+                    sitePath = subSitePath;
+                }
+            }
+            result.add(entry.createElement(sitePath, level, locale));
+        }
+        return result;
+    }
+
+    /**
+     * Checks if the navigation for the given user context and resource filter can be read from the index.<p>
+     *
+     * @param cms the current user context
+     * @param resourceFilter the resource filter used to read the navigation
+     *
+     * @return <code>true</code> if the navigation can be read from the index
+     */
+    public boolean isIndexed(CmsObject cms, CmsResourceFilter resourceFilter) {
+
+        return cms.getRequestContext().getCurrentProject().isOnlineProject()
+            && CmsResourceFilter.DEFAULT.equals(resourceFilter);
+    }
+
+    /**
+     * Returns the number of folders in the index.<p>
+     *
+     * @return the number of folders in the index
+     */
+    int size() {
+
+        return m_folders.size();
+    }
+
+    /**
+     * Returns the folder entry for the given root path, reading it if necessary.<p>
+     *
+     * @param rootPath the root path of the folder
+     * @param time the request time
+     *
+     * @return the folder entry, or <code>null</code> if the folder can not be read or the entry is not valid for the request time
+     */
+    private CmsNavFolder getFolder(String rootPath, long time) {
+
+        rootPath = CmsFileUtil.addTrailingSeparator(rootPath);
+        CmsNavFolder navFolder = m_folders.get(rootPath);
+        if ((navFolder != null) && navFolder.isValid(time)) {
+            return navFolder;
+        }
+        long generation;
+        synchronized (this) {
+            generation = m_generation;
+        }
+        try {
+            navFolder = readFolder(rootPath);
+        } catch (CmsException e) {
+            // folder does not exist, let the navigation builder handle this
+            LOG.debug(e.getLocalizedMessage(), e);
+            return null;
+        }
+        synchronized (this) {
+            if (generation == m_generation) {
+                // the folder was not changed while it was read
+                m_folders.put(rootPath, navFolder);
+            }
+        }
+        return navFolder.isValid(time) ? navFolder : null;
+    }
+
+    /**
+     * Returns the site path of the first sub element of a navigation level folder.<p>
+     *
+     * @param cms the current user context
+     * @param entry the navigation level folder entry
+     * @param time the request time
+     * @param locale the locale for which properties should be read
+     *
+     * @return the site path of the first sub element, or <code>null</code> if the folder has no sub elements
+     */
+    private String getNavigationLevelTarget(CmsObject cms, CmsNavEntry entry, long time, Locale locale) {
+
+        CmsNavFolder navFolder = getFolder(entry.getResource().getRootPath(), time);
+        if (navFolder == null) {
+            return null;
+        }
+        for (CmsNavEntry subEntry : navFolder.getSortedEntries(locale)) {
+            if (!isVisible(cms, subEntry, time)) {
+                continue;
+            }
+            String sitePath = cms.getSitePath(subEntry.getResource());
+            if (subEntry.createElement(sitePath, -1, locale).isInNavigation()) {
+                if (subEntry.isNavigationLevel()) {
+                    String subSitePath = getNavigationLevelTarget(cms, subEntry, time, locale);
+                    if (subSitePath != null) {
+                        return subSitePath;
+                    }
+                }
+                return sitePath;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks if the current user can read the given resource.<p>
+     *
+     * @param cms the current user context
+     * @param resource the resource to check
+     *
+     * @return <code>true</code> if the current user can read the given resource
+     */
+    private boolean hasReadPermissions(CmsObject cms, CmsResource resource) {
+
+        try {
+            return cms.hasPermissions(resource, CmsPermissionSet.ACCESS_READ, false, CmsResourceFilter.ALL);
+        } catch (CmsException e) {
+            LOG.debug(e.getLocalizedMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Checks if the given entry is visible in the navigation for the current user.<p>
+     *
+     * The user must be able to read the resource. For folders, the default file is read with the
+     * permissions of the current user, like the navigation builder does, and the folder is hidden
+     * if the default file is not released or expired.<p>
+     *
+     * @param cms the current user context
+     * @param entry the entry to check
+     * @param time the request time
+     *
+     * @return <code>true</code> if the entry is visible
+     */
+    private boolean isVisible(CmsObject cms, CmsNavEntry entry, long time) {
+
+        if (!hasReadPermissions(cms, entry.getResource())) {
+            return false;
+        }
+        if (entry.isDefaultFileChecked()) {
+            try {
+                CmsResource defaultFile = cms.readDefaultFile(entry.getResource(), CmsResourceFilter.DEFAULT);
+                if ((defaultFile != null) && !defaultFile.isReleasedAndNotExpired(time)) {
+                    // do not show navigation entries for unreleased or expired resources
+                    return false;
+                }
+            } catch (CmsException e) {
+                // may happen if permissions are not sufficient can be ignored
+                LOG.debug(e.getLocalizedMessage(), e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the navigation data of a folder from the VFS.<p>
+     *
+     * @param rootPath the root path of the folder
+     *
+     * @return the folder entry
+     *
+     * @throws CmsException if the folder can not be read
+     */
+    private CmsNavFolder readFolder(String rootPath) throws CmsException {
+
+        CmsObject cms = OpenCms.initCmsObject(m_onlineCms);
+        long time = cms.getRequestContext().getRequestTime();
+        long[] validity = new long[] {Long.MIN_VALUE, Long.MAX_VALUE};
+        List<CmsResource> resources = cms.getResourcesInFolder(rootPath, CmsResourceFilter.IGNORE_EXPIRATION);
+        List<CmsNavEntry> entries = new ArrayList<CmsNavEntry>(resources.size());
+        for (CmsResource resource : resources) {
+            updateValidity(resource.getDateReleased(), time, validity);
+            updateValidity(resource.getDateExpired(), time, validity);
+            if (!resource.isReleasedAndNotExpired(time)) {
+                continue;
+            }
+            // the default files of folders are checked for every request, with the permissions of the user
+            Map<String, String> properties = CmsProperty.toMap(cms.readPropertyObjects(resource, false));
+            entries.add(new CmsNavEntry(resource, properties));
+        }
+        return new CmsNavFolder(entries, validity[0], validity[1]);
+    }
+
+    /**
+     * Removes the folder entries affected by the given published resources.<p>
+     *
+     * @param publishedResources the published resources
+     */
+    private synchronized void removeFolders(List<CmsPublishedResource> publishedResources) {
+
+        m_generation++;
+        List<String> removedTrees = new ArrayList<String>();
+        Set<CmsUUID> siblingResourceIds = new HashSet<CmsUUID>();
+        for (CmsPublishedResource res : publishedResources) {
+            String parent = CmsResource.getParentFolder(res.getRootPath());
+            if (parent != null) {
+                m_folders.remove(parent);
+            }
+            if (res.isFolder()) {
+                removedTrees.add(CmsFileUtil.addTrailingSeparator(res.getRootPath()));
+            } else if (res.getSiblingCount() > 1) {
+                siblingResourceIds.add(res.getResourceId());
+            }
+        }
+        if (removedTrees.isEmpty() && siblingResourceIds.isEmpty()) {
+            return;
+        }
+        List<String> removedFolders = new ArrayList<String>();
+        synchronized (m_folders) {
+            for (Map.Entry<String, CmsNavFolder> entry : m_folders.entrySet()) {
+                String rootPath = entry.getKey();
+                if (entry.getValue().containsResource(siblingResourceIds)) {
+                    // siblings in other folders share the resource properties and dates of the published resource
+                    removedFolders.add(rootPath);
+                    String parent = CmsResource.getParentFolder(rootPath);
+                    if (parent != null) {
+                        removedFolders.add(parent);
+                    }
+                    continue;
+                }
+                for (String tree : removedTrees) {
+                    if (rootPath.startsWith(tree)) {
+                        // folders may have been moved or deleted, so remove all entries below them
+                        removedFolders.add(rootPath);
+                        break;
+                    }
+                }
+            }
+            for (String rootPath : removedFolders) {
+                m_folders.remove(rootPath);
+            }
+        }
+    }
+
+    /**
+     * Narrows down the validity range of a folder entry with a date on which the visibility of a resource changes.<p>
+     *
+     * @param date the date to check
+     * @param time the time for which the folder entry is read
+     * @param validity the validity range of the folder entry, will be narrowed down
+     */
+    private static void updateValidity(long date, long time, long[] validity) {
+
+        if (date < time) {
+            validity[0] = Math.max(validity[0], date);
+        } else if (date > time) {
+            validity[1] = Math.min(validity[1], date);
+        } else {
+            // the visibility changes right now, so the entry can not be used at all
+            validity[0] = time;
+            validity[1] = time;
+        }
+    }
+}
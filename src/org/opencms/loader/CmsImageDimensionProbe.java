@@ -0,0 +1,283 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.loader;
+
+/**
+ * Reads the dimensions of an image from its header, without decoding the image data.<p>
+ *
+ * Supported formats are JPEG (SOF segment), PNG (IHDR chunk), GIF (logical screen descriptor)
+ * and WebP (VP8, VP8L and VP8X chunks). For all other formats, or in case the header
+ * can not be parsed, the dimensions are calculated by decoding the image with the
+ * <code>{@link CmsImageScaler}</code>.<p>
+ *
+ * @since 11.0.0
+ */
+public final class CmsImageDimensionProbe {
+
+    /** The PNG file signature. */
+    private static final byte[] PNG_SIGNATURE = {
+        (byte)0x89,
+        'P',
+        'N',
+        'G',
+        (byte)0x0D,
+        (byte)0x0A,
+        (byte)0x1A,
+        (byte)0x0A};
+
+    /**
+     * Hides the public constructor.<p>
+     */
+    private CmsImageDimensionProbe() {
+
+        // noop
+    }
+
+    /**
+     * Creates an image scaler initialized with the width and height of the given image.<p>
+     *
+     * The dimensions are read from the image header if possible. Only if this fails,
+     * the image is decoded using <code>{@link CmsImageScaler#CmsImageScaler(byte[], String)}</code>.
+     * In case the dimensions can not be determined at all,
+     * <code>{@link CmsImageScaler#isValid()}</code> will return <code>false</code>.<p>
+     *
+     * @param content the image to calculate the dimensions for
+     * @param rootPath the root path of the resource (for error logging)
+     *
+     * @return an image scaler initialized with the image dimensions
+     */
+    public static CmsImageScaler createScaler(byte[] content, String rootPath) {
+
+        int[] dimensions = getDimensions(content);
+        if (dimensions == null) {
+            // unknown format or broken header, decode the image
+            return new CmsImageScaler(content, rootPath);
+        }
+        CmsImageScaler result = new CmsImageScaler();
+        result.setWidth(dimensions[0]);
+        result.setHeight(dimensions[1]);
+        return result;
+    }
+
+    /**
+     * Returns the width and height of the given image, read from the image header.<p>
+     *
+     * @param content the image content
+     *
+     * @return an array with the width [0] and height [1] of the image,
+     *      or <code>null</code> if the dimensions can not be read from the header
+     */
+    public static int[] getDimensions(byte[] content) {
+
+        if ((content == null) || (content.length < 10)) {
+            return null;
+        }
+        int[] result = null;
+        try {
+            if (((content[0] & 0xFF) == 0xFF) && ((content[1] & 0xFF) == 0xD8)) {
+                result = getJpegDimensions(content);
+            } else if (startsWith(content, 0, PNG_SIGNATURE)) {
+                result = getPngDimensions(content);
+            } else if (startsWith(content, 0, "GIF8".getBytes())) {
+                result = new int[] {readShortLittleEndian(content, 6), readShortLittleEndian(content, 8)};
+            } else if (startsWith(content, 0, "RIFF".getBytes()) && startsWith(content, 8, "WEBP".getBytes())) {
+                result = getWebpDimensions(content);
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            // truncated header
+            result = null;
+        }
+        if ((result != null) && ((result[0] <= 0) || (result[1] <= 0))) {
+            result = null;
+        }
+        return result;
+    }
+
+    /**
+     * Reads the dimensions from the start of frame segment of a JPEG image.<p>
+     *
+     * @param content the image content
+     *
+     * @return the width and height, or <code>null</code> if no start of frame segment was found
+     */
+    private static int[] getJpegDimensions(byte[] content) {
+
+        int pos = 2;
+        while (pos < content.length) {
+            if ((content[pos] & 0xFF) != 0xFF) {
+                // not a marker, the file is broken
+                return null;
+            }
+            // skip fill bytes
+            while ((content[pos] & 0xFF) == 0xFF) {
+                pos++;
+            }
+            int marker = content[pos] & 0xFF;
+            pos++;
+            if ((marker == 0x01) || ((marker >= 0xD0) && (marker <= 0xD8))) {
+                // stand alone marker without segment length
+                continue;
+            }
+            if ((marker == 0xD9) || (marker == 0xDA)) {
+                // end of image or start of scan reached before any frame header
+                return null;
+            }
+            int length = readShortBigEndian(content, pos);
+            if ((marker >= 0xC0)
+                && (marker <= 0xCF)
+                && (marker != 0xC4)
+                && (marker != 0xC8)
+                && (marker != 0xCC)) {
+                // start of frame: length (2), precision (1), height (2), width (2)
+                return new int[] {readShortBigEndian(content, pos + 5), readShortBigEndian(content, pos + 3)};
+            }
+            if (length < 2) {
+                return null;
+            }
+            pos += length;
+        }
+        return null;
+    }
+
+    /**
+     * Reads the dimensions from the IHDR chunk of a PNG image.<p>
+     *
+     * @param content the image content
+     *
+     * @return the width and height, or <code>null</code> if the first chunk is not the IHDR chunk
+     */
+    private static int[] getPngDimensions(byte[] content) {
+
+        if (!startsWith(content, 12, "IHDR".getBytes())) {
+            return null;
+        }
+        return new int[] {readIntBigEndian(content, 16), readIntBigEndian(content, 20)};
+    }
+
+    /**
+     * Reads the dimensions from the first chunk of a WebP image.<p>
+     *
+     * @param content the image content
+     *
+     * @return the width and height, or <code>null</code> if the chunk type is unknown
+     */
+    private static int[] getWebpDimensions(byte[] content) {
+
+        if (startsWith(content, 12, "VP8 ".getBytes())) {
+            // lossy format, the frame header starts with a 3 byte frame tag and the start code 9D 01 2A
+            if (((content[23] & 0xFF) != 0x9D) || ((content[24] & 0xFF) != 0x01) || ((content[25] & 0xFF) != 0x2A)) {
+                return null;
+            }
+            return new int[] {readShortLittleEndian(content, 26) & 0x3FFF, readShortLittleEndian(content, 28) & 0x3FFF};
+        } else if (startsWith(content, 12, "VP8L".getBytes())) {
+            // lossless format, the signature byte is followed by 14 bit width - 1 and 14 bit height - 1
+            if ((content[20] & 0xFF) != 0x2F) {
+                return null;
+            }
+            int b0 = content[21] & 0xFF;
+            int b1 = content[22] & 0xFF;
+            int b2 = content[23] & 0xFF;
+            int b3 = content[24] & 0xFF;
+            int width = 1 + (b0 | ((b1 & 0x3F) << 8));
+            int height = 1 + ((b1 >> 6) | (b2 << 2) | ((b3 & 0x0F) << 10));
+            return new int[] {width, height};
+        } else if (startsWith(content, 12, "VP8X".getBytes())) {
+            // extended format, the canvas size is stored as 24 bit width - 1 and 24 bit height - 1
+            int width = 1
+                + ((content[24] & 0xFF) | ((content[25] & 0xFF) << 8) | ((content[26] & 0xFF) << 16));
+            int height = 1
+                + ((content[27] & 0xFF) | ((content[28] & 0xFF) << 8) | ((content[29] & 0xFF) << 16));
+            return new int[] {width, height};
+        }
+        return null;
+    }
+
+    /**
+     * Reads a 4 byte big endian integer.<p>
+     *
+     * @param content the content to read from
+     * @param pos the position to read at
+     *
+     * @return the integer value
+     */
+    private static int readIntBigEndian(byte[] content, int pos) {
+
+        return ((content[pos] & 0xFF) << 24)
+            | ((content[pos + 1] & 0xFF) << 16)
+            | ((content[pos + 2] & 0xFF) << 8)
+            | (content[pos + 3] & 0xFF);
+    }
+
+    /**
+     * Reads a 2 byte big endian unsigned integer.<p>
+     *
+     * @param content the content to read from
+     * @param pos the position to read at
+     *
+     * @return the integer value
+     */
+    private static int readShortBigEndian(byte[] content, int pos) {
+
+        return ((content[pos] & 0xFF) << 8) | (content[pos + 1] & 0xFF);
+    }
+
+    /**
+     * Reads a 2 byte little endian unsigned integer.<p>
+     *
+     * @param content the content to read from
+     * @param pos the position to read at
+     *
+     * @return the integer value
+     */
+    private static int readShortLittleEndian(byte[] content, int pos) {
+
+        return (content[pos] & 0xFF) | ((content[pos + 1] & 0xFF) << 8);
+    }
+
+    /**
+     * Checks if the content contains the given bytes at the given position.<p>
+     *
+     * @param content the content to check
+     * @param pos the position to check at
+     * @param expected the expected bytes
+     *
+     * @return <code>true</code> if the content contains the expected bytes at the given position
+     */
+    private static boolean startsWith(byte[] content, int pos, byte[] expected) {
+
+        if (content.length < (pos + expected.length)) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (content[pos + i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
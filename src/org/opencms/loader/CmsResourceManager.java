@@ -823,9 +823,7 @@ public class CmsResourceManager {
             }
         }
         StringBuffer result = new StringBuffer(mimeType);
-        if ((encoding != null)
-            && (mimeType.startsWith("text") || mimeType.endsWith("javascript"))
-            && (mimeType.indexOf("charset") == -1)) {
+        if ((encoding != null) && isTextMimeType(mimeType)) {
             result.append("; charset=");
             result.append(encoding);
         }
@@ -1175,6 +1173,20 @@ public class CmsResourceManager {
         }
     }
 
+    /**
+     * Checks if the given MIME type is text based and has no charset yet.<p>
+     *
+     * {@link #getMimeType(String, String, String)} extends only these MIME types with the encoding.<p>
+     *
+     * @param mimeType the MIME type to check
+     *
+     * @return <code>true</code> if the given MIME type is text based and has no charset yet
+     */
+    public boolean isTextMimeType(String mimeType) {
+
+        return (mimeType.startsWith("text") || mimeType.endsWith("javascript")) && (mimeType.indexOf("charset") == -1);
+    }
+
     /**
      * Loads the requested resource and writes the contents to the response stream.<p>
      *
@@ -0,0 +1,167 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Event manager which delivers events asynchronously to the listeners which allow this.<p>
+ *
+ * Listeners implementing {@link I_CmsAsyncEventListener} each get their own bounded {@link CmsAsyncEventQueue},
+ * so a slow listener neither delays the thread firing the event nor the other listeners. All other listeners
+ * still receive the events synchronously, as with the default event manager.<p>
+ *
+ * To use this event manager, configure it in the <code>opencms-system.xml</code>:
+ * <pre>
+ * &lt;events&gt;
+ *     &lt;eventmanager class="org.opencms.main.CmsAsyncEventManager" /&gt;
+ * &lt;/events&gt;
+ * </pre>
+ *
+ * @since 11.0.0
+ */
+public class CmsAsyncEventManager extends CmsEventManager {
+
+    /** The maximum number of events waiting for a single listener. */
+    public static final int QUEUE_CAPACITY = 1000;
+
+    /** The event queues of the asynchronous listeners. */
+    private Map<I_CmsEventListener, CmsAsyncEventQueue> m_queues = new ConcurrentHashMap<>();
+
+    /** Indicates if the event manager has been shut down. */
+    private volatile boolean m_shutDown;
+
+    /**
+     * Returns the event queues of the asynchronous listeners, which provide statistics about the event processing.<p>
+     *
+     * @return the event queues
+     */
+    public List<CmsAsyncEventQueue> getQueues() {
+
+        return new ArrayList<CmsAsyncEventQueue>(m_queues.values());
+    }
+
+    /**
+     * @see org.opencms.main.CmsEventManager#removeCmsEventListener(org.opencms.main.I_CmsEventListener)
+     */
+    @Override
+    public void removeCmsEventListener(I_CmsEventListener listener) {
+
+        // unregister the listener first, so no new queue is created for it
+        super.removeCmsEventListener(listener);
+        CmsAsyncEventQueue queue = m_queues.remove(listener);
+        if (queue != null) {
+            queue.shutDown();
+        }
+    }
+
+    /**
+     * Stops the threads delivering events to the asynchronous listeners.<p>
+     *
+     * Events fired afterwards are delivered synchronously to all listeners.<p>
+     *
+     * @see org.opencms.main.CmsEventManager#shutDown()
+     */
+    @Override
+    public void shutDown() {
+
+        m_shutDown = true;
+        for (I_CmsEventListener listener : new ArrayList<I_CmsEventListener>(m_queues.keySet())) {
+            CmsAsyncEventQueue queue = m_queues.remove(listener);
+            if (queue != null) {
+                queue.shutDown();
+            }
+        }
+    }
+
+    /**
+     * @see org.opencms.main.CmsEventManager#fireEventHandler(java.util.List, org.opencms.main.CmsEvent)
+     */
+    @Override
+    protected void fireEventHandler(List<I_CmsEventListener> listeners, CmsEvent event) {
+
+        if ((listeners == null) || listeners.isEmpty()) {
+            super.fireEventHandler(listeners, event);
+            return;
+        }
+        I_CmsEventListener[] list = listeners.toArray(EVENT_LIST);
+        List<I_CmsEventListener> syncListeners = new ArrayList<I_CmsEventListener>(list.length);
+        for (int i = 0; i < list.length; i++) {
+            CmsAsyncEventQueue queue = null;
+            if (list[i] instanceof I_CmsAsyncEventListener) {
+                queue = getQueue(list[i]);
+            }
+            if (queue != null) {
+                queue.add(event);
+            } else {
+                syncListeners.add(list[i]);
+            }
+        }
+        super.fireEventHandler(syncListeners, event);
+    }
+
+    /**
+     * Returns the event queue for the given asynchronous listener, creating it if necessary.<p>
+     *
+     * No queue is created if the event manager has been shut down or the listener has been removed
+     * in the meantime, in this case <code>null</code> is returned.<p>
+     *
+     * @param listener the listener
+     *
+     * @return the event queue, or <code>null</code>
+     */
+    private CmsAsyncEventQueue getQueue(I_CmsEventListener listener) {
+
+        return m_queues.computeIfAbsent(
+            listener,
+            key -> (!m_shutDown && isRegistered(key)) ? new CmsAsyncEventQueue(key, QUEUE_CAPACITY) : null);
+    }
+
+    /**
+     * Checks if the given listener is still registered for any event type.<p>
+     *
+     * @param listener the listener
+     *
+     * @return true if the listener is still registered
+     */
+    private boolean isRegistered(I_CmsEventListener listener) {
+
+        Map<Integer, List<I_CmsEventListener>> eventListeners = getEventListeners();
+        synchronized (eventListeners) {
+            for (List<I_CmsEventListener> listeners : eventListeners.values()) {
+                if (listeners.contains(listener)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
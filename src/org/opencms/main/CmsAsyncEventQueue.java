@@ -0,0 +1,342 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.main;
+
+import java.util.Objects;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Bounded queue which delivers events to a single asynchronous event listener in a separate thread.<p>
+ *
+ * Events are delivered in the order in which they were added. If the queue is full, adding an event blocks
+ * until the listener has processed an event. An event which is equal to the last event still waiting in the
+ * queue, that is, which has the same type and equal event data, is not added again.<p>
+ *
+ * @since 11.0.0
+ *
+ * @see CmsAsyncEventManager
+ */
+public class CmsAsyncEventQueue {
+
+    /**
+     * An event waiting in the queue.<p>
+     */
+    private static class CmsQueuedEvent {
+
+        /** The event. */
+        private CmsEvent m_event;
+
+        /** Indicates if the listener has started to process the event. */
+        private boolean m_started;
+
+        /**
+         * Creates a new instance.<p>
+         *
+         * @param event the event
+         */
+        CmsQueuedEvent(CmsEvent event) {
+
+            m_event = event;
+        }
+    }
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsAsyncEventQueue.class);
+
+    /** The maximum time to wait for the listener to finish the current event when shutting down, in milliseconds. */
+    private static final long SHUTDOWN_TIMEOUT = 10000;
+
+    /** The number of events which were not added because an equal event was waiting. */
+    private final AtomicLong m_coalescedCount = new AtomicLong();
+
+    /** The listener. */
+    private final I_CmsEventListener m_listener;
+
+    /** The maximum time the listener needed for processing an event, in nanoseconds. */
+    private final AtomicLong m_maxHandlerTime = new AtomicLong();
+
+    /** The number of events processed by the listener. */
+    private final AtomicLong m_processedCount = new AtomicLong();
+
+    /** The waiting events. */
+    private final LinkedBlockingDeque<CmsQueuedEvent> m_queue;
+
+    /** Indicates if the queue has been shut down. */
+    private volatile boolean m_shutDown;
+
+    /** The total time the listener needed for processing events, in nanoseconds. */
+    private final AtomicLong m_totalHandlerTime = new AtomicLong();
+
+    /** The thread delivering the events to the listener. */
+    private final Thread m_worker;
+
+    /**
+     * Creates a new queue and starts the thread delivering the events.<p>
+     *
+     * @param listener the listener to deliver the events to
+     * @param capacity the maximum number of waiting events
+     */
+    public CmsAsyncEventQueue(I_CmsEventListener listener, int capacity) {
+
+        m_listener = listener;
+        m_queue = new LinkedBlockingDeque<CmsQueuedEvent>(capacity);
+        m_worker = new Thread("OpenCms event queue for " + listener.getClass().getName()) {
+
+            @Override
+            public void run() {
+
+                processEvents();
+            }
+        };
+        m_worker.setDaemon(true);
+        m_worker.start();
+    }
+
+    /**
+     * Adds an event to the queue.<p>
+     *
+     * Events fired by the listener itself while processing an event are delivered immediately,
+     * since waiting for free space in the queue could block the listener forever.<p>
+     *
+     * @param event the event to add
+     */
+    public void add(CmsEvent event) {
+
+        if (Thread.currentThread() == m_worker) {
+            handleEvent(event);
+            return;
+        }
+        synchronized (this) {
+            CmsQueuedEvent last = m_queue.peekLast();
+            if (last != null) {
+                synchronized (last) {
+                    if (!last.m_started && isSameEvent(last.m_event, event)) {
+                        // the listener has not seen the waiting event yet, so it will also see this change
+                        m_coalescedCount.incrementAndGet();
+                        return;
+                    }
+                }
+            }
+            try {
+                m_queue.putLast(new CmsQueuedEvent(event));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // don't lose the event
+                handleEvent(event);
+            }
+        }
+    }
+
+    /**
+     * Returns the average time the listener needed for processing an event, in milliseconds.<p>
+     *
+     * @return the average processing time
+     */
+    public long getAverageHandlerTime() {
+
+        long count = m_processedCount.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(m_totalHandlerTime.get() / count);
+    }
+
+    /**
+     * Returns the number of events which were not added because an equal event was still waiting.<p>
+     *
+     * @return the number of coalesced events
+     */
+    public long getCoalescedCount() {
+
+        return m_coalescedCount.get();
+    }
+
+    /**
+     * Returns the listener.<p>
+     *
+     * @return the listener
+     */
+    public I_CmsEventListener getListener() {
+
+        return m_listener;
+    }
+
+    /**
+     * Returns the maximum time the listener needed for processing an event, in milliseconds.<p>
+     *
+     * @return the maximum processing time
+     */
+    public long getMaxHandlerTime() {
+
+        return TimeUnit.NANOSECONDS.toMillis(m_maxHandlerTime.get());
+    }
+
+    /**
+     * Returns the number of events processed by the listener.<p>
+     *
+     * @return the number of processed events
+     */
+    public long getProcessedCount() {
+
+        return m_processedCount.get();
+    }
+
+    /**
+     * Returns the number of events waiting in the queue.<p>
+     *
+     * @return the number of waiting events
+     */
+    public int getSize() {
+
+        return m_queue.size();
+    }
+
+    /**
+     * Checks if the thread delivering the events is still running.<p>
+     *
+     * @return true if the thread delivering the events is still running
+     */
+    public boolean isRunning() {
+
+        return m_worker.isAlive();
+    }
+
+    /**
+     * Stops delivering events, events still waiting in the queue are discarded.<p>
+     *
+     * Waits until the listener has finished processing the current event, so that the listener
+     * is not used anymore after this method returns.<p>
+     */
+    public void shutDown() {
+
+        m_shutDown = true;
+        m_worker.interrupt();
+        if (Thread.currentThread() == m_worker) {
+            // the listener removed itself while processing an event
+            return;
+        }
+        try {
+            m_worker.join(SHUTDOWN_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+
+        return m_listener.getClass().getName()
+            + " [size="
+            + getSize()
+            + ", processed="
+            + getProcessedCount()
+            + ", coalesced="
+            + getCoalescedCount()
+            + ", avgTime="
+            + getAverageHandlerTime()
+            + "ms, maxTime="
+            + getMaxHandlerTime()
+            + "ms]";
+    }
+
+    /**
+     * Delivers the waiting events to the listener until the queue is shut down.<p>
+     */
+    protected void processEvents() {
+
+        while (!m_shutDown) {
+            CmsQueuedEvent queuedEvent;
+            try {
+                queuedEvent = m_queue.takeFirst();
+            } catch (InterruptedException e) {
+                continue;
+            }
+            synchronized (queuedEvent) {
+                queuedEvent.m_started = true;
+            }
+            handleEvent(queuedEvent.m_event);
+        }
+        m_queue.clear();
+    }
+
+    /**
+     * Delivers a single event to the listener and records the time needed.<p>
+     *
+     * @param event the event
+     */
+    private void handleEvent(CmsEvent event) {
+
+        long start = System.nanoTime();
+        try {
+            m_listener.cmsEvent(event);
+        } catch (Throwable t) {
+            LOG.error(
+                Messages.get().getBundle().key(
+                    Messages.ERR_CALLING_EVENT_LISTENER_FAILED_2,
+                    m_listener.getClass().getName(),
+                    event.toString()),
+                t);
+        }
+        long time = System.nanoTime() - start;
+        m_processedCount.incrementAndGet();
+        m_totalHandlerTime.addAndGet(time);
+        long max = m_maxHandlerTime.get();
+        while ((time > max) && !m_maxHandlerTime.compareAndSet(max, time)) {
+            max = m_maxHandlerTime.get();
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(
+                "Event "
+                    + event
+                    + " processed by "
+                    + m_listener.getClass().getName()
+                    + " in "
+                    + TimeUnit.NANOSECONDS.toMillis(time)
+                    + "ms, "
+                    + getSize()
+                    + " events waiting.");
+        }
+    }
+
+    /**
+     * Checks if two events have the same type and equal event data.<p>
+     *
+     * @param first the first event
+     * @param second the second event
+     *
+     * @return true if the events have the same type and equal event data
+     */
+    private boolean isSameEvent(CmsEvent first, CmsEvent second) {
+
+        return (first.getType() == second.getType()) && Objects.equals(first.getData(), second.getData());
+    }
+}
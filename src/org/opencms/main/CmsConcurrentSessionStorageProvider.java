@@ -0,0 +1,325 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.main;
+
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Session storage provider implementation based on concurrent maps.<p>
+ *
+ * In addition to the map from session ids to session info objects, this implementation keeps a secondary index
+ * from user ids to session ids, so looking up the sessions of a single user does not depend on the total number
+ * of sessions.<p>
+ *
+ * Session infos are validated incrementally: each stored session info is registered in a queue ordered by the
+ * earliest time at which it can expire, and {@link #validate()} only inspects the queue entries which are due.
+ * Since a session info can only expire later when it is updated, the queued time is a lower bound: updates do not
+ * touch the queue, instead a session info which is still active when it becomes due is queued again with the
+ * time computed from its last update.<p>
+ *
+ * @since 11.0.0
+ */
+public class CmsConcurrentSessionStorageProvider implements I_CmsSessionStorageProvider {
+
+    /**
+     * Entry of the expiry queue.<p>
+     */
+    private static class CmsExpiryEntry implements Comparable<CmsExpiryEntry> {
+
+        /** The earliest time at which the session info can expire. */
+        private final long m_deadline;
+
+        /** The session info. */
+        private final CmsSessionInfo m_sessionInfo;
+
+        /**
+         * Creates a new expiry queue entry.<p>
+         *
+         * @param sessionInfo the session info
+         */
+        CmsExpiryEntry(CmsSessionInfo sessionInfo) {
+
+            m_sessionInfo = sessionInfo;
+            int maxInactiveInterval = sessionInfo.getMaxInactiveInterval();
+            if (maxInactiveInterval < 0) {
+                // a negative interval means the session never expires
+                m_deadline = Long.MAX_VALUE;
+            } else {
+                // matches CmsSessionInfo.isExpired(), which only counts full seconds of inactivity
+                m_deadline = sessionInfo.getTimeUpdated() + ((maxInactiveInterval + 1L) * 1000L);
+            }
+        }
+
+        /**
+         * @see java.lang.Comparable#compareTo(java.lang.Object)
+         */
+        public int compareTo(CmsExpiryEntry other) {
+
+            return Long.compare(m_deadline, other.m_deadline);
+        }
+
+        /**
+         * Returns the earliest time at which the session info can expire.<p>
+         *
+         * @return the deadline
+         */
+        long getDeadline() {
+
+            return m_deadline;
+        }
+
+        /**
+         * Returns the session info.<p>
+         *
+         * @return the session info
+         */
+        CmsSessionInfo getSessionInfo() {
+
+            return m_sessionInfo;
+        }
+    }
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsConcurrentSessionStorageProvider.class);
+
+    /** Queue of session infos ordered by the earliest time at which they can expire. */
+    private PriorityBlockingQueue<CmsExpiryEntry> m_expiryQueue;
+
+    /** Counter for the number of expired session infos removed by validation. */
+    private final AtomicLong m_expiredCount = new AtomicLong();
+
+    /** Stores the session info objects mapped to the session id. */
+    private ConcurrentHashMap<CmsUUID, CmsSessionInfo> m_sessions;
+
+    /** Stores the session ids mapped to the user id. */
+    private ConcurrentHashMap<CmsUUID, Set<CmsUUID>> m_sessionsByUser;
+
+    /**
+     * @see org.opencms.main.I_CmsSessionStorageProvider#get(org.opencms.util.CmsUUID)
+     */
+    public CmsSessionInfo get(CmsUUID sessionId) {
+
+        return m_sessions.get(sessionId);
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsSessionStorageProvider#getAll()
+     */
+    public List<CmsSessionInfo> getAll() {
+
+        return new ArrayList<CmsSessionInfo>(m_sessions.values());
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsSessionStorageProvider#getAllOfUser(org.opencms.util.CmsUUID)
+     */
+    public List<CmsSessionInfo> getAllOfUser(CmsUUID userId) {
+
+        if (userId == null) {
+            return getAll();
+        }
+        Set<CmsUUID> sessionIds = m_sessionsByUser.get(userId);
+        if (sessionIds == null) {
+            return new ArrayList<CmsSessionInfo>();
+        }
+        List<CmsSessionInfo> userSessions = new ArrayList<CmsSessionInfo>(sessionIds.size());
+        for (CmsUUID sessionId : sessionIds) {
+            CmsSessionInfo sessionInfo = m_sessions.get(sessionId);
+            // the session may have been removed or replaced concurrently
+            if ((sessionInfo != null) && userId.equals(sessionInfo.getUserId())) {
+                userSessions.add(sessionInfo);
+            }
+        }
+        return userSessions;
+    }
+
+    /**
+     * Returns the number of expired session infos removed by validation since the storage was initialized.<p>
+     *
+     * @return the number of expired session infos removed
+     */
+    public long getExpiredCount() {
+
+        return m_expiredCount.get();
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsSessionStorageProvider#getSize()
+     */
+    public int getSize() {
+
+        return m_sessions.size();
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsSessionStorageProvider#initialize()
+     */
+    public void initialize() {
+
+        m_sessions = new ConcurrentHashMap<CmsUUID, CmsSessionInfo>();
+        m_sessionsByUser = new ConcurrentHashMap<CmsUUID, Set<CmsUUID>>();
+        m_expiryQueue = new PriorityBlockingQueue<CmsExpiryEntry>();
+        m_expiredCount.set(0);
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsSessionStorageProvider#put(org.opencms.main.CmsSessionInfo)
+     */
+    public CmsSessionInfo put(CmsSessionInfo sessionInfo) {
+
+        CmsUUID sessionId = sessionInfo.getSessionId();
+        // register in the user index first, so a concurrent lookup never misses a stored session
+        addToUserIndex(sessionInfo.getUserId(), sessionId);
+        CmsSessionInfo previous = m_sessions.put(sessionId, sessionInfo);
+        if ((previous != null) && !previous.getUserId().equals(sessionInfo.getUserId())) {
+            removeFromUserIndex(previous.getUserId(), sessionId);
+        }
+        if (previous != sessionInfo) {
+            m_expiryQueue.offer(new CmsExpiryEntry(sessionInfo));
+        }
+        // an updated session info keeps its queue entry, validate() queues it again if it is still active when due
+        return previous;
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsSessionStorageProvider#remove(org.opencms.util.CmsUUID)
+     */
+    public CmsSessionInfo remove(CmsUUID sessionId) {
+
+        CmsSessionInfo removed = m_sessions.remove(sessionId);
+        if (removed != null) {
+            removeFromUserIndex(removed.getUserId(), sessionId);
+        }
+        // the entry in the expiry queue is discarded the next time it becomes due
+        return removed;
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsSessionStorageProvider#shutdown()
+     */
+    public void shutdown() {
+
+        m_sessions.clear();
+        m_sessionsByUser.clear();
+        m_expiryQueue.clear();
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsSessionStorageProvider#validate()
+     */
+    public synchronized void validate() {
+
+        long now = System.currentTimeMillis();
+        List<CmsExpiryEntry> stillActive = new ArrayList<CmsExpiryEntry>();
+        int removedCount = 0;
+        CmsExpiryEntry entry;
+        while ((entry = m_expiryQueue.poll()) != null) {
+            if (entry.getDeadline() > now) {
+                // no further entries are due
+                m_expiryQueue.offer(entry);
+                break;
+            }
+            CmsSessionInfo sessionInfo = entry.getSessionInfo();
+            CmsUUID sessionId = sessionInfo.getSessionId();
+            if (m_sessions.get(sessionId) != sessionInfo) {
+                // session info was removed or replaced in the meantime, the replacement has its own entry
+                continue;
+            }
+            if (sessionInfo.isExpired()) {
+                if (m_sessions.remove(sessionId, sessionInfo)) {
+                    removeFromUserIndex(sessionInfo.getUserId(), sessionId);
+                    removedCount++;
+                }
+            } else {
+                // the session info was updated since it was queued, so re-schedule it with its new deadline
+                stillActive.add(new CmsExpiryEntry(sessionInfo));
+            }
+        }
+        m_expiryQueue.addAll(stillActive);
+        if (removedCount > 0) {
+            m_expiredCount.addAndGet(removedCount);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Removed " + removedCount + " expired session infos, " + getSize() + " remaining.");
+            }
+        }
+    }
+
+    /**
+     * Adds a session id to the user index.<p>
+     *
+     * @param userId the user id
+     * @param sessionId the session id
+     */
+    private void addToUserIndex(CmsUUID userId, CmsUUID sessionId) {
+
+        Set<CmsUUID> sessionIds = m_sessionsByUser.get(userId);
+        if (sessionIds == null) {
+            Set<CmsUUID> newSet = Collections.newSetFromMap(new ConcurrentHashMap<CmsUUID, Boolean>(4));
+            sessionIds = m_sessionsByUser.putIfAbsent(userId, newSet);
+            if (sessionIds == null) {
+                sessionIds = newSet;
+            }
+        }
+        sessionIds.add(sessionId);
+        if (m_sessionsByUser.get(userId) != sessionIds) {
+            // the set was discarded concurrently because it had become empty, so try again
+            addToUserIndex(userId, sessionId);
+        }
+    }
+
+    /**
+     * Removes a session id from the user index.<p>
+     *
+     * @param userId the user id
+     * @param sessionId the session id
+     */
+    private void removeFromUserIndex(CmsUUID userId, CmsUUID sessionId) {
+
+        Set<CmsUUID> sessionIds = m_sessionsByUser.get(userId);
+        if (sessionIds != null) {
+            sessionIds.remove(sessionId);
+            if (sessionIds.isEmpty()) {
+                m_sessionsByUser.remove(userId, sessionIds);
+                if (!sessionIds.isEmpty()) {
+                    // a session id was added concurrently, so keep the set registered
+                    m_sessionsByUser.putIfAbsent(userId, sessionIds);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,318 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.main;
+
+import org.opencms.db.CmsDriverManager;
+import org.opencms.file.CmsResource;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects the single resource modification events fired by a thread during a bulk operation,
+ * and delivers them as events for lists of resources.<p>
+ *
+ * A batch is started with {@link CmsEventManager#startEventBatch()} and must be closed in the same thread,
+ * preferably with a try-with-resources statement. Batches can be nested, the collected events are delivered
+ * when the outermost batch is closed:
+ * <pre>
+ * try (CmsEventBatch batch = cms.startEventBatch()) {
+ *     // bulk operation
+ * }
+ * </pre>
+ *
+ * While the batch is active, events of the types {@link I_CmsEventListener#EVENT_RESOURCE_MODIFIED},
+ * {@link I_CmsEventListener#EVENT_RESOURCE_CREATED} and
+ * {@link I_CmsEventListener#EVENT_RESOURCE_AND_PROPERTIES_MODIFIED} are collected, where each resource is
+ * only contained once. Modified resources are delivered with an {@link I_CmsEventListener#EVENT_RESOURCES_MODIFIED}
+ * event, created resources and resources with modified properties with an
+ * {@link I_CmsEventListener#EVENT_RESOURCES_AND_PROPERTIES_MODIFIED} event.
+ * The change flags of all events collected for a resource are combined, and delivered with
+ * {@link I_CmsEventListener#KEY_CHANGES} for each resource and with {@link I_CmsEventListener#KEY_CHANGE}
+ * for all resources of the event.<p>
+ *
+ * Lock changes and access control changes, as well as events with additional event data, are not collected.
+ * Neither are changes of XML schema definitions, since these are read back from the caches while the batch
+ * is still open, e.g. when the XML contents using them are imported.
+ * Before any other event is delivered, the collected events are delivered, so the order of the changes is kept.<p>
+ *
+ * @since 11.0.0
+ */
+public class CmsEventBatch implements AutoCloseable {
+
+    /**
+     * The resources collected for one type of list event, together with their change flags.<p>
+     */
+    private static class CmsCollectedResources {
+
+        /** The combined change flags of the resources, by structure id. */
+        private Map<CmsUUID, Integer> m_changes = new HashMap<CmsUUID, Integer>();
+
+        /** The type of the list event delivering the resources. */
+        private int m_eventType;
+
+        /** The collected resources, by structure id. */
+        private Map<CmsUUID, CmsResource> m_resources = new LinkedHashMap<CmsUUID, CmsResource>();
+
+        /** The structure ids of the resources collected with an event without change flags. */
+        private Set<CmsUUID> m_unknownChanges = new HashSet<CmsUUID>();
+
+        /**
+         * Creates a new collection of resources.<p>
+         *
+         * @param eventType the type of the list event delivering the resources
+         */
+        CmsCollectedResources(int eventType) {
+
+            m_eventType = eventType;
+        }
+
+        /**
+         * Adds a resource, combining the given change flags with the ones collected before for it.<p>
+         *
+         * @param resource the resource
+         * @param change the change flags of the event, if not an <code>Integer</code> the changes are unknown
+         */
+        void add(CmsResource resource, Object change) {
+
+            CmsUUID id = resource.getStructureId();
+            m_resources.put(id, resource);
+            if (change instanceof Integer) {
+                Integer previous = m_changes.get(id);
+                int flags = ((Integer)change).intValue() | (previous != null ? previous.intValue() : 0);
+                m_changes.put(id, Integer.valueOf(flags));
+            } else {
+                m_unknownChanges.add(id);
+            }
+        }
+
+        /**
+         * Creates the list event for the collected resources and clears them.<p>
+         *
+         * @return the event, or <code>null</code> if no resources are collected
+         */
+        CmsEvent flush() {
+
+            if (m_resources.isEmpty()) {
+                return null;
+            }
+            Map<String, Object> data = new HashMap<String, Object>();
+            data.put(I_CmsEventListener.KEY_RESOURCES, new ArrayList<CmsResource>(m_resources.values()));
+            Map<CmsUUID, Integer> changes = new HashMap<CmsUUID, Integer>(m_changes);
+            changes.keySet().removeAll(m_unknownChanges);
+            if (!changes.isEmpty()) {
+                data.put(I_CmsEventListener.KEY_CHANGES, changes);
+            }
+            if (m_unknownChanges.isEmpty()) {
+                // the changes of all resources are known, so listeners can check the combined flags
+                int flags = 0;
+                for (Integer change : changes.values()) {
+                    flags |= change.intValue();
+                }
+                data.put(I_CmsEventListener.KEY_CHANGE, Integer.valueOf(flags));
+            }
+            m_resources.clear();
+            m_changes.clear();
+            m_unknownChanges.clear();
+            return new CmsEvent(m_eventType, data);
+        }
+
+        /**
+         * Returns the number of collected resources.<p>
+         *
+         * @return the number of collected resources
+         */
+        int size() {
+
+            return m_resources.size();
+        }
+    }
+
+    /** The maximum number of resources collected before the collected events are delivered. */
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    /** The file suffix of XML schema definitions. */
+    private static final String SCHEMA_SUFFIX = ".xsd";
+
+    /** The event data keys allowed for collected events. */
+    private static final Set<String> BATCH_KEYS = Collections.unmodifiableSet(
+        new HashSet<String>(Arrays.asList(I_CmsEventListener.KEY_RESOURCE, I_CmsEventListener.KEY_CHANGE)));
+
+    /** The number of open batch scopes. */
+    private int m_depth;
+
+    /** The event manager. */
+    private CmsEventManager m_eventManager;
+
+    /** The collected modified resources. */
+    private CmsCollectedResources m_modifiedResources = new CmsCollectedResources(
+        I_CmsEventListener.EVENT_RESOURCES_MODIFIED);
+
+    /** The collected created resources and resources with modified properties. */
+    private CmsCollectedResources m_modifiedResourcesAndProperties = new CmsCollectedResources(
+        I_CmsEventListener.EVENT_RESOURCES_AND_PROPERTIES_MODIFIED);
+
+    /**
+     * Creates a new batch.<p>
+     *
+     * @param eventManager the event manager used for delivering the events
+     */
+    CmsEventBatch(CmsEventManager eventManager) {
+
+        m_eventManager = eventManager;
+    }
+
+    /**
+     * Closes this batch scope.<p>
+     *
+     * If this is the outermost scope, the collected events are delivered.<p>
+     *
+     * @see java.lang.AutoCloseable#close()
+     */
+    public void close() {
+
+        m_eventManager.endEventBatch(this);
+    }
+
+    /**
+     * Returns the number of resources currently collected.<p>
+     *
+     * @return the number of collected resources
+     */
+    public int size() {
+
+        return m_modifiedResources.size() + m_modifiedResourcesAndProperties.size();
+    }
+
+    /**
+     * Collects the given event if possible.<p>
+     *
+     * If the event can not be collected, the events collected so far are delivered first, unless the
+     * event only signals a lock change.<p>
+     *
+     * @param event the event
+     *
+     * @return true if the event was collected, false if it still has to be delivered
+     */
+    boolean add(CmsEvent event) {
+
+        Map<String, Object> data = event.getData();
+        Object change = data != null ? data.get(I_CmsEventListener.KEY_CHANGE) : null;
+        if ((change instanceof Integer) && (((Integer)change).intValue() == CmsDriverManager.NOTHING_CHANGED)) {
+            // lock changes are ignored by the resource caches, so they don't affect the order
+            return false;
+        }
+        CmsCollectedResources resources = null;
+        switch (event.getType()) {
+            case I_CmsEventListener.EVENT_RESOURCE_MODIFIED:
+                resources = m_modifiedResources;
+                break;
+            case I_CmsEventListener.EVENT_RESOURCE_CREATED:
+            case I_CmsEventListener.EVENT_RESOURCE_AND_PROPERTIES_MODIFIED:
+                resources = m_modifiedResourcesAndProperties;
+                break;
+            default:
+                // no resource modification event
+        }
+        if ((resources == null) || !isCollectable(data, change)) {
+            flush();
+            return false;
+        }
+        resources.add((CmsResource)data.get(I_CmsEventListener.KEY_RESOURCE), change);
+        if (size() >= MAX_BATCH_SIZE) {
+            flush();
+        }
+        return true;
+    }
+
+    /**
+     * Enters a (nested) batch scope.<p>
+     */
+    void enter() {
+
+        m_depth++;
+    }
+
+    /**
+     * Delivers the collected events.<p>
+     */
+    void flush() {
+
+        CmsEvent event = m_modifiedResourcesAndProperties.flush();
+        if (event != null) {
+            m_eventManager.fireEventHandlers(event);
+        }
+        event = m_modifiedResources.flush();
+        if (event != null) {
+            m_eventManager.fireEventHandlers(event);
+        }
+    }
+
+    /**
+     * Leaves a (nested) batch scope.<p>
+     *
+     * @return true if the outermost scope has been left
+     */
+    boolean leave() {
+
+        m_depth--;
+        return m_depth <= 0;
+    }
+
+    /**
+     * Checks if an event with the given data can be collected.<p>
+     *
+     * @param data the event data
+     * @param change the change flags from the event data
+     *
+     * @return true if the event can be collected
+     */
+    private boolean isCollectable(Map<String, Object> data, Object change) {
+
+        if ((data == null)
+            || !(data.get(I_CmsEventListener.KEY_RESOURCE) instanceof CmsResource)
+            || !BATCH_KEYS.containsAll(data.keySet())) {
+            return false;
+        }
+        if (((CmsResource)data.get(I_CmsEventListener.KEY_RESOURCE)).getRootPath().toLowerCase().endsWith(
+            SCHEMA_SUFFIX)) {
+            // cached schema definitions must be removed from the XML entity resolver immediately
+            return false;
+        }
+        // access control changes of folders are handled specially by the search manager
+        return !(change instanceof Integer)
+            || ((((Integer)change).intValue() & CmsDriverManager.CHANGED_ACCESSCONTROL) == 0);
+    }
+}
@@ -57,6 +57,9 @@ public class CmsEventManager {
     /** The static log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsEventManager.class);
 
+    /** The event batch of the current thread, if any. */
+    private ThreadLocal<CmsEventBatch> m_eventBatch = new ThreadLocal<CmsEventBatch>();
+
     /** Stores the active event listeners. */
     private Map<Integer, List<I_CmsEventListener>> m_eventListeners;
 
@@ -114,8 +117,12 @@ public class CmsEventManager {
      */
     public void fireEvent(CmsEvent event) {
 
-        fireEventHandler(m_eventListeners.get(event.getTypeInteger()), event);
-        fireEventHandler(m_eventListeners.get(I_CmsEventListener.LISTENERS_FOR_ALL_EVENTS), event);
+        CmsEventBatch batch = m_eventBatch.get();
+        if ((batch != null) && batch.add(event)) {
+            // the event is delivered later, together with the other events of the batch
+            return;
+        }
+        fireEventHandlers(event);
     }
 
     /**
@@ -155,6 +162,53 @@ public class CmsEventManager {
         }
     }
 
+    /**
+     * Shuts down the event manager.<p>
+     *
+     * The default implementation delivers all events synchronously and therefore has nothing to stop.<p>
+     */
+    public void shutDown() {
+
+        // nothing to do
+    }
+
+    /**
+     * Starts collecting the resource modification events fired by the current thread.<p>
+     *
+     * The returned batch must be closed in the current thread, the collected events are then
+     * delivered as events for lists of resources.<p>
+     *
+     * @return the event batch
+     *
+     * @see CmsEventBatch
+     */
+    public CmsEventBatch startEventBatch() {
+
+        CmsEventBatch batch = m_eventBatch.get();
+        if (batch == null) {
+            batch = new CmsEventBatch(this);
+            m_eventBatch.set(batch);
+        }
+        batch.enter();
+        return batch;
+    }
+
+    /**
+     * Ends a scope of the given event batch, and delivers the collected events if it was the outermost scope.<p>
+     *
+     * @param batch the event batch
+     */
+    protected void endEventBatch(CmsEventBatch batch) {
+
+        if (batch.leave()) {
+            if (m_eventBatch.get() == batch) {
+                // events fired by the listeners are delivered immediately again
+                m_eventBatch.remove();
+            }
+            batch.flush();
+        }
+    }
+
     /**
      * Fires the specified event to a list of event listeners.<p>
      *
@@ -248,6 +302,17 @@ public class CmsEventManager {
         }
     }
 
+    /**
+     * Fires the specified event to all listeners for the event type and to all listeners for all events.<p>
+     *
+     * @param event the event to fire
+     */
+    protected void fireEventHandlers(CmsEvent event) {
+
+        fireEventHandler(m_eventListeners.get(event.getTypeInteger()), event);
+        fireEventHandler(m_eventListeners.get(I_CmsEventListener.LISTENERS_FOR_ALL_EVENTS), event);
+    }
+
     /**
      * Returns the map of all configured event listeners.<p>
      *
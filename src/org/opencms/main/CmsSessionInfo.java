@@ -307,10 +307,15 @@ public class CmsSessionInfo implements Comparable<CmsSessionInfo>, Serializable
      * Returns <code>true</code> if this session info has expired, that
      * is it has not been updated in the time set by the maximum inactivity interval.<p>
      *
+     * A negative maximum inactivity interval means the session info never expires.<p>
+     *
      * @return <code>true</code> if this session info has expired
      */
     public boolean isExpired() {
 
+        if (m_maxInactiveInterval < 0) {
+            return false;
+        }
         return ((System.currentTimeMillis() - m_timeUpdated) / 1000) > m_maxInactiveInterval;
     }
 
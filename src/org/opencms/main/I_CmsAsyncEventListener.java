@@ -0,0 +1,48 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.main;
+
+/**
+ * Marker interface for event listeners which do not need to receive events synchronously.<p>
+ *
+ * By default, events are delivered to all listeners in the thread which fires the event. If the
+ * {@link CmsAsyncEventManager} is configured, listeners implementing this interface instead receive their events
+ * from a separate thread, in the order in which the events were fired. An event which is equal to the last event
+ * still waiting in the queue of the listener is not delivered again.<p>
+ *
+ * Only implement this interface if the listener does not have to finish its work before the code which fired
+ * the event can continue, for example if it only schedules background work.<p>
+ *
+ * @since 11.0.0
+ *
+ * @see CmsAsyncEventManager
+ */
+public interface I_CmsAsyncEventListener extends I_CmsEventListener {
+
+    // marker interface only
+}
@@ -303,6 +303,10 @@ public interface I_CmsEventListener {
      * Event data:
      * <ul>
      * <li>key "resources" (mandatory): a List of modified CmsResources</li>
+     * <li>key "changes" (optional): a Map from the structure ids of the resources to their change int,
+     *     for the resources whose changes are known</li>
+     * <li>key "change" (optional): the change ints of all resources combined,
+     *     if the changes of all resources are known</li>
      * </ul>
      */
     int EVENT_RESOURCES_AND_PROPERTIES_MODIFIED = 27;
@@ -313,6 +317,10 @@ public interface I_CmsEventListener {
      * Event data:
      * <ul>
      * <li>key "resources" (mandatory): a List of modified CmsResources</li>
+     * <li>key "changes" (optional): a Map from the structure ids of the resources to their change int,
+     *     for the resources whose changes are known</li>
+     * <li>key "change" (optional): the change ints of all resources combined,
+     *     if the changes of all resources are known</li>
      * </ul>
      */
     int EVENT_RESOURCES_MODIFIED = 12;
@@ -363,6 +371,9 @@ public interface I_CmsEventListener {
     /** Key name for passing a change int in the data map - see the <code>CHANGED_XXX</code> constants in {@link org.opencms.db.CmsDriverManager}. */
     String KEY_CHANGE = "change";
 
+    /** Key name for passing a Map from structure ids to change ints in the data map, for events with a list of resources. */
+    String KEY_CHANGES = "changes";
+
     /** Key name for passing a database context in the data map. */
     String KEY_DBCONTEXT = "dbContext";
 
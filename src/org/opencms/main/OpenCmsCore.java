@@ -70,6 +70,7 @@ import org.opencms.i18n.CmsMessageContainer;
 import org.opencms.i18n.CmsSingleTreeLocaleHandler;
 import org.opencms.i18n.CmsVfsBundleManager;
 import org.opencms.importexport.CmsImportExportManager;
+import org.opencms.jsp.CmsJspNavIndex;
 import org.opencms.jsp.jsonpart.CmsJsonPartFilter;
 import org.opencms.letsencrypt.CmsLetsEncryptConfiguration;
 import org.opencms.loader.CmsResourceManager;
@@ -1657,6 +1658,8 @@ public final class OpenCmsCore {
 
             // initialize the formatter configuration
             CmsFormatterConfiguration.initialize(adminCms);
+            // initialize the online navigation index
+            CmsJspNavIndex.initialize(adminCms);
             CmsPersistentLoginTokenHandler.setAdminCms(initCmsObject(adminCms));
             CmsLoginUI.setAdminCmsObject(initCmsObject(adminCms));
 
@@ -2139,6 +2142,14 @@ public final class OpenCmsCore {
                         e);
                 }
 
+                try {
+                    if (m_eventManager != null) {
+                        m_eventManager.shutDown();
+                    }
+                } catch (Throwable e) {
+                    CmsLog.INIT.error(e.getLocalizedMessage(), e);
+                }
+
                 try {
                     if (m_executor != null) {
                         m_executor.shutdownNow();
@@ -189,6 +189,12 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     /** The memory object cache map. */
     private Map<String, Object> m_cacheMemObject;
 
+    /** Cache for resources read in offline projects. */
+    private Map<String, CmsResource> m_cacheOfflineResource;
+
+    /** Cache for resource lists read in offline projects. */
+    private Map<String, List<CmsResource>> m_cacheOfflineResourceList;
+
     /** Cache for organizational units. */
     private Map<String, CmsOrganizationalUnit> m_cacheOrgUnit;
 
@@ -282,6 +288,12 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     /** Contains the object to be monitored. */
     private Map<String, Object> m_monitoredObjects;
 
+    /** Index of the property list cache keys, also used as lock for changes of the property list cache. */
+    private final CmsPropertyListCacheIndex m_propertyListIndex = new CmsPropertyListCacheIndex();
+
+    /** The index size above which the keys of entries evicted from the property list cache are removed. */
+    private int m_propertyListIndexLimit;
+
     /** Buffer for publish history. */
     private Buffer m_publishHistory;
 
@@ -705,15 +717,48 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     /**
      * Caches the given property list under the given cache key.<p>
      *
+     * Since the resource of the property list is unknown, the entry is removed
+     * with every call of {@link #uncachePropertyLists(CmsResource, boolean, boolean)}.<p>
+     *
      * @param key the cache key
      * @param propertyList the property list to cache
      */
     public void cachePropertyList(String key, List<CmsProperty> propertyList) {
 
+        cachePropertyList(key, null, false, false, propertyList);
+    }
+
+    /**
+     * Caches the given property list of a resource under the given cache key.<p>
+     *
+     * The entry is indexed by the root path and the resource id of the resource,
+     * so it can be removed with {@link #uncachePropertyLists(CmsResource, boolean, boolean)}
+     * if the resource or one of its parent folders is changed.<p>
+     *
+     * @param key the cache key
+     * @param resource the resource the property list was read for
+     * @param inherited <code>true</code> if the property list contains the properties inherited from the parent folders
+     * @param online <code>true</code> if the property list was read in the online project
+     * @param propertyList the property list to cache
+     */
+    public void cachePropertyList(
+        String key,
+        CmsResource resource,
+        boolean inherited,
+        boolean online,
+        List<CmsProperty> propertyList) {
+
         if (m_disabled.get(CacheType.PROPERTY_LIST) != null) {
             return;
         }
-        m_cachePropertyList.put(key, propertyList);
+        synchronized (m_propertyListIndex) {
+            m_propertyListIndex.add(key, resource, inherited, online);
+            m_cachePropertyList.put(key, propertyList);
+            if (m_propertyListIndex.size() > m_propertyListIndexLimit) {
+                // remove the keys of entries which have been evicted from the cache
+                m_propertyListIndex.retainAll(m_cachePropertyList.keySet());
+            }
+        }
     }
 
     /**
@@ -766,10 +811,25 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public void cacheResource(String key, CmsResource resource) {
 
+        cacheResource(key, resource, true);
+    }
+
+    /**
+     * Caches the given resource under the given cache key, in the cache for the online or offline project.<p>
+     *
+     * Resources read in an offline project are kept separately, so that changes in an offline project
+     * do not remove the resources read in the online project from the cache.<p>
+     *
+     * @param key the cache key
+     * @param resource the resource to cache
+     * @param online <code>true</code> if the resource was read in the online project
+     */
+    public void cacheResource(String key, CmsResource resource, boolean online) {
+
         if (m_disabled.get(CacheType.RESOURCE) != null) {
             return;
         }
-        m_cacheResource.put(key, resource);
+        (online ? m_cacheResource : m_cacheOfflineResource).put(key, resource);
     }
 
     /**
@@ -780,10 +840,24 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public void cacheResourceList(String key, List<CmsResource> resourceList) {
 
+        cacheResourceList(key, resourceList, true);
+    }
+
+    /**
+     * Caches the given resource list under the given cache key, in the cache for the online or offline project.<p>
+     *
+     * @param key the cache key
+     * @param resourceList the resource list to cache
+     * @param online <code>true</code> if the resource list was read in the online project
+     *
+     * @see #cacheResource(String, CmsResource, boolean)
+     */
+    public void cacheResourceList(String key, List<CmsResource> resourceList, boolean online) {
+
         if (m_disabled.get(CacheType.RESOURCE_LIST) != null) {
             return;
         }
-        m_cacheResourceList.put(key, resourceList);
+        (online ? m_cacheResourceList : m_cacheOfflineResourceList).put(key, resourceList);
     }
 
     /**
@@ -908,6 +982,21 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         clearResourceCache();
     }
 
+    /**
+     * Clears the access control list cache when access control entries or resources are changed
+     * in the online or an offline project.<p>
+     *
+     * @param online <code>true</code> if the change happened in the online project
+     *
+     * @see #clearResourceCache(boolean)
+     */
+    public void clearAccessControlListCache(boolean online) {
+
+        flushCache(CacheType.ACL);
+        flushCache(CacheType.PERMISSION);
+        clearResourceCache(online);
+    }
+
     /**
      * Clears almost all internal caches.<p>
      */
@@ -951,6 +1040,30 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         flushCache(CacheType.ROLE_LIST);
     }
 
+    /**
+     * Clears all the depending caches when a resource was changed in the online or an offline project.<p>
+     *
+     * A change in an offline project only affects the resources read in offline projects,
+     * so the resources cached for the online project are kept. Publishing clears all caches.<p>
+     *
+     * @param online <code>true</code> if the resource was changed in the online project
+     */
+    public void clearResourceCache(boolean online) {
+
+        if (online) {
+            clearResourceCache();
+            return;
+        }
+        if (m_disabled.get(CacheType.RESOURCE) == null) {
+            m_cacheOfflineResource.clear();
+        }
+        if (m_disabled.get(CacheType.RESOURCE_LIST) == null) {
+            m_cacheOfflineResourceList.clear();
+        }
+        flushCache(CacheType.HAS_ROLE);
+        flushCache(CacheType.ROLE_LIST);
+    }
+
     /**
      * Clears the user cache for the given user.<p>
      *
@@ -1054,7 +1167,10 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
                     m_cacheProperty.clear();
                     break;
                 case PROPERTY_LIST:
-                    m_cachePropertyList.clear();
+                    synchronized (m_propertyListIndex) {
+                        m_cachePropertyList.clear();
+                        m_propertyListIndex.clear();
+                    }
                     break;
                 case PUBLISHED_RESOURCES:
                     m_cachePublishedResources.clear();
@@ -1067,9 +1183,11 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
                     break;
                 case RESOURCE:
                     m_cacheResource.clear();
+                    m_cacheOfflineResource.clear();
                     break;
                 case RESOURCE_LIST:
                     m_cacheResourceList.clear();
+                    m_cacheOfflineResourceList.clear();
                     break;
                 case ROLE_LIST:
                     m_cacheRoleLists.clear();
@@ -1614,7 +1732,21 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsResource getCachedResource(String key) {
 
-        return m_cacheResource.get(key);
+        return getCachedResource(key, true);
+    }
+
+    /**
+     * Returns the resource cached with the given cache key for the online or offline project,
+     * or <code>null</code> if not found.<p>
+     *
+     * @param key the cache key to look for
+     * @param online <code>true</code> to look in the cache for the online project
+     *
+     * @return the resource cached with the given cache key
+     */
+    public CmsResource getCachedResource(String key, boolean online) {
+
+        return (online ? m_cacheResource : m_cacheOfflineResource).get(key);
     }
 
     /**
@@ -1626,7 +1758,21 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public List<CmsResource> getCachedResourceList(String key) {
 
-        return m_cacheResourceList.get(key);
+        return getCachedResourceList(key, true);
+    }
+
+    /**
+     * Returns the resource list cached with the given cache key for the online or offline project,
+     * or <code>null</code> if not found.<p>
+     *
+     * @param key the cache key to look for
+     * @param online <code>true</code> to look in the cache for the online project
+     *
+     * @return the resource list cached with the given cache key
+     */
+    public List<CmsResource> getCachedResourceList(String key, boolean online) {
+
+        return (online ? m_cacheResourceList : m_cacheOfflineResourceList).get(key);
     }
 
     /**
@@ -1904,6 +2050,10 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         m_cacheResource = createLRUCacheMap(cacheSettings.getResourceCacheSize());
         register(CmsDriverManager.class.getName() + ".resourceCache", m_cacheResource);
 
+        // offline resource cache
+        m_cacheOfflineResource = createLRUCacheMap(cacheSettings.getResourceCacheSize());
+        register(CmsDriverManager.class.getName() + ".offlineResourceCache", m_cacheOfflineResource);
+
         // roles cache
         m_cacheHasRoles = createLRUCacheMap(cacheSettings.getRolesCacheSize());
         register(CmsDriverManager.class.getName() + ".rolesCache", m_cacheHasRoles);
@@ -1916,12 +2066,17 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         m_cacheResourceList = createLRUCacheMap(cacheSettings.getResourcelistCacheSize());
         register(CmsDriverManager.class.getName() + ".resourceListCache", m_cacheResourceList);
 
+        // offline resource list cache
+        m_cacheOfflineResourceList = createLRUCacheMap(cacheSettings.getResourcelistCacheSize());
+        register(CmsDriverManager.class.getName() + ".offlineResourceListCache", m_cacheOfflineResourceList);
+
         // property cache
         m_cacheProperty = createLRUCacheMap(cacheSettings.getPropertyCacheSize());
         register(CmsDriverManager.class.getName() + ".propertyCache", m_cacheProperty);
 
         // property list cache
         m_cachePropertyList = createLRUCacheMap(cacheSettings.getPropertyListsCacheSize());
+        m_propertyListIndexLimit = 2 * cacheSettings.getPropertyListsCacheSize();
         register(CmsDriverManager.class.getName() + ".propertyListCache", m_cachePropertyList);
 
         // published resources list cache
@@ -2242,6 +2397,43 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         m_cacheProject.remove(project.getName());
     }
 
+    /**
+     * Removes the cached property lists affected by a change of the given resource.<p>
+     *
+     * These are the property lists of the resource and its siblings, and if the resource is a folder,
+     * the property lists with inherited properties of all resources below the folder. If <code>tree</code>
+     * is set, all property lists of resources below the folder are removed, as required when the folder
+     * is moved or deleted.<p>
+     *
+     * Only the property lists read in the project with the given online state are removed.<p>
+     *
+     * @param resource the changed resource
+     * @param online <code>true</code> if the resource has been changed in the online project
+     * @param tree <code>true</code> to remove all property lists of resources below the resource
+     *
+     * @return the number of removed property lists
+     */
+    public int uncachePropertyLists(CmsResource resource, boolean online, boolean tree) {
+
+        int count = 0;
+        synchronized (m_propertyListIndex) {
+            for (String key : m_propertyListIndex.getAffectedKeys(resource, online, tree)) {
+                if (m_cachePropertyList.remove(key) != null) {
+                    count++;
+                }
+                m_propertyListIndex.remove(key);
+            }
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(
+                Messages.get().getBundle().key(
+                    Messages.LOG_PROPERTY_LISTS_UNCACHED_2,
+                    Integer.valueOf(count),
+                    resource.getRootPath()));
+        }
+        return count;
+    }
+
     /**
      * Removes the given publish job from the cache.<p>
      *
@@ -0,0 +1,260 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+import org.opencms.file.CmsResource;
+import org.opencms.util.CmsUUID;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Index of the keys in the property list cache by root path and resource id.<p>
+ *
+ * The index allows to remove only the cached property lists affected by a change of a resource,
+ * instead of flushing the whole property list cache.<p>
+ *
+ * This class is not thread safe. The memory monitor changes the index and the property list cache
+ * while holding the lock on the index, so the index never misses a key present in the cache.
+ * It may contain keys of entries already evicted from the cache, which are removed by {@link #retainAll(Set)}.<p>
+ *
+ * @since 11.0.0
+ */
+class CmsPropertyListCacheIndex {
+
+    /**
+     * Information about a cached property list.<p>
+     */
+    private static class CmsEntry {
+
+        /** True if the property list contains the inherited properties. */
+        final boolean m_inherited;
+
+        /** True if the property list was read in the online project. */
+        final boolean m_online;
+
+        /** The resource id. */
+        final CmsUUID m_resourceId;
+
+        /** The root path. */
+        final String m_rootPath;
+
+        /**
+         * Creates a new entry.<p>
+         *
+         * @param rootPath the root path
+         * @param resourceId the resource id
+         * @param inherited true if the property list contains the inherited properties
+         * @param online true if the property list was read in the online project
+         */
+        CmsEntry(String rootPath, CmsUUID resourceId, boolean inherited, boolean online) {
+
+            m_rootPath = rootPath;
+            m_resourceId = resourceId;
+            m_inherited = inherited;
+            m_online = online;
+        }
+    }
+
+    /** The indexed entries by cache key. */
+    private Map<String, CmsEntry> m_entries = new HashMap<String, CmsEntry>();
+
+    /** The cache keys by root path, sorted so the keys of a sub-tree are a contiguous range. */
+    private TreeMap<String, Set<String>> m_keysByPath = new TreeMap<String, Set<String>>();
+
+    /** The cache keys by resource id. */
+    private Map<CmsUUID, Set<String>> m_keysByResource = new HashMap<CmsUUID, Set<String>>();
+
+    /** The cache keys of entries cached without information about the resource. */
+    private Set<String> m_unscopedKeys = new HashSet<String>();
+
+    /**
+     * Adds a cache key to the index.<p>
+     *
+     * @param key the cache key
+     * @param resource the resource the property list was read for, or <code>null</code> if unknown
+     * @param inherited true if the property list contains the inherited properties
+     * @param online true if the property list was read in the online project
+     */
+    void add(String key, CmsResource resource, boolean inherited, boolean online) {
+
+        remove(key);
+        if (resource == null) {
+            // must be removed with every change
+            m_unscopedKeys.add(key);
+            return;
+        }
+        CmsEntry entry = new CmsEntry(resource.getRootPath(), resource.getResourceId(), inherited, online);
+        m_entries.put(key, entry);
+        addKey(m_keysByPath, entry.m_rootPath, key);
+        addKey(m_keysByResource, entry.m_resourceId, key);
+    }
+
+    /**
+     * Removes all keys from the index.<p>
+     */
+    void clear() {
+
+        m_entries.clear();
+        m_keysByPath.clear();
+        m_keysByResource.clear();
+        m_unscopedKeys.clear();
+    }
+
+    /**
+     * Returns the keys of the property lists affected by a change of the given resource.<p>
+     *
+     * These are the property lists of the resource and its siblings, and if the resource is a folder,
+     * the inherited property lists of all resources below it.
+     * If <code>tree</code> is set, all property lists of resources below the folder are included as well,
+     * which is required if the folder is moved or deleted.<p>
+     *
+     * Only property lists read in the project with the given online state are included, since a change
+     * in the offline project does not change the properties in the online project and vice versa.<p>
+     *
+     * @param resource the changed resource
+     * @param online true if the resource has been changed in the online project
+     * @param tree true if all property lists below the resource are affected
+     *
+     * @return the affected keys
+     */
+    Set<String> getAffectedKeys(CmsResource resource, boolean online, boolean tree) {
+
+        Set<String> result = new HashSet<String>(m_unscopedKeys);
+        Set<String> candidates = new HashSet<String>();
+        Set<String> resourceKeys = m_keysByResource.get(resource.getResourceId());
+        if (resourceKeys != null) {
+            candidates.addAll(resourceKeys);
+        }
+        String rootPath = resource.getRootPath();
+        Set<String> pathKeys = m_keysByPath.get(rootPath);
+        if (pathKeys != null) {
+            candidates.addAll(pathKeys);
+        }
+        for (String key : candidates) {
+            if (m_entries.get(key).m_online == online) {
+                result.add(key);
+            }
+        }
+        if (resource.isFolder()) {
+            String folderPath = CmsResource.isFolder(rootPath) ? rootPath : rootPath + "/";
+            Map<String, Set<String>> subTree = m_keysByPath.subMap(
+                folderPath,
+                true,
+                folderPath + Character.MAX_VALUE,
+                false);
+            for (Set<String> keys : subTree.values()) {
+                for (String key : keys) {
+                    CmsEntry entry = m_entries.get(key);
+                    if ((entry.m_online == online) && (tree || entry.m_inherited)) {
+                        result.add(key);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes a key from the index.<p>
+     *
+     * @param key the key to remove
+     */
+    void remove(String key) {
+
+        m_unscopedKeys.remove(key);
+        CmsEntry entry = m_entries.remove(key);
+        if (entry != null) {
+            removeKey(m_keysByPath, entry.m_rootPath, key);
+            removeKey(m_keysByResource, entry.m_resourceId, key);
+        }
+    }
+
+    /**
+     * Removes all keys from the index which are not contained in the given set of keys.<p>
+     *
+     * @param keys the keys to keep
+     */
+    void retainAll(Set<String> keys) {
+
+        m_unscopedKeys.retainAll(keys);
+        for (String key : new HashSet<String>(m_entries.keySet())) {
+            if (!keys.contains(key)) {
+                remove(key);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of keys in the index.<p>
+     *
+     * @return the number of keys in the index
+     */
+    int size() {
+
+        return m_entries.size() + m_unscopedKeys.size();
+    }
+
+    /**
+     * Adds a key to the key set stored for the given index value.<p>
+     *
+     * @param map the index map
+     * @param indexValue the index value
+     * @param key the key to add
+     */
+    private <T> void addKey(Map<T, Set<String>> map, T indexValue, String key) {
+
+        Set<String> keys = map.get(indexValue);
+        if (keys == null) {
+            keys = new HashSet<String>(4);
+            map.put(indexValue, keys);
+        }
+        keys.add(key);
+    }
+
+    /**
+     * Removes a key from the key set stored for the given index value.<p>
+     *
+     * @param map the index map
+     * @param indexValue the index value
+     * @param key the key to remove
+     */
+    private <T> void removeKey(Map<T, Set<String>> map, T indexValue, String key) {
+
+        Set<String> keys = map.get(indexValue);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                map.remove(indexValue);
+            }
+        }
+    }
+}
@@ -100,6 +100,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_MM_WARNING_MEM_STATUS_AVG_6 = "LOG_MM_WARNING_MEM_STATUS_AVG_6";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_PROPERTY_LISTS_UNCACHED_2 = "LOG_PROPERTY_LISTS_UNCACHED_2";
+
     /** Name of the used resource bundle. */
     private static final String BUNDLE_NAME = "org.opencms.monitor.messages";
 
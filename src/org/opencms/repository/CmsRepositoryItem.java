@@ -50,6 +50,9 @@ public class CmsRepositoryItem implements I_CmsRepositoryItem {
     /** The content of the item as a byte array. */
     private byte[] m_content;
 
+    /** The content encoding inherited from the parent folder, if already known. */
+    private String m_inheritedEncoding;
+
     /** The MIME type of the item. */
     private String m_mimeType;
 
@@ -128,19 +131,38 @@ public class CmsRepositoryItem implements I_CmsRepositoryItem {
         }
 
         if (m_mimeType == null) {
-            try {
-                String encoding = m_cms.readPropertyObject(
-                    m_resource,
-                    CmsPropertyDefinition.PROPERTY_CONTENT_ENCODING,
-                    true).getValue(OpenCms.getSystemInfo().getDefaultEncoding());
-
-                m_mimeType = OpenCms.getResourceManager().getMimeType(
-                    m_resource.getRootPath(),
-                    encoding,
-                    CmsResourceManager.MIMETYPE_TEXT);
-
-            } catch (CmsException ex) {
-                // noop
+            CmsResourceManager resourceManager = OpenCms.getResourceManager();
+            String mimeType = resourceManager.getMimeType(
+                m_resource.getRootPath(),
+                null,
+                CmsResourceManager.MIMETYPE_TEXT);
+            // only text based MIME types are extended with the content encoding
+            if (!resourceManager.isTextMimeType(mimeType)) {
+                // no need to read the content encoding property
+                m_mimeType = mimeType;
+            } else {
+                try {
+                    String encoding;
+                    if (m_inheritedEncoding != null) {
+                        encoding = m_cms.readPropertyObject(
+                            m_resource,
+                            CmsPropertyDefinition.PROPERTY_CONTENT_ENCODING,
+                            false).getValue(m_inheritedEncoding);
+                    } else {
+                        encoding = m_cms.readPropertyObject(
+                            m_resource,
+                            CmsPropertyDefinition.PROPERTY_CONTENT_ENCODING,
+                            true).getValue(OpenCms.getSystemInfo().getDefaultEncoding());
+                    }
+
+                    m_mimeType = resourceManager.getMimeType(
+                        m_resource.getRootPath(),
+                        encoding,
+                        CmsResourceManager.MIMETYPE_TEXT);
+
+                } catch (CmsException ex) {
+                    // noop
+                }
             }
         }
 
@@ -163,4 +185,18 @@ public class CmsRepositoryItem implements I_CmsRepositoryItem {
         return m_resource.isFolder();
     }
 
+    /**
+     * Sets the content encoding inherited from the parent folder.<p>
+     *
+     * If this is set, only the content encoding directly set on the resource has to be read
+     * for the MIME type, which avoids reading the properties of all parent folders again for
+     * every item of a folder listing.<p>
+     *
+     * @param encoding the content encoding of the parent folder
+     */
+    void setInheritedEncoding(String encoding) {
+
+        m_inheritedEncoding = encoding;
+    }
+
 }
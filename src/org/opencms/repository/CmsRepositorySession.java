@@ -28,6 +28,7 @@
 package org.opencms.repository;
 
 import org.opencms.file.CmsFile;
+import org.opencms.file.CmsPropertyDefinition;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.CmsUser;
@@ -41,12 +42,15 @@ import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
 import org.opencms.security.CmsSecurityException;
 import org.opencms.util.CmsFileUtil;
+import org.opencms.util.CmsUUID;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.logging.Log;
 
@@ -266,6 +270,26 @@ public class CmsRepositorySession extends A_CmsRepositorySession {
         }
 
         List<CmsResource> resources = m_cms.getResourcesInFolder(path, CmsResourceFilter.DEFAULT);
+
+        // the original resources of most children are the children of the folder in the VFS,
+        // so they are read with a single query instead of one query per child
+        Map<CmsUUID, CmsResource> originals = new HashMap<CmsUUID, CmsResource>();
+        String folderEncoding = null;
+        try {
+            for (CmsResource vfsRes : m_cms.getVfsResourcesInFolder(path, CmsResourceFilter.DEFAULT)) {
+                originals.put(vfsRes.getStructureId(), vfsRes);
+            }
+            // the content encoding inherited from the folder is shared by all children
+            folderEncoding = m_cms.readPropertyObject(
+                m_cms.readResource(path, CmsResourceFilter.DEFAULT),
+                CmsPropertyDefinition.PROPERTY_CONTENT_ENCODING,
+                true).getValue(OpenCms.getSystemInfo().getDefaultEncoding());
+        } catch (CmsException e) {
+            // the folder only exists as a wrapped resource, so the originals are read one by one
+            LOG.debug(e.getLocalizedMessage(), e);
+        }
+        String folderRootPath = m_cms.getRequestContext().addSiteRoot(path);
+
         Iterator<CmsResource> iter = resources.iterator();
         while (iter.hasNext()) {
             CmsResource res = iter.next();
@@ -276,9 +300,17 @@ public class CmsRepositorySession extends A_CmsRepositorySession {
                 // which the virtual resource is based on)
                 // this filters e.g. property files for resources that are filtered out and thus
                 // should not be displayed
-                CmsResource org = m_cms.readResource(res.getStructureId(), CmsResourceFilter.DEFAULT);
+                CmsResource org = originals.get(res.getStructureId());
+                if (org == null) {
+                    org = m_cms.readResource(res.getStructureId(), CmsResourceFilter.DEFAULT);
+                }
                 if (!isFiltered(m_cms.getRequestContext().removeSiteRoot(org.getRootPath()))) {
-                    ret.add(new CmsRepositoryItem(res, m_cms));
+                    CmsRepositoryItem item = new CmsRepositoryItem(res, m_cms);
+                    if ((folderEncoding != null)
+                        && folderRootPath.equals(CmsResource.getParentFolder(res.getRootPath()))) {
+                        item.setInheritedEncoding(folderEncoding);
+                    }
+                    ret.add(item);
                 }
             }
         }
@@ -370,7 +402,14 @@ public class CmsRepositorySession extends A_CmsRepositorySession {
         byte[] content = CmsFileUtil.readFully(inputStream);
 
         try {
-            CmsFile file = m_cms.readFile(path, CmsResourceFilter.DEFAULT);
+            // the old content is replaced, so only the resource is read and not the whole file
+            CmsResource existing = m_cms.readResource(path, CmsResourceFilter.DEFAULT);
+            if (existing.isFolder()) {
+                throw new CmsVfsResourceNotFoundException(
+                    org.opencms.db.Messages.get().container(
+                        org.opencms.db.Messages.ERR_ACCESS_FOLDER_AS_FILE_1,
+                        existing.getRootPath()));
+            }
 
             if (LOG.isDebugEnabled()) {
                 LOG.debug(Messages.get().getBundle().key(Messages.LOG_UPDATE_ITEM_1, path));
@@ -378,6 +417,8 @@ public class CmsRepositorySession extends A_CmsRepositorySession {
 
             if (overwrite) {
 
+                // the file takes all values of the existing resource, only the content is replaced
+                CmsFile file = new CmsFile(existing);
                 file.setContents(content);
 
                 CmsLock lock = m_cms.getLock(file);
@@ -34,6 +34,7 @@ import org.opencms.file.CmsPropertyDefinition;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.types.CmsResourceTypeImage;
+import org.opencms.loader.CmsImageDimensionProbe;
 import org.opencms.loader.CmsImageLoader;
 import org.opencms.loader.CmsImageScaler;
 import org.opencms.lock.CmsLock;
@@ -42,10 +43,17 @@ import org.opencms.main.OpenCms;
 import org.opencms.report.CmsLogReport;
 import org.opencms.report.I_CmsReport;
 import org.opencms.scheduler.I_CmsScheduledJob;
+import org.opencms.util.CmsStringUtil;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * A schedulable OpenCms job to calculate image size information.<p>
@@ -53,17 +61,44 @@ import java.util.Map;
  * Image size information is stored in the <code>{@link CmsPropertyDefinition#PROPERTY_IMAGE_SIZE}</code> property
  * of an image file must have the format "h:x,w:y" with x and y being positive Integer vaulues.<p>
  *
+ * The image dimensions are read from the image headers where possible, the images are only decoded
+ * if the format is not supported by the <code>{@link CmsImageDimensionProbe}</code>. Reading the images
+ * is done in parallel, while all changes to the VFS are made by the job thread.<p>
+ *
  * Job parameters:<p>
  * <dl>
  * <dt><code>downscale=true|false</code></dt>
  * <dd>Controls if images are automatically downscaled according to the configured image
  * downscale settings, by default this is <code>false</code>.</dd>
+ * <dt><code>skipvalid=true|false</code></dt>
+ * <dd>Controls if images which already have a valid image size property are not decoded if their
+ * dimensions can not be read from the header, by default this is <code>false</code>.</dd>
+ * <dt><code>threads=n</code></dt>
+ * <dd>The number of threads used for reading the images, by default this depends on the number of processors.</dd>
+ * <dt><code>batchsize=n</code></dt>
+ * <dd>The number of images in a batch, by default this is 100. The threads read the next batch
+ * while the job thread processes the current one.</dd>
  * </dl>
  *
  * @since 6.0.2
  */
 public class CmsCreateImageSizeJob implements I_CmsScheduledJob {
 
+    /**
+     * The result of reading the size information of a single image.<p>
+     */
+    private static class CmsImageSizeResult {
+
+        /** The current value of the image size property. */
+        CmsProperty m_property;
+
+        /** The scaler with the image dimensions. */
+        CmsImageScaler m_scaler;
+    }
+
+    /** The job parameter for the number of images read ahead by the threads. */
+    public static final String PARAM_BATCHSIZE = "batchsize";
+
     /**
      * This job parameter controls if images are automatically downscaled according to the configured image
      * downscale settings, by default this is <code>false</code>.
@@ -75,6 +110,26 @@ public class CmsCreateImageSizeJob implements I_CmsScheduledJob {
      */
     public static final String PARAM_DOWNSCALE = "downscale";
 
+    /**
+     * This job parameter controls if images which already have a valid image size property are not decoded.<p>
+     *
+     * Possible values are <code>true</code> or <code>false</code> (default).
+     * The dimensions read from the image header are always compared with the image size property.
+     * If this is set to <code>true</code> and the dimensions can not be read from the header,
+     * a valid image size property is used instead of decoding the image.
+     * If downscaling is enabled, these images are checked against the image size property.<p>
+     */
+    public static final String PARAM_SKIPVALID = "skipvalid";
+
+    /** The job parameter for the number of threads used for reading the images. */
+    public static final String PARAM_THREADS = "threads";
+
+    /** The default number of images read ahead by the threads. */
+    private static final int DEFAULT_BATCHSIZE = 100;
+
+    /** The default maximum number of threads used for reading the images. */
+    private static final int DEFAULT_MAX_THREADS = 4;
+
     /**
      * @see org.opencms.scheduler.I_CmsScheduledJob#launch(CmsObject, Map)
      */
@@ -85,8 +140,14 @@ public class CmsCreateImageSizeJob implements I_CmsScheduledJob {
             return Messages.get().getBundle().key(Messages.LOG_IMAGE_SCALING_DISABLED_0);
         }
 
-        // read the downscale parameter
+        // read the job parameters
         boolean downscale = Boolean.valueOf(parameters.get(PARAM_DOWNSCALE)).booleanValue();
+        boolean skipValid = Boolean.valueOf(parameters.get(PARAM_SKIPVALID)).booleanValue();
+        int threads = getIntParameter(
+            parameters,
+            PARAM_THREADS,
+            Math.min(DEFAULT_MAX_THREADS, Runtime.getRuntime().availableProcessors()));
+        int batchSize = getIntParameter(parameters, PARAM_BATCHSIZE, DEFAULT_BATCHSIZE);
 
         I_CmsReport report = new CmsLogReport(cms.getRequestContext().getLocale(), CmsCreateImageSizeJob.class);
         report.println(Messages.get().container(Messages.RPT_IMAGE_SIZE_START_0), I_CmsReport.FORMAT_HEADLINE);
@@ -104,10 +165,24 @@ public class CmsCreateImageSizeJob implements I_CmsScheduledJob {
         }
 
         int count = 0;
-        // now iterate through all resources
-        for (int i = 0; i < resources.size(); i++) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            // the images are read in batches, the next batch is submitted before the current one is processed,
+            // so the threads read ahead while the job thread writes the results
+            List<Future<CmsImageSizeResult>> batch = readImageSizes(cms, resources, 0, batchSize, skipValid, executor);
+            List<Future<CmsImageSizeResult>> nextBatch = readImageSizes(
+                cms,
+                resources,
+                batchSize,
+                batchSize,
+                skipValid,
+                executor);
+            for (int i = 0; i < resources.size(); i++) {
 
-            try {
+                if ((i > 0) && ((i % batchSize) == 0)) {
+                    batch = nextBatch;
+                    nextBatch = readImageSizes(cms, resources, i + batchSize, batchSize, skipValid, executor);
+                }
 
                 CmsResource res = resources.get(i);
                 report.print(
@@ -120,95 +195,17 @@ public class CmsCreateImageSizeJob implements I_CmsScheduledJob {
 
                 report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
 
-                // check if the resource is locked by another user
-                // we cannot process resources that are locked by someone else
-                CmsLock lock = cms.getLock(res);
-                if (lock.isNullLock() || lock.isOwnedBy(cms.getRequestContext().getCurrentUser())) {
-
-                    // read the file content
-                    CmsFile file = cms.readFile(res);
-                    // get the image size information
-                    CmsImageScaler scaler = new CmsImageScaler(file.getContents(), file.getRootPath());
-
-                    if (scaler.isValid()) {
-                        // the image can be scaled, width and height are known
-                        boolean updated = false;
-
-                        // check if the image must be downscaled
-                        CmsImageScaler downScaler = null;
-                        if (downscale) {
-                            // scheduled job parameter is set for downscaling
-                            downScaler = CmsResourceTypeImage.getDownScaler(cms, res.getRootPath());
-                        }
-
-                        if (scaler.isDownScaleRequired(downScaler)) {
-                            // downscaling is required - just write the file again, in this case everything is updated
-                            lockResource(cms, lock, res);
-                            cms.writeFile(file);
-                            // calculate the downscaled image size (only used for the output report)
-                            scaler = scaler.getDownScaler(downScaler);
-                            // the resource was updated
-                            updated = true;
-                        } else {
-                            // check if the "image.size" property must be updated
-                            CmsProperty prop = cms.readPropertyObject(
-                                res,
-                                CmsPropertyDefinition.PROPERTY_IMAGE_SIZE,
-                                false);
-                            // update the property if it does not exist or it is different than the newly calculated one
-                            if (prop.isNullProperty() || !prop.getValue().equals(scaler.toString())) {
-                                // lock resource
-                                lockResource(cms, lock, res);
-                                // set the shared value of the property or create a new one if required
-                                if (prop.isNullProperty()) {
-                                    prop = new CmsProperty(
-                                        CmsPropertyDefinition.PROPERTY_IMAGE_SIZE,
-                                        null,
-                                        scaler.toString());
-                                } else {
-                                    // delete any individual proprety value (just in case)
-                                    prop.setStructureValue(CmsProperty.DELETE_VALUE);
-                                    // set the calculated value as shared property
-                                    prop.setResourceValue(scaler.toString());
-                                }
-                                // write the property
-                                cms.writePropertyObject(res.getRootPath(), prop);
-                                // the resource was updated
-                                updated = true;
-                            }
-                        }
-
-                        if (updated) {
-                            // the resource was updated
-                            unlockResource(cms, lock, res);
-                            // increase counter
-                            count++;
-                            // write report information
-                            report.println(
-                                Messages.get().container(Messages.RPT_IMAGE_SIZE_UPDATE_1, scaler.toString()),
-                                I_CmsReport.FORMAT_DEFAULT);
-
-                        } else {
-                            // no changes have been made to the resource
-                            report.println(
-                                Messages.get().container(Messages.RPT_IMAGE_SIZE_SKIP_1, scaler.toString()),
-                                I_CmsReport.FORMAT_DEFAULT);
-                        }
-                    } else {
-                        // no valid image scaler
-                        report.println(
-                            Messages.get().container(Messages.RPT_IMAGE_SIZE_UNABLE_TO_CALCULATE_0),
-                            I_CmsReport.FORMAT_DEFAULT);
+                try {
+                    CmsImageSizeResult result = getResult(batch.get(i % batchSize));
+                    if (updateImage(cms, res, result, downscale, report)) {
+                        count++;
                     }
-                } else {
-                    // the resource is locked by someone else
-                    report.println(
-                        Messages.get().container(Messages.RPT_IMAGE_SIZE_LOCKED_0),
-                        I_CmsReport.FORMAT_DEFAULT);
+                } catch (CmsException e) {
+                    report.println(e);
                 }
-            } catch (CmsException e) {
-                report.println(e);
             }
+        } finally {
+            executor.shutdownNow();
         }
 
         report.println(Messages.get().container(Messages.RPT_IMAGE_SIZE_END_0), I_CmsReport.FORMAT_HEADLINE);
@@ -216,6 +213,54 @@ public class CmsCreateImageSizeJob implements I_CmsScheduledJob {
         return Messages.get().getBundle().key(Messages.LOG_IMAGE_SIZE_UPDATE_COUNT_1, new Integer(count));
     }
 
+    /**
+     * Reads a positive integer parameter value.<p>
+     *
+     * @param parameters the job parameters
+     * @param name the name of the parameter
+     * @param defaultValue the default value
+     *
+     * @return the parameter value, or the default value if the parameter is not set or invalid
+     */
+    private int getIntParameter(Map<String, String> parameters, String name, int defaultValue) {
+
+        String value = parameters.get(name);
+        if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(value)) {
+            try {
+                int result = Integer.parseInt(value.trim());
+                if (result > 0) {
+                    return result;
+                }
+            } catch (NumberFormatException e) {
+                // use the default value
+            }
+        }
+        return Math.max(1, defaultValue);
+    }
+
+    /**
+     * Waits for the size information of an image to be read.<p>
+     *
+     * @param future the future for the size information
+     *
+     * @return the size information
+     *
+     * @throws CmsException in case reading the image failed
+     * @throws InterruptedException in case the job thread was interrupted
+     */
+    private CmsImageSizeResult getResult(Future<CmsImageSizeResult> future)
+    throws CmsException, InterruptedException {
+
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CmsException) {
+                throw (CmsException)e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
     /**
      * Locks the given resource (if required).<p>
      *
@@ -232,6 +277,65 @@ public class CmsCreateImageSizeJob implements I_CmsScheduledJob {
         }
     }
 
+    /**
+     * Starts reading the size information for a batch of images.<p>
+     *
+     * Each image is read with its own copy of the user context, since the context is not thread safe.<p>
+     *
+     * @param cms the OpenCms user context
+     * @param resources the list of all images
+     * @param start the index of the first image of the batch
+     * @param batchSize the batch size
+     * @param skipValid if <code>true</code>, images with a valid image size property are not decoded
+     * @param executor the executor to use
+     *
+     * @return the futures for the size information of the images in the batch, empty if the batch
+     *      starts after the last image
+     */
+    private List<Future<CmsImageSizeResult>> readImageSizes(
+        final CmsObject cms,
+        List<CmsResource> resources,
+        int start,
+        int batchSize,
+        final boolean skipValid,
+        ExecutorService executor) {
+
+        if (start >= resources.size()) {
+            return Collections.emptyList();
+        }
+        int end = Math.min(resources.size(), start + batchSize);
+        List<Future<CmsImageSizeResult>> result = new ArrayList<Future<CmsImageSizeResult>>(end - start);
+        for (final CmsResource res : resources.subList(start, end)) {
+            result.add(executor.submit(new Callable<CmsImageSizeResult>() {
+
+                public CmsImageSizeResult call() throws CmsException {
+
+                    CmsObject threadCms = OpenCms.initCmsObject(cms);
+                    CmsImageSizeResult sizeResult = new CmsImageSizeResult();
+                    sizeResult.m_property = threadCms.readPropertyObject(
+                        res,
+                        CmsPropertyDefinition.PROPERTY_IMAGE_SIZE,
+                        false);
+                    CmsFile file = threadCms.readFile(res);
+                    // the property may be outdated, so the dimensions from the header are always used if available
+                    if (skipValid
+                        && !sizeResult.m_property.isNullProperty()
+                        && (CmsImageDimensionProbe.getDimensions(file.getContents()) == null)) {
+                        CmsImageScaler propertyScaler = new CmsImageScaler(sizeResult.m_property.getValue());
+                        if (propertyScaler.isValid()) {
+                            // avoid decoding the image
+                            sizeResult.m_scaler = propertyScaler;
+                            return sizeResult;
+                        }
+                    }
+                    sizeResult.m_scaler = CmsImageDimensionProbe.createScaler(file.getContents(), file.getRootPath());
+                    return sizeResult;
+                }
+            }));
+        }
+        return result;
+    }
+
     /**
      * Unlocks the given resource (if required).<p>
      *
@@ -247,4 +351,102 @@ public class CmsCreateImageSizeJob implements I_CmsScheduledJob {
             cms.unlockResource(res.getRootPath());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Updates the image size property of an image, or downscales the image if required.<p>
+     *
+     * @param cms the OpenCms user context
+     * @param res the image resource
+     * @param sizeResult the size information read for the image
+     * @param downscale if <code>true</code>, the image is downscaled if required
+     * @param report the report to write to
+     *
+     * @return <code>true</code> if the image was updated
+     *
+     * @throws CmsException in case something goes wrong
+     */
+    private boolean updateImage(
+        CmsObject cms,
+        CmsResource res,
+        CmsImageSizeResult sizeResult,
+        boolean downscale,
+        I_CmsReport report)
+    throws CmsException {
+
+        // check if the resource is locked by another user
+        // we cannot process resources that are locked by someone else
+        CmsLock lock = cms.getLock(res);
+        if (!lock.isNullLock() && !lock.isOwnedBy(cms.getRequestContext().getCurrentUser())) {
+            // the resource is locked by someone else
+            report.println(Messages.get().container(Messages.RPT_IMAGE_SIZE_LOCKED_0), I_CmsReport.FORMAT_DEFAULT);
+            return false;
+        }
+
+        CmsImageScaler scaler = sizeResult.m_scaler;
+        if (!scaler.isValid()) {
+            // no valid image scaler
+            report.println(
+                Messages.get().container(Messages.RPT_IMAGE_SIZE_UNABLE_TO_CALCULATE_0),
+                I_CmsReport.FORMAT_DEFAULT);
+            return false;
+        }
+
+        // the image can be scaled, width and height are known
+        boolean updated = false;
+
+        // check if the image must be downscaled
+        CmsImageScaler downScaler = null;
+        if (downscale) {
+            // scheduled job parameter is set for downscaling
+            downScaler = CmsResourceTypeImage.getDownScaler(cms, res.getRootPath());
+        }
+
+        if (scaler.isDownScaleRequired(downScaler)) {
+            // downscaling is required - just write the file again, in this case everything is updated
+            CmsFile file = cms.readFile(res);
+            lockResource(cms, lock, res);
+            cms.writeFile(file);
+            // calculate the downscaled image size (only used for the output report)
+            scaler = scaler.getDownScaler(downScaler);
+            // the resource was updated
+            updated = true;
+        } else {
+            // check if the "image.size" property must be updated
+            CmsProperty prop = sizeResult.m_property;
+            // update the property if it does not exist or it is different than the newly calculated one
+            if (prop.isNullProperty() || !prop.getValue().equals(scaler.toString())) {
+                // lock resource
+                lockResource(cms, lock, res);
+                // set the shared value of the property or create a new one if required
+                if (prop.isNullProperty()) {
+                    prop = new CmsProperty(CmsPropertyDefinition.PROPERTY_IMAGE_SIZE, null, scaler.toString());
+                } else {
+                    // delete any individual proprety value (just in case)
+                    prop = prop.cloneAsProperty();
+                    prop.setStructureValue(CmsProperty.DELETE_VALUE);
+                    // set the calculated value as shared property
+                    prop.setResourceValue(scaler.toString());
+                }
+                // write the property
+                cms.writePropertyObject(res.getRootPath(), prop);
+                // the resource was updated
+                updated = true;
+            }
+        }
+
+        if (updated) {
+            // the resource was updated
+            unlockResource(cms, lock, res);
+            // write report information
+            report.println(
+                Messages.get().container(Messages.RPT_IMAGE_SIZE_UPDATE_1, scaler.toString()),
+                I_CmsReport.FORMAT_DEFAULT);
+        } else {
+            // no changes have been made to the resource
+            report.println(
+                Messages.get().container(Messages.RPT_IMAGE_SIZE_SKIP_1, scaler.toString()),
+                I_CmsReport.FORMAT_DEFAULT);
+        }
+        return updated;
+    }
+}
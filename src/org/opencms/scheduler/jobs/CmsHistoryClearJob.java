@@ -55,12 +55,24 @@ import java.util.Map;
  * <dd>Number/Integer to configure the number of days the versions of deleted resources will
  * be kept. That means that all versions wich are older than the specified number will be deleted.
  * This parameter is optional and only makes sense if the clearDeleted parameter is set to true.</dd>
+ * <dt><code>batchSize={Number/Integer}</code></dt>
+ * <dd>If set, the bulk purge is used, which computes the versions to delete for ranges of publish tags
+ * and deletes them in database batches of the given size. This is much faster for large repositories.</dd>
+ * <dt><code>pause={Number/Integer}</code></dt>
+ * <dd>Time in milliseconds the bulk purge pauses between two publish tag ranges, to reduce the load
+ * on the database while the job runs alongside live traffic. Only used together with <code>batchSize</code>.</dd>
  * </dl>
  *
  * @since 7.0.0
  */
 public class CmsHistoryClearJob implements I_CmsScheduledJob {
 
+    /** Name of the parameter where to configure the batch size of the bulk purge. */
+    public static final String PARAM_BATCHSIZE = "batchSize";
+
+    /** Name of the parameter where to configure the pause between publish tag ranges of the bulk purge. */
+    public static final String PARAM_PAUSE = "pause";
+
     /** Name of the parameter where to configure how many versions are kept. */
     public static final String PARAM_KEEPVERSIONS = "keepVersions";
 
@@ -103,8 +115,21 @@ public class CmsHistoryClearJob implements I_CmsScheduledJob {
         // create a new report
         CmsLogReport report = new CmsLogReport(cms.getRequestContext().getLocale(), CmsHistoryClearJob.class);
 
-        // delete the versions
-        cms.deleteHistoricalVersions(keepVersions, keepDeletedVersions, timeDeleted, report);
+        // read the optional parameters for the bulk purge
+        String batchSizeStr = parameters.get(PARAM_BATCHSIZE);
+        if (!CmsStringUtil.isEmptyOrWhitespaceOnly(batchSizeStr)) {
+            int batchSize = Integer.parseInt(batchSizeStr.trim());
+            long pause = 0;
+            String pauseStr = parameters.get(PARAM_PAUSE);
+            if (!CmsStringUtil.isEmptyOrWhitespaceOnly(pauseStr)) {
+                pause = Long.parseLong(pauseStr.trim());
+            }
+            // delete the versions in batches
+            cms.purgeHistoricalVersions(keepVersions, keepDeletedVersions, timeDeleted, batchSize, pause, report);
+        } else {
+            // delete the versions
+            cms.deleteHistoricalVersions(keepVersions, keepDeletedVersions, timeDeleted, report);
+        }
 
         return null;
     }
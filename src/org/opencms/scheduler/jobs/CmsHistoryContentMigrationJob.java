@@ -0,0 +1,83 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.scheduler.jobs;
+
+import org.opencms.file.CmsObject;
+import org.opencms.report.CmsLogReport;
+import org.opencms.scheduler.I_CmsScheduledJob;
+import org.opencms.util.CmsStringUtil;
+
+import java.util.Map;
+
+/**
+ * A schedulable OpenCms job to move the existing historical file contents to the deduplicating
+ * history content store.<p>
+ *
+ * The history content store has to be enabled with <code>db.history.contentstore=dedup</code>
+ * in <code>opencms.properties</code>, otherwise this job does nothing. It can safely be run
+ * more than once. Since publishing does not move the new historical contents to the content store
+ * itself, this job should be scheduled to run regularly, for example every night.<p>
+ *
+ * The user to execute the process should have have access to the required "Workplace manager" role.<p>
+ *
+ * Job parameters:<p>
+ * <dl>
+ * <dt><code>batchSize={Number/Integer}</code></dt>
+ * <dd>Number of resources whose historical contents are moved per batch, the default is 500.</dd>
+ * </dl>
+ *
+ * @since 11.0.0
+ */
+public class CmsHistoryContentMigrationJob implements I_CmsScheduledJob {
+
+    /** Name of the parameter where to configure the batch size. */
+    public static final String PARAM_BATCHSIZE = "batchSize";
+
+    /** The default batch size. */
+    public static final int DEFAULT_BATCHSIZE = 500;
+
+    /**
+     * @see org.opencms.scheduler.I_CmsScheduledJob#launch(org.opencms.file.CmsObject, java.util.Map)
+     */
+    public String launch(CmsObject cms, Map<String, String> parameters) throws Exception {
+
+        int batchSize = DEFAULT_BATCHSIZE;
+        String batchSizeStr = parameters.get(PARAM_BATCHSIZE);
+        if (!CmsStringUtil.isEmptyOrWhitespaceOnly(batchSizeStr)) {
+            batchSize = Integer.parseInt(batchSizeStr.trim());
+        }
+
+        // create a new report
+        CmsLogReport report = new CmsLogReport(
+            cms.getRequestContext().getLocale(),
+            CmsHistoryContentMigrationJob.class);
+
+        cms.migrateHistoryContents(batchSize, report);
+        return null;
+    }
+}
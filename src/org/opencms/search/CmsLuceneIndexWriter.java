@@ -29,9 +29,13 @@ package org.opencms.search;
 
 import org.opencms.db.CmsPublishedResource;
 import org.opencms.main.CmsLog;
+import org.opencms.main.OpenCms;
 import org.opencms.search.fields.CmsSearchField;
 
 import java.io.IOException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.logging.Log;
 import org.apache.lucene.document.Document;
@@ -48,12 +52,24 @@ public class CmsLuceneIndexWriter implements I_CmsIndexWriter {
     /** The log object for this class. */
     protected static final Log LOG = CmsLog.getLog(CmsLuceneIndexWriter.class);
 
+    /** The minimum time in milliseconds between two commits, if 0 every commit is executed. */
+    private final long m_commitInterval;
+
+    /** The pending deferred commit, or <code>null</code> if there is none. */
+    private ScheduledFuture<?> m_deferredCommit;
+
+    /** The executor used to run deferred commits. */
+    private final ScheduledExecutorService m_executor;
+
     /** The OpenCms search index instance this writer to supposed to write to. */
     private CmsSearchIndex m_index;
 
     /** The Lucene index writer to use. */
     private final IndexWriter m_indexWriter;
 
+    /** The time of the last commit, 0 if nothing has been committed by this writer yet. */
+    private long m_lastCommit;
+
     /**
      * Creates a new index writer based on the provided standard Lucene IndexWriter.<p>
      *
@@ -76,8 +92,48 @@ public class CmsLuceneIndexWriter implements I_CmsIndexWriter {
      */
     public CmsLuceneIndexWriter(IndexWriter indexWriter, CmsSearchIndex index) {
 
+        this(indexWriter, index, 0);
+    }
+
+    /**
+     * Creates a new index writer based on the provided standard Lucene IndexWriter for the
+     * provided OpenCms search index instance, which commits at most once in the given interval.<p>
+     *
+     * This is used for indexes searched in near real-time mode, where changes are visible to searches
+     * before they are committed. A commit requested within the interval is deferred until the interval
+     * has passed, several deferred commits are combined to one. Pending changes are also committed when
+     * the writer is closed.<p>
+     *
+     * @param indexWriter the standard Lucene IndexWriter to use as delegate
+     * @param index the OpenCms search index instance this writer to supposed to write to
+     * @param commitInterval the minimum time in milliseconds between two commits, if 0 every commit is executed
+     */
+    public CmsLuceneIndexWriter(IndexWriter indexWriter, CmsSearchIndex index, long commitInterval) {
+
+        this(indexWriter, index, commitInterval, commitInterval > 0 ? OpenCms.getExecutor() : null);
+    }
+
+    /**
+     * Creates a new index writer which commits at most once in the given interval,
+     * running deferred commits with the given executor.<p>
+     *
+     * If no executor is available, every commit is executed immediately.<p>
+     *
+     * @param indexWriter the standard Lucene IndexWriter to use as delegate
+     * @param index the OpenCms search index instance this writer to supposed to write to
+     * @param commitInterval the minimum time in milliseconds between two commits, if 0 every commit is executed
+     * @param executor the executor used to run deferred commits
+     */
+    CmsLuceneIndexWriter(
+        IndexWriter indexWriter,
+        CmsSearchIndex index,
+        long commitInterval,
+        ScheduledExecutorService executor) {
+
         m_indexWriter = indexWriter;
         m_index = index;
+        m_executor = executor;
+        m_commitInterval = executor != null ? commitInterval : 0;
         if ((m_index != null) && LOG.isInfoEnabled()) {
             LOG.info(
                 Messages.get().getBundle().key(
@@ -90,7 +146,7 @@ public class CmsLuceneIndexWriter implements I_CmsIndexWriter {
     /**
      * @see org.opencms.search.I_CmsIndexWriter#close()
      */
-    public void close() throws IOException {
+    public synchronized void close() throws IOException {
 
         if ((m_index != null) && LOG.isInfoEnabled()) {
             LOG.info(
@@ -99,14 +155,37 @@ public class CmsLuceneIndexWriter implements I_CmsIndexWriter {
                     m_index.getName(),
                     m_index.getPath()));
         }
+        cancelDeferredCommit();
+        // closing the Lucene writer commits all pending changes
         m_indexWriter.close();
     }
 
     /**
      * @see org.opencms.search.I_CmsIndexWriter#commit()
      */
-    public void commit() throws IOException {
+    public synchronized void commit() throws IOException {
 
+        long remaining = (m_lastCommit + m_commitInterval) - System.currentTimeMillis();
+        if ((m_commitInterval > 0) && (m_lastCommit > 0) && (remaining > 0)) {
+            if ((m_index != null) && LOG.isDebugEnabled()) {
+                LOG.debug(
+                    Messages.get().getBundle().key(
+                        Messages.LOG_INDEX_WRITER_MSG_COMMIT_DEFERRED_2,
+                        m_index.getName(),
+                        m_index.getPath()));
+            }
+            if (m_deferredCommit == null) {
+                m_deferredCommit = m_executor.schedule(new Runnable() {
+
+                    public void run() {
+
+                        commitDeferred();
+                    }
+                }, remaining, TimeUnit.MILLISECONDS);
+            }
+            return;
+        }
+        cancelDeferredCommit();
         if ((m_index != null) && LOG.isInfoEnabled()) {
             LOG.info(
                 Messages.get().getBundle().key(
@@ -115,6 +194,7 @@ public class CmsLuceneIndexWriter implements I_CmsIndexWriter {
                     m_index.getPath()));
         }
         m_indexWriter.commit();
+        m_lastCommit = System.currentTimeMillis();
     }
 
     /**
@@ -173,4 +253,46 @@ public class CmsLuceneIndexWriter implements I_CmsIndexWriter {
         }
         m_indexWriter.updateDocument(pathTerm, (Document)document.getDocument());
     }
+
+    /**
+     * Executes a deferred commit, unless the writer has been closed in the meantime.<p>
+     */
+    synchronized void commitDeferred() {
+
+        m_deferredCommit = null;
+        if (!m_indexWriter.isOpen()) {
+            return;
+        }
+        try {
+            commit();
+        } catch (Exception e) {
+            LOG.error(
+                Messages.get().getBundle().key(
+                    Messages.LOG_IO_INDEX_WRITER_COMMIT_2,
+                    m_index != null ? m_index.getName() : null,
+                    m_index != null ? m_index.getPath() : null),
+                e);
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if a deferred commit is pending.<p>
+     *
+     * @return <code>true</code> if a deferred commit is pending
+     */
+    synchronized boolean isCommitPending() {
+
+        return m_deferredCommit != null;
+    }
+
+    /**
+     * Cancels the pending deferred commit, if any.<p>
+     */
+    private void cancelDeferredCommit() {
+
+        if (m_deferredCommit != null) {
+            m_deferredCommit.cancel(false);
+            m_deferredCommit = null;
+        }
+    }
 }
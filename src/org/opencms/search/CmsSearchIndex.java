@@ -64,6 +64,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.lucene.analysis.Analyzer;
@@ -80,16 +81,20 @@ import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanClause.Occur;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.MultiTermQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.similarities.Similarity;
+import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
 import org.apache.lucene.store.IOContext;
@@ -174,6 +179,15 @@ public class CmsSearchIndex extends A_CmsSearchIndex {
     /** Constant for years max range span in document search. */
     public static final int MAX_YEAR_RANGE = 25;
 
+    /** Constant for additional parameter for the minimum time in ms between commits in near real-time mode. */
+    public static final String NRT_COMMIT_INTERVAL = A_PARAM_PREFIX + ".nrtCommitInterval";
+
+    /** The default minimum time in milliseconds between two commits in near real-time mode. */
+    public static final long NRT_COMMIT_INTERVAL_DEFAULT = 60000;
+
+    /** Constant for additional parameter to enable near real-time mode with the given refresh interval in ms. */
+    public static final String NRT_REFRESH_INTERVAL = A_PARAM_PREFIX + ".nrtRefreshInterval";
+
     /** Constant for additional parameter to enable permission checks (default: true). */
     public static final String PERMISSIONS = A_PARAM_PREFIX + ".checkPermissions";
 
@@ -231,21 +245,33 @@ public class CmsSearchIndex extends A_CmsSearchIndex {
      */
     private boolean m_ignoreExpiration;
 
-    /** The Lucene index searcher to use. */
-    private transient IndexSearcher m_indexSearcher;
-
     /** The Lucene index RAM buffer size, see {@link IndexWriterConfig#setRAMBufferSizeMB(double)}. */
     private Double m_luceneRAMBufferSizeMB;
 
     /** Indicates how many hits are loaded at maximum. */
     private int m_maxHits;
 
+    /** The minimum time in milliseconds between two commits in near real-time mode. */
+    private long m_nrtCommitInterval = NRT_COMMIT_INTERVAL_DEFAULT;
+
+    /** The searcher refresh interval in milliseconds in near real-time mode, 0 if near real-time mode is disabled. */
+    private long m_nrtRefreshInterval;
+
+    /** The thread refreshing the near real-time searcher, <code>null</code> if not searching in near real-time mode. */
+    private transient ControlledRealTimeReopenThread<IndexSearcher> m_nrtRefreshThread;
+
+    /** The index writer searched in near real-time mode, <code>null</code> if there is none. */
+    private transient IndexWriter m_nrtWriter;
+
     /** The thread priority for a search. */
     private int m_priority;
 
     /** Controls if a resource requires view permission to be displayed in the result list. */
     private boolean m_requireViewPermission;
 
+    /** Provides reference counted access to the current index searcher, replaced without locking the searches. */
+    private transient volatile SearcherManager m_searcherManager;
+
     /** The cms specific Similarity implementation. */
     private final transient Similarity m_sim = new CmsSearchSimilarity();
 
@@ -421,6 +447,33 @@ public class CmsSearchIndex extends A_CmsSearchIndex {
         return result;
     }
 
+    /**
+     * Acquires the current index searcher of this index.<p>
+     *
+     * The reader of the returned searcher stays open until it is released with
+     * {@link #releaseSearcher(IndexSearcher)}, even if the index searcher is reopened or closed meanwhile.
+     * Every acquired searcher must be released exactly once, usually in a <code>finally</code> block.<p>
+     *
+     * @return the current index searcher, or <code>null</code> if no index searcher is open
+     */
+    public IndexSearcher acquireSearcher() {
+
+        SearcherManager manager = m_searcherManager;
+        while (manager != null) {
+            try {
+                return manager.acquire();
+            } catch (AlreadyClosedException e) {
+                // the searcher manager has been replaced concurrently, retry with the current one
+                SearcherManager current = m_searcherManager;
+                manager = current != manager ? current : null;
+            } catch (IOException e) {
+                LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_1, getName()), e);
+                manager = null;
+            }
+        }
+        return null;
+    }
+
     /**
      * Adds a parameter.<p>
      *
@@ -482,6 +535,18 @@ public class CmsSearchIndex extends A_CmsSearchIndex {
             } catch (NumberFormatException e) {
                 LOG.error(Messages.get().getBundle().key(Messages.LOG_INVALID_PARAM_3, value, key, getName()));
             }
+        } else if (NRT_COMMIT_INTERVAL.equals(key)) {
+            try {
+                m_nrtCommitInterval = Math.max(0, Long.parseLong(value));
+            } catch (NumberFormatException e) {
+                LOG.error(Messages.get().getBundle().key(Messages.LOG_INVALID_PARAM_3, value, key, getName()));
+            }
+        } else if (NRT_REFRESH_INTERVAL.equals(key)) {
+            try {
+                m_nrtRefreshInterval = Math.max(0, Long.parseLong(value));
+            } catch (NumberFormatException e) {
+                LOG.error(Messages.get().getBundle().key(Messages.LOG_INVALID_PARAM_3, value, key, getName()));
+            }
         }
     }
 
@@ -538,6 +603,12 @@ public class CmsSearchIndex extends A_CmsSearchIndex {
         if (m_luceneRAMBufferSizeMB != null) {
             result.put(LUCENE_RAM_BUFFER_SIZE_MB, String.valueOf(m_luceneRAMBufferSizeMB));
         }
+        if (isNearRealTime()) {
+            result.put(NRT_REFRESH_INTERVAL, String.valueOf(m_nrtRefreshInterval));
+            if (m_nrtCommitInterval != NRT_COMMIT_INTERVAL_DEFAULT) {
+                result.put(NRT_COMMIT_INTERVAL, String.valueOf(m_nrtCommitInterval));
+            }
+        }
         // always write time range check parameter because of logic change in OpenCms 8.0
         result.put(TIME_RANGE, String.valueOf(m_checkTimeRange));
         return result;
@@ -573,11 +644,15 @@ public class CmsSearchIndex extends A_CmsSearchIndex {
      */
     public I_CmsSearchDocument getDocument(int docId) {
 
-        try {
-            IndexSearcher searcher = getSearcher();
-            return new CmsLuceneDocument(searcher.doc(docId));
-        } catch (IOException e) {
-            // ignore, return null and assume document was not found
+        IndexSearcher searcher = acquireSearcher();
+        if (searcher != null) {
+            try {
+                return new CmsLuceneDocument(searcher.doc(docId));
+            } catch (IOException e) {
+                // ignore, return null and assume document was not found
+            } finally {
+                releaseSearcher(searcher);
+            }
         }
         return null;
     }
@@ -613,7 +688,7 @@ public class CmsSearchIndex extends A_CmsSearchIndex {
     public I_CmsSearchDocument getDocument(String field, String term) {
 
         Document result = null;
-        IndexSearcher searcher = getSearcher();
+        IndexSearcher searcher = acquireSearcher();
         if (searcher != null) {
             // search for an exact match on the selected field
             Term resultTerm = new Term(field, term);
@@ -624,6 +699,8 @@ public class CmsSearchIndex extends A_CmsSearchIndex {
                 }
             } catch (IOException e) {
                 // ignore, return null and assume document was not found
+            } finally {
+                releaseSearcher(searcher);
             }
         }
         if (result != null) {
@@ -667,6 +744,20 @@ public class CmsSearchIndex extends A_CmsSearchIndex {
         return null;
     }
 
+    /**
+     * @see org.opencms.search.A_CmsSearchIndex#getIndexWriter(org.opencms.report.I_CmsReport, boolean)
+     */
+    @Override
+    public I_CmsIndexWriter getIndexWriter(I_CmsReport report, boolean create) throws CmsIndexException {
+
+        if (create) {
+            // the current writer is closed for the rebuild, so it must not be refreshed from anymore
+            stopNearRealTimeRefresh();
+            m_nrtWriter = null;
+        }
+        return super.getIndexWriter(report, create);
+    }
+
     /**
      * Returns the language locale for the given resource in this index.<p>
      *
@@ -746,11 +837,17 @@ public class CmsSearchIndex extends A_CmsSearchIndex {
     /**
      * Returns the Lucene index searcher used for this search index.<p>
      *
+     * The returned searcher is acquired with {@link #acquireSearcher()}, so it must be released
+     * with {@link #releaseSearcher(IndexSearcher)} once it is no longer used.<p>
+     *
      * @return the Lucene index searcher used for this search index
+     *
+     * @deprecated use {@link #acquireSearcher()} and {@link #releaseSearcher(IndexSearcher)} instead
      */
+    @Deprecated
     public IndexSearcher getSearcher() {
 
-        return m_indexSearcher;
+        return acquireSearcher();
     }
 
     /**
@@ -874,6 +971,23 @@ public class CmsSearchIndex extends A_CmsSearchIndex {
         return super.isInitialized() && (null != getPath());
     }
 
+    /**
+     * Returns <code>true</code> if this index is searched in near real-time mode.<p>
+     *
+     * In near real-time mode, the writer used for incremental updates is kept open and searched directly,
+     * so changes are visible within the configured refresh interval, while durable commits are done
+     * at most once in the configured commit interval.<p>
+     *
+     * @return <code>true</code> if this index is searched in near real-time mode
+     *
+     * @see #NRT_REFRESH_INTERVAL
+     * @see #NRT_COMMIT_INTERVAL
+     */
+    public boolean isNearRealTime() {
+
+        return m_nrtRefreshInterval > 0;
+    }
+
     /**
      * Returns <code>true</code> if a resource requires read permission to be included in the result list.<p>
      *
@@ -897,6 +1011,23 @@ public class CmsSearchIndex extends A_CmsSearchIndex {
         }
     }
 
+    /**
+     * Releases an index searcher acquired with {@link #acquireSearcher()}.<p>
+     *
+     * @param searcher the searcher to release, may be <code>null</code>
+     */
+    public void releaseSearcher(IndexSearcher searcher) {
+
+        if (searcher != null) {
+            try {
+                // same as SearcherManager#release(IndexSearcher), which does not depend on the manager instance
+                searcher.getIndexReader().decRef();
+            } catch (IOException e) {
+                LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_CLOSE_1, getName()), e);
+            }
+        }
+    }
+
     /**
      * Performs a search on the index within the given fields.<p>
      *
@@ -927,6 +1058,9 @@ public class CmsSearchIndex extends A_CmsSearchIndex {
 
         int previousPriority = Thread.currentThread().getPriority();
 
+        // the index searcher, acquired for the duration of this search
+        IndexSearcher searcher = null;
+
         try {
             // copy the user OpenCms context
             CmsObject searchCms = OpenCms.initCmsObject(cms);
@@ -965,7 +1099,7 @@ public class CmsSearchIndex extends A_CmsSearchIndex {
 
             // get an index searcher that is certainly up to date
             indexSearcherUpdate();
-            IndexSearcher searcher = getSearcher();
+            searcher = acquireSearcher();
 
             if (!params.isIgnoreQuery()) {
                 // since OpenCms 8 the query can be empty in which case only filters are used for the result
@@ -1148,6 +1282,8 @@ public class CmsSearchIndex extends A_CmsSearchIndex {
             throw new CmsSearchException(Messages.get().container(Messages.ERR_SEARCH_PARAMS_1, params), e);
         } finally {
 
+            // release the searcher, so the underlying reader can be closed if the index has changed
+            releaseSearcher(searcher);
             // re-set thread to previous priority
             Thread.currentThread().setPriority(previousPriority);
         }
@@ -1233,6 +1369,9 @@ public class CmsSearchIndex extends A_CmsSearchIndex {
     @Override
     public void shutDown() {
 
+        // stop refreshing from the writer before it is closed
+        stopNearRealTimeRefresh();
+        m_nrtWriter = null;
         super.shutDown();
         indexSearcherClose();
         if (m_analyzer != null) {
@@ -1558,13 +1697,17 @@ public class CmsSearchIndex extends A_CmsSearchIndex {
             indexConfig.setSimilarity(m_sim);
 
             indexWriter = new IndexWriter(dir, indexConfig);
+            if (!create && isNearRealTime()) {
+                // search on the writer, so changes are visible without waiting for a commit
+                indexSearcherOpen(indexWriter);
+                return new CmsLuceneIndexWriter(indexWriter, this, m_nrtCommitInterval);
+            }
         } catch (Exception e) {
             if (dir != null) {
                 try {
                     dir.close();
                 } catch (IOException e1) {
-                    // TODO Auto-generated catch block
-                    e1.printStackTrace();
+                    LOG.error(e1.getLocalizedMessage(), e1);
                 }
             }
             if (indexWriter != null) {
@@ -1656,7 +1799,8 @@ public class CmsSearchIndex extends A_CmsSearchIndex {
             }
             termsStr = buf.toString();
         }
-        Query result = m_displayFilters.get(
+        Map<String, Query> displayFilters = m_displayFilters;
+        Query result = displayFilters.get(
             (new StringBuffer(64)).append(field).append('|').append(termsStr).toString());
         if (result == null) {
             List<Term> terms = new ArrayList<Term>();
@@ -1671,12 +1815,15 @@ public class CmsSearchIndex extends A_CmsSearchIndex {
             terms.forEach(term -> build.add(new TermQuery(term), Occur.SHOULD));
             Query termsQuery = build.build(); //termsFilter
 
+            IndexSearcher searcher = acquireSearcher();
             try {
-                result = termsQuery.createWeight(m_indexSearcher, ScoreMode.COMPLETE_NO_SCORES, 1).getQuery();
-                m_displayFilters.put(field + termsStr, result);
+                result = termsQuery.createWeight(searcher, ScoreMode.COMPLETE_NO_SCORES, 1).getQuery();
+                displayFilters.put(field + '|' + termsStr, result);
             } catch (IOException e) {
                 // TODO don't know what happend
                 e.printStackTrace();
+            } finally {
+                releaseSearcher(searcher);
             }
         }
         return result;
@@ -1765,11 +1912,17 @@ public class CmsSearchIndex extends A_CmsSearchIndex {
     /**
      * Closes the index searcher for this index.<p>
      *
+     * Searches which have already acquired the searcher can complete,
+     * the underlying reader is closed once the last of them has released it.<p>
+     *
      * @see #indexSearcherOpen(String)
      */
     protected synchronized void indexSearcherClose() {
 
-        indexSearcherClose(m_indexSearcher);
+        stopNearRealTimeRefresh();
+        SearcherManager manager = m_searcherManager;
+        m_searcherManager = null;
+        closeSearcherManager(manager);
     }
 
     /**
@@ -1792,31 +1945,32 @@ public class CmsSearchIndex extends A_CmsSearchIndex {
     /**
      * Initializes the index searcher for this index.<p>
      *
-     * In case there is an index searcher still open, it is closed first.<p>
+     * In case there is an index searcher still open, it is replaced and closed after
+     * all searches using it have released it.<p>
      *
      * For performance reasons, one instance of the index searcher should be kept
      * for all searches. However, if the index is updated or changed
      * this searcher instance needs to be re-initialized.<p>
      *
+     * Opening the index searcher is serialized on this index, searches are not blocked by it.<p>
+     *
+     * If the index is searched in near real-time mode and the index writer is still open,
+     * the searcher is reopened from the writer, so the index stays in near real-time mode.<p>
+     *
      * @param path the path to the index directory
      */
     protected synchronized void indexSearcherOpen(String path) {
 
-        IndexSearcher oldSearcher = null;
+        IndexWriter nrtWriter = m_nrtWriter;
+        if ((nrtWriter != null) && nrtWriter.isOpen() && path.equals(getPath())) {
+            indexSearcherOpen(nrtWriter);
+            return;
+        }
         Directory indexDirectory = null;
         try {
             indexDirectory = FSDirectory.open(Paths.get(path));
             if (DirectoryReader.indexExists(indexDirectory)) {
-                IndexReader reader = UninvertingReader.wrap(
-                    DirectoryReader.open(indexDirectory),
-                    createUninvertingMap());
-                if (m_indexSearcher != null) {
-                    // store old searcher instance to close it later
-                    oldSearcher = m_indexSearcher;
-                }
-                m_indexSearcher = new IndexSearcher(reader);
-                m_indexSearcher.setSimilarity(m_sim);
-                m_displayFilters = new HashMap<>();
+                replaceSearcherManager(DirectoryReader.open(indexDirectory));
             }
         } catch (IOException e) {
             LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_1, getName()), e);
@@ -1828,38 +1982,73 @@ public class CmsSearchIndex extends A_CmsSearchIndex {
                 }
             }
         }
-        if (oldSearcher != null) {
-            // close the old searcher if required
-            indexSearcherClose(oldSearcher);
+    }
+
+    /**
+     * Initializes a near real-time index searcher for this index, which reads the changes of the given writer.<p>
+     *
+     * The searcher sees changes of the writer without waiting for them to be committed. It is refreshed
+     * in the configured near real-time refresh interval, and every time the index has been updated.<p>
+     *
+     * @param writer the Lucene index writer to search
+     *
+     * @see #indexSearcherOpen(String)
+     */
+    protected synchronized void indexSearcherOpen(IndexWriter writer) {
+
+        try {
+            SearcherManager manager = replaceSearcherManager(DirectoryReader.open(writer));
+            double maxStaleSec = m_nrtRefreshInterval / 1000.0;
+            ControlledRealTimeReopenThread<IndexSearcher> refreshThread;
+            refreshThread = new ControlledRealTimeReopenThread<IndexSearcher>(
+                writer,
+                manager,
+                maxStaleSec,
+                Math.min(0.025, maxStaleSec));
+            refreshThread.setName("OpenCms: Near real-time searcher refresh '" + getName() + "'");
+            refreshThread.setDaemon(true);
+            refreshThread.start();
+            m_nrtRefreshThread = refreshThread;
+            m_nrtWriter = writer;
+            if (LOG.isInfoEnabled()) {
+                LOG.info(
+                    Messages.get().getBundle().key(
+                        Messages.LOG_INDEX_SEARCHER_NRT_2,
+                        getName(),
+                        Long.valueOf(m_nrtRefreshInterval)));
+            }
+        } catch (IOException e) {
+            LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_1, getName()), e);
         }
     }
 
     /**
      * Reopens the index search reader for this index, required after the index has been changed.<p>
      *
+     * This does not block: if another thread is currently reopening the reader, this method returns immediately
+     * and the caller continues with the current searcher.<p>
+     *
      * @see #indexSearcherOpen(String)
      */
-    protected synchronized void indexSearcherUpdate() {
+    protected void indexSearcherUpdate() {
 
-        IndexSearcher oldSearcher = m_indexSearcher;
-        if ((oldSearcher != null) && (oldSearcher.getIndexReader() != null)) {
-            // in case there is an index searcher available close it
+        SearcherManager manager = m_searcherManager;
+        if (manager != null) {
             try {
-                if (oldSearcher.getIndexReader() instanceof DirectoryReader) {
-                    IndexReader newReader = DirectoryReader.openIfChanged(
-                        (DirectoryReader)oldSearcher.getIndexReader());
-                    if (newReader != null) {
-                        m_indexSearcher = new IndexSearcher(newReader);
-                        m_indexSearcher.setSimilarity(m_sim);
-                        indexSearcherClose(oldSearcher);
-                    }
-                }
+                manager.maybeRefresh();
+            } catch (AlreadyClosedException e) {
+                // the searcher has been replaced or closed concurrently, or the writer of a near real-time
+                // searcher was closed for a rebuild, keep the current searcher until the index is reopened
             } catch (Exception e) {
                 LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_REOPEN_1, getName()), e);
             }
         } else {
-            // make sure we end up with an open index searcher / reader
-            indexSearcherOpen(getPath());
+            synchronized (this) {
+                if (m_searcherManager == null) {
+                    // make sure we end up with an open index searcher / reader
+                    indexSearcherOpen(getPath());
+                }
+            }
         }
     }
 
@@ -1998,6 +2187,24 @@ public class CmsSearchIndex extends A_CmsSearchIndex {
         }
     }
 
+    /**
+     * Closes the given searcher manager.<p>
+     *
+     * The reader of the current searcher is closed as soon as all searches which have acquired it have released it.<p>
+     *
+     * @param manager the searcher manager to close, may be <code>null</code>
+     */
+    private void closeSearcherManager(SearcherManager manager) {
+
+        if (manager != null) {
+            try {
+                manager.close();
+            } catch (Exception e) {
+                LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_CLOSE_1, getName()), e);
+            }
+        }
+    }
+
     /**
      * Generates the uninverting map and adds it to the field configuration.
      * @return the generated uninverting map
@@ -2012,4 +2219,49 @@ public class CmsSearchIndex extends A_CmsSearchIndex {
         return uninvertingMap;
     }
 
+    /**
+     * Replaces the searcher manager of this index with a new one for the given reader.<p>
+     *
+     * The previous searcher manager is closed, its reader stays open until all searches using it have released it.<p>
+     *
+     * @param reader the reader to search
+     *
+     * @return the new searcher manager
+     *
+     * @throws IOException if the searcher manager can not be created
+     */
+    private SearcherManager replaceSearcherManager(DirectoryReader reader) throws IOException {
+
+        SearcherManager manager = new SearcherManager(
+            UninvertingReader.wrap(reader, createUninvertingMap()),
+            new SearcherFactory() {
+
+                @Override
+                public IndexSearcher newSearcher(IndexReader newReader, IndexReader previousReader) {
+
+                    IndexSearcher searcher = new IndexSearcher(newReader);
+                    searcher.setSimilarity(m_sim);
+                    return searcher;
+                }
+            });
+        SearcherManager oldManager = m_searcherManager;
+        m_displayFilters = new ConcurrentHashMap<>();
+        m_searcherManager = manager;
+        // a near real-time refresh thread must be stopped before the manager it refreshes is closed
+        stopNearRealTimeRefresh();
+        closeSearcherManager(oldManager);
+        return manager;
+    }
+
+    /**
+     * Stops refreshing the near real-time searcher, if running.<p>
+     */
+    private synchronized void stopNearRealTimeRefresh() {
+
+        if (m_nrtRefreshThread != null) {
+            m_nrtRefreshThread.close();
+            m_nrtRefreshThread = null;
+        }
+    }
+
 }
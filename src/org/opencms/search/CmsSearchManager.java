@@ -45,6 +45,7 @@ import org.opencms.main.CmsException;
 import org.opencms.main.CmsIllegalArgumentException;
 import org.opencms.main.CmsIllegalStateException;
 import org.opencms.main.CmsLog;
+import org.opencms.main.I_CmsAsyncEventListener;
 import org.opencms.main.I_CmsEventListener;
 import org.opencms.main.OpenCms;
 import org.opencms.main.OpenCmsSolrHandler;
@@ -93,6 +94,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.logging.Log;
@@ -161,12 +163,18 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
 
     /**
      * Handles offline index generation.<p>
+     *
+     * The handler only collects the changed resources for the delayed offline indexing,
+     * so it does not need to receive the events synchronously.<p>
      */
-    protected class CmsSearchOfflineHandler implements I_CmsEventListener {
+    protected class CmsSearchOfflineHandler implements I_CmsAsyncEventListener {
 
         /** Indicates if the event handlers for the offline search have been already registered. */
         private boolean m_isEventRegistered;
 
+        /** The root paths of folders with changed access control entries. */
+        private List<String> m_aclChangedFolders;
+
         /** The list of resources to index. */
         private List<CmsPublishedResource> m_resourcesToIndex;
 
@@ -176,6 +184,7 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         protected CmsSearchOfflineHandler() {
 
             m_resourcesToIndex = new ArrayList<CmsPublishedResource>();
+            m_aclChangedFolders = new ArrayList<String>();
         }
 
         /**
@@ -203,9 +212,13 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
                     }
 
                     // a resource has been modified - offline indexes require (re)indexing
-                    List<CmsResource> resources = Collections.singletonList(
-                        (CmsResource)event.getData().get(I_CmsEventListener.KEY_RESOURCE));
+                    CmsResource resource = (CmsResource)event.getData().get(I_CmsEventListener.KEY_RESOURCE);
+                    List<CmsResource> resources = Collections.singletonList(resource);
                     reIndexResources(resources);
+                    if (isAccessControlChangeOfFolder(event)) {
+                        // the access control fields of all resources below the folder must be updated
+                        addAclChangedFolder(resource.getRootPath());
+                    }
                     break;
                 case I_CmsEventListener.EVENT_RESOURCE_DELETED:
                     List<CmsResource> eventResources = (List<CmsResource>)event.getData().get(
@@ -232,6 +245,16 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
             }
         }
 
+        /**
+         * Adds a folder with changed access control entries, the resources below it are indexed again.<p>
+         *
+         * @param rootPath the root path of the folder
+         */
+        protected synchronized void addAclChangedFolder(String rootPath) {
+
+            m_aclChangedFolders.add(rootPath);
+        }
+
         /**
          * Adds a list of {@link CmsPublishedResource} objects to be indexed.<p>
          *
@@ -250,9 +273,12 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         protected List<CmsPublishedResource> getResourcesToIndex() {
 
             List<CmsPublishedResource> result;
+            List<String> aclChangedFolders;
             synchronized (this) {
                 result = m_resourcesToIndex;
                 m_resourcesToIndex = new ArrayList<CmsPublishedResource>();
+                aclChangedFolders = m_aclChangedFolders;
+                m_aclChangedFolders = new ArrayList<String>();
             }
             try {
                 CmsObject cms = m_adminCms;
@@ -262,6 +288,7 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
                     cms = OpenCms.initCmsObject(m_adminCms);
                     cms.getRequestContext().setCurrentProject(offline);
                 }
+                addResourcesBelowFolders(cms, result, aclChangedFolders);
                 addAdditionallyAffectedResources(cms, result);
             } catch (CmsException e) {
                 LOG.error(e.getLocalizedMessage(), e);
@@ -671,6 +698,9 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
     /** The thread used of offline indexing. */
     protected CmsSearchOfflineIndexThread m_offlineIndexThread;
 
+    /** The structure ids of folders with changed access control entries which have not been published yet. */
+    private Set<CmsUUID> m_aclChangedFolders;
+
     /** Configured analyzers for languages using &lt;analyzer&gt;. */
     private HashMap<Locale, CmsSearchAnalyzer> m_analyzers;
 
@@ -745,6 +775,7 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         m_indexes = new ArrayList<I_CmsSearchIndex>();
         m_indexSources = new TreeMap<String, CmsSearchIndexSource>();
         m_offlineHandler = new CmsSearchOfflineHandler();
+        m_aclChangedFolders = Collections.newSetFromMap(new ConcurrentHashMap<CmsUUID, Boolean>());
         m_extractionCacheMaxAge = DEFAULT_EXTRACTION_CACHE_MAX_AGE;
         m_maxExcerptLength = DEFAULT_EXCERPT_LENGTH;
         m_offlineUpdateFrequency = DEFAULT_OFFLINE_UPDATE_FREQNENCY;
@@ -996,6 +1027,13 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
                     LOG.debug(Messages.get().getBundle().key(Messages.LOG_EVENT_CLEAR_CACHES_0), new Exception());
                 }
                 break;
+            case I_CmsEventListener.EVENT_RESOURCE_MODIFIED:
+                if (isAccessControlChangeOfFolder(event)) {
+                    // remember the folder, the resources below it must be indexed again when it is published
+                    CmsResource folder = (CmsResource)event.getData().get(I_CmsEventListener.KEY_RESOURCE);
+                    m_aclChangedFolders.add(folder.getStructureId());
+                }
+                break;
             case I_CmsEventListener.EVENT_PUBLISH_PROJECT:
                 // event data contains a list of the published resources
                 CmsUUID publishHistoryId = new CmsUUID((String)event.getData().get(I_CmsEventListener.KEY_PUBLISHID));
@@ -1500,7 +1538,8 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
             new int[] {
                 I_CmsEventListener.EVENT_CLEAR_CACHES,
                 I_CmsEventListener.EVENT_PUBLISH_PROJECT,
-                I_CmsEventListener.EVENT_REBUILD_SEARCHINDEXES});
+                I_CmsEventListener.EVENT_REBUILD_SEARCHINDEXES,
+                I_CmsEventListener.EVENT_RESOURCE_MODIFIED});
     }
 
     /**
@@ -2423,6 +2462,39 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         return additionalUpdateResources;
     }
 
+    /**
+     * Adds the files below the given folders to the list of resources to index.<p>
+     *
+     * This is only done if at least one index stores access control fields, since only these
+     * fields depend on the access control entries of the parent folders.<p>
+     *
+     * @param cms the OpenCms context to read the resources with
+     * @param updateResources the list of resources to index
+     * @param folderPaths the root paths of the folders
+     */
+    protected void addResourcesBelowFolders(
+        CmsObject cms,
+        List<CmsPublishedResource> updateResources,
+        Collection<String> folderPaths) {
+
+        if (folderPaths.isEmpty() || !hasAclIndexes()) {
+            return;
+        }
+        Set<CmsPublishedResource> updateResourceSet = new HashSet<CmsPublishedResource>(updateResources);
+        for (String folderPath : folderPaths) {
+            try {
+                for (CmsResource res : cms.readResources(folderPath, CmsResourceFilter.ALL.addRequireFile(), true)) {
+                    CmsPublishedResource pubRes = new CmsPublishedResource(res);
+                    if (updateResourceSet.add(pubRes)) {
+                        updateResources.add(pubRes);
+                    }
+                }
+            } catch (CmsException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+        }
+    }
+
     /**
      * Cleans up the extraction result cache.<p>
      */
@@ -2571,6 +2643,21 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         return new CmsIndexingThreadManager(m_timeout, m_maxModificationsBeforeCommit);
     }
 
+    /**
+     * Checks if at least one of the configured indexes stores access control fields.<p>
+     *
+     * @return <code>true</code> if at least one index stores access control fields
+     */
+    protected boolean hasAclIndexes() {
+
+        for (I_CmsSearchIndex index : m_indexes) {
+            if ((index instanceof CmsSolrIndex) && ((CmsSolrIndex)index).isIndexingAcls()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Initializes the available Cms resource types to be indexed.<p>
      *
@@ -2687,6 +2774,24 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         }
     }
 
+    /**
+     * Checks if the given event signals a change of the access control entries of a folder.<p>
+     *
+     * @param event the event to check
+     *
+     * @return <code>true</code> if the event signals a change of the access control entries of a folder
+     */
+    protected boolean isAccessControlChangeOfFolder(CmsEvent event) {
+
+        Object change = event.getData().get(I_CmsEventListener.KEY_CHANGE);
+        Object resource = event.getData().get(I_CmsEventListener.KEY_RESOURCE);
+        return (change instanceof Integer)
+            && ((((Integer)change).intValue() & CmsDriverManager.CHANGED_ACCESSCONTROL) != 0)
+            && (resource instanceof CmsResource)
+            && ((CmsResource)resource).isFolder()
+            && hasAclIndexes();
+    }
+
     /**
      * Checks, if the index should be rebuilt/updated at all by the search manager.
      * @param index the index to check.
@@ -2731,7 +2836,14 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
             // When published resources with both states 'new' and 'deleted' exist in the same publish job history, the resource has been moved
 
             List<CmsPublishedResource> updateResources = new ArrayList<CmsPublishedResource>();
+            List<String> aclChangedFolders = new ArrayList<String>();
             for (CmsPublishedResource res : publishedResources) {
+                if (res.isFolder()
+                    && res.getState().isChanged()
+                    && m_aclChangedFolders.remove(res.getStructureId())) {
+                    // the access control entries of the folder have changed
+                    aclChangedFolders.add(res.getRootPath());
+                }
                 if (res.isFolder() || res.getState().isUnchanged()) {
                     // folders and unchanged resources don't need to be indexed after publish
                     continue;
@@ -2787,6 +2899,7 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
                 }
             }
 
+            addResourcesBelowFolders(adminCms, updateResources, aclChangedFolders);
             addAdditionallyAffectedResources(adminCms, updateResources);
             if (!updateResources.isEmpty()) {
                 // sort the resource to update
@@ -271,12 +271,18 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_INDEX_ACCESS_FAILED_1 = "LOG_INDEX_ACCESS_FAILED_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_INDEX_SEARCHER_NRT_2 = "LOG_INDEX_SEARCHER_NRT_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_INDEX_WRITER_MSG_CLOSE_2 = "LOG_INDEX_WRITER_MSG_CLOSE_2";
 
     /** Message constant for key in the resource bundle. */
     public static final String LOG_INDEX_WRITER_MSG_COMMIT_2 = "LOG_INDEX_WRITER_MSG_COMMIT_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_INDEX_WRITER_MSG_COMMIT_DEFERRED_2 = "LOG_INDEX_WRITER_MSG_COMMIT_DEFERRED_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_INDEX_WRITER_MSG_CREATE_2 = "LOG_INDEX_WRITER_MSG_CREATE_2";
 
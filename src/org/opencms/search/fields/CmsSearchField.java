@@ -46,6 +46,15 @@ import java.util.Map;
  */
 public class CmsSearchField implements Serializable {
 
+    /** Name of the field that contains the ids of the principals with denied read permission on the resource. */
+    public static final String FIELD_ACL_DENIED = "acl_denied";
+
+    /** Name of the field that contains the ids of all principals with an access control entry for the resource. */
+    public static final String FIELD_ACL_PRINCIPALS = "acl_principals";
+
+    /** Name of the field that contains the ids of the principals with allowed read permission on the resource. */
+    public static final String FIELD_ACL_READ = "acl_read";
+
     /** Name of the field that contains the (optional) category of the document (hardcoded). */
     public static final String FIELD_CATEGORY = "category";
 
@@ -75,6 +75,9 @@ public class CmsGallerySearchResult implements Comparable<CmsGallerySearchResult
     /** The supported container types of this search result. */
     protected List<String> m_containerTypes;
 
+    /** The copyright information of this search result. */
+    protected String m_copyright;
+
     /** The creation date of this search result. */
     protected Date m_dateCreated;
 
@@ -90,9 +93,15 @@ public class CmsGallerySearchResult implements Comparable<CmsGallerySearchResult
     /** The description of this search result. */
     protected String m_description;
 
+    /** The element model setting of this search result. */
+    protected String m_elementModel;
+
     /** The excerpt of this search result. */
     protected String m_excerpt;
 
+    /** The image size of this search result. */
+    protected String m_imageSize;
+
     /** The length of the search result. */
     protected int m_length;
 
@@ -136,6 +145,9 @@ public class CmsGallerySearchResult implements Comparable<CmsGallerySearchResult
                 cms.readPropertyObjects(res, CmsResourceTypeXmlContainerPage.isContainerPage(res)));
             m_title = props.get(CmsPropertyDefinition.PROPERTY_TITLE);
             m_description = props.get(CmsPropertyDefinition.PROPERTY_DESCRIPTION);
+            m_copyright = props.get(CmsPropertyDefinition.PROPERTY_COPYRIGHT);
+            m_imageSize = props.get(CmsPropertyDefinition.PROPERTY_IMAGE_SIZE);
+            m_elementModel = props.get(CmsPropertyDefinition.PROPERTY_ELEMENT_MODEL);
         } catch (CmsException e) {
             LOG.error(e.getLocalizedMessage(), e);
         }
@@ -234,6 +246,14 @@ public class CmsGallerySearchResult implements Comparable<CmsGallerySearchResult
             }
         }
 
+        // properties which are only shown in the result list, read from the stored property fields
+        m_copyright = doc.getFieldValueAsString(
+            CmsPropertyDefinition.PROPERTY_COPYRIGHT + CmsSearchField.FIELD_DYNAMIC_PROPERTIES_DIRECT + "_s");
+        m_imageSize = doc.getFieldValueAsString(
+            CmsPropertyDefinition.PROPERTY_IMAGE_SIZE + CmsSearchField.FIELD_DYNAMIC_PROPERTIES_DIRECT + "_s");
+        m_elementModel = doc.getFieldValueAsString(
+            CmsPropertyDefinition.PROPERTY_ELEMENT_MODEL + CmsSearchField.FIELD_DYNAMIC_PROPERTIES + "_s");
+
         m_resourceType = doc.getFieldValueAsString(CmsSearchField.FIELD_TYPE);
 
         m_dateCreated = doc.getFieldValueAsDate(CmsSearchField.FIELD_DATE_CREATED);
@@ -298,7 +318,7 @@ public class CmsGallerySearchResult implements Comparable<CmsGallerySearchResult
 
         if (null == m_requiredSolrFields) {
             List<Locale> locales = OpenCms.getLocaleManager().getAvailableLocales();
-            m_requiredSolrFields = new String[14 + (locales.size() * 6)];
+            m_requiredSolrFields = new String[17 + (locales.size() * 6)];
             int count = 0;
             m_requiredSolrFields[count++] = CmsSearchField.FIELD_PATH;
             m_requiredSolrFields[count++] = CmsSearchField.FIELD_TYPE;
@@ -314,6 +334,15 @@ public class CmsGallerySearchResult implements Comparable<CmsGallerySearchResult
             m_requiredSolrFields[count++] = CmsSearchField.FIELD_ADDITIONAL_INFO;
             m_requiredSolrFields[count++] = CmsSearchField.FIELD_CONTAINER_TYPES;
             m_requiredSolrFields[count++] = CmsSearchField.FIELD_RESOURCE_LOCALES;
+            m_requiredSolrFields[count++] = CmsPropertyDefinition.PROPERTY_COPYRIGHT
+                + CmsSearchField.FIELD_DYNAMIC_PROPERTIES_DIRECT
+                + "_s";
+            m_requiredSolrFields[count++] = CmsPropertyDefinition.PROPERTY_IMAGE_SIZE
+                + CmsSearchField.FIELD_DYNAMIC_PROPERTIES_DIRECT
+                + "_s";
+            m_requiredSolrFields[count++] = CmsPropertyDefinition.PROPERTY_ELEMENT_MODEL
+                + CmsSearchField.FIELD_DYNAMIC_PROPERTIES
+                + "_s";
             for (Locale locale : locales) {
                 m_requiredSolrFields[count++] = CmsSearchFieldConfiguration.getLocaleExtendedName(
                     CmsSearchField.FIELD_TITLE_UNSTORED,
@@ -390,6 +419,16 @@ public class CmsGallerySearchResult implements Comparable<CmsGallerySearchResult
         return m_containerTypes;
     }
 
+    /**
+     * Returns the copyright information.<p>
+     *
+     * @return the copyright information, or <code>null</code> if not set
+     */
+    public String getCopyright() {
+
+        return m_copyright;
+    }
+
     /**
      * Returns the date created.<p>
      *
@@ -444,6 +483,16 @@ public class CmsGallerySearchResult implements Comparable<CmsGallerySearchResult
         return m_description;
     }
 
+    /**
+     * Returns the element model setting, read with property inheritance.<p>
+     *
+     * @return the element model setting, or <code>null</code> if not set
+     */
+    public String getElementModel() {
+
+        return m_elementModel;
+    }
+
     /**
      * Returns the excerpt.<p>
      *
@@ -454,6 +503,16 @@ public class CmsGallerySearchResult implements Comparable<CmsGallerySearchResult
         return m_excerpt;
     }
 
+    /**
+     * Returns the image size, in the format of the image size property.<p>
+     *
+     * @return the image size, or <code>null</code> if not set
+     */
+    public String getImageSize() {
+
+        return m_imageSize;
+    }
+
     /**
      * Returns the length of the resource.<p>
      *
@@ -56,7 +56,11 @@ import org.opencms.search.fields.CmsSearchFieldConfiguration;
 import org.opencms.search.fields.CmsSearchFieldMapping;
 import org.opencms.search.fields.CmsSearchFieldMappingType;
 import org.opencms.search.fields.I_CmsSearchFieldMapping;
+import org.opencms.security.CmsAccessControlList;
+import org.opencms.security.CmsPermissionSet;
+import org.opencms.security.CmsPermissionSetCustom;
 import org.opencms.util.CmsStringUtil;
+import org.opencms.util.CmsUUID;
 import org.opencms.xml.CmsXmlContentDefinition;
 import org.opencms.xml.containerpage.CmsContainerElementBean;
 import org.opencms.xml.containerpage.CmsContainerPageBean;
@@ -188,6 +192,10 @@ public class CmsSolrFieldConfiguration extends CmsSearchFieldConfiguration {
 
         document = appendFieldsForListSortOptions(document);
 
+        if ((getIndex() instanceof CmsSolrIndex) && ((CmsSolrIndex)getIndex()).isIndexingAcls()) {
+            appendAccessControlFields(document, cms, resource);
+        }
+
         if (resource.getRootPath().startsWith(OpenCms.getSiteManager().getSharedFolder())
             || (null != OpenCms.getSiteManager().getSiteRoot(resource.getRootPath()))) {
             appendSpellFields(document);
@@ -196,6 +204,53 @@ public class CmsSolrFieldConfiguration extends CmsSearchFieldConfiguration {
         return document;
     }
 
+    /**
+     * Appends the principals with read permissions on the resource to the document.<p>
+     *
+     * The principals are read from the effective access control list of the resource, including
+     * all inherited entries. Three fields are written: the principals with allowed read permission,
+     * the principals with denied read permission, and all principals which have an entry at all.
+     * The principals field always contains the null UUID, so documents with an empty access control list
+     * can be told apart from documents indexed without the fields.
+     * These allow {@link CmsSolrIndex#getAccessControlFilterQuery(CmsObject)} to evaluate the read
+     * permission of a user in the same way as {@link CmsAccessControlList#getPermissions(org.opencms.file.CmsUser, List, List)}.<p>
+     *
+     * @param document the document to extend
+     * @param cms the OpenCms context used for building the search index
+     * @param resource the resource that is indexed
+     */
+    protected void appendAccessControlFields(I_CmsSearchDocument document, CmsObject cms, CmsResource resource) {
+
+        if (!(document instanceof CmsSolrDocument)) {
+            return;
+        }
+        CmsSolrDocument solrDocument = (CmsSolrDocument)document;
+        try {
+            CmsAccessControlList acl = cms.getAccessControlList(cms.getSitePath(resource));
+            List<String> allowed = new ArrayList<String>();
+            List<String> denied = new ArrayList<String>();
+            List<String> principals = new ArrayList<String>();
+            principals.add(CmsUUID.getNullUUID().toString());
+            for (Map.Entry<CmsUUID, CmsPermissionSetCustom> entry : acl.getPermissionMap().entrySet()) {
+                String principal = entry.getKey().toString();
+                CmsPermissionSetCustom permissions = entry.getValue();
+                principals.add(principal);
+                if ((permissions.getAllowedPermissions() & CmsPermissionSet.PERMISSION_READ) != 0) {
+                    allowed.add(principal);
+                }
+                if ((permissions.getDeniedPermissions() & CmsPermissionSet.PERMISSION_READ) != 0) {
+                    denied.add(principal);
+                }
+            }
+            solrDocument.addMultiValuedField(CmsSearchField.FIELD_ACL_READ, allowed);
+            solrDocument.addMultiValuedField(CmsSearchField.FIELD_ACL_DENIED, denied);
+            solrDocument.addMultiValuedField(CmsSearchField.FIELD_ACL_PRINCIPALS, principals);
+        } catch (CmsException e) {
+            // without the fields, the permissions of the document are checked when searching
+            LOG.error(e.getLocalizedMessage(), e);
+        }
+    }
+
     /**
      * @see org.opencms.search.fields.CmsSearchFieldConfiguration#appendDates(org.opencms.search.I_CmsSearchDocument, org.opencms.file.CmsObject, org.opencms.file.CmsResource, org.opencms.search.extractors.I_CmsExtractionResult, java.util.List, java.util.List)
      */
@@ -34,11 +34,13 @@ package org.opencms.search.solr;
 import org.opencms.configuration.CmsConfigurationException;
 import org.opencms.configuration.CmsParameterConfiguration;
 import org.opencms.file.CmsFile;
+import org.opencms.file.CmsGroup;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsProject;
 import org.opencms.file.CmsPropertyDefinition;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
+import org.opencms.file.CmsUser;
 import org.opencms.file.types.CmsResourceTypeXmlContainerPage;
 import org.opencms.file.types.CmsResourceTypeXmlContent;
 import org.opencms.i18n.CmsEncoder;
@@ -62,6 +64,8 @@ import org.opencms.search.fields.CmsSearchField;
 import org.opencms.search.galleries.CmsGallerySearchParameters;
 import org.opencms.search.galleries.CmsGallerySearchResult;
 import org.opencms.search.galleries.CmsGallerySearchResultList;
+import org.opencms.security.CmsAccessControlEntry;
+import org.opencms.security.CmsOrganizationalUnit;
 import org.opencms.security.CmsRole;
 import org.opencms.security.CmsRoleViolationException;
 import org.opencms.util.CmsFileUtil;
@@ -77,6 +81,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
@@ -88,6 +93,7 @@ import javax.servlet.ServletResponse;
 import org.apache.commons.logging.Log;
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.embedded.EmbeddedSolrServer;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocument;
@@ -133,6 +139,13 @@ public class CmsSolrIndex extends CmsSearchIndex {
     **/
     public static final String SOLR_SEARCH_MAX_PROCESSED_RESULTS = "search.solr.maxProcessedResults";
 
+    /**
+     * Constant for additional parameter to enable the access control fields for this index.
+     * If enabled, the principals with read permission are indexed for each resource, and searches
+     * use them as filter query instead of checking the permissions of each result in the VFS.
+     */
+    public static final String SOLR_SEARCH_ACL_FIELDS = "search.solr.aclFields";
+
     /** Constant for additional parameter to set the fields the select handler should return at maximum. */
     public static final String SOLR_HANDLER_ALLOWED_FIELDS = "handle.solr.allowedFields";
 
@@ -216,8 +229,8 @@ public class CmsSolrIndex extends CmsSearchIndex {
     /** The name of the query parameter expand. */
     private static final String QUERY_PARAM_EXPAND = "expand";
 
-    /** The embedded Solr client for this index. */
-    transient SolrClient m_solr;
+    /** The embedded Solr client for this index, replaced without locking, so read it only once per request. */
+    transient volatile SolrClient m_solr;
 
     /** The post document manipulator. */
     private transient I_CmsSolrPostSearchProcessor m_postProcessor;
@@ -246,6 +259,9 @@ public class CmsSolrIndex extends CmsSearchIndex {
     /** The maximal number of results to process for search queries. */
     int m_maxProcessedResults = -2; // special value for not initialized.
 
+    /** Flag, indicating if the principals with read permission are indexed and used for filtering search results. */
+    private boolean m_aclFields;
+
     /**
      * Default constructor.<p>
      */
@@ -355,6 +371,9 @@ public class CmsSolrIndex extends CmsSearchIndex {
                     m_handlerSpellDisabled = value.trim().toLowerCase().equals("true");
                 }
                 break;
+            case SOLR_SEARCH_ACL_FIELDS:
+                m_aclFields = Boolean.valueOf(value).booleanValue();
+                break;
             case SOLR_SEARCH_MAX_PROCESSED_RESULTS:
                 if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(value)) {
                     try {
@@ -501,9 +520,79 @@ public class CmsSolrIndex extends CmsSearchIndex {
         if (getPostProcessor() != null) {
             result.put(POST_PROCESSOR, getPostProcessor().getClass().getName());
         }
+        if (m_aclFields) {
+            result.put(SOLR_SEARCH_ACL_FIELDS, String.valueOf(m_aclFields));
+        }
         return result;
     }
 
+    /**
+     * Returns a filter query which restricts the search results to the documents the current user can read,
+     * based on the access control fields of this index.<p>
+     *
+     * The filter query mirrors {@link org.opencms.security.CmsAccessControlList#getPermissions(org.opencms.file.CmsUser, List, List)}:
+     * a document is readable if read permission is allowed for one of the principals of the user and denied for none of them,
+     * or if none of the principals of the user has an entry and the entry for all others allows read permission.
+     * Documents without access control fields, e.g. documents indexed before the fields were enabled, are not
+     * filtered, their permissions are still checked in the VFS when searching.<p>
+     *
+     * @param cms the current users OpenCms context
+     *
+     * @return the filter query, the empty String if the user can read all documents,
+     *      or <code>null</code> if the permissions of the user can not be expressed as filter query
+     */
+    public String getAccessControlFilterQuery(CmsObject cms) {
+
+        CmsUser user = cms.getRequestContext().getCurrentUser();
+        try {
+            List<CmsOrganizationalUnit> managedOus = OpenCms.getRoleManager().getOrgUnitsForRole(
+                cms,
+                CmsRole.VFS_MANAGER.forOrgUnit(""),
+                true);
+            for (CmsOrganizationalUnit ou : managedOus) {
+                if (ou.getParentFqn() == null) {
+                    // VFS managers of the root organizational unit can read everything
+                    return "";
+                }
+            }
+            if (!managedOus.isEmpty()) {
+                // the permissions of VFS managers for a part of the VFS depend on the resource path
+                return null;
+            }
+
+            Set<String> principals = new LinkedHashSet<String>();
+            principals.add(user.getId().toString());
+            for (CmsGroup group : cms.getGroupsOfUser(user.getName(), false)) {
+                principals.add(group.getId().toString());
+            }
+            if (!user.isGuestUser()) {
+                for (CmsRole role : OpenCms.getRoleManager().getRolesOfUser(
+                    cms,
+                    user.getName(),
+                    "",
+                    true,
+                    false,
+                    false)) {
+                    principals.add(role.forOrgUnit(null).getId().toString());
+                }
+            }
+            String principalList = "(\"" + CmsStringUtil.collectionAsString(principals, "\" OR \"") + "\")";
+            StringBuffer result = new StringBuffer(256);
+            result.append("(+").append(CmsSearchField.FIELD_ACL_READ).append(':').append(principalList);
+            result.append(" -").append(CmsSearchField.FIELD_ACL_DENIED).append(':').append(principalList);
+            result.append(") OR (+").append(CmsSearchField.FIELD_ACL_READ).append(":\"");
+            result.append(CmsAccessControlEntry.PRINCIPAL_ALL_OTHERS_ID).append('"');
+            result.append(" -").append(CmsSearchField.FIELD_ACL_PRINCIPALS).append(':').append(principalList);
+            result.append(") OR (*:* -").append(CmsSearchField.FIELD_ACL_PRINCIPALS).append(":[* TO *])");
+            return result.toString();
+        } catch (CmsException e) {
+            LOG.warn(
+                Messages.get().getBundle().key(Messages.LOG_SOLR_ERR_ACL_FILTER_QUERY_2, user.getName(), getName()),
+                e);
+            return null;
+        }
+    }
+
     /**
      * Returns the name of the core of the index.
      * NOTE: Index and core name differ since OpenCms 10.5 due to new naming rules for cores in SOLR.
@@ -519,7 +608,7 @@ public class CmsSolrIndex extends CmsSearchIndex {
      * @see org.opencms.search.CmsSearchIndex#getDocument(java.lang.String, java.lang.String)
      */
     @Override
-    public synchronized I_CmsSearchDocument getDocument(String fieldname, String term) {
+    public I_CmsSearchDocument getDocument(String fieldname, String term) {
 
         return getDocument(fieldname, term, null);
     }
@@ -533,8 +622,9 @@ public class CmsSolrIndex extends CmsSearchIndex {
      * @param fls the returned fields.
      * @return the document.
      */
-    public synchronized I_CmsSearchDocument getDocument(String fieldname, String term, String[] fls) {
+    public I_CmsSearchDocument getDocument(String fieldname, String term, String[] fls) {
 
+        SolrClient solr = m_solr;
         try {
             SolrQuery query = new SolrQuery();
             if (CmsSearchField.FIELD_PATH.equals(fieldname)) {
@@ -546,9 +636,9 @@ public class CmsSolrIndex extends CmsSearchIndex {
             if (null != fls) {
                 query.setFields(fls);
             }
-            QueryResponse res = m_solr.query(query);
+            QueryResponse res = solr.query(query);
             if (res != null) {
-                SolrDocumentList sdl = m_solr.query(query).getResults();
+                SolrDocumentList sdl = res.getResults();
                 if ((sdl.getNumFound() > 0L) && (sdl.get(0) != null)) {
                     return new CmsSolrDocument(sdl.get(0));
                 }
@@ -653,6 +743,16 @@ public class CmsSolrIndex extends CmsSearchIndex {
         }
     }
 
+    /**
+     * Returns <code>true</code> if the principals with read permission are indexed and used for filtering search results.<p>
+     *
+     * @return <code>true</code> if the access control fields are enabled for this index
+     */
+    public boolean isIndexingAcls() {
+
+        return m_aclFields;
+    }
+
     /** Returns a flag, indicating if the Solr server is not yet set.
      * @return a flag, indicating if the Solr server is not yet set.
      */
@@ -674,7 +774,7 @@ public class CmsSolrIndex extends CmsSearchIndex {
      */
     @Override
     @Deprecated
-    public synchronized CmsSearchResultList search(CmsObject cms, CmsSearchParameters params) {
+    public CmsSearchResultList search(CmsObject cms, CmsSearchParameters params) {
 
         throw new UnsupportedOperationException();
     }
@@ -954,11 +1054,20 @@ public class CmsSolrIndex extends CmsSearchIndex {
             || (sortParamValues.length == 0)
             || Objects.equal(sortParamValues[0], "score desc");
 
+        // use the same Solr client for all queries of this search, even if it is replaced concurrently
+        SolrClient solr = m_solr;
         try {
 
             // initialize the search context
             CmsObject searchCms = OpenCms.initCmsObject(cms);
 
+            // if possible, filter by the indexed access control fields instead of checking the permissions of each result
+            String aclFilterQuery = null;
+            if (isIndexingAcls() && isCheckingPermissions() && isAccessControlFilterApplicable(filter)) {
+                aclFilterQuery = getAccessControlFilterQuery(searchCms);
+            }
+            boolean aclFiltered = aclFilterQuery != null;
+
             ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
             //////////////////////// QUERY FOR PERMISSION CHECK, FACETS, SPELLCHECK, SUGGESTIONS ///////////////////////////
             ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -977,6 +1086,22 @@ public class CmsSolrIndex extends CmsSearchIndex {
             long visibleHitCount = 0;
             int processedResults = 0;
             long solrPermissionTime = 0;
+            if (aclFiltered) {
+                if (!aclFilterQuery.isEmpty()) {
+                    checkQuery.addFilterQuery(aclFilterQuery);
+                }
+                if ((filter == null) ? !isIgnoreExpiration() : filter.requireTimerange()) {
+                    // the dates are not checked in the VFS for documents with access control fields
+                    checkQuery.addFilterQuery(CmsSearchField.FIELD_DATE_EXPIRED + ":[NOW TO *]");
+                    checkQuery.addFilterQuery(CmsSearchField.FIELD_DATE_RELEASED + ":[* TO NOW]");
+                }
+                if (!hasDocumentsWithoutAccessControlFields(solr, checkQuery)) {
+                    // all results are readable, so the check query can directly start at the requested page
+                    cnt = start;
+                    processedResults = start;
+                    itemsToCheck = rows;
+                }
+            }
             // disable highlighting - it's done in the next query.
             checkQuery.setHighlight(false);
             // adjust rows and start for the permission check.
@@ -984,6 +1109,9 @@ public class CmsSolrIndex extends CmsSearchIndex {
             checkQuery.setStart(Integer.valueOf(processedResults));
             // return only the fields required for the permission check and for scoring
             checkQuery.setFields(CmsSearchField.FIELD_TYPE, CmsSearchField.FIELD_SOLR_ID, CmsSearchField.FIELD_PATH);
+            if (aclFiltered) {
+                checkQuery.addField(CmsSearchField.FIELD_ACL_PRINCIPALS);
+            }
             List<String> originalFields = Arrays.asList(query.getFields().split(","));
             if (originalFields.contains(CmsSearchField.FIELD_SCORE)) {
                 checkQuery.addField(CmsSearchField.FIELD_SCORE);
@@ -993,7 +1121,7 @@ public class CmsSolrIndex extends CmsSearchIndex {
             }
             // perform the permission check Solr query and remember the response and time Solr took.
             long solrCheckTime = System.currentTimeMillis();
-            QueryResponse checkQueryResponse = m_solr.query(checkQuery);
+            QueryResponse checkQueryResponse = solr.query(checkQuery);
             solrCheckTime = System.currentTimeMillis() - solrCheckTime;
             solrPermissionTime += solrCheckTime;
 
@@ -1006,7 +1134,9 @@ public class CmsSolrIndex extends CmsSearchIndex {
             for (SolrDocument doc : checkQueryResponse.getResults()) {
                 try {
                     CmsSolrDocument searchDoc = new CmsSolrDocument(doc);
-                    if (needsPermissionCheck(searchDoc) && !hasPermissions(searchCms, searchDoc, filter)) {
+                    if (needsPermissionCheck(searchDoc)
+                        && !(aclFiltered && hasAccessControlFields(searchDoc))
+                        && !hasPermissions(searchCms, searchDoc, filter)) {
                         visibleHitCount--;
                     } else {
                         if (cnt >= start) {
@@ -1051,7 +1181,7 @@ public class CmsSolrIndex extends CmsSearchIndex {
                     }
 
                     long solrSecondCheckTime = System.currentTimeMillis();
-                    QueryResponse secondCheckQueryResponse = m_solr.query(secondCheckQuery);
+                    QueryResponse secondCheckQueryResponse = solr.query(secondCheckQuery);
                     processedResults += secondCheckQueryResponse.getResults().size();
                     solrSecondCheckTime = System.currentTimeMillis() - solrSecondCheckTime;
                     solrPermissionTime += solrCheckTime;
@@ -1061,7 +1191,9 @@ public class CmsSolrIndex extends CmsSearchIndex {
                         try {
                             CmsSolrDocument searchDoc = new CmsSolrDocument(doc);
                             String docSolrId = searchDoc.getFieldValueAsString(CmsSearchField.FIELD_SOLR_ID);
-                            if ((needsPermissionCheck(searchDoc) && !hasPermissions(searchCms, searchDoc, filter))
+                            if ((needsPermissionCheck(searchDoc)
+                                && !(aclFiltered && hasAccessControlFields(searchDoc))
+                                && !hasPermissions(searchCms, searchDoc, filter))
                                 || resultSolrIds.contains(docSolrId)) {
                                 visibleHitCount--;
                             } else {
@@ -1137,7 +1269,7 @@ public class CmsSolrIndex extends CmsSearchIndex {
             }
             // perform the result query.
             solrResultTime = System.currentTimeMillis();
-            QueryResponse resultQueryResponse = m_solr.query(queryForResults);
+            QueryResponse resultQueryResponse = solr.query(queryForResults);
             solrResultTime = System.currentTimeMillis() - solrResultTime;
 
             // List containing solr ids of filtered contents for which highlighting has to be removed.
@@ -1249,8 +1381,8 @@ public class CmsSolrIndex extends CmsSearchIndex {
             // write the response for the handler
             if (response != null) {
                 // create and return the result
-                core = m_solr instanceof EmbeddedSolrServer
-                ? ((EmbeddedSolrServer)m_solr).getCoreContainer().getCore(getCoreName())
+                core = solr instanceof EmbeddedSolrServer
+                ? ((EmbeddedSolrServer)solr).getCoreContainer().getCore(getCoreName())
                 : null;
 
                 solrQueryRequest = new LocalSolrQueryRequest(core, query);
@@ -1481,6 +1613,22 @@ public class CmsSolrIndex extends CmsSearchIndex {
         return null;
     }
 
+    /**
+     * Checks if the given search result document contains the access control fields of this index.<p>
+     *
+     * Only documents with access control fields are filtered by {@link #getAccessControlFilterQuery(CmsObject)},
+     * the permissions for all other documents have to be checked in the VFS.<p>
+     *
+     * @param doc the search result document, containing the field {@link CmsSearchField#FIELD_ACL_PRINCIPALS}
+     *
+     * @return <code>true</code> if the document contains the access control fields
+     */
+    protected boolean hasAccessControlFields(CmsSolrDocument doc) {
+
+        List<String> principals = doc.getMultivaluedFieldAsStringList(CmsSearchField.FIELD_ACL_PRINCIPALS);
+        return (principals != null) && !principals.isEmpty();
+    }
+
     /**
      * Check, if the current user has permissions on the document's resource.
      * @param cms the context
@@ -1496,7 +1644,6 @@ public class CmsSolrIndex extends CmsSearchIndex {
     /**
      * @see org.opencms.search.CmsSearchIndex#indexSearcherClose()
      */
-    @SuppressWarnings("sync-override")
     @Override
     protected void indexSearcherClose() {
 
@@ -1506,7 +1653,6 @@ public class CmsSolrIndex extends CmsSearchIndex {
     /**
      * @see org.opencms.search.CmsSearchIndex#indexSearcherOpen(java.lang.String)
      */
-    @SuppressWarnings("sync-override")
     @Override
     protected void indexSearcherOpen(final String path) {
 
@@ -1516,13 +1662,30 @@ public class CmsSolrIndex extends CmsSearchIndex {
     /**
      * @see org.opencms.search.CmsSearchIndex#indexSearcherUpdate()
      */
-    @SuppressWarnings("sync-override")
     @Override
     protected void indexSearcherUpdate() {
 
         // nothing to do here
     }
 
+    /**
+     * Checks if the permission check for the given resource filter can be replaced by the access control filter.<p>
+     *
+     * This is only the case for the filters which check nothing but the read permission and the release and
+     * expiration dates, because only these are available in the index.<p>
+     *
+     * @param filter the resource filter used for the permission check, <code>null</code> for the default filter
+     *
+     * @return <code>true</code> if the access control filter query can be used
+     */
+    protected boolean isAccessControlFilterApplicable(CmsResourceFilter filter) {
+
+        if (filter == null) {
+            return !isRequireViewPermission();
+        }
+        return (filter == CmsResourceFilter.DEFAULT) || (filter == CmsResourceFilter.IGNORE_EXPIRATION);
+    }
+
     /**
      * Checks if the given resource should be indexed by this index or not.<p>
      *
@@ -1586,6 +1749,32 @@ public class CmsSolrIndex extends CmsSearchIndex {
         return null;
     }
 
+    /**
+     * Checks if the given query matches documents without access control fields.<p>
+     *
+     * @param solr the Solr client to use
+     * @param checkQuery the query to check
+     *
+     * @return <code>true</code> if there are matching documents without access control fields
+     *
+     * @throws SolrServerException if the query fails
+     * @throws IOException if the communication with the Solr server fails
+     */
+    private boolean hasDocumentsWithoutAccessControlFields(SolrClient solr, CmsSolrQuery checkQuery)
+    throws SolrServerException, IOException {
+
+        CmsSolrQuery countQuery = checkQuery.clone();
+        countQuery.addFilterQuery("-" + CmsSearchField.FIELD_ACL_PRINCIPALS + ":[* TO *]");
+        countQuery.setStart(Integer.valueOf(0));
+        countQuery.setRows(Integer.valueOf(0));
+        countQuery.setFields(CmsSearchField.FIELD_SOLR_ID);
+        countQuery.setFacet(false);
+        countQuery.setHighlight(false);
+        countQuery.setMoreLikeThis(false);
+        countQuery.set(QUERY_SPELLCHECK_NAME, false);
+        return solr.query(countQuery).getResults().getNumFound() > 0;
+    }
+
     /**
      * Checks if the query should be executed using the debug mode where the security restrictions do not apply.
      * @param cms the current context.
@@ -67,6 +67,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_SOLR_INFO_REMOVING_EXPAND_2 = "LOG_SOLR_INFO_REMOVING_EXPAND_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_SOLR_ERR_ACL_FILTER_QUERY_2 = "LOG_SOLR_ERR_ACL_FILTER_QUERY_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_SOLR_ERR_CONFIG_XML_NOT_FOUND_1 = "LOG_SOLR_ERR_CONFIG_XML_NOT_FOUND_1";
 
@@ -30,11 +30,11 @@ package org.opencms.security;
 import org.opencms.file.CmsGroup;
 import org.opencms.file.CmsUser;
 import org.opencms.util.CmsUUID;
+import org.opencms.util.CmsUUIDMap;
 
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -71,7 +71,7 @@ public class CmsAccessControlList implements Serializable {
      */
     public CmsAccessControlList() {
 
-        m_permissions = new HashMap<CmsUUID, CmsPermissionSetCustom>();
+        m_permissions = new CmsUUIDMap<CmsPermissionSetCustom>();
     }
 
     /**
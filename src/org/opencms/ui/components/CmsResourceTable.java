@@ -89,7 +89,9 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.vaadin.event.dd.DropHandler;
 import com.vaadin.ui.CustomComponent;
+import com.vaadin.v7.data.Container.Filter;
 import com.vaadin.v7.data.Item;
+import com.vaadin.v7.data.Property;
 import com.vaadin.v7.data.util.IndexedContainer;
 import com.vaadin.v7.shared.ui.label.ContentMode;
 import com.vaadin.v7.ui.Label;
@@ -263,12 +265,82 @@ public class CmsResourceTable extends CustomComponent {
 
     /**
      * Extending the indexed container to make the number of un-filtered items available.<p>
+     *
+     * Items added as pending items only have the properties set which can be read from the resource itself.
+     * The remaining properties are filled when the table requests the ids of the rows it displays, so properties,
+     * locks, projects and users only have to be read for these rows. Since the items are filled before their
+     * properties are handed out, no value change events are fired for displayed items while the table is painted.
+     * Items accessed by id outside of the displayed rows are filled on their own.<p>
      */
-    protected static class ItemContainer extends IndexedContainer {
+    protected class ItemContainer extends IndexedContainer {
 
         /** The serial version id. */
         private static final long serialVersionUID = -2033722658471550506L;
 
+        /** The CMS context used to fill the pending items. */
+        private CmsObject m_pendingCms;
+
+        /** The workplace locale used to fill the pending items. */
+        private Locale m_pendingLocale;
+
+        /** The resources of the items which have not been filled completely yet, by item id. */
+        private Map<Object, CmsResource> m_pendingResources = new HashMap<Object, CmsResource>();
+
+        /** Flag indicating the container is currently being sorted. */
+        private boolean m_sorting;
+
+        /**
+         * @see com.vaadin.v7.data.util.IndexedContainer#addContainerFilter(com.vaadin.v7.data.Container.Filter)
+         */
+        @Override
+        public void addContainerFilter(Filter filter) {
+
+            if (!m_pendingResources.isEmpty() && !appliesToResourcePropertiesOnly(filter)) {
+                fillAllPendingItems();
+            }
+            super.addContainerFilter(filter);
+        }
+
+        /**
+         * @see com.vaadin.v7.data.util.IndexedContainer#getContainerProperty(java.lang.Object, java.lang.Object)
+         */
+        @Override
+        public Property<?> getContainerProperty(Object itemId, Object propertyId) {
+
+            if (!m_sorting) {
+                fillPendingItem(itemId);
+            }
+            return super.getContainerProperty(itemId, propertyId);
+        }
+
+        /**
+         * @see com.vaadin.v7.data.util.AbstractInMemoryContainer#getItem(java.lang.Object)
+         */
+        @Override
+        public Item getItem(Object itemId) {
+
+            if (!m_sorting) {
+                fillPendingItem(itemId);
+            }
+            return super.getItem(itemId);
+        }
+
+        /**
+         * @see com.vaadin.v7.data.util.AbstractInMemoryContainer#getItemIds(int, int)
+         */
+        @Override
+        public List<Object> getItemIds(int startIndex, int numberOfItems) {
+
+            List<Object> itemIds = super.getItemIds(startIndex, numberOfItems);
+            if (!m_sorting && !m_pendingResources.isEmpty()) {
+                // the table requests the rows to display, fill them before any of their properties are used
+                for (Object itemId : itemIds) {
+                    fillPendingItem(itemId);
+                }
+            }
+            return itemIds;
+        }
+
         /**
          * @see com.vaadin.v7.data.util.IndexedContainer#getSortableContainerPropertyIds()
          */
@@ -282,6 +354,67 @@ public class CmsResourceTable extends CustomComponent {
             }
         }
 
+        /**
+         * @see com.vaadin.v7.data.util.IndexedContainer#removeAllItems()
+         */
+        @Override
+        public boolean removeAllItems() {
+
+            m_pendingResources.clear();
+            return super.removeAllItems();
+        }
+
+        /**
+         * @see com.vaadin.v7.data.util.IndexedContainer#removeItem(java.lang.Object)
+         */
+        @Override
+        public boolean removeItem(Object itemId) {
+
+            m_pendingResources.remove(itemId);
+            return super.removeItem(itemId);
+        }
+
+        /**
+         * @see com.vaadin.v7.data.util.IndexedContainer#sort(java.lang.Object[], boolean[])
+         */
+        @Override
+        public void sort(Object[] propertyId, boolean[] ascending) {
+
+            if (!m_pendingResources.isEmpty() && !RESOURCE_PROPERTIES.containsAll(Arrays.asList(propertyId))) {
+                fillAllPendingItems();
+            }
+            // all properties needed for sorting are available, so comparing the items must not fill them
+            m_sorting = true;
+            try {
+                super.sort(propertyId, ascending);
+            } finally {
+                m_sorting = false;
+            }
+        }
+
+        /**
+         * Adds an item for the given resource, only setting the properties which can be read from the resource itself.<p>
+         *
+         * The remaining properties are filled as soon as the item is accessed.<p>
+         *
+         * @param cms the CMS context used to fill the item
+         * @param resource the resource
+         * @param locale the workplace locale
+         */
+        protected void addPendingItem(CmsObject cms, CmsResource resource, Locale locale) {
+
+            String itemId = resource.getStructureId().toString();
+            m_pendingResources.remove(itemId);
+            Item resourceItem = super.getItem(itemId);
+            if (resourceItem == null) {
+                resourceItem = addItem(itemId);
+            }
+            fillItemResourceProperties(resourceItem, cms, resource, locale);
+            m_pendingCms = cms;
+            m_pendingLocale = locale;
+            m_pendingResources.put(itemId, resource);
+        }
+
         /**
          * Returns the number of items in the container, not considering any filters.<p>
          *
@@ -291,6 +424,56 @@ public class CmsResourceTable extends CustomComponent {
 
             return getAllItemIds().size();
         }
+
+        /**
+         * Removes the given item from the pending items, so it will not be filled on access.<p>
+         *
+         * @param itemId the item id
+         */
+        protected void removePendingItem(Object itemId) {
+
+            m_pendingResources.remove(itemId);
+        }
+
+        /**
+         * Checks whether the given filter only depends on properties which are set for pending items.<p>
+         *
+         * @param filter the filter to check
+         *
+         * @return <code>true</code> if the filter only depends on properties which are set for pending items
+         */
+        private boolean appliesToResourcePropertiesOnly(Filter filter) {
+
+            for (Object propertyId : getContainerPropertyIds()) {
+                if (!RESOURCE_PROPERTIES.contains(propertyId) && filter.appliesToProperty(propertyId)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Fills all pending items.<p>
+         */
+        private void fillAllPendingItems() {
+
+            for (Object itemId : new ArrayList<Object>(m_pendingResources.keySet())) {
+                fillPendingItem(itemId);
+            }
+        }
+
+        /**
+         * Fills the given item if it is pending.<p>
+         *
+         * @param itemId the item id
+         */
+        private void fillPendingItem(Object itemId) {
+
+            CmsResource resource = m_pendingResources.remove(itemId);
+            if (resource != null) {
+                fillItem(m_pendingCms, resource, m_pendingLocale);
+            }
+        }
     }
 
     /** Flag to mark columns as initially collapsed.*/
@@ -299,6 +482,20 @@ public class CmsResourceTable extends CustomComponent {
     /** Flag to mark columns as invisible. */
     public static final int INVISIBLE = 2;
 
+    /** The properties which only depend on the resource itself and are set for pending items. */
+    static final Set<CmsResourceTableProperty> RESOURCE_PROPERTIES = Collections.unmodifiableSet(
+        Sets.newHashSet(
+            PROPERTY_DATE_CREATED,
+            PROPERTY_DATE_EXPIRED,
+            PROPERTY_DATE_MODIFIED,
+            PROPERTY_DATE_RELEASED,
+            PROPERTY_IS_FOLDER,
+            PROPERTY_RESOURCE_NAME,
+            PROPERTY_RESOURCE_TYPE,
+            PROPERTY_SITE_PATH,
+            PROPERTY_SIZE,
+            PROPERTY_STATE));
+
     /** The logger instance for this class. */
     private static final Log LOG = CmsLog.getLog(CmsResourceTable.class);
 
@@ -360,7 +557,7 @@ public class CmsResourceTable extends CustomComponent {
         } catch (CmsException e1) {
             LOG.debug("Unable to read properties for resource '" + resource.getRootPath() + "'.", e1);
         }
-        I_CmsResourceType type = OpenCms.getResourceManager().getResourceType(resource);
+        fillItemResourceProperties(resourceItem, cms, resource, locale);
         if (resourceItem.getItemProperty(PROPERTY_TYPE_ICON) != null) {
             resourceItem.getItemProperty(PROPERTY_TYPE_ICON).setValue(
                 new CmsResourceIcon(resUtil, resource.getState(), true));
@@ -398,14 +595,6 @@ public class CmsResourceTable extends CustomComponent {
                 Boolean.valueOf(resUtil.isReleasedAndNotExpired()));
         }
 
-        if (resourceItem.getItemProperty(PROPERTY_RESOURCE_NAME) != null) {
-            resourceItem.getItemProperty(PROPERTY_RESOURCE_NAME).setValue(resource.getName());
-        }
-
-        if (resourceItem.getItemProperty(PROPERTY_SITE_PATH) != null) {
-            resourceItem.getItemProperty(PROPERTY_SITE_PATH).setValue(cms.getSitePath(resource));
-        }
-
         if ((resourceItem.getItemProperty(PROPERTY_TITLE) != null) && (resourceProps != null)) {
             resourceItem.getItemProperty(PROPERTY_TITLE).setValue(
                 resourceProps.containsKey(CmsPropertyDefinition.PROPERTY_TITLE)
@@ -458,67 +647,22 @@ public class CmsResourceTable extends CustomComponent {
                 : "");
         }
 
-        if (resourceItem.getItemProperty(PROPERTY_RESOURCE_TYPE) != null) {
-            resourceItem.getItemProperty(PROPERTY_RESOURCE_TYPE).setValue(
-                CmsWorkplaceMessages.getResourceTypeName(locale, type.getTypeName()));
-        }
-
-        if (resourceItem.getItemProperty(PROPERTY_IS_FOLDER) != null) {
-            resourceItem.getItemProperty(PROPERTY_IS_FOLDER).setValue(Boolean.valueOf(resource.isFolder()));
-        }
-
-        if (resourceItem.getItemProperty(PROPERTY_SIZE) != null) {
-            if (resource.isFile()) {
-                resourceItem.getItemProperty(PROPERTY_SIZE).setValue(Integer.valueOf(resource.getLength()));
-            }
-        }
-
         if (resourceItem.getItemProperty(PROPERTY_PERMISSIONS) != null) {
             resourceItem.getItemProperty(PROPERTY_PERMISSIONS).setValue(resUtil.getPermissionString());
         }
 
-        if (resourceItem.getItemProperty(PROPERTY_DATE_MODIFIED) != null) {
-            resourceItem.getItemProperty(PROPERTY_DATE_MODIFIED).setValue(Long.valueOf(resource.getDateLastModified()));
-        }
-
         if (resourceItem.getItemProperty(PROPERTY_USER_MODIFIED) != null) {
             resourceItem.getItemProperty(PROPERTY_USER_MODIFIED).setValue(resUtil.getUserLastModified());
         }
 
-        if (resourceItem.getItemProperty(PROPERTY_DATE_CREATED) != null) {
-            resourceItem.getItemProperty(PROPERTY_DATE_CREATED).setValue(Long.valueOf(resource.getDateCreated()));
-        }
-
         if (resourceItem.getItemProperty(PROPERTY_USER_CREATED) != null) {
             resourceItem.getItemProperty(PROPERTY_USER_CREATED).setValue(resUtil.getUserCreated());
         }
 
-        if (resourceItem.getItemProperty(PROPERTY_DATE_RELEASED) != null) {
-            long release = resource.getDateReleased();
-            if (release != CmsResource.DATE_RELEASED_DEFAULT) {
-                resourceItem.getItemProperty(PROPERTY_DATE_RELEASED).setValue(Long.valueOf(release));
-            } else {
-                resourceItem.getItemProperty(PROPERTY_DATE_RELEASED).setValue(null);
-            }
-        }
-
-        if (resourceItem.getItemProperty(PROPERTY_DATE_EXPIRED) != null) {
-            long expire = resource.getDateExpired();
-            if (expire != CmsResource.DATE_EXPIRED_DEFAULT) {
-                resourceItem.getItemProperty(PROPERTY_DATE_EXPIRED).setValue(Long.valueOf(expire));
-            } else {
-                resourceItem.getItemProperty(PROPERTY_DATE_EXPIRED).setValue(null);
-            }
-        }
-
         if (resourceItem.getItemProperty(PROPERTY_STATE_NAME) != null) {
             resourceItem.getItemProperty(PROPERTY_STATE_NAME).setValue(resUtil.getStateName());
         }
 
-        if (resourceItem.getItemProperty(PROPERTY_STATE) != null) {
-            resourceItem.getItemProperty(PROPERTY_STATE).setValue(resource.getState());
-        }
-
         if (resourceItem.getItemProperty(PROPERTY_USER_LOCKED) != null) {
             resourceItem.getItemProperty(PROPERTY_USER_LOCKED).setValue(resUtil.getLockedByName());
         }
@@ -601,8 +745,22 @@ public class CmsResourceTable extends CustomComponent {
         if (clearFilter) {
             m_container.removeAllContainerFilters();
         }
-        for (CmsResource resource : resources) {
-            fillItem(cms, resource, wpLocale);
+        if (m_container.getContainerFilters().isEmpty()) {
+            // the items are filled when they are displayed, use a copy of the context in case the current one changes
+            CmsObject fillCms = cms;
+            try {
+                fillCms = OpenCms.initCmsObject(cms);
+            } catch (CmsException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+            for (CmsResource resource : resources) {
+                m_container.addPendingItem(fillCms, resource, wpLocale);
+            }
+        } else {
+            // the remaining filters may depend on any property, so fill the items completely
+            for (CmsResource resource : resources) {
+                fillItem(cms, resource, wpLocale);
+            }
         }
         if (sort) {
             m_fileTable.sort();
@@ -729,6 +887,7 @@ public class CmsResourceTable extends CustomComponent {
      */
     protected void fillItem(CmsObject cms, CmsResource resource, Locale locale) {
 
+        m_container.removePendingItem(resource.getStructureId().toString());
         Item resourceItem = m_container.getItem(resource.getStructureId().toString());
         if (resourceItem == null) {
             resourceItem = m_container.addItem(resource.getStructureId().toString());
@@ -756,4 +915,76 @@ public class CmsResourceTable extends CustomComponent {
         }
         return ids;
     }
+
+    /**
+     * Initializes the properties of a data item which only depend on the resource itself.<p>
+     *
+     * These properties are available without reading resource properties, locks, projects or users,
+     * and can be used for sorting the items before they have been filled completely.<p>
+     *
+     * @param resourceItem the resource item to fill
+     * @param cms the CMS context
+     * @param resource the resource
+     * @param locale the locale
+     */
+    private static void fillItemResourceProperties(
+        Item resourceItem,
+        CmsObject cms,
+        CmsResource resource,
+        Locale locale) {
+
+        if (resourceItem.getItemProperty(PROPERTY_RESOURCE_NAME) != null) {
+            resourceItem.getItemProperty(PROPERTY_RESOURCE_NAME).setValue(resource.getName());
+        }
+
+        if (resourceItem.getItemProperty(PROPERTY_SITE_PATH) != null) {
+            resourceItem.getItemProperty(PROPERTY_SITE_PATH).setValue(cms.getSitePath(resource));
+        }
+
+        if (resourceItem.getItemProperty(PROPERTY_RESOURCE_TYPE) != null) {
+            I_CmsResourceType type = OpenCms.getResourceManager().getResourceType(resource);
+            resourceItem.getItemProperty(PROPERTY_RESOURCE_TYPE).setValue(
+                CmsWorkplaceMessages.getResourceTypeName(locale, type.getTypeName()));
+        }
+
+        if (resourceItem.getItemProperty(PROPERTY_IS_FOLDER) != null) {
+            resourceItem.getItemProperty(PROPERTY_IS_FOLDER).setValue(Boolean.valueOf(resource.isFolder()));
+        }
+
+        if (resourceItem.getItemProperty(PROPERTY_SIZE) != null) {
+            if (resource.isFile()) {
+                resourceItem.getItemProperty(PROPERTY_SIZE).setValue(Integer.valueOf(resource.getLength()));
+            }
+        }
+
+        if (resourceItem.getItemProperty(PROPERTY_DATE_MODIFIED) != null) {
+            resourceItem.getItemProperty(PROPERTY_DATE_MODIFIED).setValue(Long.valueOf(resource.getDateLastModified()));
+        }
+
+        if (resourceItem.getItemProperty(PROPERTY_DATE_CREATED) != null) {
+            resourceItem.getItemProperty(PROPERTY_DATE_CREATED).setValue(Long.valueOf(resource.getDateCreated()));
+        }
+
+        if (resourceItem.getItemProperty(PROPERTY_DATE_RELEASED) != null) {
+            long release = resource.getDateReleased();
+            if (release != CmsResource.DATE_RELEASED_DEFAULT) {
+                resourceItem.getItemProperty(PROPERTY_DATE_RELEASED).setValue(Long.valueOf(release));
+            } else {
+                resourceItem.getItemProperty(PROPERTY_DATE_RELEASED).setValue(null);
+            }
+        }
+
+        if (resourceItem.getItemProperty(PROPERTY_DATE_EXPIRED) != null) {
+            long expire = resource.getDateExpired();
+            if (expire != CmsResource.DATE_EXPIRED_DEFAULT) {
+                resourceItem.getItemProperty(PROPERTY_DATE_EXPIRED).setValue(Long.valueOf(expire));
+            } else {
+                resourceItem.getItemProperty(PROPERTY_DATE_EXPIRED).setValue(null);
+            }
+        }
+
+        if (resourceItem.getItemProperty(PROPERTY_STATE) != null) {
+            resourceItem.getItemProperty(PROPERTY_STATE).setValue(resource.getState());
+        }
+    }
 }
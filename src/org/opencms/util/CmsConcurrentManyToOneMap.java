@@ -0,0 +1,200 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.util;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread safe variant of {@link CmsManyToOneMap} which can be updated in place.<p>
+ *
+ * Lookups from keys to values are lock free and can run concurrently with updates. All modifications
+ * are serialized on the map instance, and the reverse index from values to keys is only used by
+ * the modifying threads.<p>
+ *
+ * Since the map is changed in place, the cost of an update only depends on the number of changed entries,
+ * not on the total size of the map.<p>
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class CmsConcurrentManyToOneMap<K, V> {
+
+    /** Map from keys to values. */
+    private ConcurrentHashMap<K, V> m_forwardMap;
+
+    /** Map from values to sets of keys, only accessed while holding the lock on this instance. */
+    private Map<V, Set<K>> m_reverseMap;
+
+    /**
+     * Creates a new instance.<p>
+     */
+    public CmsConcurrentManyToOneMap() {
+
+        this(16);
+    }
+
+    /**
+     * Creates a new instance with the given expected number of keys.<p>
+     *
+     * @param expectedSize the expected number of keys
+     */
+    public CmsConcurrentManyToOneMap(int expectedSize) {
+
+        m_forwardMap = new ConcurrentHashMap<K, V>(expectedSize);
+        m_reverseMap = new HashMap<V, Set<K>>(expectedSize);
+    }
+
+    /**
+     * Gets the value for a key.<p>
+     *
+     * @param key the key
+     * @return the value for the key, or null
+     */
+    public V get(K key) {
+
+        return m_forwardMap.get(key);
+    }
+
+    /**
+     * Gets a copy of the keys which are currently associated with the given value.<p>
+     *
+     * @param value the value
+     * @return the keys for the value
+     */
+    public synchronized Set<K> getKeys(V value) {
+
+        Set<K> keys = m_reverseMap.get(value);
+        if (keys == null) {
+            return Collections.emptySet();
+        }
+        return new HashSet<K>(keys);
+    }
+
+    /**
+     * Associates a value with a key.<p>
+     *
+     * @param key the key
+     * @param value the value
+     */
+    public synchronized void put(K key, V value) {
+
+        V oldValue = m_forwardMap.put(key, value);
+        if ((oldValue != null) && !oldValue.equals(value)) {
+            removeFromReverseMap(oldValue, key);
+        }
+        Set<K> keys = m_reverseMap.get(value);
+        if (keys == null) {
+            keys = new HashSet<K>(4);
+            m_reverseMap.put(value, keys);
+        }
+        keys.add(key);
+    }
+
+    /**
+     * Removes the entry with the given key.<p>
+     *
+     * @param key the key
+     */
+    public synchronized void remove(K key) {
+
+        V removedValue = m_forwardMap.remove(key);
+        if (removedValue != null) {
+            removeFromReverseMap(removedValue, key);
+        }
+    }
+
+    /**
+     * Removes all entries with the given value.<p>
+     *
+     * @param value the value
+     */
+    public synchronized void removeValue(V value) {
+
+        Set<K> keys = m_reverseMap.remove(value);
+        if (keys != null) {
+            for (K key : keys) {
+                m_forwardMap.remove(key, value);
+            }
+        }
+    }
+
+    /**
+     * Replaces the set of keys associated with the given value.<p>
+     *
+     * Keys which are in both the old and new key set stay visible to concurrent readers during the whole update,
+     * and keys which are only in the old key set are removed after the new keys have been added.<p>
+     *
+     * @param value the value
+     * @param newKeys the new keys for the value
+     */
+    public synchronized void replaceKeys(V value, Collection<K> newKeys) {
+
+        Set<K> oldKeys = m_reverseMap.get(value);
+        Set<K> obsoleteKeys = oldKeys == null ? new HashSet<K>() : new HashSet<K>(oldKeys);
+        for (K key : newKeys) {
+            obsoleteKeys.remove(key);
+            put(key, value);
+        }
+        for (K key : obsoleteKeys) {
+            remove(key);
+        }
+    }
+
+    /**
+     * Returns the number of keys in this map.<p>
+     *
+     * @return the number of keys
+     */
+    public int size() {
+
+        return m_forwardMap.size();
+    }
+
+    /**
+     * Removes a single key from the key set of a value in the reverse map.<p>
+     *
+     * @param value the value
+     * @param key the key to remove
+     */
+    private void removeFromReverseMap(V value, K key) {
+
+        Set<K> keys = m_reverseMap.get(value);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                m_reverseMap.remove(value);
+            }
+        }
+    }
+}
@@ -33,6 +33,7 @@ import org.opencms.main.CmsLog;
 
 import java.io.Externalizable;
 import java.io.IOException;
+import java.io.InvalidObjectException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 
@@ -56,7 +57,9 @@ import org.safehaus.uuid.UUIDGenerator;
  * (without using JNI), the MAC address has to be provided first
  * by using the static {@link #init(String)} method.<p>
  *
- * This class is just a facade wrapper for the "real" UUID implementation.<p>
+ * The UUID generation is delegated to the "real" UUID implementation, but the value is stored
+ * in two primitive <code>long</code> fields, so that instances are small and cheap to compare and hash.
+ * The String representation is calculated only once, when it is first needed.<p>
  *
  * @since 6.0.0
  */
@@ -65,6 +68,9 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
     /** A regular expression for matching UUIDs. */
     public static final String UUID_REGEX = "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}";
 
+    /** The hexadecimal digits used for the String representation. */
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsUUID.class);
 
@@ -77,13 +83,22 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
         "www.opencms.org");
 
     /** Constant for the null UUID. */
-    private static final CmsUUID NULL_UUID = new CmsUUID(UUID.getNullUUID());
+    private static final CmsUUID NULL_UUID = new CmsUUID(0L, 0L);
 
     /** Serial version UID required for safe serialization. */
     private static final long serialVersionUID = 1736324454709298676L;
 
-    /** Internal UUID implementation. */
-    private transient UUID m_uuid;
+    /** The cached hash code. */
+    private transient int m_hashCode;
+
+    /** The least significant 64 bits of this UUID. */
+    private transient long m_leastSignificantBits;
+
+    /** The most significant 64 bits of this UUID. */
+    private transient long m_mostSignificantBits;
+
+    /** The cached String representation. */
+    private transient String m_stringValue;
 
     /**
      * Creates a new UUID.<p>
@@ -99,7 +114,8 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
             // since the empty constructor is called when the de-serialization takes place
             init(CmsStringUtil.getEthernetAddress());
         }
-        m_uuid = UUIDGenerator.getInstance().generateTimeBasedUUID(m_ethernetAddress);
+        byte[] data = UUIDGenerator.getInstance().generateTimeBasedUUID(m_ethernetAddress).toByteArray();
+        setBits(toLong(data, 0), toLong(data, 8));
     }
 
     /**
@@ -109,7 +125,7 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
      */
     public CmsUUID(byte[] data) {
 
-        m_uuid = new UUID(data);
+        setBits(toLong(data, 0), toLong(data, 8));
     }
 
     /**
@@ -121,17 +137,31 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
     public CmsUUID(String uuid)
     throws NumberFormatException {
 
-        m_uuid = new UUID(uuid);
+        if ((uuid.length() != 36) || (uuid.charAt(18) != '-')) {
+            throw new NumberFormatException("UUID has to be represented by the standard 36-char representation");
+        }
+        setBits(parseHex(uuid, 0, 18), parseHex(uuid, 19, 36));
     }
 
     /**
-     * Create a new UUID based on another one (used internal for cloning).<p>
+     * Create a UUID based on the two 64 bit halves of its value.<p>
      *
-     * @param uuid the UUID to clone
+     * @param mostSignificantBits the most significant 64 bits
+     * @param leastSignificantBits the least significant 64 bits
+     */
+    CmsUUID(long mostSignificantBits, long leastSignificantBits) {
+
+        setBits(mostSignificantBits, leastSignificantBits);
+    }
+
+    /**
+     * Create a new UUID based on a UUID of the "real" implementation.<p>
+     *
+     * @param uuid the UUID to copy the value from
      */
     private CmsUUID(UUID uuid) {
 
-        m_uuid = uuid;
+        this(uuid.toByteArray());
     }
 
     /**
@@ -225,7 +255,7 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
     public static boolean isValidUUID(String uuid) {
 
         try {
-            return (null != uuid) && (null != UUID.valueOf(uuid));
+            return (null != uuid) && (null != new CmsUUID(uuid));
         } catch (NumberFormatException e) {
             // return false
         }
@@ -243,7 +273,7 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
      */
     public static CmsUUID valueOf(String uuid) throws NumberFormatException {
 
-        return new CmsUUID(UUID.valueOf(uuid));
+        return new CmsUUID(uuid);
     }
 
     /**
@@ -257,15 +287,24 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
         if (this == NULL_UUID) {
             return NULL_UUID;
         }
-        return new CmsUUID((UUID)m_uuid.clone());
+        return new CmsUUID(m_mostSignificantBits, m_leastSignificantBits);
     }
 
     /**
+     * Compares the UUID type (version) first, then the bytes of the UUID values.<p>
+     *
      * @see java.lang.Comparable#compareTo(Object)
      */
     public int compareTo(CmsUUID obj) {
 
-        return m_uuid.compareTo(obj.m_uuid);
+        int result = Integer.compare(getType(), obj.getType());
+        if (result == 0) {
+            result = Long.compareUnsigned(m_mostSignificantBits, obj.m_mostSignificantBits);
+        }
+        if (result == 0) {
+            result = Long.compareUnsigned(m_leastSignificantBits, obj.m_leastSignificantBits);
+        }
+        return result;
     }
 
     /**
@@ -278,7 +317,9 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
             return true;
         }
         if (obj instanceof CmsUUID) {
-            return ((CmsUUID)obj).m_uuid.equals(m_uuid);
+            CmsUUID other = (CmsUUID)obj;
+            return (other.m_mostSignificantBits == m_mostSignificantBits)
+                && (other.m_leastSignificantBits == m_leastSignificantBits);
         }
         return false;
     }
@@ -303,7 +344,7 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
     @Override
     public int hashCode() {
 
-        return m_uuid.hashCode();
+        return m_hashCode;
     }
 
     /**
@@ -313,16 +354,13 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
      */
     public boolean isNullUUID() {
 
-        if (this == NULL_UUID) {
-            return true;
-        }
-        return m_uuid.equals(UUID.getNullUUID());
+        return (m_mostSignificantBits == 0L) && (m_leastSignificantBits == 0L);
     }
 
     /**
      * @see java.io.Externalizable#readExternal(java.io.ObjectInput)
      */
-    public void readExternal(ObjectInput in) {
+    public void readExternal(ObjectInput in) throws InvalidObjectException {
 
         Object o = null;
         try {
@@ -346,15 +384,13 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
             if (LOG.isDebugEnabled()) {
                 LOG.debug(Messages.get().getBundle().key(Messages.LOG_READ_UUID_1, o));
             }
-            m_uuid = new UUID((String)o);
-        }
-
-        // log an error if the uuid could not be deserialized
-        if (m_uuid == null) {
-            // UUID cannot be deserialized
-            if (LOG.isDebugEnabled()) {
-                LOG.debug(Messages.get().getBundle().key(Messages.LOG_ERR_READ_UUID_0));
-            }
+            CmsUUID uuid = new CmsUUID((String)o);
+            setBits(uuid.m_mostSignificantBits, uuid.m_leastSignificantBits);
+        } else {
+            // UUID cannot be deserialized, this must not silently result in the null UUID
+            String message = Messages.get().getBundle().key(Messages.LOG_ERR_READ_UUID_0);
+            LOG.error(message);
+            throw new InvalidObjectException(message);
         }
     }
 
@@ -365,7 +401,12 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
      */
     public byte[] toByteArray() {
 
-        return m_uuid.toByteArray();
+        byte[] result = new byte[16];
+        for (int i = 0; i < 8; i++) {
+            result[i] = (byte)(m_mostSignificantBits >>> (56 - (8 * i)));
+            result[i + 8] = (byte)(m_leastSignificantBits >>> (56 - (8 * i)));
+        }
+        return result;
     }
 
     /**
@@ -374,7 +415,22 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
     @Override
     public String toString() {
 
-        return m_uuid.toString();
+        String result = m_stringValue;
+        if (result == null) {
+            char[] chars = new char[36];
+            appendHex(chars, 0, m_mostSignificantBits >>> 32, 8);
+            chars[8] = '-';
+            appendHex(chars, 9, m_mostSignificantBits >>> 16, 4);
+            chars[13] = '-';
+            appendHex(chars, 14, m_mostSignificantBits, 4);
+            chars[18] = '-';
+            appendHex(chars, 19, m_leastSignificantBits >>> 48, 4);
+            chars[23] = '-';
+            appendHex(chars, 24, m_leastSignificantBits, 12);
+            result = new String(chars);
+            m_stringValue = result;
+        }
+        return result;
     }
 
     /**
@@ -388,4 +444,120 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
         }
         out.writeObject(toString());
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the least significant 64 bits of this UUID.<p>
+     *
+     * @return the least significant 64 bits
+     */
+    long getLeastSignificantBits() {
+
+        return m_leastSignificantBits;
+    }
+
+    /**
+     * Returns the most significant 64 bits of this UUID.<p>
+     *
+     * @return the most significant 64 bits
+     */
+    long getMostSignificantBits() {
+
+        return m_mostSignificantBits;
+    }
+
+    /**
+     * Writes the lowest hexadecimal digits of the given value into the char array.<p>
+     *
+     * @param chars the char array to write to
+     * @param offset the position of the first digit
+     * @param value the value
+     * @param digits the number of digits to write
+     */
+    private static void appendHex(char[] chars, int offset, long value, int digits) {
+
+        for (int i = digits - 1; i >= 0; i--) {
+            chars[offset + i] = HEX_DIGITS[(int)(value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+    /**
+     * Parses the hexadecimal digits of a part of a UUID String, skipping the hyphens.<p>
+     *
+     * @param uuid the UUID String
+     * @param start the start index (inclusive)
+     * @param end the end index (exclusive)
+     *
+     * @return the parsed 64 bit value
+     *
+     * @throws NumberFormatException if the String contains an invalid character
+     */
+    private static long parseHex(String uuid, int start, int end) throws NumberFormatException {
+
+        long result = 0L;
+        for (int i = start; i < end; i++) {
+            char c = uuid.charAt(i);
+            if ((i == 8) || (i == 13) || (i == 23)) {
+                if (c != '-') {
+                    throw new NumberFormatException(
+                        "UUID has to be represented by the standard 36-char representation");
+                }
+                continue;
+            }
+            int digit;
+            if ((c >= '0') && (c <= '9')) {
+                digit = c - '0';
+            } else if ((c >= 'a') && (c <= 'f')) {
+                digit = (c - 'a') + 10;
+            } else if ((c >= 'A') && (c <= 'F')) {
+                digit = (c - 'A') + 10;
+            } else {
+                throw new NumberFormatException("Non-hex character '" + c + "' in UUID " + uuid);
+            }
+            result = (result << 4) | digit;
+        }
+        return result;
+    }
+
+    /**
+     * Reads 8 bytes of the given array as a big endian <code>long</code>.<p>
+     *
+     * @param data the data
+     * @param offset the offset of the first byte
+     *
+     * @return the <code>long</code> value
+     */
+    private static long toLong(byte[] data, int offset) {
+
+        long result = 0L;
+        for (int i = offset; i < (offset + 8); i++) {
+            result = (result << 8) | (data[i] & 0xFF);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the type (version) of this UUID.<p>
+     *
+     * @return the type of this UUID
+     */
+    private int getType() {
+
+        return (int)((m_mostSignificantBits >>> 12) & 0xF);
+    }
+
+    /**
+     * Sets the value of this UUID and calculates the hash code.<p>
+     *
+     * @param mostSignificantBits the most significant 64 bits
+     * @param leastSignificantBits the least significant 64 bits
+     */
+    private void setBits(long mostSignificantBits, long leastSignificantBits) {
+
+        m_mostSignificantBits = mostSignificantBits;
+        m_leastSignificantBits = leastSignificantBits;
+        long hilo = mostSignificantBits ^ leastSignificantBits;
+        m_hashCode = ((int)(hilo >> 32)) ^ (int)hilo;
+        m_stringValue = null;
+    }
+}
@@ -0,0 +1,608 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.util;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Map with {@link CmsUUID} keys, using open addressing.<p>
+ *
+ * The keys are stored as pairs of primitive <code>long</code> values in a single array, so in contrast to a
+ * <code>HashMap</code> no entry object is allocated for each mapping. This makes the map well suited for
+ * caches which hold many small maps of ids, like the permissions of cached access control lists.<p>
+ *
+ * Neither <code>null</code> keys nor <code>null</code> values are supported. The key objects returned
+ * when iterating over the map are equal to, but not the same as the keys which were put into the map.<p>
+ *
+ * Like <code>HashMap</code>, this implementation is not synchronized.<p>
+ *
+ * @param <V> the value type
+ *
+ * @since 11.0.0
+ */
+public class CmsUUIDMap<V> extends AbstractMap<CmsUUID, V> implements Serializable {
+
+    /**
+     * Entry of the map, writing values through to the map.<p>
+     *
+     * The key object is only created when it is requested, so iterating over the values does not allocate keys.<p>
+     */
+    private class CmsEntry implements Map.Entry<CmsUUID, V> {
+
+        /** The key, created on first access. */
+        private CmsUUID m_key;
+
+        /** The least significant bits of the key. */
+        private long m_lsb;
+
+        /** The most significant bits of the key. */
+        private long m_msb;
+
+        /** The slot of the entry. */
+        private int m_slot;
+
+        /**
+         * Creates a new entry.<p>
+         *
+         * @param slot the slot of the entry
+         */
+        CmsEntry(int slot) {
+
+            m_slot = slot;
+            m_msb = m_keys[2 * slot];
+            m_lsb = m_keys[(2 * slot) + 1];
+        }
+
+        /**
+         * @see java.lang.Object#equals(java.lang.Object)
+         */
+        @Override
+        public boolean equals(Object obj) {
+
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>)obj;
+            if (!(other.getKey() instanceof CmsUUID)) {
+                return false;
+            }
+            CmsUUID otherKey = (CmsUUID)other.getKey();
+            return (otherKey.getMostSignificantBits() == m_msb)
+                && (otherKey.getLeastSignificantBits() == m_lsb)
+                && getValue().equals(other.getValue());
+        }
+
+        /**
+         * @see java.util.Map.Entry#getKey()
+         */
+        public CmsUUID getKey() {
+
+            if (m_key == null) {
+                m_key = new CmsUUID(m_msb, m_lsb);
+            }
+            return m_key;
+        }
+
+        /**
+         * @see java.util.Map.Entry#getValue()
+         */
+        @SuppressWarnings("unchecked")
+        public V getValue() {
+
+            return (V)m_values[m_slot];
+        }
+
+        /**
+         * @see java.lang.Object#hashCode()
+         */
+        @Override
+        public int hashCode() {
+
+            return hash(m_msb, m_lsb) ^ getValue().hashCode();
+        }
+
+        /**
+         * @see java.util.Map.Entry#setValue(java.lang.Object)
+         */
+        public V setValue(V value) {
+
+            if (value == null) {
+                throw new NullPointerException();
+            }
+            V result = getValue();
+            m_values[m_slot] = value;
+            return result;
+        }
+
+        /**
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+
+            return getKey() + "=" + getValue();
+        }
+    }
+
+    /**
+     * Iterator over the occupied slots of the map.<p>
+     */
+    private class CmsEntryIterator implements Iterator<Map.Entry<CmsUUID, V>> {
+
+        /** The modification count expected by this iterator. */
+        private int m_expectedModCount = m_modCount;
+
+        /** The slot of the last returned entry. */
+        private int m_last = -1;
+
+        /** The next slot to check. */
+        private int m_next;
+
+        /**
+         * @see java.util.Iterator#hasNext()
+         */
+        public boolean hasNext() {
+
+            while ((m_next < m_values.length) && !isOccupied(m_next)) {
+                m_next++;
+            }
+            return m_next < m_values.length;
+        }
+
+        /**
+         * @see java.util.Iterator#next()
+         */
+        public Map.Entry<CmsUUID, V> next() {
+
+            if (m_modCount != m_expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            m_last = m_next;
+            m_next++;
+            return new CmsEntry(m_last);
+        }
+
+        /**
+         * @see java.util.Iterator#remove()
+         */
+        public void remove() {
+
+            if ((m_last < 0) || !isOccupied(m_last)) {
+                throw new IllegalStateException();
+            }
+            if (m_modCount != m_expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            // removing only marks the slot as deleted, so the other entries keep their slots
+            removeAt(m_last);
+            m_expectedModCount = m_modCount;
+        }
+    }
+
+    /** The default capacity. */
+    private static final int DEFAULT_CAPACITY = 8;
+
+    /** Marker for slots of removed entries. */
+    private static final Object REMOVED = new Object();
+
+    /** The serial version id. */
+    private static final long serialVersionUID = 5412063938120567893L;
+
+    /** The keys, stored as pairs of the most and least significant bits. */
+    private transient long[] m_keys;
+
+    /** The modification count, to detect concurrent modifications while iterating. */
+    private transient int m_modCount;
+
+    /** The number of entries. */
+    private transient int m_size;
+
+    /** The number of slots which are occupied or marked as removed. */
+    private transient int m_used;
+
+    /** The values, <code>null</code> for free slots. */
+    private transient Object[] m_values;
+
+    /**
+     * Creates a new, empty map.<p>
+     */
+    public CmsUUIDMap() {
+
+        this(DEFAULT_CAPACITY / 2);
+    }
+
+    /**
+     * Creates a new, empty map for the given expected number of entries.<p>
+     *
+     * @param expectedSize the expected number of entries
+     */
+    public CmsUUIDMap(int expectedSize) {
+
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Creates a new map with the entries of the given map.<p>
+     *
+     * @param map the map to copy the entries from
+     */
+    public CmsUUIDMap(Map<CmsUUID, ? extends V> map) {
+
+        this(map.size());
+        putAll(map);
+    }
+
+    /**
+     * Returns the capacity needed to store the given number of entries with a load factor of at most 0.5.<p>
+     *
+     * @param size the number of entries
+     *
+     * @return the capacity, always a power of two
+     */
+    private static int capacityFor(int size) {
+
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < (2 * size)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Returns the first slot to probe for the key with the given bits.<p>
+     *
+     * @param msb the most significant bits of the key
+     * @param lsb the least significant bits of the key
+     * @param mask the mask for the capacity of the map
+     *
+     * @return the first slot to probe
+     */
+    private static int firstSlot(long msb, long lsb, int mask) {
+
+        // spread the bits of the hash code, since only the lowest bits are used
+        int h = hash(msb, lsb) * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Returns the hash code of the key with the given bits, which is the same as {@link CmsUUID#hashCode()}.<p>
+     *
+     * @param msb the most significant bits of the key
+     * @param lsb the least significant bits of the key
+     *
+     * @return the hash code
+     */
+    private static int hash(long msb, long lsb) {
+
+        long hilo = msb ^ lsb;
+        return ((int)(hilo >> 32)) ^ (int)hilo;
+    }
+
+    /**
+     * @see java.util.AbstractMap#clear()
+     */
+    @Override
+    public void clear() {
+
+        if (m_used > 0) {
+            Arrays.fill(m_values, null);
+            m_size = 0;
+            m_used = 0;
+            m_modCount++;
+        }
+    }
+
+    /**
+     * @see java.util.AbstractMap#containsKey(java.lang.Object)
+     */
+    @Override
+    public boolean containsKey(Object key) {
+
+        return findSlot(key) >= 0;
+    }
+
+    /**
+     * @see java.util.AbstractMap#entrySet()
+     */
+    @Override
+    public Set<Map.Entry<CmsUUID, V>> entrySet() {
+
+        return new AbstractSet<Map.Entry<CmsUUID, V>>() {
+
+            @Override
+            public void clear() {
+
+                CmsUUIDMap.this.clear();
+            }
+
+            @Override
+            public Iterator<Map.Entry<CmsUUID, V>> iterator() {
+
+                return new CmsEntryIterator();
+            }
+
+            @Override
+            public int size() {
+
+                return m_size;
+            }
+        };
+    }
+
+    /**
+     * @see java.util.AbstractMap#get(java.lang.Object)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+
+        int slot = findSlot(key);
+        return slot >= 0 ? (V)m_values[slot] : null;
+    }
+
+    /**
+     * @see java.util.AbstractMap#put(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public V put(CmsUUID key, V value) {
+
+        if ((key == null) || (value == null)) {
+            throw new NullPointerException();
+        }
+        return put(key.getMostSignificantBits(), key.getLeastSignificantBits(), value);
+    }
+
+    /**
+     * @see java.util.AbstractMap#remove(java.lang.Object)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+
+        int slot = findSlot(key);
+        if (slot < 0) {
+            return null;
+        }
+        V result = (V)m_values[slot];
+        removeAt(slot);
+        return result;
+    }
+
+    /**
+     * @see java.util.AbstractMap#size()
+     */
+    @Override
+    public int size() {
+
+        return m_size;
+    }
+
+    /**
+     * Allocates new, empty key and value arrays.<p>
+     *
+     * @param capacity the capacity
+     */
+    private void allocate(int capacity) {
+
+        m_keys = new long[2 * capacity];
+        m_values = new Object[capacity];
+        m_size = 0;
+        m_used = 0;
+    }
+
+    /**
+     * Returns the slot of the given key, or -1 if the key is not contained in this map.<p>
+     *
+     * @param key the key
+     *
+     * @return the slot of the key
+     */
+    private int findSlot(Object key) {
+
+        if (!(key instanceof CmsUUID)) {
+            return -1;
+        }
+        CmsUUID uuid = (CmsUUID)key;
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        int mask = m_values.length - 1;
+        int slot = firstSlot(msb, lsb, mask);
+        Object current;
+        while ((current = m_values[slot]) != null) {
+            if ((current != REMOVED) && (m_keys[2 * slot] == msb) && (m_keys[(2 * slot) + 1] == lsb)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Checks if the given slot contains an entry.<p>
+     *
+     * @param slot the slot
+     *
+     * @return <code>true</code> if the slot contains an entry
+     */
+    private boolean isOccupied(int slot) {
+
+        Object value = m_values[slot];
+        return (value != null) && (value != REMOVED);
+    }
+
+    /**
+     * Maps the key with the given bits to the given value.<p>
+     *
+     * @param msb the most significant bits of the key
+     * @param lsb the least significant bits of the key
+     * @param value the value, not <code>null</code>
+     *
+     * @return the previous value for the key, or <code>null</code> if there was none
+     */
+    @SuppressWarnings("unchecked")
+    private V put(long msb, long lsb, V value) {
+
+        int mask = m_values.length - 1;
+        int slot = firstSlot(msb, lsb, mask);
+        int firstRemoved = -1;
+        Object current;
+        while ((current = m_values[slot]) != null) {
+            if (current == REMOVED) {
+                if (firstRemoved < 0) {
+                    firstRemoved = slot;
+                }
+            } else if ((m_keys[2 * slot] == msb) && (m_keys[(2 * slot) + 1] == lsb)) {
+                m_values[slot] = value;
+                return (V)current;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (firstRemoved >= 0) {
+            // reuse the slot of a removed entry
+            slot = firstRemoved;
+        } else {
+            m_used++;
+        }
+        m_keys[2 * slot] = msb;
+        m_keys[(2 * slot) + 1] = lsb;
+        m_values[slot] = value;
+        m_size++;
+        m_modCount++;
+        if ((2 * m_used) > m_values.length) {
+            rehash(capacityFor(m_size));
+        }
+        return null;
+    }
+
+    /**
+     * Reads the map from a stream.<p>
+     *
+     * @param in the stream to read from
+     *
+     * @throws IOException if something goes wrong
+     * @throws ClassNotFoundException if the class of a value can not be found
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+
+        in.defaultReadObject();
+        int size = in.readInt();
+        allocate(capacityFor(size));
+        for (int i = 0; i < size; i++) {
+            long msb = in.readLong();
+            long lsb = in.readLong();
+            put(msb, lsb, (V)in.readObject());
+        }
+    }
+
+    /**
+     * Rehashes all entries into new arrays with the given capacity, dropping the removed slots.<p>
+     *
+     * The entries are moved using the stored key bits, so no key objects are created.<p>
+     *
+     * @param capacity the new capacity
+     */
+    private void rehash(int capacity) {
+
+        long[] oldKeys = m_keys;
+        Object[] oldValues = m_values;
+        int size = m_size;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int oldSlot = 0; oldSlot < oldValues.length; oldSlot++) {
+            Object value = oldValues[oldSlot];
+            if ((value != null) && (value != REMOVED)) {
+                long msb = oldKeys[2 * oldSlot];
+                long lsb = oldKeys[(2 * oldSlot) + 1];
+                // the keys are distinct and the new arrays contain no removed slots, so the first free slot is used
+                int slot = firstSlot(msb, lsb, mask);
+                while (m_values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                m_keys[2 * slot] = msb;
+                m_keys[(2 * slot) + 1] = lsb;
+                m_values[slot] = value;
+            }
+        }
+        m_size = size;
+        m_used = size;
+    }
+
+    /**
+     * Removes the entry in the given slot.<p>
+     *
+     * The slot is marked as removed, so the entries after it in the same probe sequence can still be found.<p>
+     *
+     * @param slot the slot
+     */
+    private void removeAt(int slot) {
+
+        m_values[slot] = REMOVED;
+        m_size--;
+        m_modCount++;
+        if (m_size == 0) {
+            // no entries left, so all the removed markers can be dropped
+            Arrays.fill(m_values, null);
+            m_used = 0;
+        }
+    }
+
+    /**
+     * Writes the map to a stream.<p>
+     *
+     * @param out the stream to write to
+     *
+     * @throws IOException if something goes wrong
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+
+        out.defaultWriteObject();
+        out.writeInt(m_size);
+        for (int slot = 0; slot < m_values.length; slot++) {
+            if (isOccupied(slot)) {
+                out.writeLong(m_keys[2 * slot]);
+                out.writeLong(m_keys[(2 * slot) + 1]);
+                out.writeObject(m_values[slot]);
+            }
+        }
+    }
+}
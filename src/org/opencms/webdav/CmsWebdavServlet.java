@@ -710,20 +710,8 @@ public class CmsWebdavServlet extends HttpServlet {
     protected void copy(I_CmsRepositoryItem item, ServletOutputStream ostream, CmsWebdavRange range)
     throws IOException {
 
-        IOException exception = null;
-
-        InputStream resourceInputStream = new ByteArrayInputStream(item.getContent());
-        InputStream istream = new BufferedInputStream(resourceInputStream, m_input);
-        exception = copyRange(istream, ostream, range.getStart(), range.getEnd());
-
-        // Clean up the input stream
-        try {
-            istream.close();
-        } catch (Exception e) {
-            if (LOG.isErrorEnabled()) {
-                LOG.error(Messages.get().getBundle().key(Messages.ERR_CLOSE_INPUT_STREAM_0), e);
-            }
-        }
+        // the content is already in memory, so the range is written directly
+        IOException exception = copyRange(item.getContent(), ostream, range.getStart(), range.getEnd());
 
         // Rethrow any exception that has occurred
         if (exception != null) {
@@ -750,12 +738,10 @@ public class CmsWebdavServlet extends HttpServlet {
         String contentType) throws IOException {
 
         IOException exception = null;
+        byte[] content = item.getContent();
 
         while ((exception == null) && (ranges.hasNext())) {
 
-            InputStream resourceInputStream = new ByteArrayInputStream(item.getContent());
-            InputStream istream = new BufferedInputStream(resourceInputStream, m_input);
-
             CmsWebdavRange currentRange = ranges.next();
 
             // Writing MIME header.
@@ -774,16 +760,7 @@ public class CmsWebdavServlet extends HttpServlet {
             ostream.println();
 
             // Printing content
-            exception = copyRange(istream, ostream, currentRange.getStart(), currentRange.getEnd());
-
-            try {
-                istream.close();
-            } catch (Exception e) {
-                if (LOG.isErrorEnabled()) {
-                    LOG.error(Messages.get().getBundle().key(Messages.ERR_CLOSE_INPUT_STREAM_0), e);
-                }
-            }
-
+            exception = copyRange(content, ostream, currentRange.getStart(), currentRange.getEnd());
         }
 
         ostream.println();
@@ -795,6 +772,37 @@ public class CmsWebdavServlet extends HttpServlet {
         }
     }
 
+    /**
+     * Writes a range of the given content to the specified output stream.<p>
+     *
+     * @param content the content to write a range of
+     * @param ostream the output stream to write to
+     * @param start the start of the range which will be copied
+     * @param end the end of the range which will be copied
+     *
+     * @return the exception which occurred during processing
+     */
+    protected IOException copyRange(byte[] content, ServletOutputStream ostream, long start, long end) {
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(Messages.get().getBundle().key(Messages.LOG_SERVE_BYTES_2, new Long(start), new Long(end)));
+        }
+
+        if (content == null) {
+            content = new byte[0];
+        }
+        int from = (int)Math.min(start, content.length);
+        int to = (int)Math.min(end + 1, content.length);
+        if (to > from) {
+            try {
+                ostream.write(content, from, to - from);
+            } catch (IOException e) {
+                return e;
+            }
+        }
+        return null;
+    }
+
     /**
      * Copy the contents of the specified input stream to the specified
      * output stream, and ensure that both streams are closed before returning
@@ -198,6 +198,7 @@ public class CmsXmlEntityResolver implements EntityResolver, I_CmsEventListener
                 I_CmsEventListener.EVENT_CLEAR_CACHES,
                 I_CmsEventListener.EVENT_PUBLISH_PROJECT,
                 I_CmsEventListener.EVENT_RESOURCE_MODIFIED,
+                I_CmsEventListener.EVENT_RESOURCES_MODIFIED,
                 I_CmsEventListener.EVENT_RESOURCE_MOVED,
                 I_CmsEventListener.EVENT_RESOURCE_DELETED});
 
@@ -319,6 +320,7 @@ public class CmsXmlEntityResolver implements EntityResolver, I_CmsEventListener
                 resource = (CmsResource)event.getData().get(I_CmsEventListener.KEY_RESOURCE);
                 uncacheSystemId(resource.getRootPath());
                 break;
+            case I_CmsEventListener.EVENT_RESOURCES_MODIFIED:
             case I_CmsEventListener.EVENT_RESOURCE_DELETED:
             case I_CmsEventListener.EVENT_RESOURCE_MOVED:
                 List<CmsResource> resources = CmsCollectionsGenericWrapper.list(
@@ -50,6 +50,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
@@ -331,6 +332,75 @@ public class TestFormatterConfiguration extends OpenCmsTestCase {
         }
     }
 
+    /**
+     * Tests that a reload of the formatter cache parses modified and moved formatter configurations again.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testReloadParsesChangedFormatters() throws Exception {
+
+        try {
+            CmsObject cms = OpenCms.initCmsObject(getCmsObject());
+            CmsResource res = cms.createResource(
+                "/system/formatter4.fc",
+                getTypeId("formatter_config"),
+                createFormatterConfigXml("plain", "foobar4", true, 100).getBytes("UTF-8"),
+                new ArrayList<CmsProperty>());
+            CmsFormatterConfigurationCache cache = new CmsFormatterConfigurationCache(cms, "test formatters");
+            cache.reload();
+            I_CmsFormatterBean formatter = cache.getState().getFormatters().get(res.getStructureId());
+            assertEquals("foobar4", formatter.getNiceName(Locale.ENGLISH));
+
+            CmsFile file = cms.readFile(res);
+            file.setContents(createFormatterConfigXml("plain", "foobar5", true, 100).getBytes("UTF-8"));
+            cms.getRequestContext().setAttribute(CmsXmlContent.AUTO_CORRECTION_ATTRIBUTE, Boolean.TRUE);
+            cms.writeFile(file);
+            cache.reload();
+            I_CmsFormatterBean modified = cache.getState().getFormatters().get(res.getStructureId());
+            assertNotSame(formatter, modified);
+            assertEquals("foobar5", modified.getNiceName(Locale.ENGLISH));
+
+            long dateLastModified = cms.readResource(res.getStructureId()).getDateLastModified();
+            cms.moveResource("/system/formatter4.fc", "/system/formatter5.fc");
+            assertEquals(dateLastModified, cms.readResource(res.getStructureId()).getDateLastModified());
+            cache.reload();
+            I_CmsFormatterBean moved = cache.getState().getFormatters().get(res.getStructureId());
+            assertNotSame(modified, moved);
+            assertEquals("/system/formatter5.fc", moved.getLocation());
+        } finally {
+            delete("/system/formatter4.fc");
+            delete("/system/formatter5.fc");
+        }
+    }
+
+    /**
+     * Tests that a reload of the formatter cache reuses the formatters of unchanged formatter configurations.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testReloadReusesUnchangedFormatters() throws Exception {
+
+        try {
+            CmsObject cms = OpenCms.initCmsObject(getCmsObject());
+            CmsResource res = cms.createResource(
+                "/system/formatter6.fc",
+                getTypeId("formatter_config"),
+                createFormatterConfigXml("plain", "foobar6", true, 100).getBytes("UTF-8"),
+                new ArrayList<CmsProperty>());
+            CmsFormatterConfigurationCache cache = new CmsFormatterConfigurationCache(cms, "test formatters");
+            cache.reload();
+            CmsFormatterConfigurationCacheState state = cache.getState();
+            I_CmsFormatterBean formatter = state.getFormatters().get(res.getStructureId());
+            assertNotNull(formatter);
+
+            cache.reload();
+            assertSame(state, cache.getState());
+            assertSame(formatter, cache.getState().getFormatters().get(res.getStructureId()));
+        } finally {
+            delete("/system/formatter6.fc");
+        }
+    }
+
     /**
      * Tests removal of all formatters through the configuration.<p>
      *
@@ -62,6 +62,9 @@ public final class AllTests {
         // $JUnit-BEGIN$
         suite.addTest(TestQueryProperties.suite());
         suite.addTest(TestPublishHistory.suite());
+        suite.addTest(TestHistoryContentStore.suite());
+        suite.addTest(TestPropertyListCache.suite());
+        suite.addTest(TestOfflineResourceCache.suite());
         suite.addTest(TestSubscriptionManager.suite());
         suite.addTest(TestAliases.suite());
         suite.addTest(TestUrlNameMapping.suite());
@@ -0,0 +1,363 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.db;
+
+import org.opencms.db.generic.CmsHistoryDriver;
+import org.opencms.file.CmsFile;
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsResource;
+import org.opencms.file.history.I_CmsHistoryResource;
+import org.opencms.file.types.CmsResourceTypePlain;
+import org.opencms.main.CmsSystemInfo;
+import org.opencms.main.OpenCms;
+import org.opencms.report.CmsShellReport;
+import org.opencms.scheduler.jobs.CmsHistoryContentMigrationJob;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+import org.opencms.util.CmsUUID;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.apache.commons.codec.digest.DigestUtils;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Unit tests for the deduplicating history content store.<p>
+ */
+public class TestHistoryContentStore extends OpenCmsTestCase {
+
+    /** Name of the first test file. */
+    private static final String FILE_A = "/folder1/historystore_a.txt";
+
+    /** Name of the second test file. */
+    private static final String FILE_B = "/folder1/historystore_b.txt";
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestHistoryContentStore(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestHistoryContentStore.class.getName());
+
+        suite.addTest(new TestHistoryContentStore("testMigrateContents"));
+        suite.addTest(new TestHistoryContentStore("testDeleteStoredContents"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() throws Exception {
+
+                setupOpenCms("simpletest", "/");
+                // the shared test configurations use the default store, so enable deduplication only here
+                File properties = new File(
+                    getTestDataPath("WEB-INF" + File.separator + CmsSystemInfo.FOLDER_CONFIG_DEFAULT),
+                    CmsSystemInfo.FILE_PROPERTIES);
+                Writer writer = new OutputStreamWriter(new FileOutputStream(properties, true), "ISO-8859-1");
+                try {
+                    writer.write(
+                        "\n"
+                            + CmsHistoryDriver.CONFIGURATION_CONTENT_STORE
+                            + "="
+                            + CmsHistoryDriver.CONTENT_STORE_DEDUP
+                            + "\n");
+                } finally {
+                    writer.close();
+                }
+                restartOpenCms();
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Returns a large and well compressible test content.<p>
+     *
+     * @return the test content
+     */
+    private static byte[] getLargeContent() {
+
+        StringBuffer result = new StringBuffer();
+        for (int i = 0; i < 100; i++) {
+            result.append("history content store test ");
+        }
+        return result.toString().getBytes();
+    }
+
+    /**
+     * Tests that deleting historical versions only removes stored contents which are no longer referenced.<p>
+     *
+     * @throws Throwable if something goes wrong
+     */
+    public void testDeleteStoredContents() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the deletion of stored historical contents");
+
+        CmsUUID idA = cms.readResource(FILE_A).getResourceId();
+        String hashLarge = DigestUtils.sha256Hex(getLargeContent());
+        String hashSmall = DigestUtils.sha256Hex("small".getBytes());
+        int refsBefore = countRefs(idA);
+
+        cms.deleteHistoricalVersions(2, 2, -1, new CmsShellReport(cms.getRequestContext().getLocale()));
+
+        assertTrue(countRefs(idA) < refsBefore);
+        for (String hash : new String[] {hashLarge, hashSmall}) {
+            int refs = countRows("SELECT COUNT(*) FROM CMS_HISTORY_CONTENT_REFS WHERE CONTENT_HASH=?", hash);
+            int stored = countRows("SELECT COUNT(*) FROM CMS_HISTORY_CONTENT_STORE WHERE CONTENT_HASH=?", hash);
+            // a stored content must exist exactly as long as it is referenced
+            assertEquals(refs > 0, stored > 0);
+        }
+        // the remaining versions are still readable
+        for (I_CmsHistoryResource historyResource : cms.readAllAvailableVersions(FILE_A)) {
+            assertNotNull(cms.readFile((CmsResource)historyResource).getContents());
+        }
+    }
+
+    /**
+     * Tests moving the historical contents to the history content store.<p>
+     *
+     * @throws Throwable if something goes wrong
+     */
+    public void testMigrateContents() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the migration of historical contents to the history content store");
+
+        byte[] large = getLargeContent();
+        byte[] small = "small".getBytes();
+        createAndPublish(cms, FILE_A, large);
+        writeAndPublish(cms, FILE_A, small);
+        writeAndPublish(cms, FILE_A, large);
+        writeAndPublish(cms, FILE_A, "last".getBytes());
+        createAndPublish(cms, FILE_B, large);
+        writeAndPublish(cms, FILE_B, "other".getBytes());
+
+        CmsUUID idA = cms.readResource(FILE_A).getResourceId();
+        CmsUUID idB = cms.readResource(FILE_B).getResourceId();
+
+        // publishing leaves the historical contents in the content table
+        assertEquals(3, countUnstored(idA));
+        assertEquals(1, countUnstored(idB));
+        assertEquals(0, countRefs(idA));
+        List<String> contentsA = readHistoryContents(cms, FILE_A);
+        List<String> contentsB = readHistoryContents(cms, FILE_B);
+
+        new CmsHistoryContentMigrationJob().launch(cms, new HashMap<String, String>());
+
+        assertEquals(0, countUnstored(idA));
+        assertEquals(0, countUnstored(idB));
+        assertEquals(3, countRefs(idA));
+        assertEquals(1, countRefs(idB));
+        String hashLarge = DigestUtils.sha256Hex(large);
+        String hashSmall = DigestUtils.sha256Hex(small);
+        // the large content is referenced three times but only stored once, and compressed
+        assertEquals(
+            1,
+            countRows("SELECT COUNT(*) FROM CMS_HISTORY_CONTENT_STORE WHERE CONTENT_HASH=?", hashLarge));
+        assertEquals(
+            1,
+            countRows(
+                "SELECT COUNT(*) FROM CMS_HISTORY_CONTENT_STORE WHERE CONTENT_HASH=? AND COMPRESSION=1",
+                hashLarge));
+        assertEquals(
+            1,
+            countRows(
+                "SELECT COUNT(*) FROM CMS_HISTORY_CONTENT_STORE WHERE CONTENT_HASH=? AND COMPRESSION=0",
+                hashSmall));
+
+        // the historical contents are now read from the history content store
+        assertEquals(contentsA, readHistoryContents(cms, FILE_A));
+        assertEquals(contentsB, readHistoryContents(cms, FILE_B));
+
+        // running the migration again does not change anything
+        new CmsHistoryContentMigrationJob().launch(cms, new HashMap<String, String>());
+        assertEquals(3, countRefs(idA));
+        assertEquals(1, countRefs(idB));
+        assertEquals(
+            1,
+            countRows("SELECT COUNT(*) FROM CMS_HISTORY_CONTENT_STORE WHERE CONTENT_HASH=?", hashLarge));
+        assertEquals(contentsA, readHistoryContents(cms, FILE_A));
+    }
+
+    /**
+     * Counts the references to stored historical contents of a resource.<p>
+     *
+     * @param resourceId the resource id
+     *
+     * @return the number of references
+     *
+     * @throws Exception if something goes wrong
+     */
+    private int countRefs(CmsUUID resourceId) throws Exception {
+
+        return countRows("SELECT COUNT(*) FROM CMS_HISTORY_CONTENT_REFS WHERE RESOURCE_ID=?", resourceId.toString());
+    }
+
+    /**
+     * Executes a count query with a single string parameter.<p>
+     *
+     * @param query the query
+     * @param param the parameter
+     *
+     * @return the count
+     *
+     * @throws Exception if something goes wrong
+     */
+    private int countRows(String query, String param) throws Exception {
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet res = null;
+        try {
+            conn = OpenCms.getSqlManager().getConnection(OpenCms.getSqlManager().getDefaultDbPoolName());
+            stmt = conn.prepareStatement(query);
+            stmt.setString(1, param);
+            res = stmt.executeQuery();
+            res.next();
+            return res.getInt(1);
+        } finally {
+            if (res != null) {
+                res.close();
+            }
+            if (stmt != null) {
+                stmt.close();
+            }
+            if (conn != null) {
+                conn.close();
+            }
+        }
+    }
+
+    /**
+     * Counts the historical contents of a resource which are still stored in the content table.<p>
+     *
+     * @param resourceId the resource id
+     *
+     * @return the number of historical contents in the content table
+     *
+     * @throws Exception if something goes wrong
+     */
+    private int countUnstored(CmsUUID resourceId) throws Exception {
+
+        return countRows(
+            "SELECT COUNT(*) FROM CMS_CONTENTS WHERE RESOURCE_ID=? AND ONLINE_FLAG=0",
+            resourceId.toString());
+    }
+
+    /**
+     * Creates and publishes a plain text file.<p>
+     *
+     * @param cms the CMS context
+     * @param path the file name
+     * @param content the content
+     *
+     * @throws Exception if something goes wrong
+     */
+    private void createAndPublish(CmsObject cms, String path, byte[] content) throws Exception {
+
+        cms.createResource(path, CmsResourceTypePlain.getStaticTypeId(), content, null);
+        cms.unlockResource(path);
+        OpenCms.getPublishManager().publishResource(cms, path);
+        OpenCms.getPublishManager().waitWhileRunning();
+    }
+
+    /**
+     * Reads the contents of all historical versions of a file.<p>
+     *
+     * @param cms the CMS context
+     * @param path the file name
+     *
+     * @return the contents, from the newest to the oldest version
+     *
+     * @throws Exception if something goes wrong
+     */
+    private List<String> readHistoryContents(CmsObject cms, String path) throws Exception {
+
+        List<String> result = new ArrayList<String>();
+        for (I_CmsHistoryResource historyResource : cms.readAllAvailableVersions(path)) {
+            CmsFile file = cms.readFile((CmsResource)historyResource);
+            result.add(new String(file.getContents()));
+        }
+        return result;
+    }
+
+    /**
+     * Writes and publishes a new content for a file.<p>
+     *
+     * @param cms the CMS context
+     * @param path the file name
+     * @param content the new content
+     *
+     * @throws Exception if something goes wrong
+     */
+    private void writeAndPublish(CmsObject cms, String path, byte[] content) throws Exception {
+
+        CmsFile file = cms.readFile(path);
+        file.setContents(content);
+        cms.lockResource(path);
+        cms.writeFile(file);
+        cms.unlockResource(path);
+        OpenCms.getPublishManager().publishResource(cms, path);
+        OpenCms.getPublishManager().waitWhileRunning();
+    }
+}
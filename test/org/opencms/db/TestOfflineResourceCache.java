@@ -0,0 +1,239 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.db;
+
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProject;
+import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
+import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.file.types.CmsResourceTypePlain;
+import org.opencms.main.OpenCms;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+
+import java.util.List;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Unit tests for the separate caching of resources read in the online and in offline projects.<p>
+ */
+public class TestOfflineResourceCache extends OpenCmsTestCase {
+
+    /** The folder used in the tests. */
+    private static final String FOLDER = "/resourcecache/";
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestOfflineResourceCache(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestOfflineResourceCache.class.getName());
+
+        suite.addTest(new TestOfflineResourceCache("testOfflineChangeKeepsOnlineCache"));
+        suite.addTest(new TestOfflineResourceCache("testOfflineChangeVisibleInOtherOfflineProject"));
+        suite.addTest(new TestOfflineResourceCache("testPublishClearsBothTiers"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests that a change in an offline project keeps the resources cached for the online project,
+     * and that the online and offline resources are cached separately.<p>
+     *
+     * @throws Throwable if something goes wrong
+     */
+    public void testOfflineChangeKeepsOnlineCache() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that a change in an offline project keeps the online resource cache");
+
+        String file = FOLDER + "file.txt";
+        cms.createResource(FOLDER, CmsResourceTypeFolder.getStaticTypeId());
+        cms.createResource(file, CmsResourceTypePlain.getStaticTypeId());
+        OpenCms.getPublishManager().publishResource(cms, FOLDER);
+        OpenCms.getPublishManager().waitWhileRunning();
+
+        CmsObject onlineCms = getOnlineCmsObject(cms);
+        long onlineDate = readPath(onlineCms, file).getDateLastModified();
+        readPath(cms, file);
+        String rootPath = cms.getRequestContext().addSiteRoot(file);
+        assertNotNull(getCachedResource(rootPath, true));
+        assertNotNull(getCachedResource(rootPath, false));
+        // each tier only contains the entries of its own online state
+        assertNull(OpenCms.getMemoryMonitor().getCachedResource("-" + rootPath, true));
+        assertNull(OpenCms.getMemoryMonitor().getCachedResource("+" + rootPath, false));
+
+        cms.lockResource(file);
+        cms.setDateLastModified(file, onlineDate + 10000, false);
+
+        // the offline tier is cleared, the online tier is kept
+        assertNull(getCachedResource(rootPath, false));
+        assertNotNull(getCachedResource(rootPath, true));
+        assertEquals(onlineDate + 10000, readPath(cms, file).getDateLastModified());
+        assertEquals(onlineDate, readPath(onlineCms, file).getDateLastModified());
+    }
+
+    /**
+     * Tests that a change in one offline project is visible in another offline project, since the offline tier
+     * is shared by all offline projects, which all read the same offline resources.<p>
+     *
+     * @throws Throwable if something goes wrong
+     */
+    public void testOfflineChangeVisibleInOtherOfflineProject() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that a change in an offline project is visible in another offline project");
+
+        String file = FOLDER + "other.txt";
+        cms.createResource(file, CmsResourceTypePlain.getStaticTypeId());
+        CmsProject project = cms.createProject(
+            "resourcecache",
+            "second offline project",
+            "Users",
+            "Users",
+            CmsProject.PROJECT_TYPE_NORMAL);
+        CmsObject otherCms = OpenCms.initCmsObject(cms);
+        otherCms.getRequestContext().setCurrentProject(project);
+
+        CmsResource resource = readPath(otherCms, file);
+        assertNotNull(getCachedResource(cms.getRequestContext().addSiteRoot(file), false));
+
+        cms.setDateLastModified(file, resource.getDateLastModified() + 10000, false);
+        assertEquals(resource.getDateLastModified() + 10000, readPath(otherCms, file).getDateLastModified());
+    }
+
+    /**
+     * Tests that publishing, which changes the online project, clears the online and the offline tier.<p>
+     *
+     * @throws Throwable if something goes wrong
+     */
+    public void testPublishClearsBothTiers() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that publishing clears the online and the offline resource cache");
+
+        String file = FOLDER + "file.txt";
+        OpenCms.getPublishManager().publishResource(cms, FOLDER);
+        OpenCms.getPublishManager().waitWhileRunning();
+
+        CmsObject onlineCms = getOnlineCmsObject(cms);
+        readPath(onlineCms, file);
+        readPath(cms, file);
+        String rootPath = cms.getRequestContext().addSiteRoot(file);
+        assertNotNull(getCachedResource(rootPath, true));
+        assertNotNull(getCachedResource(rootPath, false));
+
+        cms.lockResource(file);
+        cms.setDateLastModified(file, System.currentTimeMillis(), false);
+        OpenCms.getPublishManager().publishResource(cms, file);
+        OpenCms.getPublishManager().waitWhileRunning();
+
+        assertNull(getCachedResource(rootPath, true));
+        assertNull(getCachedResource(rootPath, false));
+    }
+
+    /**
+     * Returns the resource cached for the given root path in the online or offline tier, or <code>null</code>.<p>
+     *
+     * @param rootPath the root path of the resource
+     * @param online <code>true</code> for the online tier
+     *
+     * @return the cached resource, or <code>null</code> if not cached
+     */
+    private CmsResource getCachedResource(String rootPath, boolean online) {
+
+        return OpenCms.getMemoryMonitor().getCachedResource((online ? "+" : "-") + rootPath, online);
+    }
+
+    /**
+     * Returns a copy of the given context in the online project.<p>
+     *
+     * @param cms the current OpenCms context
+     *
+     * @return the context in the online project
+     *
+     * @throws Exception if something goes wrong
+     */
+    private CmsObject getOnlineCmsObject(CmsObject cms) throws Exception {
+
+        CmsObject onlineCms = OpenCms.initCmsObject(cms);
+        onlineCms.getRequestContext().setCurrentProject(cms.readProject(CmsProject.ONLINE_PROJECT_ID));
+        return onlineCms;
+    }
+
+    /**
+     * Reads the resource with the given path through the resource cache, which is filled when reading
+     * the resources along a path.<p>
+     *
+     * @param cms the current OpenCms context
+     * @param path the site path of the resource
+     *
+     * @return the resource
+     *
+     * @throws Exception if something goes wrong
+     */
+    private CmsResource readPath(CmsObject cms, String path) throws Exception {
+
+        List<CmsResource> resources = cms.readPath(path, CmsResourceFilter.ALL);
+        return resources.get(resources.size() - 1);
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.db;
+
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProperty;
+import org.opencms.file.CmsPropertyDefinition;
+import org.opencms.file.CmsResource;
+import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.file.types.CmsResourceTypePlain;
+import org.opencms.main.OpenCms;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Unit tests for the caching of property lists in the driver manager.<p>
+ */
+public class TestPropertyListCache extends OpenCmsTestCase {
+
+    /** The folder used in the tests. */
+    private static final String FOLDER = "/propcache/";
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestPropertyListCache(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestPropertyListCache.class.getName());
+
+        suite.addTest(new TestPropertyListCache("testParentChangeEvictsChildren"));
+        suite.addTest(new TestPropertyListCache("testInheritedPropertiesMatchFolderWalk"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests that the inherited properties resolved level by level are the same as the result of walking
+     * up the folder chain and merging the properties of each level, which is how they were resolved before.<p>
+     *
+     * @throws Throwable if something goes wrong
+     */
+    public void testInheritedPropertiesMatchFolderWalk() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that the inherited properties match the properties merged along the folder chain");
+
+        String folder = FOLDER + "inherit/";
+        String subFolder = folder + "sub/";
+        String file = subFolder + "file.txt";
+        cms.createResource(folder, CmsResourceTypeFolder.getStaticTypeId());
+        cms.createResource(subFolder, CmsResourceTypeFolder.getStaticTypeId());
+        cms.createResource(file, CmsResourceTypePlain.getStaticTypeId());
+
+        cms.writePropertyObject(folder, new CmsProperty(CmsPropertyDefinition.PROPERTY_TITLE, "folder", "shared"));
+        cms.writePropertyObject(
+            folder,
+            new CmsProperty(CmsPropertyDefinition.PROPERTY_DESCRIPTION, "folder description", null));
+        cms.writePropertyObject(folder, new CmsProperty(CmsPropertyDefinition.PROPERTY_KEYWORDS, null, "keywords"));
+        cms.writePropertyObject(subFolder, new CmsProperty(CmsPropertyDefinition.PROPERTY_TITLE, "sub", null));
+        cms.writePropertyObject(file, new CmsProperty(CmsPropertyDefinition.PROPERTY_NAVTEXT, "file", null));
+        cms.writePropertyObject(
+            file,
+            new CmsProperty(CmsPropertyDefinition.PROPERTY_DESCRIPTION, "file description", null));
+
+        for (String path : new String[] {"/", FOLDER, folder, subFolder, file}) {
+            List<CmsProperty> expected = readPropertiesAlongFolders(cms, path);
+            OpenCms.getMemoryMonitor().clearCache();
+            // once read without any cached parent, once with all parents cached
+            assertEquals(path, expected, cms.readPropertyObjects(path, true));
+            assertEquals(path, expected, cms.readPropertyObjects(path, true));
+            for (CmsProperty property : expected) {
+                CmsProperty read = cms.readPropertyObject(path, property.getName(), true);
+                assertEquals(property.getStructureValue(), read.getStructureValue());
+                assertEquals(property.getResourceValue(), read.getResourceValue());
+            }
+        }
+        List<CmsProperty> fileProperties = cms.readPropertyObjects(file, true);
+        assertEquals("sub", getValue(fileProperties, CmsPropertyDefinition.PROPERTY_TITLE).getStructureValue());
+        assertNull(getValue(fileProperties, CmsPropertyDefinition.PROPERTY_TITLE).getResourceValue());
+        assertEquals(
+            "file description",
+            getValue(fileProperties, CmsPropertyDefinition.PROPERTY_DESCRIPTION).getValue());
+        assertEquals("keywords", getValue(fileProperties, CmsPropertyDefinition.PROPERTY_KEYWORDS).getValue());
+    }
+
+    /**
+     * Tests that changing a folder property only evicts the cached inherited property lists below the folder.<p>
+     *
+     * @throws Throwable if something goes wrong
+     */
+    public void testParentChangeEvictsChildren() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that a changed folder property evicts the inherited property lists below the folder");
+
+        String child = FOLDER + "sub/child.txt";
+        String other = "/propcache2/other.txt";
+        cms.createResource(FOLDER, CmsResourceTypeFolder.getStaticTypeId());
+        cms.createResource(FOLDER + "sub/", CmsResourceTypeFolder.getStaticTypeId());
+        cms.createResource(child, CmsResourceTypePlain.getStaticTypeId());
+        cms.createResource("/propcache2/", CmsResourceTypeFolder.getStaticTypeId());
+        cms.createResource(other, CmsResourceTypePlain.getStaticTypeId());
+        cms.writePropertyObject(FOLDER, new CmsProperty(CmsPropertyDefinition.PROPERTY_TITLE, "first", null));
+
+        assertEquals("first", cms.readPropertyObject(child, CmsPropertyDefinition.PROPERTY_TITLE, true).getValue());
+        cms.readPropertyObjects(child, false);
+        cms.readPropertyObjects(other, true);
+        assertNotNull(getCachedPropertyList(cms, child, true));
+        assertNotNull(getCachedPropertyList(cms, FOLDER + "sub/", true));
+        assertNotNull(getCachedPropertyList(cms, child, false));
+        assertNotNull(getCachedPropertyList(cms, other, true));
+
+        cms.writePropertyObject(FOLDER, new CmsProperty(CmsPropertyDefinition.PROPERTY_TITLE, "second", null));
+
+        // the inherited lists below the folder are evicted
+        assertNull(getCachedPropertyList(cms, child, true));
+        assertNull(getCachedPropertyList(cms, FOLDER + "sub/", true));
+        // the own properties of the child and the lists outside of the folder are kept
+        assertNotNull(getCachedPropertyList(cms, child, false));
+        assertNotNull(getCachedPropertyList(cms, other, true));
+
+        assertEquals("second", cms.readPropertyObject(child, CmsPropertyDefinition.PROPERTY_TITLE, true).getValue());
+    }
+
+    /**
+     * Returns the property with the given name from the list, failing if it is missing.<p>
+     *
+     * @param properties the property list
+     * @param name the property name
+     *
+     * @return the property
+     */
+    private CmsProperty getValue(List<CmsProperty> properties, String name) {
+
+        int i = properties.indexOf(new CmsProperty(name, null, null));
+        assertTrue(name, i >= 0);
+        return properties.get(i);
+    }
+
+    /**
+     * Returns the property list cached for the given resource in the current project, or <code>null</code>.<p>
+     *
+     * @param cms the current OpenCms context
+     * @param path the site path of the resource
+     * @param search <code>true</code> for the list with the inherited properties
+     *
+     * @return the cached property list, or <code>null</code> if not cached
+     */
+    private List<CmsProperty> getCachedPropertyList(CmsObject cms, String path, boolean search) {
+
+        String key = CmsDriverManager.CACHE_ALL_PROPERTIES
+            + (search ? '+' : '-')
+            + (cms.getRequestContext().getCurrentProject().isOnlineProject() ? '+' : '-')
+            + cms.getRequestContext().addSiteRoot(path);
+        return OpenCms.getMemoryMonitor().getCachedPropertyList(key);
+    }
+
+    /**
+     * Reads the inherited properties of a resource by walking up the folder chain and merging
+     * the properties of each level, like the property resolver did before the results were shared by folder.<p>
+     *
+     * @param cms the current OpenCms context
+     * @param path the site path of the resource
+     *
+     * @return the inherited properties of the resource
+     *
+     * @throws Exception if something goes wrong
+     */
+    private List<CmsProperty> readPropertiesAlongFolders(CmsObject cms, String path) throws Exception {
+
+        // walk up to the root folder, not only to the site root
+        CmsObject rootCms = OpenCms.initCmsObject(cms);
+        rootCms.getRequestContext().setSiteRoot("");
+        List<CmsProperty> properties = new ArrayList<CmsProperty>();
+        String current = cms.getRequestContext().addSiteRoot(path);
+        while (current != null) {
+            List<CmsProperty> levelProperties = rootCms.readPropertyObjects(current, false);
+            // make sure properties from lower folders "overwrite" properties from upper folders
+            levelProperties.removeAll(properties);
+            levelProperties.addAll(properties);
+            properties.clear();
+            properties.addAll(levelProperties);
+            current = CmsResource.getParentFolder(current);
+        }
+        return properties;
+    }
+}
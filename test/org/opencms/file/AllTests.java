@@ -71,6 +71,7 @@ public final class AllTests {
         suite.addTest(TestExists.suite());
         suite.addTest(TestGroupOperations.suite());
         suite.addTest(TestHistory.suite());
+        suite.addTest(TestHistoryPurge.suite());
         suite.addTest(TestLinkValidation.suite());
         suite.addTest(TestLock.suite());
         suite.addTest(TestMoveRename.suite());
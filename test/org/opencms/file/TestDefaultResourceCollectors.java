@@ -70,6 +70,7 @@ public class TestDefaultResourceCollectors extends OpenCmsTestCase {
         suite.addTest(new TestDefaultResourceCollectors("testCollectSingleFile"));
         suite.addTest(new TestDefaultResourceCollectors("testCollectAllInFolder"));
         suite.addTest(new TestDefaultResourceCollectors("testCollectAllInFolderDateReleasedDesc"));
+        suite.addTest(new TestDefaultResourceCollectors("testCollectAllInFolderDateReleasedDescLimited"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -206,4 +207,49 @@ public class TestDefaultResourceCollectors extends OpenCmsTestCase {
         res = (CmsResource)resources.get(1);
         assertEquals("/sites/default/folder1/file2", res.getRootPath());
     }
+
+    /**
+     * Tests the "allInFolderDateReleasedDesc" resource collector with a limited number of results.<p>
+     *
+     * @throws Throwable if something goes wrong
+     */
+    public void testCollectAllInFolderDateReleasedDescLimited() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        int resTypeIdPlain = CmsResourceTypePlain.getStaticTypeId();
+        echo("Testing allInFolderDateReleasedDesc resource collector with a limited number of results");
+
+        I_CmsResourceCollector collector = new CmsDefaultResourceCollector();
+
+        long day = 1000L * 60L * 60L * 24L;
+        long now = System.currentTimeMillis();
+        cms.createResource("/folder2", CmsResourceTypeFolder.getStaticTypeId());
+        for (int i = 1; i <= 5; i++) {
+            String path = "/folder2/file" + i;
+            cms.createResource(path, resTypeIdPlain, null, null);
+            cms.setDateReleased(path, now - ((10 - i) * day), false);
+        }
+        // the newest resource is expired, so it must be skipped
+        cms.setDateExpired("/folder2/file5", now - day, false);
+
+        List resources = collector.getResults(cms, "allInFolderDateReleasedDesc", "/folder2/|" + resTypeIdPlain + "|2");
+        assertEquals(2, resources.size());
+        assertEquals("/sites/default/folder2/file4", ((CmsResource)resources.get(0)).getRootPath());
+        assertEquals("/sites/default/folder2/file3", ((CmsResource)resources.get(1)).getRootPath());
+
+        // the explicit number of results overrides the count parameter
+        resources = collector.getResults(
+            cms,
+            "allInFolderDateReleasedDesc",
+            "/folder2/|" + resTypeIdPlain + "|2",
+            3);
+        assertEquals(3, resources.size());
+        assertEquals("/sites/default/folder2/file2", ((CmsResource)resources.get(2)).getRootPath());
+
+        // "allInFolder" is limited the same way, sorted descending by root path
+        resources = collector.getResults(cms, "allInFolder", "/folder2/|" + resTypeIdPlain + "|2");
+        assertEquals(2, resources.size());
+        assertEquals("/sites/default/folder2/file4", ((CmsResource)resources.get(0)).getRootPath());
+        assertEquals("/sites/default/folder2/file3", ((CmsResource)resources.get(1)).getRootPath());
+    }
 }
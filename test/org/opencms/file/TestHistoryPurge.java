@@ -0,0 +1,285 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.file;
+
+import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.file.types.CmsResourceTypePlain;
+import org.opencms.main.OpenCms;
+import org.opencms.report.CmsShellReport;
+import org.opencms.scheduler.jobs.CmsHistoryClearJob;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+import org.opencms.util.CmsUUID;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Unit tests for the bulk purge of historical versions.<p>
+ */
+public class TestHistoryPurge extends OpenCmsTestCase {
+
+    /** The folder containing the test files. */
+    private static final String FOLDER = "/historypurge/";
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestHistoryPurge(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestHistoryPurge.class.getName());
+
+        suite.addTest(new TestHistoryPurge("testPurgeKeepsDeletedVersions"));
+        suite.addTest(new TestHistoryPurge("testPurgeDeletedVersions"));
+        suite.addTest(new TestHistoryPurge("testClearJobWithBatchSize"));
+        suite.addTest(new TestHistoryPurge("testClearJobWithInvalidPause"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests the history clear job using the bulk purge with a small batch size and a pause.<p>
+     *
+     * @throws Throwable if something goes wrong
+     */
+    public void testClearJobWithBatchSize() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the history clear job with the bulk purge parameters");
+
+        String path = FOLDER + "job.txt";
+        createWithVersions(cms, path, 5);
+        assertEquals(5, cms.readAllAvailableVersions(path).size());
+        CmsUUID deletedId = cms.readResource(FOLDER + "deleted.txt", CmsResourceFilter.ALL).getStructureId();
+        int deletedVersions = countHistoryVersions(deletedId);
+
+        Map<String, String> parameters = new HashMap<String, String>();
+        parameters.put(CmsHistoryClearJob.PARAM_KEEPVERSIONS, "1");
+        parameters.put(CmsHistoryClearJob.PARAM_CLEARDELETED, "false");
+        parameters.put(CmsHistoryClearJob.PARAM_BATCHSIZE, " 1 ");
+        parameters.put(CmsHistoryClearJob.PARAM_PAUSE, "10");
+        new CmsHistoryClearJob().launch(cms, parameters);
+
+        assertEquals(1, cms.readAllAvailableVersions(path).size());
+        // the versions of deleted resources are not cleared
+        assertEquals(deletedVersions, countHistoryVersions(deletedId));
+    }
+
+    /**
+     * Tests that the history clear job rejects an invalid pause before deleting anything.<p>
+     *
+     * @throws Throwable if something goes wrong
+     */
+    public void testClearJobWithInvalidPause() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the history clear job with an invalid pause parameter");
+
+        String path = FOLDER + "invalid.txt";
+        createWithVersions(cms, path, 3);
+
+        Map<String, String> parameters = new HashMap<String, String>();
+        parameters.put(CmsHistoryClearJob.PARAM_KEEPVERSIONS, "1");
+        parameters.put(CmsHistoryClearJob.PARAM_BATCHSIZE, "10");
+        parameters.put(CmsHistoryClearJob.PARAM_PAUSE, "later");
+        try {
+            new CmsHistoryClearJob().launch(cms, parameters);
+            fail("the job accepted an invalid pause");
+        } catch (NumberFormatException e) {
+            // expected
+        }
+        assertEquals(3, cms.readAllAvailableVersions(path).size());
+    }
+
+    /**
+     * Tests that the bulk purge trims the versions of deleted resources in the separate pass for deleted resources.<p>
+     *
+     * @throws Throwable if something goes wrong
+     */
+    public void testPurgeDeletedVersions() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the bulk purge of the versions of deleted resources");
+
+        CmsUUID deletedId = cms.readResource(FOLDER + "deleted.txt", CmsResourceFilter.ALL).getStructureId();
+        int deletedVersions = countHistoryVersions(deletedId);
+        assertTrue(deletedVersions > 2);
+
+        // more versions of deleted resources are kept than of existing resources
+        cms.purgeHistoricalVersions(1, 2, -1, 2, 0, new CmsShellReport(cms.getRequestContext().getLocale()));
+        int remaining = countHistoryVersions(deletedId);
+        assertTrue(remaining < deletedVersions);
+        assertTrue(remaining >= 2);
+        assertEquals(1, cms.readAllAvailableVersions(FOLDER + "kept.txt").size());
+    }
+
+    /**
+     * Tests that the bulk purge keeps the given number of versions and does not touch deleted resources
+     * if their versions are not to be cleared.<p>
+     *
+     * @throws Throwable if something goes wrong
+     */
+    public void testPurgeKeepsDeletedVersions() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that the bulk purge keeps the versions of deleted resources");
+
+        cms.createResource(FOLDER, CmsResourceTypeFolder.getStaticTypeId());
+        cms.unlockResource(FOLDER);
+        publish(cms, FOLDER);
+        String kept = FOLDER + "kept.txt";
+        String deleted = FOLDER + "deleted.txt";
+        createWithVersions(cms, kept, 5);
+        createWithVersions(cms, deleted, 5);
+        CmsUUID deletedId = cms.readResource(deleted).getStructureId();
+        cms.lockResource(deleted);
+        cms.deleteResource(deleted, CmsResource.DELETE_PRESERVE_SIBLINGS);
+        cms.unlockResource(deleted);
+        publish(cms, deleted);
+        int deletedVersions = countHistoryVersions(deletedId);
+        assertTrue(deletedVersions > 0);
+
+        cms.purgeHistoricalVersions(2, -1, -1, 3, 0, new CmsShellReport(cms.getRequestContext().getLocale()));
+
+        assertEquals(2, cms.readAllAvailableVersions(kept).size());
+        assertEquals(deletedVersions, countHistoryVersions(deletedId));
+    }
+
+    /**
+     * Counts the entries in the structure history table for the given structure id.<p>
+     *
+     * @param structureId the structure id
+     *
+     * @return the number of history entries
+     *
+     * @throws Exception if something goes wrong
+     */
+    private int countHistoryVersions(CmsUUID structureId) throws Exception {
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet res = null;
+        try {
+            conn = OpenCms.getSqlManager().getConnection(OpenCms.getSqlManager().getDefaultDbPoolName());
+            stmt = conn.prepareStatement("SELECT COUNT(*) FROM CMS_HISTORY_STRUCTURE WHERE STRUCTURE_ID=?");
+            stmt.setString(1, structureId.toString());
+            res = stmt.executeQuery();
+            res.next();
+            return res.getInt(1);
+        } finally {
+            if (res != null) {
+                res.close();
+            }
+            if (stmt != null) {
+                stmt.close();
+            }
+            if (conn != null) {
+                conn.close();
+            }
+        }
+    }
+
+    /**
+     * Creates a file and publishes it the given number of times, changing its content and title each time.<p>
+     *
+     * @param cms the CMS context
+     * @param path the path of the file
+     * @param versions the number of published versions
+     *
+     * @throws Exception if something goes wrong
+     */
+    private void createWithVersions(CmsObject cms, String path, int versions) throws Exception {
+
+        cms.createResource(path, CmsResourceTypePlain.getStaticTypeId(), "version 1".getBytes(), null);
+        cms.unlockResource(path);
+        publish(cms, path);
+        for (int i = 2; i <= versions; i++) {
+            cms.lockResource(path);
+            CmsFile file = cms.readFile(path);
+            file.setContents(("version " + i).getBytes());
+            cms.writeFile(file);
+            cms.writePropertyObject(
+                path,
+                new CmsProperty(CmsPropertyDefinition.PROPERTY_TITLE, "Title " + i, null));
+            cms.unlockResource(path);
+            publish(cms, path);
+        }
+    }
+
+    /**
+     * Publishes a resource and waits for the publish process to finish.<p>
+     *
+     * @param cms the CMS context
+     * @param path the resource to publish
+     *
+     * @throws Exception if something goes wrong
+     */
+    private void publish(CmsObject cms, String path) throws Exception {
+
+        OpenCms.getPublishManager().publishResource(cms, path);
+        OpenCms.getPublishManager().waitWhileRunning();
+    }
+}
@@ -27,12 +27,19 @@
 
 package org.opencms.file;
 
+import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.file.types.CmsResourceTypePlain;
 import org.opencms.main.CmsException;
 import org.opencms.main.OpenCms;
+import org.opencms.security.I_CmsPrincipal;
 import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
 import org.opencms.util.CmsUUID;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import junit.extensions.TestSetup;
 import junit.framework.Test;
 import junit.framework.TestSuite;
@@ -74,6 +81,7 @@ public class TestReadResource extends OpenCmsTestCase {
         suite.addTest(new TestReadResource("testReadWithResourceID"));
         suite.addTest(new TestReadResource("testReadWithWrongResourceID"));
         suite.addTest(new TestReadResource("testReadFileWithResourceID"));
+        suite.addTest(new TestReadResource("testReadResourcesWithStructureIds"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -373,4 +381,98 @@ public class TestReadResource extends OpenCmsTestCase {
 
     }
 
+    /**
+     * Test reading several resources by their structure ids.<p>
+     *
+     * @throws Throwable if something goes wrong
+     */
+    public void testReadResourcesWithStructureIds() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing reading resources by their structure ids");
+
+        // more files than the number of ids read with a single query
+        String folder = "/readbyids/";
+        int count = 510;
+        cms.createResource(folder, CmsResourceTypeFolder.getStaticTypeId());
+        List<CmsUUID> ids = new ArrayList<CmsUUID>();
+        for (int i = 0; i < count; i++) {
+            CmsResource resource = cms.createResource(
+                folder + "file" + i + ".txt",
+                CmsResourceTypePlain.getStaticTypeId());
+            ids.add(resource.getStructureId());
+        }
+        cms.unlockResource(folder);
+        OpenCms.getPublishManager().publishResource(cms, folder);
+        OpenCms.getPublishManager().waitWhileRunning();
+
+        // the result has the order of the given ids, unknown and duplicate ids are left out
+        List<CmsUUID> requestedIds = new ArrayList<CmsUUID>(ids);
+        Collections.reverse(requestedIds);
+        requestedIds.add(250, new CmsUUID());
+        requestedIds.add(ids.get(0));
+        List<CmsResource> resources = cms.readResources(requestedIds, CmsResourceFilter.DEFAULT);
+        assertEquals(count, resources.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(ids.get(count - 1 - i), resources.get(i).getStructureId());
+            assertEquals(
+                cms.getRequestContext().addSiteRoot(folder + "file" + (count - 1 - i) + ".txt"),
+                resources.get(i).getRootPath());
+        }
+        assertTrue(cms.readResources(new ArrayList<CmsUUID>(), CmsResourceFilter.DEFAULT).isEmpty());
+
+        // deleted resources are only read if the filter includes them
+        String deleted = folder + "file1.txt";
+        cms.lockResource(deleted);
+        cms.deleteResource(deleted, CmsResource.DELETE_PRESERVE_SIBLINGS);
+        cms.unlockResource(deleted);
+        assertEquals(count - 1, cms.readResources(ids, CmsResourceFilter.DEFAULT).size());
+        assertFalse(getStructureIds(cms.readResources(ids, CmsResourceFilter.DEFAULT)).contains(ids.get(1)));
+        assertEquals(count, cms.readResources(ids, CmsResourceFilter.ALL).size());
+
+        // resources outside of the time range are only read if the filter ignores it
+        String unreleased = folder + "file2.txt";
+        cms.lockResource(unreleased);
+        cms.setDateReleased(unreleased, System.currentTimeMillis() + (60 * 60 * 1000), false);
+        cms.unlockResource(unreleased);
+        List<CmsUUID> readIds = getStructureIds(cms.readResources(ids, CmsResourceFilter.DEFAULT));
+        assertEquals(count - 2, readIds.size());
+        assertFalse(readIds.contains(ids.get(2)));
+        readIds = getStructureIds(cms.readResources(ids, CmsResourceFilter.IGNORE_EXPIRATION));
+        assertEquals(count - 1, readIds.size());
+        assertTrue(readIds.contains(ids.get(2)));
+
+        // resources the user can not read are left out
+        String unreadable = folder + "file3.txt";
+        cms.createUser("readByIdsUser", "secret", "", null);
+        cms.addUserToGroup("readByIdsUser", OpenCms.getDefaultUsers().getGroupUsers());
+        cms.lockResource(unreadable);
+        cms.chacc(unreadable, I_CmsPrincipal.PRINCIPAL_USER, "readByIdsUser", "-r");
+        cms.unlockResource(unreadable);
+        assertEquals(count - 2, cms.readResources(ids, CmsResourceFilter.DEFAULT).size());
+
+        CmsObject userCms = getCmsObject();
+        userCms.loginUser("readByIdsUser", "secret");
+        userCms.getRequestContext().setCurrentProject(cms.getRequestContext().getCurrentProject());
+        readIds = getStructureIds(userCms.readResources(ids, CmsResourceFilter.DEFAULT));
+        assertEquals(count - 3, readIds.size());
+        assertFalse(readIds.contains(ids.get(3)));
+        assertTrue(readIds.contains(ids.get(4)));
+    }
+
+    /**
+     * Returns the structure ids of the given resources.<p>
+     *
+     * @param resources the resources
+     *
+     * @return the structure ids
+     */
+    private List<CmsUUID> getStructureIds(List<CmsResource> resources) {
+
+        List<CmsUUID> result = new ArrayList<CmsUUID>();
+        for (CmsResource resource : resources) {
+            result.add(resource.getStructureId());
+        }
+        return result;
+    }
 }
@@ -0,0 +1,287 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.i18n;
+
+import org.opencms.file.CmsFile;
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsResource;
+import org.opencms.file.types.I_CmsResourceType;
+import org.opencms.main.CmsEvent;
+import org.opencms.main.I_CmsEventListener;
+import org.opencms.main.OpenCms;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+import org.opencms.util.CmsUUID;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the reloading of VFS message bundles.<p>
+ */
+public class TestCmsVfsBundleManager extends OpenCmsTestCase {
+
+    /** The number of full reloads done by the bundle manager of the current test, after the initial one. */
+    AtomicInteger m_fullReloads = new AtomicInteger();
+
+    /** The bundle manager of the current test. */
+    private CmsVfsBundleManager m_manager;
+
+    /** The CMS context used by the VFS bundles before the test. */
+    private CmsObject m_originalBundleCms;
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsVfsBundleManager(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsVfsBundleManager.class.getName());
+
+        suite.addTest(new TestCmsVfsBundleManager("testReloadChangedDeletedBundle"));
+        suite.addTest(new TestCmsVfsBundleManager("testReloadChangedRenamedBundle"));
+        suite.addTest(new TestCmsVfsBundleManager("testReloadChangedReplacesBundle"));
+        suite.addTest(new TestCmsVfsBundleManager("testReloadRescheduledForChangesDuringReload"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests that the bundle of a deleted bundle resource is removed.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testReloadChangedDeletedBundle() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the removal of a deleted VFS bundle");
+        CmsResource bundle = createBundle(cms, "/system/deletedbundle_de", "key=value");
+        createBundle(cms, "/system/keptbundle_de", "key=kept");
+        CmsVfsBundleManager manager = createManager(cms);
+        assertEquals("value", getMessage("deletedbundle", "key"));
+        ResourceBundle otherBundle = CmsResourceBundleLoader.getBundle("keptbundle", Locale.GERMAN);
+
+        // the new resource is removed completely when deleted in the offline project
+        cms.lockResource(bundle);
+        cms.deleteResource(cms.getSitePath(bundle), CmsResource.DELETE_PRESERVE_SIBLINGS);
+        manager.reloadChanged(Collections.singletonList(bundle.getStructureId()));
+        assertNull(getMessage("deletedbundle", "key"));
+
+        // other bundles are not flushed
+        assertSame(otherBundle, CmsResourceBundleLoader.getBundle("keptbundle", Locale.GERMAN));
+        assertEquals("kept", getMessage("keptbundle", "key"));
+    }
+
+    /**
+     * Tests that a renamed bundle resource is registered with its new name and locale only.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testReloadChangedRenamedBundle() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the reload of a renamed VFS bundle");
+        CmsResource bundle = createBundle(cms, "/system/renamedbundle_de", "key=value");
+        CmsVfsBundleManager manager = createManager(cms);
+        assertEquals("value", getMessage("renamedbundle", "key"));
+
+        cms.lockResource(bundle);
+        cms.moveResource("/system/renamedbundle_de", "/system/movedbundle_de");
+        manager.reloadChanged(Collections.singletonList(bundle.getStructureId()));
+        assertNull(getMessage("renamedbundle", "key"));
+        assertEquals("value", getMessage("movedbundle", "key"));
+    }
+
+    /**
+     * Tests that the bundle of a changed bundle resource is replaced, and that only its base name is flushed.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testReloadChangedReplacesBundle() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the replacement of a changed VFS bundle");
+        CmsResource bundle = createBundle(cms, "/system/changedbundle_de", "key=old");
+        createBundle(cms, "/system/unchangedbundle_de", "key=unchanged");
+        CmsVfsBundleManager manager = createManager(cms);
+
+        ResourceBundle changed = CmsResourceBundleLoader.getBundle("changedbundle", Locale.GERMAN);
+        ResourceBundle unchanged = CmsResourceBundleLoader.getBundle("unchangedbundle", Locale.GERMAN);
+        assertEquals("old", changed.getString("key"));
+        assertSame(changed, CmsResourceBundleLoader.getBundle("changedbundle", Locale.GERMAN));
+
+        CmsFile file = cms.readFile(bundle);
+        file.setContents("key=new".getBytes(OpenCms.getSystemInfo().getDefaultEncoding()));
+        cms.lockResource(bundle);
+        cms.writeFile(file);
+        manager.reloadChanged(Collections.singletonList(bundle.getStructureId()));
+
+        ResourceBundle reloaded = CmsResourceBundleLoader.getBundle("changedbundle", Locale.GERMAN);
+        assertNotSame(changed, reloaded);
+        assertEquals("new", reloaded.getString("key"));
+        assertSame(unchanged, CmsResourceBundleLoader.getBundle("unchangedbundle", Locale.GERMAN));
+
+        // ids of resources which are no bundles are ignored
+        manager.reloadChanged(Collections.singletonList(new CmsUUID()));
+        assertSame(reloaded, CmsResourceBundleLoader.getBundle("changedbundle", Locale.GERMAN));
+    }
+
+    /**
+     * Tests that another reload is scheduled if a reload is requested while the scheduled reload is running.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testReloadRescheduledForChangesDuringReload() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that a reload requested during a reload is not lost");
+        m_fullReloads.set(0);
+        m_originalBundleCms = CmsVfsResourceBundle.m_cms;
+        m_manager = new CmsVfsBundleManager(cms) {
+
+            @Override
+            public synchronized void reload(boolean isStartup) {
+
+                if (!isStartup && (m_fullReloads.incrementAndGet() == 1)) {
+                    // request another reload while the first scheduled one is running
+                    cmsEvent(new CmsEvent(I_CmsEventListener.EVENT_CLEAR_CACHES, new HashMap<String, Object>()));
+                }
+                super.reload(isStartup);
+            }
+        };
+        m_manager.cmsEvent(new CmsEvent(I_CmsEventListener.EVENT_CLEAR_CACHES, new HashMap<String, Object>()));
+
+        long deadline = System.currentTimeMillis() + 20000;
+        while (((m_fullReloads.get() < 2) || m_manager.isReloadScheduled())
+            && (System.currentTimeMillis() < deadline)) {
+            Thread.sleep(100);
+        }
+        assertEquals(2, m_fullReloads.get());
+        assertFalse(m_manager.isReloadScheduled());
+    }
+
+    /**
+     * @see junit.framework.TestCase#tearDown()
+     */
+    @Override
+    protected void tearDown() throws Exception {
+
+        if (m_manager != null) {
+            OpenCms.getEventManager().removeCmsEventListener(m_manager);
+            CmsVfsResourceBundle.setCmsObject(m_originalBundleCms);
+            m_manager = null;
+        }
+        super.tearDown();
+    }
+
+    /**
+     * Creates a property bundle resource.<p>
+     *
+     * @param cms the CMS context
+     * @param path the path of the bundle resource
+     * @param content the content of the bundle
+     *
+     * @return the created resource
+     *
+     * @throws Exception if something goes wrong
+     */
+    private CmsResource createBundle(CmsObject cms, String path, String content) throws Exception {
+
+        I_CmsResourceType type = OpenCms.getResourceManager().getResourceType(
+            CmsVfsBundleManager.TYPE_PROPERTIES_BUNDLE);
+        return cms.createResource(path, type, content.getBytes(OpenCms.getSystemInfo().getDefaultEncoding()), null);
+    }
+
+    /**
+     * Creates a bundle manager which has loaded all bundles from the offline project of the given context.<p>
+     *
+     * @param cms the CMS context
+     *
+     * @return the bundle manager
+     */
+    private CmsVfsBundleManager createManager(CmsObject cms) {
+
+        m_originalBundleCms = CmsVfsResourceBundle.m_cms;
+        m_manager = new CmsVfsBundleManager(cms);
+        return m_manager;
+    }
+
+    /**
+     * Gets a message from the German variant of a bundle.<p>
+     *
+     * @param baseName the base name of the bundle
+     * @param key the message key
+     *
+     * @return the message, or <code>null</code> if there is no such bundle
+     */
+    private String getMessage(String baseName, String key) {
+
+        try {
+            return CmsResourceBundleLoader.getBundle(baseName, Locale.GERMAN).getString(key);
+        } catch (MissingResourceException e) {
+            return null;
+        }
+    }
+}
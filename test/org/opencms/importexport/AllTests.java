@@ -61,6 +61,7 @@ public final class AllTests {
         suite.addTestSuite(TestCmsImport.class);
         suite.addTest(TestCmsImportExport.suite());
         suite.addTest(TestCmsImportExportNonexistentUser.suite());
+        suite.addTest(TestCmsQueuedExport.suite());
         //$JUnit-END$
         return suite;
     }
@@ -0,0 +1,317 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.importexport;
+
+import org.opencms.file.CmsFile;
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
+import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.file.types.CmsResourceTypePlain;
+import org.opencms.main.CmsException;
+import org.opencms.module.CmsModule.ExportMode;
+import org.opencms.report.CmsShellReport;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.xml.sax.SAXException;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the export of resources whose contents are read in the background.<p>
+ */
+public class TestCmsQueuedExport extends OpenCmsTestCase {
+
+    /** The folder containing the exported files. */
+    private static final String FOLDER = "/queuedexport/";
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsQueuedExport(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsQueuedExport.class.getName());
+
+        suite.addTest(new TestCmsQueuedExport("testExportKeepsOrder"));
+        suite.addTest(new TestCmsQueuedExport("testExportFileDelegate"));
+        suite.addTest(new TestCmsQueuedExport("testExportUnreadableContent"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests that files given explicitly are still passed to {@link CmsExport#exportFile(CmsFile)}.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testExportFileDelegate() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that explicitly exported files are passed to exportFile(CmsFile)");
+
+        List<String> paths = new ArrayList<String>();
+        paths.add(FOLDER + "file_000.txt");
+        paths.add(FOLDER + "file_001.txt");
+        final List<String> exported = new ArrayList<String>();
+        File zip = tempExport();
+        new CmsExport(cms, new CmsShellReport(cms.getRequestContext().getLocale())) {
+
+            @Override
+            protected void exportFile(CmsFile file) throws CmsImportExportException, SAXException, IOException {
+
+                exported.add(getCms().getSitePath(file));
+                super.exportFile(file);
+            }
+        }.exportData(createParameters(zip, paths));
+
+        assertEquals(paths, exported);
+        assertEquals(
+            new String(cms.readFile(paths.get(1)).getContents()),
+            new String(readZipEntries(zip).get("queuedexport/file_001.txt")));
+    }
+
+    /**
+     * Tests that a folder with more files than the export queue holds is exported in the order
+     * the files were found, with the correct contents, including expired files.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testExportKeepsOrder() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the order and content of a queued export");
+
+        cms.createResource(FOLDER, CmsResourceTypeFolder.getStaticTypeId());
+        int count = (CmsExport.QUEUE_SIZE * 2) + CmsExport.MAX_THREADS + 1;
+        for (int i = 0; i < count; i++) {
+            String content = "content of file " + i + " " + Collections.nCopies(i, "x");
+            cms.createResource(
+                FOLDER + String.format("file_%03d.txt", Integer.valueOf(i)),
+                CmsResourceTypePlain.getStaticTypeId(),
+                content.getBytes(),
+                null);
+        }
+        // expired files must be exported as well
+        cms.setDateExpired(FOLDER + "file_003.txt", System.currentTimeMillis() - 1000, false);
+
+        List<String> expectedNames = new ArrayList<String>();
+        for (CmsResource file : cms.getFilesInFolder(FOLDER, CmsResourceFilter.IGNORE_EXPIRATION)) {
+            expectedNames.add(cms.getSitePath(file).substring(1));
+        }
+        assertEquals(count, expectedNames.size());
+
+        File zip = tempExport();
+        List<String> paths = new ArrayList<String>();
+        paths.add(FOLDER);
+        new CmsExport(cms, new CmsShellReport(cms.getRequestContext().getLocale())).exportData(
+            createParameters(zip, paths));
+
+        List<String> names = new ArrayList<String>();
+        ZipFile zipFile = new ZipFile(zip);
+        try {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                String name = entries.nextElement().getName();
+                if (!CmsImportExportManager.EXPORT_MANIFEST.equals(name)) {
+                    names.add(name);
+                }
+            }
+        } finally {
+            zipFile.close();
+        }
+        assertEquals(expectedNames, names);
+
+        Map<String, byte[]> contents = readZipEntries(zip);
+        for (String name : expectedNames) {
+            CmsFile file = cms.readFile("/" + name, CmsResourceFilter.IGNORE_EXPIRATION);
+            assertEquals(name, new String(file.getContents()), new String(contents.get(name)));
+        }
+    }
+
+    /**
+     * Tests that a file whose content can not be read in the background makes the export fail.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testExportUnreadableContent() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing a queued export with a file whose content can not be read");
+
+        final String broken = FOLDER + "file_010.txt";
+        List<String> paths = new ArrayList<String>();
+        paths.add(FOLDER);
+        File zip = tempExport();
+        try {
+            new CmsExport(cms, new CmsShellReport(cms.getRequestContext().getLocale())) {
+
+                @Override
+                protected void exportFile(CmsResource file)
+                throws CmsImportExportException, SAXException, IOException {
+
+                    if (broken.equals(getCms().getSitePath(file))) {
+                        // the file was already listed, remove it before the content is read
+                        try {
+                            getCms().lockResource(broken);
+                            getCms().deleteResource(broken, CmsResource.DELETE_PRESERVE_SIBLINGS);
+                        } catch (CmsException e) {
+                            throw new CmsImportExportException(e.getMessageContainer(), e);
+                        }
+                    }
+                    super.exportFile(file);
+                }
+            }.exportData(createParameters(zip, paths));
+            fail("Export of a file whose content can not be read must fail");
+        } catch (CmsImportExportException e) {
+            // expected
+        }
+        assertFalse(cms.existsResource(broken));
+    }
+
+    /**
+     * Creates the parameters for an offline export of the given paths to the given file.<p>
+     *
+     * @param zip the file to export to
+     * @param paths the paths to export
+     *
+     * @return the export parameters
+     */
+    private CmsExportParameters createParameters(File zip, List<String> paths) {
+
+        return new CmsExportParameters(
+            zip.getAbsolutePath(),
+            null,
+            true,
+            false,
+            false,
+            paths,
+            false,
+            true,
+            0,
+            true,
+            false,
+            ExportMode.DEFAULT);
+    }
+
+    /**
+     * Reads the contents of all entries of the given ZIP file.<p>
+     *
+     * @param zip the ZIP file
+     *
+     * @return the contents of the entries by name
+     *
+     * @throws IOException if reading the file fails
+     */
+    private Map<String, byte[]> readZipEntries(File zip) throws IOException {
+
+        Map<String, byte[]> result = new HashMap<String, byte[]>();
+        ZipFile zipFile = new ZipFile(zip);
+        try {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                InputStream in = zipFile.getInputStream(entry);
+                try {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    byte[] buffer = new byte[4096];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, read);
+                    }
+                    result.put(entry.getName(), out.toByteArray());
+                } finally {
+                    in.close();
+                }
+            }
+        } finally {
+            zipFile.close();
+        }
+        return result;
+    }
+
+    /**
+     * Creates a temporary file for the export.<p>
+     *
+     * @return the created file
+     *
+     * @throws IOException if something goes wrong
+     */
+    private File tempExport() throws IOException {
+
+        File file = File.createTempFile("opencms-test-queuedexport_", ".zip");
+        file.deleteOnExit();
+        return file;
+    }
+}
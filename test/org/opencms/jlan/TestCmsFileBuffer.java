@@ -0,0 +1,254 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.jlan;
+
+import org.opencms.test.OpenCmsTestCase;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests the JLAN file buffer, in memory and after the contents have been moved to a temporary file.<p>
+ */
+public class TestCmsFileBuffer extends OpenCmsTestCase {
+
+    /** The spill threshold used in the tests. */
+    private static final int THRESHOLD = 64;
+
+    /** The buffer used in the test, closed after each test. */
+    private CmsFileBuffer m_buffer;
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsFileBuffer(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests that closing the buffer deletes the temporary file and empties the buffer.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testClose() throws Exception {
+
+        m_buffer = new CmsFileBuffer(THRESHOLD);
+        m_buffer.init(createData(THRESHOLD * 2, 1));
+        assertTrue(m_buffer.isSpilled());
+
+        m_buffer.close();
+        assertFalse(m_buffer.isSpilled());
+        assertEquals(0, m_buffer.getLength());
+        assertEquals(0, m_buffer.getPosition());
+        assertEquals(-1, m_buffer.read(new byte[1], 1, 0, 0));
+
+        // the buffer can be used again
+        byte[] data = createData(10, 2);
+        m_buffer.init(data);
+        assertFalse(m_buffer.isSpilled());
+        assertTrue(Arrays.equals(data, m_buffer.getContents()));
+    }
+
+    /**
+     * Tests reads and writes at given positions after the contents have been moved to a temporary file.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testPositionalReadWrite() throws Exception {
+
+        m_buffer = new CmsFileBuffer(THRESHOLD);
+        byte[] expected = createData(THRESHOLD + 36, 3);
+        m_buffer.init(expected);
+        assertTrue(m_buffer.isSpilled());
+
+        // overwrite a part in the middle
+        byte[] patch = createData(20, 4);
+        m_buffer.seek(30);
+        m_buffer.write(patch, 5, 10);
+        System.arraycopy(patch, 5, expected, 30, 10);
+        assertEquals(30, m_buffer.getPosition());
+        assertTrue(Arrays.equals(expected, m_buffer.getContents()));
+
+        // read a part into the middle of the target array
+        byte[] target = new byte[40];
+        assertEquals(20, m_buffer.read(target, 20, 10, 25));
+        assertTrue(Arrays.equals(Arrays.copyOfRange(expected, 25, 45), Arrays.copyOfRange(target, 10, 30)));
+
+        // reading beyond the end returns the remaining bytes, then -1
+        assertEquals(10, m_buffer.read(target, 40, 0, expected.length - 10));
+        assertEquals(-1, m_buffer.read(target, 40, 0, expected.length));
+
+        // writing behind the end fills the gap with zeros
+        m_buffer.seek(expected.length + 10);
+        m_buffer.write(patch);
+        byte[] extended = Arrays.copyOf(expected, expected.length + 10 + patch.length);
+        System.arraycopy(patch, 0, extended, expected.length + 10, patch.length);
+        assertEquals(extended.length, m_buffer.getLength());
+        assertTrue(Arrays.equals(extended, m_buffer.getContents()));
+    }
+
+    /**
+     * Tests random operations against a buffer which keeps its contents in memory.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testRandomOperations() throws Exception {
+
+        CmsFileBuffer memory = new CmsFileBuffer(Integer.MAX_VALUE);
+        m_buffer = new CmsFileBuffer(THRESHOLD);
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            int op = random.nextInt(3);
+            if (op == 0) {
+                long position = random.nextInt(THRESHOLD * 3);
+                byte[] data = createData(random.nextInt(THRESHOLD), random.nextInt());
+                memory.seek(position);
+                memory.write(data);
+                m_buffer.seek(position);
+                m_buffer.write(data);
+            } else if (op == 1) {
+                long size = random.nextInt(THRESHOLD * 3);
+                memory.truncate(size);
+                m_buffer.truncate(size);
+            } else {
+                long offset = random.nextInt(THRESHOLD * 3);
+                int length = random.nextInt(THRESHOLD);
+                byte[] expected = new byte[length + 5];
+                byte[] actual = new byte[length + 5];
+                assertEquals(memory.read(expected, length, 5, offset), m_buffer.read(actual, length, 5, offset));
+                assertTrue(Arrays.equals(expected, actual));
+            }
+            assertEquals(memory.getLength(), m_buffer.getLength());
+            assertEquals(memory.getPosition(), m_buffer.getPosition());
+        }
+        assertTrue(m_buffer.isSpilled());
+        assertFalse(memory.isSpilled());
+        assertTrue(Arrays.equals(memory.getContents(), m_buffer.getContents()));
+    }
+
+    /**
+     * Tests that the contents are moved to a temporary file once they grow beyond the threshold.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testSpillToDisk() throws Exception {
+
+        m_buffer = new CmsFileBuffer(THRESHOLD);
+        byte[] data = createData(THRESHOLD, 5);
+        m_buffer.init(data);
+        assertFalse(m_buffer.isSpilled());
+        assertTrue(Arrays.equals(data, m_buffer.getContents()));
+
+        byte[] more = createData(10, 6);
+        m_buffer.seek(THRESHOLD);
+        m_buffer.write(more);
+        assertTrue(m_buffer.isSpilled());
+        assertEquals(THRESHOLD + 10, m_buffer.getLength());
+        byte[] expected = Arrays.copyOf(data, THRESHOLD + 10);
+        System.arraycopy(more, 0, expected, THRESHOLD, 10);
+        assertTrue(Arrays.equals(expected, m_buffer.getContents()));
+
+        // shrinking the contents below the threshold keeps the temporary file
+        m_buffer.truncate(10);
+        assertTrue(m_buffer.isSpilled());
+        assertTrue(Arrays.equals(Arrays.copyOf(data, 10), m_buffer.getContents()));
+    }
+
+    /**
+     * Tests changing the size of the buffer, in memory and in the temporary file.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testTruncate() throws Exception {
+
+        m_buffer = new CmsFileBuffer(THRESHOLD);
+        byte[] data = createData(40, 7);
+        m_buffer.init(data);
+        m_buffer.seek(30);
+
+        // shrinking moves the position to the new end
+        m_buffer.truncate(20);
+        assertEquals(20, m_buffer.getLength());
+        assertEquals(20, m_buffer.getPosition());
+        assertTrue(Arrays.equals(Arrays.copyOf(data, 20), m_buffer.getContents()));
+
+        // extending fills with zeros and keeps the position
+        m_buffer.truncate(30);
+        assertFalse(m_buffer.isSpilled());
+        assertEquals(20, m_buffer.getPosition());
+        assertEquals(30, m_buffer.getLength());
+        assertTrue(Arrays.equals(Arrays.copyOf(data, 20), Arrays.copyOf(m_buffer.getContents(), 20)));
+        assertTrue(Arrays.equals(new byte[10], Arrays.copyOfRange(m_buffer.getContents(), 20, 30)));
+
+        // extending beyond the threshold moves the contents to a temporary file
+        m_buffer.truncate(THRESHOLD * 2);
+        assertTrue(m_buffer.isSpilled());
+        byte[] expected = new byte[THRESHOLD * 2];
+        System.arraycopy(data, 0, expected, 0, 20);
+        assertTrue(Arrays.equals(expected, m_buffer.getContents()));
+
+        // shrinking and extending the temporary file
+        m_buffer.truncate(15);
+        m_buffer.truncate(THRESHOLD * 3);
+        expected = new byte[THRESHOLD * 3];
+        System.arraycopy(data, 0, expected, 0, 15);
+        assertEquals(THRESHOLD * 3, m_buffer.getLength());
+        assertTrue(Arrays.equals(expected, m_buffer.getContents()));
+    }
+
+    /**
+     * @see junit.framework.TestCase#tearDown()
+     */
+    @Override
+    protected void tearDown() throws Exception {
+
+        if (m_buffer != null) {
+            m_buffer.close();
+            m_buffer = null;
+        }
+        super.tearDown();
+    }
+
+    /**
+     * Creates an array with pseudo random test data.<p>
+     *
+     * @param length the length of the array
+     * @param seed the seed for the data
+     *
+     * @return the test data
+     */
+    private byte[] createData(int length, int seed) {
+
+        byte[] result = new byte[length];
+        new Random(seed).nextBytes(result);
+        return result;
+    }
+}
@@ -0,0 +1,309 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.jsp;
+
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProject;
+import org.opencms.file.CmsProperty;
+import org.opencms.file.CmsPropertyDefinition;
+import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
+import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.file.types.CmsResourceTypePlain;
+import org.opencms.main.OpenCms;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the navigation index of the online project.<p>
+ */
+public class TestCmsJspNavIndex extends OpenCmsTestCase {
+
+    /** The first test folder. */
+    private static final String FOLDER_A = "/navindex/a/";
+
+    /** The second test folder. */
+    private static final String FOLDER_B = "/navindex/b/";
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsJspNavIndex(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsJspNavIndex.class.getName());
+
+        suite.addTest(new TestCmsJspNavIndex("testNavigationFromIndex"));
+        suite.addTest(new TestCmsJspNavIndex("testInvalidateOnPublish"));
+        suite.addTest(new TestCmsJspNavIndex("testInvalidateSiblingInOtherFolder"));
+        suite.addTest(new TestCmsJspNavIndex("testMaxFolders"));
+        suite.addTest(new TestCmsJspNavIndex("testElementsDoNotChangeIndex"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests that changes to the properties or the resource of a navigation element do not change the index.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testElementsDoNotChangeIndex() throws Exception {
+
+        echo("Testing that navigation elements do not share modifiable state with the navigation index");
+
+        CmsJspNavElement element = new CmsJspNavBuilder(getOnlineCmsObject()).getNavigationForFolder(
+            FOLDER_A).get(0);
+        String navText = element.getNavText();
+        long dateLastModified = element.getResource().getDateLastModified();
+        try {
+            // with a locale, the element returns its own map of localized properties which may be modified
+            element.getProperties().put(CmsPropertyDefinition.PROPERTY_NAVTEXT, "changed");
+        } catch (UnsupportedOperationException e) {
+            // expected for the shared properties without a locale
+        }
+        element.getResource().setDateLastModified(dateLastModified + 1000);
+
+        element = new CmsJspNavBuilder(getOnlineCmsObject()).getNavigationForFolder(FOLDER_A).get(0);
+        assertEquals(navText, element.getNavText());
+        assertEquals(dateLastModified, element.getResource().getDateLastModified());
+    }
+
+    /**
+     * Tests that publishing a changed resource updates the navigation of its folder.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testInvalidateOnPublish() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that publishing a resource updates the navigation of its folder");
+
+        assertEquals("[Page 2, Page 1]", getNavTexts(FOLDER_A).toString());
+
+        String path = FOLDER_A + "page1.txt";
+        cms.lockResource(path);
+        cms.writePropertyObject(path, new CmsProperty(CmsPropertyDefinition.PROPERTY_NAVTEXT, "Page 1 changed", null));
+        cms.writePropertyObject(path, new CmsProperty(CmsPropertyDefinition.PROPERTY_NAVPOS, "0", null));
+        cms.unlockResource(path);
+        publish(cms, path);
+
+        assertEquals("[Page 1 changed, Page 2]", getNavTexts(FOLDER_A).toString());
+    }
+
+    /**
+     * Tests that publishing a shared property of a sibling updates the navigation of the folders
+     * containing the other siblings.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testInvalidateSiblingInOtherFolder() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that publishing a sibling updates the navigation of the folders of the other siblings");
+
+        String path = FOLDER_A + "shared.txt";
+        List<CmsProperty> properties = new ArrayList<CmsProperty>();
+        properties.add(new CmsProperty(CmsPropertyDefinition.PROPERTY_NAVTEXT, null, "Shared"));
+        properties.add(new CmsProperty(CmsPropertyDefinition.PROPERTY_NAVPOS, null, "5"));
+        cms.createResource(path, CmsResourceTypePlain.getStaticTypeId(), "shared".getBytes(), properties);
+        cms.copyResource(path, FOLDER_B + "shared.txt", CmsResource.COPY_AS_SIBLING);
+        cms.unlockResource(path);
+        cms.unlockResource(FOLDER_B + "shared.txt");
+        publish(cms, "/navindex/");
+
+        assertEquals("[Shared]", getNavTexts(FOLDER_B).toString());
+
+        // change the shared property through the sibling in the other folder and only publish this sibling
+        cms.lockResource(path);
+        cms.writePropertyObject(path, new CmsProperty(CmsPropertyDefinition.PROPERTY_NAVTEXT, null, "Shared changed"));
+        cms.unlockResource(path);
+        publish(cms, path);
+
+        assertEquals("[Shared changed]", getNavTexts(FOLDER_B).toString());
+    }
+
+    /**
+     * Tests that the number of folders in the index is limited.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testMaxFolders() throws Exception {
+
+        echo("Testing that the number of folders in the navigation index is limited");
+
+        CmsObject cms = getOnlineCmsObject();
+        CmsJspNavIndex index = new CmsJspNavIndex(CmsJspNavIndex.createOnlineCms(getCmsObject()), 2);
+        assertNotNull(index.getNavigationForFolder(cms, FOLDER_A, Locale.ENGLISH));
+        assertNotNull(index.getNavigationForFolder(cms, FOLDER_B, Locale.ENGLISH));
+        assertEquals(2, index.size());
+        assertNotNull(index.getNavigationForFolder(cms, "/navindex/", Locale.ENGLISH));
+        assertEquals(2, index.size());
+
+        // a removed folder is read again
+        List<CmsJspNavElement> elements = index.getNavigationForFolder(cms, FOLDER_A, Locale.ENGLISH);
+        assertEquals(3, elements.size());
+        assertEquals(2, index.size());
+    }
+
+    /**
+     * Tests that the navigation in the online project is read from the index.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testNavigationFromIndex() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the navigation from the navigation index");
+
+        cms.createResource("/navindex/", CmsResourceTypeFolder.getStaticTypeId());
+        cms.createResource(FOLDER_A, CmsResourceTypeFolder.getStaticTypeId());
+        cms.createResource(FOLDER_B, CmsResourceTypeFolder.getStaticTypeId());
+        createPage(cms, FOLDER_A + "page1.txt", "Page 1", "2");
+        createPage(cms, FOLDER_A + "page2.txt", "Page 2", "1");
+        cms.unlockResource("/navindex/");
+        publish(cms, "/navindex/");
+
+        CmsJspNavIndex index = CmsJspNavIndex.getInstance();
+        assertNotNull(index);
+        CmsObject onlineCms = getOnlineCmsObject();
+        assertTrue(index.isIndexed(onlineCms, CmsResourceFilter.DEFAULT));
+        assertFalse(index.isIndexed(cms, CmsResourceFilter.DEFAULT));
+
+        index.clear();
+        assertEquals("[Page 2, Page 1]", getNavTexts(FOLDER_A).toString());
+        assertTrue(index.size() > 0);
+        // the second call is served from the index and returns new elements
+        List<CmsJspNavElement> first = new CmsJspNavBuilder(onlineCms).getNavigationForFolder(FOLDER_A);
+        List<CmsJspNavElement> second = new CmsJspNavBuilder(onlineCms).getNavigationForFolder(FOLDER_A);
+        assertEquals(first.size(), second.size());
+        assertNotSame(first.get(0), second.get(0));
+        assertEquals(first.get(0).getResource(), second.get(0).getResource());
+    }
+
+    /**
+     * Creates a file with a navigation text and position.<p>
+     *
+     * @param cms the CMS context
+     * @param path the path of the file
+     * @param navText the navigation text
+     * @param navPos the navigation position
+     *
+     * @throws Exception if something goes wrong
+     */
+    private void createPage(CmsObject cms, String path, String navText, String navPos) throws Exception {
+
+        List<CmsProperty> properties = new ArrayList<CmsProperty>();
+        properties.add(new CmsProperty(CmsPropertyDefinition.PROPERTY_NAVTEXT, navText, null));
+        properties.add(new CmsProperty(CmsPropertyDefinition.PROPERTY_NAVPOS, navPos, null));
+        cms.createResource(path, CmsResourceTypePlain.getStaticTypeId(), navText.getBytes(), properties);
+    }
+
+    /**
+     * Returns the navigation texts of a folder in the online project.<p>
+     *
+     * @param folder the folder
+     *
+     * @return the navigation texts
+     *
+     * @throws Exception if something goes wrong
+     */
+    private List<String> getNavTexts(String folder) throws Exception {
+
+        List<String> result = new ArrayList<String>();
+        for (CmsJspNavElement element : new CmsJspNavBuilder(getOnlineCmsObject()).getNavigationForFolder(folder)) {
+            result.add(element.getNavText());
+        }
+        return result;
+    }
+
+    /**
+     * Returns a user context for the online project.<p>
+     *
+     * @return the online user context
+     *
+     * @throws Exception if something goes wrong
+     */
+    private CmsObject getOnlineCmsObject() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        cms.getRequestContext().setCurrentProject(cms.readProject(CmsProject.ONLINE_PROJECT_ID));
+        return cms;
+    }
+
+    /**
+     * Publishes a resource and waits for the publish process to finish.<p>
+     *
+     * @param cms the CMS context
+     * @param path the resource to publish
+     *
+     * @throws Exception if something goes wrong
+     */
+    private void publish(CmsObject cms, String path) throws Exception {
+
+        OpenCms.getPublishManager().publishResource(cms, path);
+        OpenCms.getPublishManager().waitWhileRunning();
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.loader;
+
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.util.CmsFileUtil;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Tests the header based image dimension probe.<p>
+ */
+public class TestCmsImageDimensionProbe extends OpenCmsTestCase {
+
+    /**
+     * Tests that the header dimensions of the test images match the decoded dimensions.<p>
+     *
+     * @throws Exception in case the test fails
+     */
+    public void testGifAndJpeg() throws Exception {
+
+        String img01 = "org/opencms/loader/img_01.jpg";
+        byte[] content = CmsFileUtil.readFile(img01);
+        assertTrue(Arrays.equals(new int[] {800, 600}, CmsImageDimensionProbe.getDimensions(content)));
+        assertEquals(
+            new CmsImageScaler(content, img01).toString(),
+            CmsImageDimensionProbe.createScaler(content, img01).toString());
+
+        String img02 = "org/opencms/loader/img_02.gif";
+        content = CmsFileUtil.readFile(img02);
+        assertTrue(Arrays.equals(new int[] {480, 643}, CmsImageDimensionProbe.getDimensions(content)));
+        assertEquals(
+            new CmsImageScaler(content, img02).toString(),
+            CmsImageDimensionProbe.createScaler(content, img02).toString());
+    }
+
+    /**
+     * Tests that broken or unknown content is not accepted.<p>
+     *
+     * @throws Exception in case the test fails
+     */
+    public void testInvalidContent() throws Exception {
+
+        assertNull(CmsImageDimensionProbe.getDimensions(null));
+        assertNull(CmsImageDimensionProbe.getDimensions("This is not an image at all".getBytes()));
+
+        // truncated JPEG header
+        byte[] content = CmsFileUtil.readFile("org/opencms/loader/img_01.jpg");
+        assertNull(CmsImageDimensionProbe.getDimensions(Arrays.copyOf(content, 20)));
+        assertFalse(CmsImageDimensionProbe.createScaler(Arrays.copyOf(content, 20), "/test.jpg").isValid());
+    }
+
+    /**
+     * Tests reading the dimensions of a PNG image.<p>
+     *
+     * @throws Exception in case the test fails
+     */
+    public void testPng() throws Exception {
+
+        BufferedImage image = new BufferedImage(123, 45, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        assertTrue(Arrays.equals(new int[] {123, 45}, CmsImageDimensionProbe.getDimensions(out.toByteArray())));
+    }
+
+    /**
+     * Tests reading the dimensions of WebP image headers.<p>
+     *
+     * @throws Exception in case the test fails
+     */
+    public void testWebp() throws Exception {
+
+        // extended format with a 1000 x 300 canvas
+        byte[] vp8x = new byte[30];
+        System.arraycopy("RIFF".getBytes(), 0, vp8x, 0, 4);
+        System.arraycopy("WEBPVP8X".getBytes(), 0, vp8x, 8, 8);
+        vp8x[24] = (byte)(999 & 0xFF);
+        vp8x[25] = (byte)(999 >> 8);
+        vp8x[27] = (byte)(299 & 0xFF);
+        vp8x[28] = (byte)(299 >> 8);
+        assertTrue(Arrays.equals(new int[] {1000, 300}, CmsImageDimensionProbe.getDimensions(vp8x)));
+
+        // lossy format with a 640 x 480 frame
+        byte[] vp8 = new byte[30];
+        System.arraycopy("RIFF".getBytes(), 0, vp8, 0, 4);
+        System.arraycopy("WEBPVP8 ".getBytes(), 0, vp8, 8, 8);
+        vp8[23] = (byte)0x9D;
+        vp8[24] = (byte)0x01;
+        vp8[25] = (byte)0x2A;
+        vp8[26] = (byte)(640 & 0xFF);
+        vp8[27] = (byte)(640 >> 8);
+        vp8[28] = (byte)(480 & 0xFF);
+        vp8[29] = (byte)(480 >> 8);
+        assertTrue(Arrays.equals(new int[] {640, 480}, CmsImageDimensionProbe.getDimensions(vp8)));
+
+        // lossless format with a 2 x 3 image
+        byte[] vp8l = new byte[30];
+        System.arraycopy("RIFF".getBytes(), 0, vp8l, 0, 4);
+        System.arraycopy("WEBPVP8L".getBytes(), 0, vp8l, 8, 8);
+        vp8l[20] = (byte)0x2F;
+        // width - 1 = 1, height - 1 = 2
+        vp8l[21] = (byte)0x01;
+        vp8l[22] = (byte)0x80;
+        assertTrue(Arrays.equals(new int[] {2, 3}, CmsImageDimensionProbe.getDimensions(vp8l)));
+    }
+}
@@ -65,6 +65,9 @@ public final class AllTests {
         suite.addTest(TestCmsShellInline.suite());
         suite.addTest(TestOpenCmsSingleton.suite());
         suite.addTest(TestCmsEvents.suite());
+        suite.addTest(new TestSuite(TestCmsEventBatch.class));
+        suite.addTest(new TestSuite(TestCmsAsyncEventQueue.class));
+        suite.addTest(new TestSuite(TestCmsConcurrentSessionStorageProvider.class));
         suite.addTest(TestCmsSystemInfo.suite());
         // $JUnit-END$
         return suite;
@@ -0,0 +1,389 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.main;
+
+import org.opencms.test.OpenCmsTestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Unit tests for the asynchronous event queues and the asynchronous event manager.<p>
+ */
+public class TestCmsAsyncEventQueue extends OpenCmsTestCase {
+
+    /**
+     * Asynchronous listener which records the ids of the events it receives.<p>
+     */
+    private static class CmsRecordingListener implements I_CmsAsyncEventListener {
+
+        /** Action executed for each received event, may be null. */
+        volatile I_CmsEventListener m_action;
+
+        /** The ids of the received events. */
+        final List<Integer> m_ids = Collections.synchronizedList(new ArrayList<Integer>());
+
+        /** The threads in which the events were received. */
+        final List<Thread> m_threads = Collections.synchronizedList(new ArrayList<Thread>());
+
+        /**
+         * @see org.opencms.main.I_CmsEventListener#cmsEvent(org.opencms.main.CmsEvent)
+         */
+        public void cmsEvent(CmsEvent event) {
+
+            m_ids.add((Integer)event.getData().get(KEY_ID));
+            m_threads.add(Thread.currentThread());
+            I_CmsEventListener action = m_action;
+            if (action != null) {
+                action.cmsEvent(event);
+            }
+        }
+    }
+
+    /** The event data key for the id of the test events. */
+    static final String KEY_ID = "id";
+
+    /** The maximum time to wait for the listener, in milliseconds. */
+    private static final long TIMEOUT = 10000;
+
+    /** The event type used in the tests. */
+    private static final int TYPE = I_CmsEventListener.EVENT_RESOURCE_MODIFIED;
+
+    /** The queue used in the test, shut down after each test. */
+    private CmsAsyncEventQueue m_queue;
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsAsyncEventQueue(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests that adding an event to a full queue blocks until the listener has processed an event.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testBlockingWhenFull() throws Exception {
+
+        CmsRecordingListener listener = new CmsRecordingListener();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        listener.m_action = blockFirstEvent(started, release);
+        m_queue = new CmsAsyncEventQueue(listener, 1);
+
+        m_queue.add(createEvent(0));
+        assertTrue(started.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        m_queue.add(createEvent(1));
+        assertEquals(1, m_queue.getSize());
+
+        Thread producer = new Thread() {
+
+            @Override
+            public void run() {
+
+                m_queue.add(createEvent(2));
+            }
+        };
+        producer.start();
+        producer.join(200);
+        assertTrue("adding to a full queue must block", producer.isAlive());
+        assertEquals(1, m_queue.getSize());
+
+        release.countDown();
+        producer.join(TIMEOUT);
+        assertFalse(producer.isAlive());
+        waitForProcessed(m_queue, 3);
+        assertEquals(list(0, 1, 2), listener.m_ids);
+    }
+
+    /**
+     * Tests that an event equal to the last waiting event is not added again.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testCoalescing() throws Exception {
+
+        CmsRecordingListener listener = new CmsRecordingListener();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        listener.m_action = blockFirstEvent(started, release);
+        m_queue = new CmsAsyncEventQueue(listener, 10);
+
+        m_queue.add(createEvent(0));
+        assertTrue(started.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        // the listener has already started processing the first event, so this one is needed
+        m_queue.add(createEvent(0));
+        m_queue.add(createEvent(1));
+        m_queue.add(createEvent(1));
+        // different type, same data
+        Map<String, Object> data = new HashMap<String, Object>();
+        data.put(KEY_ID, Integer.valueOf(1));
+        m_queue.add(new CmsEvent(I_CmsEventListener.EVENT_RESOURCE_DELETED, data));
+        m_queue.add(createEvent(0));
+        assertEquals(4, m_queue.getSize());
+        assertEquals(1, m_queue.getCoalescedCount());
+
+        release.countDown();
+        waitForProcessed(m_queue, 5);
+        assertEquals(list(0, 0, 1, 1, 0), listener.m_ids);
+        assertEquals(1, m_queue.getCoalescedCount());
+    }
+
+    /**
+     * Tests that events are delivered in the order in which they were added, in a separate thread.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testEventOrder() throws Exception {
+
+        CmsRecordingListener listener = new CmsRecordingListener();
+        m_queue = new CmsAsyncEventQueue(listener, 5);
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int i = 0; i < 50; i++) {
+            m_queue.add(createEvent(i));
+            expected.add(Integer.valueOf(i));
+        }
+        waitForProcessed(m_queue, 50);
+        assertEquals(expected, listener.m_ids);
+        assertFalse(listener.m_threads.contains(Thread.currentThread()));
+        assertEquals(0, m_queue.getCoalescedCount());
+    }
+
+    /**
+     * Tests that the event manager stops the queues of removed listeners and on shutdown.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testManagerRemoveAndShutDown() throws Exception {
+
+        CmsAsyncEventManager manager = new CmsAsyncEventManager();
+        CmsRecordingListener asyncListener = new CmsRecordingListener();
+        CmsTestEventListener syncListener = new CmsTestEventListener();
+        manager.addCmsEventListener(asyncListener);
+        manager.addCmsEventListener(syncListener);
+
+        manager.fireEvent(createEvent(0));
+        assertEquals(1, syncListener.getEvents().size());
+        assertEquals(1, manager.getQueues().size());
+        CmsAsyncEventQueue queue = manager.getQueues().get(0);
+        assertSame(asyncListener, queue.getListener());
+        waitForProcessed(queue, 1);
+
+        manager.removeCmsEventListener(asyncListener);
+        assertTrue(manager.getQueues().isEmpty());
+        assertFalse(queue.isRunning());
+        manager.fireEvent(createEvent(1));
+        assertTrue(manager.getQueues().isEmpty());
+        assertEquals(list(0), asyncListener.m_ids);
+
+        manager.addCmsEventListener(asyncListener);
+        manager.fireEvent(createEvent(2));
+        assertEquals(1, manager.getQueues().size());
+        queue = manager.getQueues().get(0);
+        waitForProcessed(queue, 1);
+
+        manager.shutDown();
+        assertTrue(manager.getQueues().isEmpty());
+        assertFalse(queue.isRunning());
+
+        // after the shutdown, events are delivered synchronously
+        manager.fireEvent(createEvent(3));
+        assertTrue(manager.getQueues().isEmpty());
+        assertEquals(list(0, 2, 3), asyncListener.m_ids);
+        assertSame(Thread.currentThread(), asyncListener.m_threads.get(2));
+        assertEquals(4, syncListener.getEvents().size());
+    }
+
+    /**
+     * Tests the statistics of the queue, and that a failing listener does not stop the queue.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testMetrics() throws Exception {
+
+        CmsRecordingListener listener = new CmsRecordingListener();
+        listener.m_action = new I_CmsEventListener() {
+
+            public void cmsEvent(CmsEvent event) {
+
+                int id = ((Integer)event.getData().get(KEY_ID)).intValue();
+                if (id == 2) {
+                    throw new RuntimeException("Test exception");
+                }
+                try {
+                    Thread.sleep(60);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        m_queue = new CmsAsyncEventQueue(listener, 10);
+        m_queue.add(createEvent(0));
+        m_queue.add(createEvent(1));
+        m_queue.add(createEvent(2));
+        m_queue.add(createEvent(3));
+        waitForProcessed(m_queue, 4);
+
+        assertEquals(list(0, 1, 2, 3), listener.m_ids);
+        assertEquals(0, m_queue.getSize());
+        assertEquals(4, m_queue.getProcessedCount());
+        assertTrue(m_queue.getMaxHandlerTime() >= 50);
+        // three of the four events took at least 60ms
+        assertTrue(m_queue.getAverageHandlerTime() >= 40);
+        assertTrue(m_queue.getAverageHandlerTime() <= m_queue.getMaxHandlerTime());
+        assertTrue(m_queue.toString().contains("processed=4"));
+        assertTrue(m_queue.isRunning());
+    }
+
+    /**
+     * Tests that events added by the listener itself are delivered immediately in the thread of the queue.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testSelfFiredEventsInline() throws Exception {
+
+        CmsRecordingListener listener = new CmsRecordingListener();
+        final AtomicBoolean deliveredInline = new AtomicBoolean();
+        listener.m_action = new I_CmsEventListener() {
+
+            public void cmsEvent(CmsEvent event) {
+
+                if (Integer.valueOf(0).equals(event.getData().get(KEY_ID))) {
+                    m_queue.add(createEvent(1));
+                    deliveredInline.set(listener.m_ids.contains(Integer.valueOf(1)));
+                }
+            }
+        };
+        m_queue = new CmsAsyncEventQueue(listener, 1);
+        m_queue.add(createEvent(0));
+        waitForProcessed(m_queue, 2);
+
+        assertTrue(deliveredInline.get());
+        assertEquals(list(0, 1), listener.m_ids);
+        assertSame(listener.m_threads.get(0), listener.m_threads.get(1));
+    }
+
+    /**
+     * @see junit.framework.TestCase#tearDown()
+     */
+    @Override
+    protected void tearDown() throws Exception {
+
+        if (m_queue != null) {
+            m_queue.shutDown();
+            m_queue = null;
+        }
+        super.tearDown();
+    }
+
+    /**
+     * Creates an action which blocks the listener while it processes the first event.<p>
+     *
+     * @param started counted down when the listener has started to process the first event
+     * @param release the listener waits for this latch while processing the first event
+     *
+     * @return the action
+     */
+    private I_CmsEventListener blockFirstEvent(final CountDownLatch started, final CountDownLatch release) {
+
+        return new I_CmsEventListener() {
+
+            private boolean m_first = true;
+
+            public void cmsEvent(CmsEvent event) {
+
+                if (m_first) {
+                    m_first = false;
+                    started.countDown();
+                    try {
+                        release.await(TIMEOUT, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Creates a test event with the given id.<p>
+     *
+     * @param id the id
+     *
+     * @return the event
+     */
+    private CmsEvent createEvent(int id) {
+
+        Map<String, Object> data = new HashMap<String, Object>();
+        data.put(KEY_ID, Integer.valueOf(id));
+        return new CmsEvent(TYPE, data);
+    }
+
+    /**
+     * Creates a list of integers.<p>
+     *
+     * @param ids the integers
+     *
+     * @return the list
+     */
+    private List<Integer> list(int... ids) {
+
+        List<Integer> result = new ArrayList<Integer>();
+        for (int id : ids) {
+            result.add(Integer.valueOf(id));
+        }
+        return result;
+    }
+
+    /**
+     * Waits until the given queue has processed at least the given number of events.<p>
+     *
+     * @param queue the queue
+     * @param count the number of events
+     *
+     * @throws InterruptedException if the thread is interrupted
+     */
+    private void waitForProcessed(CmsAsyncEventQueue queue, int count) throws InterruptedException {
+
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while ((queue.getProcessedCount() < count) && (System.currentTimeMillis() < deadline)) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, queue.getProcessedCount());
+    }
+}
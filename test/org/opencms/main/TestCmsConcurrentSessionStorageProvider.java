@@ -0,0 +1,313 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.main;
+
+import org.opencms.file.CmsProject;
+import org.opencms.file.CmsRequestContext;
+import org.opencms.file.CmsUser;
+import org.opencms.security.I_CmsPrincipal;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the concurrent session storage provider.<p>
+ */
+public class TestCmsConcurrentSessionStorageProvider extends OpenCmsTestCase {
+
+    /** The session storage provider used in the tests. */
+    private CmsConcurrentSessionStorageProvider m_provider;
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsConcurrentSessionStorageProvider(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests concurrent puts and removes for the sessions of a few users.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testConcurrentPutRemove() throws Exception {
+
+        final CmsUUID[] userIds = new CmsUUID[] {new CmsUUID(), new CmsUUID(), new CmsUUID()};
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        for (int t = 0; t < 8; t++) {
+            final int thread = t;
+            futures.add(executor.submit(new Runnable() {
+
+                public void run() {
+
+                    for (int i = 0; i < 500; i++) {
+                        CmsSessionInfo sessionInfo = createSessionInfo(userIds[(thread + i) % userIds.length], 60);
+                        m_provider.put(sessionInfo);
+                        if ((i % 2) == 0) {
+                            m_provider.remove(sessionInfo.getSessionId());
+                        }
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(8 * 250, m_provider.getSize());
+        int userSessions = 0;
+        for (CmsUUID userId : userIds) {
+            for (CmsSessionInfo sessionInfo : m_provider.getAllOfUser(userId)) {
+                assertEquals(userId, sessionInfo.getUserId());
+                assertSame(sessionInfo, m_provider.get(sessionInfo.getSessionId()));
+                userSessions++;
+            }
+        }
+        assertEquals(m_provider.getSize(), userSessions);
+    }
+
+    /**
+     * Tests that session infos with a very large or negative maximum inactive interval do not expire.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testNoExpiration() throws Exception {
+
+        CmsSessionInfo unlimited = createSessionInfo(new CmsUUID(), Integer.MAX_VALUE);
+        CmsSessionInfo negative = createSessionInfo(unlimited.getUserId(), -1);
+        CmsSessionInfo expiring = createSessionInfo(unlimited.getUserId(), 0);
+        m_provider.put(unlimited);
+        m_provider.put(negative);
+        m_provider.put(expiring);
+        assertFalse(unlimited.isExpired());
+        assertFalse(negative.isExpired());
+
+        Thread.sleep(1100);
+        m_provider.validate();
+        assertSame(unlimited, m_provider.get(unlimited.getSessionId()));
+        assertSame(negative, m_provider.get(negative.getSessionId()));
+        assertNull(m_provider.get(expiring.getSessionId()));
+        assertEquals(2, m_provider.getAllOfUser(unlimited.getUserId()).size());
+        assertEquals(1, m_provider.getExpiredCount());
+    }
+
+    /**
+     * Tests storing, reading and removing session infos.<p>
+     */
+    public void testPutGetRemove() {
+
+        CmsSessionInfo sessionInfo = createSessionInfo(new CmsUUID(), 60);
+        assertNull(m_provider.put(sessionInfo));
+        assertSame(sessionInfo, m_provider.get(sessionInfo.getSessionId()));
+        assertSame(sessionInfo, m_provider.put(sessionInfo));
+        assertEquals(1, m_provider.getSize());
+        assertEquals(1, m_provider.getAll().size());
+
+        assertSame(sessionInfo, m_provider.remove(sessionInfo.getSessionId()));
+        assertNull(m_provider.get(sessionInfo.getSessionId()));
+        assertNull(m_provider.remove(sessionInfo.getSessionId()));
+        assertEquals(0, m_provider.getSize());
+        assertTrue(m_provider.getAllOfUser(sessionInfo.getUserId()).isEmpty());
+    }
+
+    /**
+     * Tests that updating a session info defers its expiration, although its queue entry is not changed.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testUpdateDefersExpiration() throws Exception {
+
+        CmsSessionInfo sessionInfo = createSessionInfo(new CmsUUID(), 1);
+        CmsRequestContext context = createContext(sessionInfo.getUserId());
+        m_provider.put(sessionInfo);
+
+        // update the session info before it expires, the first queued deadline is 2 seconds after the creation
+        Thread.sleep(1500);
+        sessionInfo.update(context);
+        m_provider.put(sessionInfo);
+
+        // the first deadline has passed, but the updated session info is still active
+        Thread.sleep(800);
+        m_provider.validate();
+        assertSame(sessionInfo, m_provider.get(sessionInfo.getSessionId()));
+        assertEquals(0, m_provider.getExpiredCount());
+
+        // now the session info has been inactive for longer than its maximum inactive interval
+        Thread.sleep(1800);
+        m_provider.validate();
+        assertNull(m_provider.get(sessionInfo.getSessionId()));
+        assertEquals(1, m_provider.getExpiredCount());
+    }
+
+    /**
+     * Tests the index of the session infos by user.<p>
+     */
+    public void testUserIndex() {
+
+        CmsUUID user1 = new CmsUUID();
+        CmsUUID user2 = new CmsUUID();
+        CmsSessionInfo session1 = createSessionInfo(user1, 60);
+        CmsSessionInfo session2 = createSessionInfo(user1, 60);
+        CmsSessionInfo session3 = createSessionInfo(user2, 60);
+        m_provider.put(session1);
+        m_provider.put(session2);
+        m_provider.put(session3);
+
+        assertEquals(2, m_provider.getAllOfUser(user1).size());
+        assertEquals(1, m_provider.getAllOfUser(user2).size());
+        assertEquals(3, m_provider.getAllOfUser(null).size());
+        assertTrue(m_provider.getAllOfUser(new CmsUUID()).isEmpty());
+
+        // a user logging in with an existing session replaces the session info
+        CmsSessionInfo replacement = new CmsSessionInfo(createContext(user2), session1.getSessionId(), 60);
+        assertSame(session1, m_provider.put(replacement));
+        assertEquals(1, m_provider.getAllOfUser(user1).size());
+        assertSame(session2, m_provider.getAllOfUser(user1).get(0));
+        assertEquals(2, m_provider.getAllOfUser(user2).size());
+
+        m_provider.remove(session2.getSessionId());
+        assertTrue(m_provider.getAllOfUser(user1).isEmpty());
+        assertEquals(2, m_provider.getSize());
+    }
+
+    /**
+     * Tests that validation only removes expired session infos.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testValidateRemovesExpired() throws Exception {
+
+        CmsSessionInfo expiring = createSessionInfo(new CmsUUID(), 0);
+        CmsSessionInfo active = createSessionInfo(expiring.getUserId(), 60);
+        m_provider.put(expiring);
+        m_provider.put(active);
+
+        m_provider.validate();
+        assertEquals(2, m_provider.getSize());
+
+        Thread.sleep(1100);
+        m_provider.validate();
+        assertNull(m_provider.get(expiring.getSessionId()));
+        assertSame(active, m_provider.get(active.getSessionId()));
+        assertEquals(1, m_provider.getAllOfUser(expiring.getUserId()).size());
+        assertEquals(1, m_provider.getExpiredCount());
+
+        // a removed session info is not counted when its queue entry becomes due
+        CmsSessionInfo removed = createSessionInfo(new CmsUUID(), 0);
+        m_provider.put(removed);
+        m_provider.remove(removed.getSessionId());
+        Thread.sleep(1100);
+        m_provider.validate();
+        assertEquals(1, m_provider.getExpiredCount());
+    }
+
+    /**
+     * @see junit.framework.TestCase#setUp()
+     */
+    @Override
+    protected void setUp() throws Exception {
+
+        super.setUp();
+        m_provider = new CmsConcurrentSessionStorageProvider();
+        m_provider.initialize();
+    }
+
+    /**
+     * @see junit.framework.TestCase#tearDown()
+     */
+    @Override
+    protected void tearDown() throws Exception {
+
+        m_provider.shutdown();
+        super.tearDown();
+    }
+
+    /**
+     * Creates a request context for the given user.<p>
+     *
+     * @param userId the user id
+     *
+     * @return the request context
+     */
+    private CmsRequestContext createContext(CmsUUID userId) {
+
+        CmsUser user = new CmsUser(
+            userId,
+            "User" + userId,
+            "",
+            "",
+            "",
+            "",
+            0,
+            I_CmsPrincipal.FLAG_ENABLED,
+            System.currentTimeMillis(),
+            null);
+        return new CmsRequestContext(
+            user,
+            new CmsProject(),
+            "/",
+            null,
+            "",
+            false,
+            Locale.ENGLISH,
+            "UTF-8",
+            "127.0.0.1",
+            System.currentTimeMillis(),
+            null,
+            null,
+            "",
+            false);
+    }
+
+    /**
+     * Creates a session info for the given user.<p>
+     *
+     * @param userId the user id
+     * @param maxInactiveInterval the maximum inactive interval in seconds
+     *
+     * @return the session info
+     */
+    private CmsSessionInfo createSessionInfo(CmsUUID userId, int maxInactiveInterval) {
+
+        return new CmsSessionInfo(createContext(userId), new CmsUUID(), maxInactiveInterval);
+    }
+}
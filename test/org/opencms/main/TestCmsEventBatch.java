@@ -0,0 +1,350 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.main;
+
+import org.opencms.db.CmsDriverManager;
+import org.opencms.file.CmsResource;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for the event batches of the event manager.<p>
+ */
+public class TestCmsEventBatch extends OpenCmsTestCase {
+
+    /** The event manager used in the tests. */
+    private CmsEventManager m_eventManager;
+
+    /** The listener recording the delivered events. */
+    private CmsTestEventListener m_listener;
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsEventBatch(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests that the change flags of the events collected for a resource are combined and delivered.<p>
+     */
+    public void testChangeFlagsCombined() {
+
+        CmsResource a = createResource("/a.html");
+        CmsResource b = createResource("/b.html");
+        CmsResource c = createResource("/c.html");
+        try (CmsEventBatch batch = m_eventManager.startEventBatch()) {
+            fireResourceEvent(I_CmsEventListener.EVENT_RESOURCE_MODIFIED, a, CmsDriverManager.CHANGED_CONTENT);
+            fireResourceEvent(I_CmsEventListener.EVENT_RESOURCE_MODIFIED, b, CmsDriverManager.CHANGED_TIMEFRAME);
+            fireResourceEvent(I_CmsEventListener.EVENT_RESOURCE_MODIFIED, a, CmsDriverManager.CHANGED_LASTMODIFIED);
+            fireResourceEvent(I_CmsEventListener.EVENT_RESOURCE_CREATED, c, CmsDriverManager.CHANGED_RESOURCE);
+            fireResourceEvent(I_CmsEventListener.EVENT_RESOURCE_AND_PROPERTIES_MODIFIED, c);
+        }
+        List<CmsEvent> events = getEvents();
+        assertEquals(2, events.size());
+
+        // the changes of c are not known completely, so no combined flags are delivered
+        Map<String, Object> data = events.get(0).getData();
+        assertEquals(list(c), getResources(events.get(0)));
+        assertNull(data.get(I_CmsEventListener.KEY_CHANGE));
+        assertNull(data.get(I_CmsEventListener.KEY_CHANGES));
+
+        data = events.get(1).getData();
+        assertEquals(list(a, b), getResources(events.get(1)));
+        Map<?, ?> changes = (Map<?, ?>)data.get(I_CmsEventListener.KEY_CHANGES);
+        assertEquals(
+            Integer.valueOf(CmsDriverManager.CHANGED_CONTENT | CmsDriverManager.CHANGED_LASTMODIFIED),
+            changes.get(a.getStructureId()));
+        assertEquals(Integer.valueOf(CmsDriverManager.CHANGED_TIMEFRAME), changes.get(b.getStructureId()));
+        assertEquals(
+            Integer.valueOf(
+                CmsDriverManager.CHANGED_CONTENT
+                    | CmsDriverManager.CHANGED_LASTMODIFIED
+                    | CmsDriverManager.CHANGED_TIMEFRAME),
+            data.get(I_CmsEventListener.KEY_CHANGE));
+    }
+
+    /**
+     * Tests that modification events are collected and each resource is delivered only once.<p>
+     */
+    public void testCollectAndDeduplicate() {
+
+        CmsResource a = createResource("/a.html");
+        CmsResource b = createResource("/b.html");
+        try (CmsEventBatch batch = m_eventManager.startEventBatch()) {
+            fireResourceEvent(I_CmsEventListener.EVENT_RESOURCE_MODIFIED, a);
+            fireResourceEvent(I_CmsEventListener.EVENT_RESOURCE_MODIFIED, b);
+            fireResourceEvent(I_CmsEventListener.EVENT_RESOURCE_MODIFIED, a);
+            fireResourceEvent(I_CmsEventListener.EVENT_RESOURCE_CREATED, b);
+            fireResourceEvent(I_CmsEventListener.EVENT_RESOURCE_AND_PROPERTIES_MODIFIED, b);
+            assertEquals(0, getEvents().size());
+            assertEquals(3, batch.size());
+        }
+        List<CmsEvent> events = getEvents();
+        assertEquals(2, events.size());
+        assertEquals(I_CmsEventListener.EVENT_RESOURCES_AND_PROPERTIES_MODIFIED, events.get(0).getType());
+        assertEquals(list(b), getResources(events.get(0)));
+        assertEquals(I_CmsEventListener.EVENT_RESOURCES_MODIFIED, events.get(1).getType());
+        assertEquals(list(a, b), getResources(events.get(1)));
+
+        // events after the batch has been closed are delivered immediately
+        fireResourceEvent(I_CmsEventListener.EVENT_RESOURCE_MODIFIED, a);
+        assertEquals(3, getEvents().size());
+        assertEquals(I_CmsEventListener.EVENT_RESOURCE_MODIFIED, getEvents().get(2).getType());
+    }
+
+    /**
+     * Tests that the collected events are delivered before an event which can not be collected.<p>
+     */
+    public void testFlushBeforeOtherEvent() {
+
+        CmsResource a = createResource("/a.html");
+        CmsResource b = createResource("/b.html");
+        try (CmsEventBatch batch = m_eventManager.startEventBatch()) {
+            fireResourceEvent(I_CmsEventListener.EVENT_RESOURCE_MODIFIED, a);
+            fireResourceEvent(I_CmsEventListener.EVENT_RESOURCE_DELETED, b);
+            List<CmsEvent> events = getEvents();
+            assertEquals(2, events.size());
+            assertEquals(I_CmsEventListener.EVENT_RESOURCES_MODIFIED, events.get(0).getType());
+            assertEquals(list(a), getResources(events.get(0)));
+            assertEquals(I_CmsEventListener.EVENT_RESOURCE_DELETED, events.get(1).getType());
+            assertEquals(0, batch.size());
+
+            // events with additional data are not collected either
+            Map<String, Object> data = new HashMap<String, Object>();
+            data.put(I_CmsEventListener.KEY_RESOURCE, b);
+            data.put(I_CmsEventListener.KEY_PROJECTID, CmsUUID.getNullUUID());
+            m_eventManager.fireEvent(new CmsEvent(I_CmsEventListener.EVENT_RESOURCE_MODIFIED, data));
+            assertEquals(3, getEvents().size());
+        }
+        assertEquals(3, getEvents().size());
+    }
+
+    /**
+     * Tests that lock changes are delivered immediately without delivering the collected events.<p>
+     */
+    public void testLockChangePassedThrough() {
+
+        CmsResource a = createResource("/a.html");
+        CmsResource b = createResource("/b.html");
+        try (CmsEventBatch batch = m_eventManager.startEventBatch()) {
+            fireResourceEvent(I_CmsEventListener.EVENT_RESOURCE_MODIFIED, a);
+            Map<String, Object> data = new HashMap<String, Object>();
+            data.put(I_CmsEventListener.KEY_RESOURCE, b);
+            data.put(I_CmsEventListener.KEY_CHANGE, Integer.valueOf(CmsDriverManager.NOTHING_CHANGED));
+            m_eventManager.fireEvent(new CmsEvent(I_CmsEventListener.EVENT_RESOURCE_MODIFIED, data));
+            assertEquals(1, getEvents().size());
+            assertEquals(I_CmsEventListener.EVENT_RESOURCE_MODIFIED, getEvents().get(0).getType());
+            assertEquals(1, batch.size());
+        }
+        assertEquals(2, getEvents().size());
+        assertEquals(list(a), getResources(getEvents().get(1)));
+    }
+
+    /**
+     * Tests that the collected events are delivered once the maximum batch size is reached.<p>
+     */
+    public void testMaxBatchSize() {
+
+        List<CmsResource> resources = new ArrayList<CmsResource>();
+        try (CmsEventBatch batch = m_eventManager.startEventBatch()) {
+            for (int i = 0; i < CmsEventBatch.MAX_BATCH_SIZE; i++) {
+                CmsResource resource = createResource("/file" + i + ".html");
+                resources.add(resource);
+                fireResourceEvent(I_CmsEventListener.EVENT_RESOURCE_MODIFIED, resource);
+            }
+            assertEquals(1, getEvents().size());
+            assertEquals(resources, getResources(getEvents().get(0)));
+            assertEquals(0, batch.size());
+
+            fireResourceEvent(I_CmsEventListener.EVENT_RESOURCE_MODIFIED, resources.get(0));
+            assertEquals(1, getEvents().size());
+        }
+        assertEquals(2, getEvents().size());
+        assertEquals(list(resources.get(0)), getResources(getEvents().get(1)));
+    }
+
+    /**
+     * Tests that nested batches deliver the collected events when the outermost batch is closed.<p>
+     */
+    public void testNestedBatches() {
+
+        CmsResource a = createResource("/a.html");
+        CmsResource b = createResource("/b.html");
+        try (CmsEventBatch outer = m_eventManager.startEventBatch()) {
+            fireResourceEvent(I_CmsEventListener.EVENT_RESOURCE_MODIFIED, a);
+            try (CmsEventBatch inner = m_eventManager.startEventBatch()) {
+                assertSame(outer, inner);
+                fireResourceEvent(I_CmsEventListener.EVENT_RESOURCE_MODIFIED, b);
+            }
+            assertEquals(0, getEvents().size());
+            assertEquals(2, outer.size());
+        }
+        assertEquals(1, getEvents().size());
+        assertEquals(list(a, b), getResources(getEvents().get(0)));
+    }
+
+    /**
+     * Tests that changes of XML schema definitions are delivered immediately.<p>
+     */
+    public void testSchemaPassedThrough() {
+
+        CmsResource a = createResource("/a.html");
+        CmsResource schema = createResource("/schemas/type.XSD");
+        try (CmsEventBatch batch = m_eventManager.startEventBatch()) {
+            fireResourceEvent(I_CmsEventListener.EVENT_RESOURCE_MODIFIED, a);
+            fireResourceEvent(I_CmsEventListener.EVENT_RESOURCE_MODIFIED, schema);
+            List<CmsEvent> events = getEvents();
+            assertEquals(2, events.size());
+            assertEquals(list(a), getResources(events.get(0)));
+            assertEquals(I_CmsEventListener.EVENT_RESOURCE_MODIFIED, events.get(1).getType());
+            assertSame(schema, events.get(1).getData().get(I_CmsEventListener.KEY_RESOURCE));
+            assertEquals(0, batch.size());
+        }
+        assertEquals(2, getEvents().size());
+    }
+
+    /**
+     * @see junit.framework.TestCase#setUp()
+     */
+    @Override
+    protected void setUp() throws Exception {
+
+        super.setUp();
+        m_eventManager = new CmsEventManager();
+        m_listener = new CmsTestEventListener();
+        m_eventManager.addCmsEventListener(m_listener);
+    }
+
+    /**
+     * Creates a resource with the given root path.<p>
+     *
+     * @param rootPath the root path
+     *
+     * @return the resource
+     */
+    private CmsResource createResource(String rootPath) {
+
+        return new CmsResource(
+            new CmsUUID(),
+            new CmsUUID(),
+            rootPath,
+            1,
+            false,
+            0,
+            CmsUUID.getNullUUID(),
+            CmsResource.STATE_CHANGED,
+            0,
+            CmsUUID.getNullUUID(),
+            0,
+            CmsUUID.getNullUUID(),
+            CmsResource.DATE_RELEASED_DEFAULT,
+            CmsResource.DATE_EXPIRED_DEFAULT,
+            1,
+            0,
+            0,
+            0);
+    }
+
+    /**
+     * Fires an event for a single resource.<p>
+     *
+     * @param type the event type
+     * @param resource the resource
+     */
+    private void fireResourceEvent(int type, CmsResource resource) {
+
+        Map<String, Object> data = new HashMap<String, Object>();
+        data.put(I_CmsEventListener.KEY_RESOURCE, resource);
+        m_eventManager.fireEvent(new CmsEvent(type, data));
+    }
+
+    /**
+     * Fires an event for a single resource with the given change flags.<p>
+     *
+     * @param type the event type
+     * @param resource the resource
+     * @param change the change flags
+     */
+    private void fireResourceEvent(int type, CmsResource resource, int change) {
+
+        Map<String, Object> data = new HashMap<String, Object>();
+        data.put(I_CmsEventListener.KEY_RESOURCE, resource);
+        data.put(I_CmsEventListener.KEY_CHANGE, Integer.valueOf(change));
+        m_eventManager.fireEvent(new CmsEvent(type, data));
+    }
+
+    /**
+     * Returns the events delivered to the test listener.<p>
+     *
+     * @return the delivered events
+     */
+    @SuppressWarnings("unchecked")
+    private List<CmsEvent> getEvents() {
+
+        return m_listener.getEvents();
+    }
+
+    /**
+     * Returns the resources of a list event.<p>
+     *
+     * @param event the event
+     *
+     * @return the resources of the event
+     */
+    @SuppressWarnings("unchecked")
+    private List<CmsResource> getResources(CmsEvent event) {
+
+        return (List<CmsResource>)event.getData().get(I_CmsEventListener.KEY_RESOURCES);
+    }
+
+    /**
+     * Creates a list of the given resources.<p>
+     *
+     * @param resources the resources
+     *
+     * @return the list
+     */
+    private List<CmsResource> list(CmsResource... resources) {
+
+        List<CmsResource> result = new ArrayList<CmsResource>();
+        for (CmsResource resource : resources) {
+            result.add(resource);
+        }
+        return result;
+    }
+}
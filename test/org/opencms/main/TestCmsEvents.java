@@ -32,6 +32,10 @@ import org.opencms.file.CmsProject;
 import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
 import junit.extensions.TestSetup;
 import junit.framework.Test;
 import junit.framework.TestSuite;
@@ -64,6 +68,7 @@ public class TestCmsEvents extends OpenCmsTestCase {
         suite.setName(TestCmsEvents.class.getName());
 
         suite.addTest(new TestCmsEvents("testBeforeAfterPublishEvent"));
+        suite.addTest(new TestCmsEvents("testAsyncEventManagerConfigured"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -83,6 +88,37 @@ public class TestCmsEvents extends OpenCmsTestCase {
         return wrapper;
     }
 
+    /**
+     * Tests that the asynchronous event manager is configured, and delivers events to asynchronous listeners
+     * in a separate thread.<p>
+     *
+     * @throws Throwable if the test fails
+     */
+    public void testAsyncEventManagerConfigured() throws Throwable {
+
+        echo("Testing the configured asynchronous event manager");
+        assertTrue(OpenCms.getEventManager() instanceof CmsAsyncEventManager);
+
+        final CountDownLatch received = new CountDownLatch(1);
+        final AtomicReference<Thread> thread = new AtomicReference<Thread>();
+        I_CmsAsyncEventListener listener = new I_CmsAsyncEventListener() {
+
+            public void cmsEvent(CmsEvent event) {
+
+                thread.set(Thread.currentThread());
+                received.countDown();
+            }
+        };
+        OpenCms.addCmsEventListener(listener, new int[] {I_CmsEventListener.EVENT_FLEX_PURGE_JSP_REPOSITORY});
+        try {
+            OpenCms.fireCmsEvent(I_CmsEventListener.EVENT_FLEX_PURGE_JSP_REPOSITORY, null);
+            assertTrue(received.await(10, TimeUnit.SECONDS));
+            assertNotSame(Thread.currentThread(), thread.get());
+        } finally {
+            OpenCms.removeCmsEventListener(listener);
+        }
+    }
+
     /**
      * Test the before and after publish event.<p>
      *
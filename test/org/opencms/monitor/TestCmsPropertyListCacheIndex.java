@@ -0,0 +1,195 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+import org.opencms.file.CmsResource;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.util.CmsUUID;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Unit tests for the path and resource id index of the property list cache.<p>
+ */
+public class TestCmsPropertyListCacheIndex extends OpenCmsTestCase {
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsPropertyListCacheIndex(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Creates a resource with the given path for the tests.<p>
+     *
+     * @param rootPath the root path, folders end with a slash
+     * @param resourceId the resource id
+     *
+     * @return the resource
+     */
+    private static CmsResource createResource(String rootPath, CmsUUID resourceId) {
+
+        return new CmsResource(
+            new CmsUUID(),
+            resourceId,
+            rootPath,
+            0,
+            CmsResource.isFolder(rootPath),
+            0,
+            null,
+            null,
+            0,
+            null,
+            0,
+            null,
+            0,
+            0,
+            0,
+            0,
+            0,
+            0);
+    }
+
+    /**
+     * Tests that a change of a file only evicts the lists of the file and its siblings.<p>
+     */
+    public void testFileChangeEvictsSiblings() {
+
+        CmsPropertyListCacheIndex index = new CmsPropertyListCacheIndex();
+        CmsUUID resourceId = new CmsUUID();
+        CmsResource file = createResource("/sites/default/a.txt", resourceId);
+        CmsResource sibling = createResource("/sites/default/other/b.txt", resourceId);
+        CmsResource other = createResource("/sites/default/c.txt", new CmsUUID());
+
+        index.add("file+", file, true, true);
+        index.add("sibling-", sibling, false, true);
+        index.add("other+", other, true, true);
+
+        Set<String> affected = index.getAffectedKeys(file, true, false);
+        assertEquals(2, affected.size());
+        assertTrue(affected.contains("file+"));
+        assertTrue(affected.contains("sibling-"));
+    }
+
+    /**
+     * Tests that a change of a folder property evicts the inherited lists below the folder,
+     * but keeps the own lists of the children and the lists outside the folder.<p>
+     */
+    public void testFolderChangeEvictsInheritedChildren() {
+
+        CmsPropertyListCacheIndex index = new CmsPropertyListCacheIndex();
+        CmsResource folder = createResource("/sites/default/folder/", new CmsUUID());
+        CmsResource child = createResource("/sites/default/folder/child.txt", new CmsUUID());
+        CmsResource subFolder = createResource("/sites/default/folder/sub/", new CmsUUID());
+        CmsResource subChild = createResource("/sites/default/folder/sub/child.txt", new CmsUUID());
+        CmsResource sibling = createResource("/sites/default/folder2/child.txt", new CmsUUID());
+
+        index.add("folder+", folder, true, true);
+        index.add("folder-", folder, false, true);
+        index.add("child+", child, true, true);
+        index.add("child-", child, false, true);
+        index.add("sub+", subFolder, true, true);
+        index.add("subchild+", subChild, true, true);
+        index.add("subchild-", subChild, false, true);
+        index.add("sibling+", sibling, true, true);
+
+        Set<String> affected = index.getAffectedKeys(folder, true, false);
+        assertTrue(affected.contains("folder+"));
+        assertTrue(affected.contains("folder-"));
+        assertTrue(affected.contains("child+"));
+        assertTrue(affected.contains("sub+"));
+        assertTrue(affected.contains("subchild+"));
+        // the own properties of the children do not depend on the folder
+        assertFalse(affected.contains("child-"));
+        assertFalse(affected.contains("subchild-"));
+        // "/folder2/" starts with the same characters, but is not below "/folder/"
+        assertFalse(affected.contains("sibling+"));
+        assertEquals(5, affected.size());
+
+        // moving or deleting the folder affects all lists below it
+        affected = index.getAffectedKeys(folder, true, true);
+        assertTrue(affected.contains("child-"));
+        assertTrue(affected.contains("subchild-"));
+        assertFalse(affected.contains("sibling+"));
+        assertEquals(7, affected.size());
+    }
+
+    /**
+     * Tests that a change only evicts the lists read in a project with the same online state.<p>
+     */
+    public void testOnlineStateSeparation() {
+
+        CmsPropertyListCacheIndex index = new CmsPropertyListCacheIndex();
+        CmsResource folder = createResource("/sites/default/folder/", new CmsUUID());
+        CmsResource child = createResource("/sites/default/folder/child.txt", new CmsUUID());
+
+        index.add("online:child+", child, true, true);
+        index.add("offline:child+", child, true, false);
+        index.add("online:folder-", folder, false, true);
+        index.add("offline:folder-", folder, false, false);
+
+        Set<String> affected = index.getAffectedKeys(folder, false, false);
+        assertEquals(2, affected.size());
+        assertTrue(affected.contains("offline:child+"));
+        assertTrue(affected.contains("offline:folder-"));
+
+        affected = index.getAffectedKeys(folder, true, false);
+        assertEquals(2, affected.size());
+        assertTrue(affected.contains("online:child+"));
+        assertTrue(affected.contains("online:folder-"));
+    }
+
+    /**
+     * Tests that keys without a resource are evicted with every change, and that removed keys are not.<p>
+     */
+    public void testUnscopedAndRemovedKeys() {
+
+        CmsPropertyListCacheIndex index = new CmsPropertyListCacheIndex();
+        CmsResource file = createResource("/sites/default/a.txt", new CmsUUID());
+        CmsResource other = createResource("/sites/default/b.txt", new CmsUUID());
+
+        index.add("unscoped", null, true, true);
+        index.add("file+", file, true, true);
+        index.add("other+", other, true, true);
+        assertEquals(3, index.size());
+
+        Set<String> affected = index.getAffectedKeys(other, false, false);
+        assertEquals(Collections.singleton("unscoped"), affected);
+
+        index.remove("unscoped");
+        index.retainAll(Collections.singleton("other+"));
+        assertEquals(1, index.size());
+        assertTrue(index.getAffectedKeys(file, true, true).isEmpty());
+        assertEquals(Collections.singleton("other+"), index.getAffectedKeys(other, true, false));
+    }
+}
@@ -58,6 +58,7 @@ public final class AllTests {
         OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
         //$JUnit-BEGIN$
         suite.addTest(TestCategories.suite());
+        suite.addTest(TestRelationImport.suite());
         //$JUnit-END$
         return suite;
     }
@@ -0,0 +1,207 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.relations;
+
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsResource;
+import org.opencms.file.types.CmsResourceTypePlain;
+import org.opencms.main.OpenCms;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests for importing the relations of a resource at once.<p>
+ */
+public class TestRelationImport extends OpenCmsTestCase {
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestRelationImport(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestRelationImport.class.getName());
+
+        suite.addTest(new TestRelationImport("testImportRelations"));
+        suite.addTest(new TestRelationImport("testImportRelationsSkipsInvalid"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests importing several relations of a resource.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testImportRelations() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the import of the relations of a resource");
+
+        CmsResource source = createFile(cms, "/relimport_source1.txt");
+        CmsResource target1 = createFile(cms, "/relimport_target1.txt");
+        CmsResource target2 = createFile(cms, "/relimport_target2.txt");
+
+        List<CmsRelation> relations = new ArrayList<CmsRelation>();
+        relations.add(new CmsRelation(source, target1, CmsRelationType.CATEGORY));
+        relations.add(new CmsRelation(source, target2, CmsRelationType.CATEGORY));
+        relations.add(new CmsRelation(source, target2, CmsRelationType.OU_RESOURCE));
+
+        List<CmsRelation> skipped = cms.importRelations(source, relations);
+        assertTrue(skipped.isEmpty());
+
+        assertEquals(relations.size(), getImportedRelations(cms, source).size());
+        assertEquals(
+            createRelationKeys(relations),
+            createRelationKeys(getImportedRelations(cms, source)));
+        assertEquals(
+            1,
+            cms.getRelationsForResource(target1, CmsRelationFilter.SOURCES.filterNotDefinedInContent()).size());
+    }
+
+    /**
+     * Tests that invalid relations are skipped one by one, and the valid relations are still imported.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testImportRelationsSkipsInvalid() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that invalid relations are skipped when importing the relations of a resource");
+
+        CmsResource source = createFile(cms, "/relimport_source2.txt");
+        CmsResource otherSource = createFile(cms, "/relimport_source3.txt");
+        CmsResource target = createFile(cms, "/relimport_target3.txt");
+
+        CmsRelation valid = new CmsRelation(source, target, CmsRelationType.CATEGORY);
+        CmsRelation definedInContent = new CmsRelation(source, target, CmsRelationType.HYPERLINK);
+        CmsRelation foreignSource = new CmsRelation(otherSource, target, CmsRelationType.CATEGORY);
+        List<CmsRelation> relations = new ArrayList<CmsRelation>();
+        relations.add(definedInContent);
+        relations.add(valid);
+        relations.add(foreignSource);
+
+        List<CmsRelation> skipped = cms.importRelations(source, relations);
+        assertEquals(2, skipped.size());
+        assertTrue(skipped.contains(definedInContent));
+        assertTrue(skipped.contains(foreignSource));
+
+        List<CmsRelation> imported = getImportedRelations(cms, source);
+        assertEquals(1, imported.size());
+        assertEquals(valid, imported.get(0));
+        assertTrue(cms.getRelationsForResource(source, CmsRelationFilter.TARGETS.filterDefinedInContent()).isEmpty());
+        assertTrue(getImportedRelations(cms, otherSource).isEmpty());
+    }
+
+    /**
+     * Creates a plain text file.<p>
+     *
+     * @param cms the CMS context
+     * @param path the path of the file
+     *
+     * @return the created file
+     *
+     * @throws Exception if something goes wrong
+     */
+    private CmsResource createFile(CmsObject cms, String path) throws Exception {
+
+        return cms.createResource(
+            path,
+            OpenCms.getResourceManager().getResourceType(CmsResourceTypePlain.getStaticTypeName()));
+    }
+
+    /**
+     * Creates a set of keys identifying the given relations by source, target and type.<p>
+     *
+     * @param relations the relations
+     *
+     * @return the relation keys
+     */
+    private Set<String> createRelationKeys(List<CmsRelation> relations) {
+
+        Set<String> result = new HashSet<String>();
+        for (CmsRelation relation : relations) {
+            result.add(relation.getSourceId() + "|" + relation.getTargetId() + "|" + relation.getType().getName());
+        }
+        return result;
+    }
+
+    /**
+     * Returns the relations from the given resource which are not defined in the content.<p>
+     *
+     * @param cms the CMS context
+     * @param resource the source resource
+     *
+     * @return the relations
+     *
+     * @throws Exception if something goes wrong
+     */
+    private List<CmsRelation> getImportedRelations(CmsObject cms, CmsResource resource) throws Exception {
+
+        return cms.getRelationsForResource(resource, CmsRelationFilter.TARGETS.filterNotDefinedInContent());
+    }
+}
@@ -27,14 +27,21 @@
 
 package org.opencms.repository;
 
+import org.opencms.file.CmsFile;
+import org.opencms.file.CmsObject;
 import org.opencms.file.CmsProperty;
 import org.opencms.file.CmsPropertyDefinition;
+import org.opencms.file.CmsResource;
+import org.opencms.file.CmsVfsResourceAlreadyExistsException;
+import org.opencms.file.types.CmsResourceTypePlain;
 import org.opencms.main.I_CmsEventListener;
 import org.opencms.main.OpenCms;
 import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
 import org.opencms.util.CmsStringUtil;
 
+import java.io.ByteArrayInputStream;
+
 import junit.extensions.TestSetup;
 import junit.framework.Test;
 import junit.framework.TestSuite;
@@ -80,6 +87,9 @@ public class TestRepository extends OpenCmsTestCase {
             }
         };
         suite.addTest(new TestRepository("testPropertyCachingBug"));
+        suite.addTest(new TestRepository("testSaveExistingFile"));
+        suite.addTest(new TestRepository("testSaveNewFile"));
+        suite.addTest(new TestRepository("testTextMimeType"));
 
         return wrapper;
     }
@@ -104,4 +114,83 @@ public class TestRepository extends OpenCmsTestCase {
             "template-elements property should not be empty",
             !CmsStringUtil.isEmptyOrWhitespaceOnly(templateElements.getValue()));
     }
+
+    /**
+     * Tests that saving an existing file only replaces the content and keeps the values of the resource.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testSaveExistingFile() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        String path = "/webdav_save.txt";
+        cms.createResource(path, CmsResourceTypePlain.getStaticTypeId(), "old content".getBytes(), null);
+        cms.setDateReleased(path, 1000L, false);
+        cms.setDateExpired(path, Long.MAX_VALUE - 1000L, false);
+        cms.unlockResource(path);
+        CmsResource before = cms.readResource(path);
+
+        byte[] content = "the new content of the file".getBytes();
+        I_CmsRepositorySession session = OpenCms.getRepositoryManager().getRepository(
+            "standard",
+            CmsRepository.class).login("Admin", "admin");
+        session.save(path, new ByteArrayInputStream(content), true);
+
+        CmsFile after = cms.readFile(path);
+        assertEquals(new String(content), new String(after.getContents()));
+        assertEquals(content.length, after.getLength());
+        assertEquals(before.getStructureId(), after.getStructureId());
+        assertEquals(before.getTypeId(), after.getTypeId());
+        assertEquals(before.getFlags(), after.getFlags());
+        assertEquals(before.getDateCreated(), after.getDateCreated());
+        assertEquals(before.getUserCreated(), after.getUserCreated());
+        assertEquals(before.getDateReleased(), after.getDateReleased());
+        assertEquals(before.getDateExpired(), after.getDateExpired());
+        assertTrue(after.getDateContent() >= before.getDateContent());
+        // the file was not locked before, so it must be unlocked again
+        assertTrue(cms.getLock(path).isNullLock());
+        assertEquals(new String(content), new String(session.getItem(path).getContent()));
+    }
+
+    /**
+     * Tests saving a new file, and that an existing file is not overwritten if not requested.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testSaveNewFile() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        String path = "/webdav_new.txt";
+        I_CmsRepositorySession session = OpenCms.getRepositoryManager().getRepository(
+            "standard",
+            CmsRepository.class).login("Admin", "admin");
+        session.save(path, new ByteArrayInputStream("first".getBytes()), false);
+        assertEquals("first", new String(cms.readFile(path).getContents()));
+
+        try {
+            session.save(path, new ByteArrayInputStream("second".getBytes()), false);
+            fail("Saving an existing file without overwriting must fail");
+        } catch (CmsVfsResourceAlreadyExistsException e) {
+            // expected
+        }
+        assertEquals("first", new String(cms.readFile(path).getContents()));
+    }
+
+    /**
+     * Tests that only text based MIME types of repository items are extended with the content encoding.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testTextMimeType() throws Exception {
+
+        I_CmsRepositorySession session = OpenCms.getRepositoryManager().getRepository(
+            "standard",
+            CmsRepository.class).login("Admin", "admin");
+        session.save("/webdav_mime.txt", new ByteArrayInputStream("text".getBytes()), true);
+        session.save("/webdav_mime.gif", new ByteArrayInputStream("GIF89a".getBytes()), true);
+
+        String textType = session.getItem("/webdav_mime.txt").getMimeType();
+        assertTrue(textType, textType.startsWith("text/plain; charset="));
+        assertEquals("image/gif", session.getItem("/webdav_mime.gif").getMimeType());
+    }
 }
@@ -59,8 +59,10 @@ public final class AllTests {
         OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
         //$JUnit-BEGIN$
         suite.addTest(new TestSuite(TestCmsSearchUtils.class));
+        suite.addTest(new TestSuite(TestCmsLuceneIndexWriter.class));
         suite.addTest(TestCmsSearch.suite());
         suite.addTest(TestCmsSearchOffline.suite());
+        suite.addTest(TestCmsSearchConcurrency.suite());
         suite.addTest(TestCmsSearchFields.suite());
         suite.addTest(TestCmsSearchInDocuments.suite());
         suite.addTest(TestCmsSearchAdvancedFeatures.suite());
@@ -0,0 +1,217 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.search;
+
+import org.opencms.search.fields.CmsSearchField;
+import org.opencms.test.OpenCmsTestCase;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+
+/**
+ * Tests the commit handling of the Lucene index writer.<p>
+ */
+public class TestCmsLuceneIndexWriter extends OpenCmsTestCase {
+
+    /** The maximum time in milliseconds to wait for a deferred commit. */
+    private static final long MAX_WAIT = 10000;
+
+    /** The directory of the index written in the test. */
+    private Directory m_directory;
+
+    /** The executor for deferred commits. */
+    private ScheduledThreadPoolExecutor m_executor;
+
+    /** The Lucene writer used in the test. */
+    private IndexWriter m_luceneWriter;
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsLuceneIndexWriter(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests that closing the writer commits pending changes and cancels the deferred commit.<p>
+     *
+     * @throws Exception in case the test fails
+     */
+    public void testCloseCommitsPendingChanges() throws Exception {
+
+        CmsLuceneIndexWriter writer = new CmsLuceneIndexWriter(m_luceneWriter, null, 3600000, m_executor);
+        addDocument("/a");
+        writer.commit();
+        addDocument("/b");
+        writer.commit();
+        assertTrue(writer.isCommitPending());
+        assertEquals(1, getCommittedDocumentCount());
+
+        writer.close();
+        assertFalse(writer.isCommitPending());
+        assertEquals(2, getCommittedDocumentCount());
+        // the cancelled deferred commit must not be executed
+        assertEquals(0, m_executor.getQueue().size());
+    }
+
+    /**
+     * Tests that a commit requested within the commit interval is executed later.<p>
+     *
+     * @throws Exception in case the test fails
+     */
+    public void testDeferredCommit() throws Exception {
+
+        CmsLuceneIndexWriter writer = new CmsLuceneIndexWriter(m_luceneWriter, null, 500, m_executor);
+        addDocument("/a");
+        writer.commit();
+        assertEquals(1, getCommittedDocumentCount());
+
+        addDocument("/b");
+        writer.commit();
+        addDocument("/c");
+        writer.commit();
+        // both commits are combined to a single deferred commit
+        assertTrue(writer.isCommitPending());
+        assertEquals(1, m_executor.getQueue().size());
+        assertEquals(1, getCommittedDocumentCount());
+
+        long deadline = System.currentTimeMillis() + MAX_WAIT;
+        while (writer.isCommitPending() && (System.currentTimeMillis() < deadline)) {
+            Thread.sleep(50);
+        }
+        assertFalse("Deferred commit was not executed", writer.isCommitPending());
+        assertEquals(3, getCommittedDocumentCount());
+        writer.close();
+    }
+
+    /**
+     * Tests that the first commit of a writer is not deferred.<p>
+     *
+     * @throws Exception in case the test fails
+     */
+    public void testFirstCommitNotDeferred() throws Exception {
+
+        CmsLuceneIndexWriter writer = new CmsLuceneIndexWriter(m_luceneWriter, null, 3600000, m_executor);
+        addDocument("/a");
+        writer.commit();
+        assertFalse(writer.isCommitPending());
+        assertEquals(1, getCommittedDocumentCount());
+        writer.close();
+    }
+
+    /**
+     * Tests that every commit is executed if no commit interval is set or no executor is available.<p>
+     *
+     * @throws Exception in case the test fails
+     */
+    public void testImmediateCommits() throws Exception {
+
+        CmsLuceneIndexWriter writer = new CmsLuceneIndexWriter(m_luceneWriter, null, 0, m_executor);
+        addDocument("/a");
+        writer.commit();
+        addDocument("/b");
+        writer.commit();
+        assertEquals(2, getCommittedDocumentCount());
+
+        writer = new CmsLuceneIndexWriter(m_luceneWriter, null, 3600000, null);
+        addDocument("/c");
+        writer.commit();
+        addDocument("/d");
+        writer.commit();
+        assertFalse(writer.isCommitPending());
+        assertEquals(4, getCommittedDocumentCount());
+        writer.close();
+    }
+
+    /**
+     * @see junit.framework.TestCase#setUp()
+     */
+    @Override
+    protected void setUp() throws Exception {
+
+        super.setUp();
+        m_directory = new ByteBuffersDirectory();
+        m_luceneWriter = new IndexWriter(m_directory, new IndexWriterConfig());
+        m_executor = new ScheduledThreadPoolExecutor(1);
+        m_executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * @see junit.framework.TestCase#tearDown()
+     */
+    @Override
+    protected void tearDown() throws Exception {
+
+        m_executor.shutdownNow();
+        if (m_luceneWriter.isOpen()) {
+            m_luceneWriter.close();
+        }
+        m_directory.close();
+        super.tearDown();
+    }
+
+    /**
+     * Adds a document with the given path to the index, without committing it.<p>
+     *
+     * @param path the path of the document
+     *
+     * @throws Exception in case the document can not be added
+     */
+    private void addDocument(String path) throws Exception {
+
+        Document doc = new Document();
+        doc.add(new StringField(CmsSearchField.FIELD_PATH, path, Field.Store.YES));
+        m_luceneWriter.addDocument(doc);
+    }
+
+    /**
+     * Returns the number of documents committed to the index.<p>
+     *
+     * @return the number of documents committed to the index
+     *
+     * @throws Exception in case the index can not be read
+     */
+    private int getCommittedDocumentCount() throws Exception {
+
+        try (DirectoryReader reader = DirectoryReader.open(m_directory)) {
+            return reader.numDocs();
+        }
+    }
+}
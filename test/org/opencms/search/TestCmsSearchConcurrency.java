@@ -0,0 +1,269 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.search;
+
+import org.opencms.file.CmsObject;
+import org.opencms.main.OpenCms;
+import org.opencms.report.CmsShellReport;
+import org.opencms.report.I_CmsReport;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests concurrent searches on a Lucene search index.<p>
+ */
+public class TestCmsSearchConcurrency extends OpenCmsTestCase {
+
+    /** Number of searches executed by each thread. */
+    private static final int SEARCHES_PER_THREAD = 200;
+
+    /** The search queries used. */
+    private static final String[] QUERIES = {"OpenCms", "Alkacon", "+Alkacon +OpenCms", "+Alkacon +OpenCms +Text"};
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsSearchConcurrency(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsSearchConcurrency.class.getName());
+
+        suite.addTest(new TestCmsSearchConcurrency("testConcurrentSearches"));
+        suite.addTest(new TestCmsSearchConcurrency("testSearchDuringSearcherReopen"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Runs the same searches with an increasing number of threads and checks that every search
+     * returns the same results as a single search.<p>
+     *
+     * @throws Exception in case the test fails
+     */
+    public void testConcurrentSearches() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the results of concurrent searches");
+
+        CmsSearchIndex index = rebuildIndex();
+        List<List<String>> expected = getExpectedResults(cms, index);
+
+        for (int threads = 1; threads <= 8; threads *= 2) {
+            long time = runSearches(cms, index, threads, expected, null);
+            echo(
+                String.format(
+                    Locale.ENGLISH,
+                    "%d thread(s): %d searches in %d ms",
+                    Integer.valueOf(threads),
+                    Integer.valueOf(threads * SEARCHES_PER_THREAD),
+                    Long.valueOf(time)));
+        }
+    }
+
+    /**
+     * Tests that searches running while the index searcher is reopened neither fail nor block.<p>
+     *
+     * @throws Exception in case the test fails
+     */
+    public void testSearchDuringSearcherReopen() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing concurrent searches while the index searcher is reopened");
+
+        final CmsSearchIndex index = rebuildIndex();
+        List<List<String>> expected = getExpectedResults(cms, index);
+
+        final AtomicBoolean running = new AtomicBoolean(true);
+        Thread reopener = new Thread() {
+
+            @Override
+            public void run() {
+
+                while (running.get()) {
+                    index.onIndexChanged(true);
+                    Thread.yield();
+                }
+            }
+        };
+        reopener.start();
+        try {
+            runSearches(cms, index, 4, expected, running);
+        } finally {
+            running.set(false);
+            reopener.join();
+        }
+    }
+
+    /**
+     * Executes all test queries once and returns the paths of the results for each of them.<p>
+     *
+     * @param cms the current user's Cms object
+     * @param index the index to search
+     *
+     * @return the paths of the results for each test query
+     *
+     * @throws Exception in case the search fails
+     */
+    private List<List<String>> getExpectedResults(CmsObject cms, CmsSearchIndex index) throws Exception {
+
+        List<List<String>> result = new ArrayList<List<String>>(QUERIES.length);
+        for (int i = 0; i < QUERIES.length; i++) {
+            CmsSearchResultList searchResult = index.search(cms, new CmsSearchParameters(QUERIES[i]));
+            assertTrue("No results for query " + QUERIES[i], searchResult.getHitCount() > 0);
+            result.add(getPaths(searchResult));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the paths of the resources found by a search.<p>
+     *
+     * @param searchResult the search result
+     *
+     * @return the paths of the found resources
+     */
+    private List<String> getPaths(CmsSearchResultList searchResult) {
+
+        List<String> result = new ArrayList<String>(searchResult.size());
+        for (CmsSearchResult entry : searchResult) {
+            result.add(entry.getPath());
+        }
+        return result;
+    }
+
+    /**
+     * Rebuilds the offline test index and returns it.<p>
+     *
+     * @return the rebuilt index
+     *
+     * @throws Exception in case the index can not be rebuilt
+     */
+    private CmsSearchIndex rebuildIndex() throws Exception {
+
+        I_CmsReport report = new CmsShellReport(Locale.ENGLISH);
+        OpenCms.getSearchManager().rebuildIndex(TestCmsSearch.INDEX_OFFLINE, report);
+        return (CmsSearchIndex)OpenCms.getSearchManager().getIndex(TestCmsSearch.INDEX_OFFLINE);
+    }
+
+    /**
+     * Executes the test queries with the given number of threads and checks the results.<p>
+     *
+     * @param cms the current user's Cms object
+     * @param index the index to search
+     * @param threads the number of threads to use
+     * @param expected the expected result paths for each test query
+     * @param running if not <code>null</code>, set to <code>false</code> once all searches are done
+     *
+     * @return the time in milliseconds needed for all searches
+     *
+     * @throws Exception in case a search fails
+     */
+    private long runSearches(
+        final CmsObject cms,
+        final CmsSearchIndex index,
+        int threads,
+        final List<List<String>> expected,
+        AtomicBoolean running)
+    throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Void>> futures = new ArrayList<Future<Void>>(threads);
+        long time = -System.currentTimeMillis();
+        try {
+            for (int t = 0; t < threads; t++) {
+                final int offset = t;
+                futures.add(executor.submit(new Callable<Void>() {
+
+                    public Void call() throws Exception {
+
+                        CmsObject searchCms = OpenCms.initCmsObject(cms);
+                        for (int i = 0; i < SEARCHES_PER_THREAD; i++) {
+                            int q = (i + offset) % QUERIES.length;
+                            CmsSearchResultList result = index.search(searchCms, new CmsSearchParameters(QUERIES[q]));
+                            assertEquals("Unexpected results for " + QUERIES[q], expected.get(q), getPaths(result));
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                // rethrows any assertion error or exception of the search threads
+                future.get();
+            }
+        } finally {
+            time += System.currentTimeMillis();
+            if (running != null) {
+                running.set(false);
+            }
+            executor.shutdown();
+        }
+        return time;
+    }
+}
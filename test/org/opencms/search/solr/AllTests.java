@@ -124,6 +124,7 @@ public final class AllTests {
         suite.addTest(TestSolrConfiguration.suite());
         suite.addTest(TestSolrFieldConfiguration.suite());
         suite.addTest(TestSolrSearch.suite());
+        suite.addTest(TestSolrAccessControlFields.suite());
         suite.addTest(TestCmsSolrCollector.suite());
         suite.addTest(TestSolrSerialDateIndexing.suite());
         //$JUnit-END$
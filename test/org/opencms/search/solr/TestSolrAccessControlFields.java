@@ -0,0 +1,453 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.search.solr;
+
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProject;
+import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.file.types.CmsResourceTypePlain;
+import org.opencms.file.types.I_CmsResourceType;
+import org.opencms.main.OpenCms;
+import org.opencms.report.CmsShellReport;
+import org.opencms.search.CmsSearchResource;
+import org.opencms.search.I_CmsSearchIndex;
+import org.opencms.search.fields.CmsSearchField;
+import org.opencms.security.CmsAccessControlEntry;
+import org.opencms.security.CmsRole;
+import org.opencms.security.I_CmsPrincipal;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.solr.client.solrj.SolrQuery.ORDER;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the filtering of Solr search results by the indexed access control fields.<p>
+ *
+ * The results filtered by the access control fields are compared with the results checked in the VFS.<p>
+ */
+public class TestSolrAccessControlFields extends OpenCmsTestCase {
+
+    /** The folder containing the test resources. */
+    private static final String FOLDER = "/acltest/";
+
+    /** The name of the test group. */
+    private static final String GROUP = "aclGroup";
+
+    /** The number of files in each test folder. */
+    private static final int NUM_FILES = 5;
+
+    /** The name of the first test user. */
+    private static final String USER1 = "aclUser1";
+
+    /** The name of the second test user, member of the test group and with the element author role. */
+    private static final String USER2 = "aclUser2";
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestSolrAccessControlFields(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestSolrAccessControlFields.class.getName());
+
+        suite.addTest(new TestSolrAccessControlFields("testDocumentsWithoutAccessControlFields"));
+        suite.addTest(new TestSolrAccessControlFields("testUserEntry"));
+        suite.addTest(new TestSolrAccessControlFields("testGroupEntry"));
+        suite.addTest(new TestSolrAccessControlFields("testRoleEntry"));
+        suite.addTest(new TestSolrAccessControlFields("testDeniedEntry"));
+        suite.addTest(new TestSolrAccessControlFields("testAllOthersEntry"));
+        suite.addTest(new TestSolrAccessControlFields("testPaging"));
+        suite.addTest(new TestSolrAccessControlFields("testExpiredResource"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/", "/../org/opencms/search/solr");
+                // disable all lucene indexes
+                for (String indexName : OpenCms.getSearchManager().getIndexNames()) {
+                    if (!indexName.equalsIgnoreCase(AllTests.SOLR_ONLINE)) {
+                        I_CmsSearchIndex index = OpenCms.getSearchManager().getIndex(indexName);
+                        if (index != null) {
+                            index.setEnabled(false);
+                        }
+                    }
+                }
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests a folder readable by all principals without an own entry.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testAllOthersEntry() throws Exception {
+
+        echo("Testing the access control entry for all others");
+        assertReadableFiles("others", 0, NUM_FILES);
+    }
+
+    /**
+     * Tests a folder where read permission is denied for a user.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testDeniedEntry() throws Exception {
+
+        echo("Testing an access control entry denying read permission");
+        assertReadableFiles("denied", 0, NUM_FILES);
+    }
+
+    /**
+     * Creates the test resources, indexes them without the access control fields and checks that
+     * searching with the access control filter still checks the permissions of these documents.<p>
+     *
+     * Afterwards, the index is rebuilt with the access control fields for the following tests.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testDocumentsWithoutAccessControlFields() throws Exception {
+
+        echo("Testing the access control filter for documents without access control fields");
+        CmsObject cms = getAdminCms();
+        createTestResources(cms);
+
+        CmsSolrIndex index = getIndex();
+        assertFalse(index.isIndexingAcls());
+        List<String> user1Expected = searchPaths(getUserCms(USER1), null, 0, 100);
+        List<String> user2Expected = searchPaths(getUserCms(USER2), null, 0, 100);
+        assertEquals(2 * NUM_FILES, user1Expected.size());
+        assertEquals(5 * NUM_FILES, user2Expected.size());
+
+        // enable the access control fields, but keep the documents indexed without them
+        index.addConfigurationParameter(CmsSolrIndex.SOLR_SEARCH_ACL_FIELDS, "true");
+        assertTrue(index.isIndexingAcls());
+        assertEquals(user1Expected, searchPaths(getUserCms(USER1), null, 0, 100));
+        assertEquals(user2Expected, searchPaths(getUserCms(USER2), null, 0, 100));
+        assertEquals(6 * NUM_FILES, searchPaths(cms, null, 0, 100).size());
+
+        // now index the access control fields, the results must not change
+        OpenCms.getSearchManager().rebuildIndex(
+            AllTests.SOLR_ONLINE,
+            new CmsShellReport(cms.getRequestContext().getLocale()));
+        assertEquals(user1Expected, searchPaths(getUserCms(USER1), null, 0, 100));
+        assertEquals(user2Expected, searchPaths(getUserCms(USER2), null, 0, 100));
+        assertEquals(6 * NUM_FILES, searchPaths(cms, null, 0, 100).size());
+    }
+
+    /**
+     * Tests that expired resources are not found with the access control filter.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testExpiredResource() throws Exception {
+
+        echo("Testing the release and expiration dates with the access control filter");
+        CmsObject cms = getAdminCms();
+        String path = FOLDER + "open/1.txt";
+        cms.lockResource(path);
+        cms.setDateExpired(path, System.currentTimeMillis() - 1000, false);
+        cms.unlockResource(path);
+        OpenCms.getPublishManager().publishResource(cms, path);
+        OpenCms.getPublishManager().waitWhileRunning();
+
+        assertReadableFiles("open", NUM_FILES - 1, NUM_FILES - 1);
+    }
+
+    /**
+     * Tests a folder readable by the members of a group.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testGroupEntry() throws Exception {
+
+        echo("Testing an access control entry for a group");
+        assertReadableFiles("group", 0, NUM_FILES);
+    }
+
+    /**
+     * Tests that the access control filter starts at the requested page.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testPaging() throws Exception {
+
+        echo("Testing paging with the access control filter");
+        CmsObject cms = getUserCms(USER2);
+        List<String> all = searchPaths(cms, null, 0, 100);
+        assertEquals(5 * NUM_FILES, all.size());
+        assertEquals(all.subList(10, 20), searchPaths(cms, null, 10, 10));
+        assertEquals(all.subList(20, all.size()), searchPaths(cms, null, 20, 10));
+        assertEquals(0, searchPaths(cms, null, 30, 10).size());
+    }
+
+    /**
+     * Tests a folder readable by the users with a role.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testRoleEntry() throws Exception {
+
+        echo("Testing an access control entry for a role");
+        assertReadableFiles("role", 0, NUM_FILES);
+    }
+
+    /**
+     * Tests a folder readable by a single user only.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testUserEntry() throws Exception {
+
+        echo("Testing an access control entry for a user");
+        assertReadableFiles("user", NUM_FILES, 0);
+    }
+
+    /**
+     * Checks the number of files found in the given test folder, with the access control filter
+     * and with the permission check in the VFS.<p>
+     *
+     * @param folder the test folder name
+     * @param user1Count the expected number of files found by the first test user
+     * @param user2Count the expected number of files found by the second test user
+     *
+     * @throws Exception if the test fails
+     */
+    private void assertReadableFiles(String folder, int user1Count, int user2Count) throws Exception {
+
+        CmsSolrIndex index = getIndex();
+        CmsObject user1Cms = getUserCms(USER1);
+        CmsObject user2Cms = getUserCms(USER2);
+        List<String> user1Paths = searchPaths(user1Cms, folder, 0, 100);
+        List<String> user2Paths = searchPaths(user2Cms, folder, 0, 100);
+        assertEquals(user1Count, user1Paths.size());
+        assertEquals(user2Count, user2Paths.size());
+
+        // the permission check in the VFS must have the same results
+        index.addConfigurationParameter(CmsSolrIndex.SOLR_SEARCH_ACL_FIELDS, "false");
+        try {
+            assertEquals(user1Paths, searchPaths(user1Cms, folder, 0, 100));
+            assertEquals(user2Paths, searchPaths(user2Cms, folder, 0, 100));
+        } finally {
+            index.addConfigurationParameter(CmsSolrIndex.SOLR_SEARCH_ACL_FIELDS, "true");
+        }
+    }
+
+    /**
+     * Creates a test folder with some files.<p>
+     *
+     * @param cms the CMS context
+     * @param name the folder name
+     *
+     * @return the path of the folder
+     *
+     * @throws Exception if something goes wrong
+     */
+    private String createFolder(CmsObject cms, String name) throws Exception {
+
+        I_CmsResourceType folderType = OpenCms.getResourceManager().getResourceType(
+            CmsResourceTypeFolder.getStaticTypeName());
+        I_CmsResourceType plainType = OpenCms.getResourceManager().getResourceType(
+            CmsResourceTypePlain.getStaticTypeName());
+        String folder = FOLDER + name + "/";
+        cms.createResource(folder, folderType);
+        for (int i = 1; i <= NUM_FILES; i++) {
+            cms.createResource(folder + i + ".txt", plainType);
+        }
+        return folder;
+    }
+
+    /**
+     * Creates the test users, the test group and the test folders with their access control entries.<p>
+     *
+     * The test resources are published afterwards.<p>
+     *
+     * @param cms the CMS context
+     *
+     * @throws Exception if something goes wrong
+     */
+    private void createTestResources(CmsObject cms) throws Exception {
+
+        cms.createUser(USER1, "password", "Test user for access control fields", null);
+        cms.createUser(USER2, "password", "Test user for access control fields", null);
+        cms.createGroup(GROUP, "Test group for access control fields", 0, null);
+        cms.addUserToGroup(USER2, GROUP);
+        OpenCms.getRoleManager().addUserToRole(cms, CmsRole.ELEMENT_AUTHOR.forOrgUnit(""), USER2);
+
+        I_CmsResourceType folderType = OpenCms.getResourceManager().getResourceType(
+            CmsResourceTypeFolder.getStaticTypeName());
+        cms.createResource(FOLDER, folderType);
+
+        createFolder(cms, "open");
+
+        String folder = createFolder(cms, "user");
+        overwriteInheritedEntries(cms, folder);
+        cms.chacc(folder, I_CmsPrincipal.PRINCIPAL_USER, USER1, "+r+v+i");
+
+        folder = createFolder(cms, "group");
+        overwriteInheritedEntries(cms, folder);
+        cms.chacc(folder, I_CmsPrincipal.PRINCIPAL_GROUP, GROUP, "+r+v+i");
+
+        folder = createFolder(cms, "role");
+        overwriteInheritedEntries(cms, folder);
+        cms.chacc(folder, CmsRole.PRINCIPAL_ROLE, CmsRole.ELEMENT_AUTHOR.getRoleName(), "+r+v+i");
+
+        folder = createFolder(cms, "denied");
+        cms.chacc(folder, I_CmsPrincipal.PRINCIPAL_USER, USER1, "-r+i");
+
+        folder = createFolder(cms, "others");
+        overwriteInheritedEntries(cms, folder);
+        cms.chacc(folder, I_CmsPrincipal.PRINCIPAL_GROUP, CmsAccessControlEntry.PRINCIPAL_ALL_OTHERS_NAME, "+r+v+i");
+        cms.chacc(folder, I_CmsPrincipal.PRINCIPAL_USER, USER1, "+v+i");
+
+        OpenCms.getPublishManager().publishProject(cms, new CmsShellReport(cms.getRequestContext().getLocale()));
+        OpenCms.getPublishManager().waitWhileRunning();
+    }
+
+    /**
+     * Returns an Admin CMS context for the default site.<p>
+     *
+     * @return the CMS context
+     *
+     * @throws Exception if something goes wrong
+     */
+    private CmsObject getAdminCms() throws Exception {
+
+        CmsObject cms = OpenCms.initCmsObject(getCmsObject());
+        cms.getRequestContext().setSiteRoot("/sites/default/");
+        return cms;
+    }
+
+    /**
+     * Returns the online Solr index.<p>
+     *
+     * @return the online Solr index
+     */
+    private CmsSolrIndex getIndex() {
+
+        return OpenCms.getSearchManager().getIndexSolr(AllTests.SOLR_ONLINE);
+    }
+
+    /**
+     * Returns a CMS context for the given test user in the online project.<p>
+     *
+     * @param user the user name
+     *
+     * @return the CMS context
+     *
+     * @throws Exception if something goes wrong
+     */
+    private CmsObject getUserCms(String user) throws Exception {
+
+        CmsObject cms = getAdminCms();
+        cms.getRequestContext().setCurrentProject(cms.readProject(CmsProject.ONLINE_PROJECT_ID));
+        cms.loginUser(user, "password");
+        return cms;
+    }
+
+    /**
+     * Adds an entry to the given folder which overwrites all inherited access control entries.<p>
+     *
+     * @param cms the CMS context
+     * @param folder the folder
+     *
+     * @throws Exception if something goes wrong
+     */
+    private void overwriteInheritedEntries(CmsObject cms, String folder) throws Exception {
+
+        cms.chacc(
+            folder,
+            I_CmsPrincipal.PRINCIPAL_GROUP,
+            CmsAccessControlEntry.PRINCIPAL_OVERWRITE_ALL_NAME,
+            0,
+            0,
+            CmsAccessControlEntry.ACCESS_FLAGS_OVERWRITE
+                + CmsAccessControlEntry.ACCESS_FLAGS_OVERWRITE_ALL
+                + CmsAccessControlEntry.ACCESS_FLAGS_INHERIT);
+    }
+
+    /**
+     * Searches the files in the test folders and returns their root paths.<p>
+     *
+     * @param cms the CMS context of the searching user
+     * @param folder the test folder to search in, or <code>null</code> to search in all test folders
+     * @param start the index of the first result
+     * @param rows the maximal number of results
+     *
+     * @return the root paths of the files found, sorted by path
+     *
+     * @throws Exception if the search fails
+     */
+    private List<String> searchPaths(CmsObject cms, String folder, int start, int rows) throws Exception {
+
+        CmsSolrQuery query = new CmsSolrQuery(getCmsObject(), null);
+        String parent = "/sites/default" + FOLDER + (folder != null ? folder + "/" : "");
+        query.addFilterQuery(CmsSearchField.FIELD_PARENT_FOLDERS + ":\"" + parent + "\"");
+        query.addFilterQuery(CmsSearchField.FIELD_TYPE + ":" + CmsResourceTypePlain.getStaticTypeName());
+        query.setSort(CmsSearchField.FIELD_PATH, ORDER.asc);
+        query.setStart(Integer.valueOf(start));
+        query.setRows(Integer.valueOf(rows));
+        List<String> result = new ArrayList<String>();
+        for (CmsSearchResource resource : getIndex().search(cms, query)) {
+            result.add(resource.getRootPath());
+        }
+        return result;
+    }
+}
@@ -97,6 +97,8 @@ public final class AllTests {
         suite.addTest(org.opencms.flex.AllTests.suite());
         suite.addTest(org.opencms.i18n.AllTests.suite());
         suite.addTest(org.opencms.importexport.AllTests.suite());
+        suite.addTest(org.opencms.jlan.AllTests.suite());
+        suite.addTest(org.opencms.jsp.AllTests.suite());
         suite.addTest(org.opencms.jsp.decorator.AllTests.suite());
         suite.addTest(org.opencms.jsp.search.AllTests.suite());
         suite.addTest(org.opencms.jsp.search.config.AllTests.suite());
@@ -106,6 +108,7 @@ public final class AllTests {
         suite.addTest(org.opencms.mail.AllTests.suite());
         suite.addTest(org.opencms.main.AllTests.suite());
         suite.addTest(org.opencms.module.AllTests.suite());
+        suite.addTest(org.opencms.monitor.AllTests.suite());
         suite.addTest(org.opencms.notification.AllTests.suite());
         suite.addTest(org.opencms.publish.AllTests.suite());
         suite.addTest(org.opencms.relations.AllTests.suite());
@@ -119,7 +122,9 @@ public final class AllTests {
         suite.addTest(org.opencms.staticexport.AllTests.suite());
         suite.addTest(org.opencms.synchronize.AllTests.suite());
         suite.addTest(org.opencms.ui.apps.AllTests.suite());
+        suite.addTest(org.opencms.ui.components.AllTests.suite());
         suite.addTest(org.opencms.util.AllTests.suite());
+        suite.addTest(org.opencms.webdav.AllTests.suite());
         suite.addTest(org.opencms.widgets.AllTests.suite());
         suite.addTest(org.opencms.workplace.AllTests.suite());
         suite.addTest(org.opencms.xml.AllTests.suite());
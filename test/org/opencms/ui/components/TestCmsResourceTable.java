@@ -0,0 +1,329 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.ui.components;
+
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProperty;
+import org.opencms.file.CmsPropertyDefinition;
+import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
+import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.file.types.CmsResourceTypePlain;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import com.vaadin.v7.data.Property;
+import com.vaadin.v7.data.util.filter.SimpleStringFilter;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the lazy filling of the resource table items.<p>
+ */
+public class TestCmsResourceTable extends OpenCmsTestCase {
+
+    /**
+     * Resource table which records the filled items.<p>
+     */
+    static class CmsTestResourceTable extends CmsResourceTable {
+
+        /** The serial version id. */
+        private static final long serialVersionUID = 1L;
+
+        /** The ids of the filled items, in the order they were filled. */
+        List<String> m_filledIds = new ArrayList<String>();
+
+        /**
+         * Creates a new table with a name and a title column.<p>
+         */
+        CmsTestResourceTable() {
+
+            for (CmsResourceTableProperty prop : new CmsResourceTableProperty[] {
+                CmsResourceTableProperty.PROPERTY_RESOURCE_NAME,
+                CmsResourceTableProperty.PROPERTY_TITLE}) {
+                m_container.addContainerProperty(prop, prop.getColumnType(), prop.getDefaultValue());
+            }
+        }
+
+        /**
+         * @see org.opencms.ui.components.CmsResourceTable#fillItem(org.opencms.file.CmsObject, org.opencms.file.CmsResource, java.util.Locale)
+         */
+        @Override
+        protected void fillItem(CmsObject cms, CmsResource resource, Locale locale) {
+
+            m_filledIds.add(resource.getStructureId().toString());
+            super.fillItem(cms, resource, locale);
+        }
+    }
+
+    /** The folder containing the test files. */
+    private static final String FOLDER = "/resourcetable/";
+
+    /** The number of test files. */
+    private static final int NUM_FILES = 120;
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsResourceTable(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsResourceTable.class.getName());
+
+        suite.addTest(new TestCmsResourceTable("testCreateFiles"));
+        suite.addTest(new TestCmsResourceTable("testFillRequestedRows"));
+        suite.addTest(new TestCmsResourceTable("testFillRowsAfterSort"));
+        suite.addTest(new TestCmsResourceTable("testFillBeforeExposed"));
+        suite.addTest(new TestCmsResourceTable("testFillOnFilter"));
+        suite.addTest(new TestCmsResourceTable("testFillOnSort"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Creates the test files used by the other tests.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testCreateFiles() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Creating the resource table test files");
+
+        cms.createResource(FOLDER, CmsResourceTypeFolder.getStaticTypeId());
+        for (int i = 0; i < NUM_FILES; i++) {
+            String name = FOLDER + "file" + (1000 + i) + ".txt";
+            List<CmsProperty> properties = Collections.singletonList(
+                new CmsProperty(CmsPropertyDefinition.PROPERTY_TITLE, "Title " + (1000 + i), null));
+            cms.createResource(name, CmsResourceTypePlain.getStaticTypeId(), new byte[0], properties);
+        }
+        assertEquals(NUM_FILES, cms.readResources(FOLDER, CmsResourceFilter.DEFAULT_FILES).size());
+    }
+
+    /**
+     * Tests that filtering by a property which is not read from the resource fills all items.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testFillOnFilter() throws Exception {
+
+        CmsTestResourceTable table = createTable();
+        table.m_container.addContainerFilter(
+            new SimpleStringFilter(CmsResourceTableProperty.PROPERTY_RESOURCE_NAME, "file10", false, true));
+        assertEquals(0, table.m_filledIds.size());
+        table.m_container.addContainerFilter(
+            new SimpleStringFilter(CmsResourceTableProperty.PROPERTY_TITLE, "Title 100", false, true));
+        assertEquals(NUM_FILES, table.m_filledIds.size());
+        assertEquals(10, table.m_container.size());
+    }
+
+    /**
+     * Tests that sorting by a property which is not read from the resource fills all items,
+     * and sorting by a resource property does not.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testFillOnSort() throws Exception {
+
+        CmsTestResourceTable table = createTable();
+        table.m_container.sort(new Object[] {CmsResourceTableProperty.PROPERTY_RESOURCE_NAME}, new boolean[] {false});
+        assertEquals(0, table.m_filledIds.size());
+        table.m_container.sort(new Object[] {CmsResourceTableProperty.PROPERTY_TITLE}, new boolean[] {true});
+        assertEquals(NUM_FILES, table.m_filledIds.size());
+        assertEquals("Title 1000", getTitle(table, 0));
+    }
+
+    /**
+     * Tests that the properties of an item are filled before they are handed out,
+     * and that filling the displayed rows fires no value change events for them.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testFillBeforeExposed() throws Exception {
+
+        CmsTestResourceTable table = createTable();
+        table.m_container.sort(new Object[] {CmsResourceTableProperty.PROPERTY_RESOURCE_NAME}, new boolean[] {true});
+        Object itemId = table.m_container.getIdByIndex(0);
+        Property<?> title = table.m_container.getContainerProperty(itemId, CmsResourceTableProperty.PROPERTY_TITLE);
+        assertEquals(Collections.singletonList(itemId), table.m_filledIds);
+        assertEquals("Title 1000", title.getValue());
+
+        final List<Object> changes = new ArrayList<Object>();
+        ((Property.ValueChangeNotifier)title).addValueChangeListener(new Property.ValueChangeListener() {
+
+            private static final long serialVersionUID = 1L;
+
+            public void valueChange(Property.ValueChangeEvent event) {
+
+                changes.add(event.getProperty().getValue());
+            }
+        });
+        table.m_container.getItemIds(0, 50);
+        assertEquals(50, table.m_filledIds.size());
+        assertEquals(0, changes.size());
+    }
+
+    /**
+     * Tests that the rows filled follow the current sort order.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testFillRowsAfterSort() throws Exception {
+
+        CmsTestResourceTable table = createTable();
+        table.m_container.sort(new Object[] {CmsResourceTableProperty.PROPERTY_RESOURCE_NAME}, new boolean[] {true});
+        table.m_container.getItemIds(0, 50);
+        assertEquals(getIds(table, 0, 50), table.m_filledIds);
+
+        // after reversing the order, the first rows are the items which have not been filled yet
+        table.m_container.sort(new Object[] {CmsResourceTableProperty.PROPERTY_RESOURCE_NAME}, new boolean[] {false});
+        table.m_filledIds.clear();
+        table.m_container.getItemIds(0, 50);
+        assertEquals(getIds(table, 0, 50), table.m_filledIds);
+        assertEquals("Title " + (1000 + NUM_FILES - 1), getTitle(table, 0));
+    }
+
+    /**
+     * Tests that requesting the ids of rows fills exactly these rows, and accessing a single item only fills it.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testFillRequestedRows() throws Exception {
+
+        CmsTestResourceTable table = createTable();
+        table.m_container.sort(new Object[] {CmsResourceTableProperty.PROPERTY_RESOURCE_NAME}, new boolean[] {true});
+        assertEquals(0, table.m_filledIds.size());
+        assertEquals(NUM_FILES, table.m_container.size());
+
+        table.m_container.getItemIds(60, 30);
+        assertEquals(getIds(table, 60, 90), table.m_filledIds);
+        assertEquals("Title 1060", getTitle(table, 60));
+
+        // rows which have already been filled are not filled again
+        table.m_container.getItemIds(70, 20);
+        assertEquals(30, table.m_filledIds.size());
+
+        // only the pending rows of an overlapping range are filled
+        table.m_container.getItemIds(50, 20);
+        assertEquals(40, table.m_filledIds.size());
+
+        // accessing a single item only fills this item
+        table.m_container.getItem(table.m_container.getIdByIndex(100));
+        assertEquals(41, table.m_filledIds.size());
+
+        // the last range is shorter
+        table.m_container.getItemIds(110, 50);
+        assertEquals(51, table.m_filledIds.size());
+    }
+
+    /**
+     * Creates a table filled with the test files.<p>
+     *
+     * @return the table
+     *
+     * @throws Exception if something goes wrong
+     */
+    private CmsTestResourceTable createTable() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        List<CmsResource> resources = cms.readResources(FOLDER, CmsResourceFilter.DEFAULT_FILES);
+        CmsTestResourceTable table = new CmsTestResourceTable();
+        table.fillTable(cms, resources);
+        return table;
+    }
+
+    /**
+     * Returns the ids of the items in the given range of the current view.<p>
+     *
+     * @param table the table
+     * @param start the start index
+     * @param end the end index, exclusive
+     *
+     * @return the item ids
+     */
+    private List<String> getIds(CmsTestResourceTable table, int start, int end) {
+
+        List<String> result = new ArrayList<String>();
+        for (int i = start; i < Math.min(end, table.m_container.size()); i++) {
+            result.add((String)table.m_container.getIdByIndex(i));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the title of the item with the given index in the current view.<p>
+     *
+     * @param table the table
+     * @param index the index
+     *
+     * @return the title
+     */
+    private String getTitle(CmsTestResourceTable table, int index) {
+
+        Object itemId = table.m_container.getIdByIndex(index);
+        return (String)table.m_container.getItem(itemId).getItemProperty(
+            CmsResourceTableProperty.PROPERTY_TITLE).getValue();
+    }
+}
@@ -72,9 +72,11 @@ public final class AllTests {
         suite.addTest(new TestSuite(TestCmsStringUtil.class));
         suite.addTest(new TestSuite(TestCmsUriSplitter.class));
         suite.addTest(new TestSuite(TestCmsUUID.class));
+        suite.addTest(new TestSuite(TestCmsUUIDMap.class));
         suite.addTest(new TestSuite(TestCmsXmlSaxWriter.class));
         suite.addTest(new TestSuite(TestValidFilename.class));
         suite.addTest(new TestSuite(TestCmsManyToOneMap.class));
+        suite.addTest(new TestSuite(TestCmsConcurrentManyToOneMap.class));
         suite.addTest(new TestSuite(TestCmsPathMap.class));
         suite.addTest(new TestSuite(TestCmsHtmlValidator.class));
         //$JUnit-END$
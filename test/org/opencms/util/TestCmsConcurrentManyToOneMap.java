@@ -0,0 +1,108 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.util;
+
+import org.opencms.test.OpenCmsTestCase;
+
+import java.util.Collections;
+
+import com.google.common.collect.Sets;
+
+/**
+ * Tests for CmsConcurrentManyToOneMap.<p>
+ */
+public class TestCmsConcurrentManyToOneMap extends OpenCmsTestCase {
+
+    /**
+     * Test for adding entries.<p>
+     */
+    public void testAdd() {
+
+        CmsConcurrentManyToOneMap<String, String> map = new CmsConcurrentManyToOneMap<String, String>();
+        map.put("k1", "v1");
+        map.put("k2", "v1");
+        map.put("k3", "v2");
+
+        assertEquals("v1", map.get("k1"));
+        assertEquals("v1", map.get("k2"));
+        assertEquals("v2", map.get("k3"));
+        assertEquals(Sets.newHashSet("k1", "k2"), map.getKeys("v1"));
+        assertEquals(Sets.newHashSet("k3"), map.getKeys("v2"));
+        assertEquals(Collections.emptySet(), map.getKeys("xxx"));
+
+        // moving a key to another value must update the reverse index
+        map.put("k2", "v2");
+        assertEquals(Sets.newHashSet("k1"), map.getKeys("v1"));
+        assertEquals(Sets.newHashSet("k2", "k3"), map.getKeys("v2"));
+        assertEquals(3, map.size());
+    }
+
+    /**
+     * Test for removing keys and values.<p>
+     */
+    public void testRemove() {
+
+        CmsConcurrentManyToOneMap<String, String> map = new CmsConcurrentManyToOneMap<String, String>();
+        map.put("k1", "v1");
+        map.put("k2", "v1");
+        map.put("k3", "v2");
+        map.put("k4", "v2");
+
+        map.remove("k1");
+        assertEquals(null, map.get("k1"));
+        assertEquals(Sets.newHashSet("k2"), map.getKeys("v1"));
+
+        map.removeValue("v2");
+        assertEquals(null, map.get("k3"));
+        assertEquals(null, map.get("k4"));
+        assertEquals(Collections.emptySet(), map.getKeys("v2"));
+        assertEquals(1, map.size());
+    }
+
+    /**
+     * Test for replacing the keys of a value.<p>
+     */
+    public void testReplaceKeys() {
+
+        CmsConcurrentManyToOneMap<String, String> map = new CmsConcurrentManyToOneMap<String, String>();
+        map.put("k1", "v1");
+        map.put("k2", "v1");
+        map.put("k3", "v2");
+
+        map.replaceKeys("v1", Sets.newHashSet("k2", "k5"));
+        assertEquals(null, map.get("k1"));
+        assertEquals("v1", map.get("k2"));
+        assertEquals("v1", map.get("k5"));
+        assertEquals("v2", map.get("k3"));
+        assertEquals(Sets.newHashSet("k2", "k5"), map.getKeys("v1"));
+
+        map.replaceKeys("v1", Collections.<String> emptySet());
+        assertEquals(Collections.emptySet(), map.getKeys("v1"));
+        assertEquals(1, map.size());
+    }
+}
@@ -33,9 +33,11 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.InvalidObjectException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.net.URI;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
@@ -191,6 +193,51 @@ public class TestCmsUUID extends OpenCmsTestCase {
         System.out.println("Time for UUID equals() implementation for " + testSize + " UUIDs : " + time1);
     }
 
+    /**
+     * Tests that the String and byte array representations match the ones of the UUID implementation.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testUUIDRepresentations() throws Exception {
+
+        CmsUUID.init(CmsUUID.getDummyEthernetAddress());
+        for (int i = 0; i < 100; i++) {
+            CmsUUID id = new CmsUUID();
+            UUID uid = new UUID(id.toString());
+            assertEquals(uid.toString(), id.toString());
+            assertTrue(Arrays.equals(uid.toByteArray(), id.toByteArray()));
+            assertEquals(id, new CmsUUID(uid.toByteArray()));
+            assertEquals(id, new CmsUUID(id.toString().toUpperCase()));
+            assertEquals(id.hashCode(), new CmsUUID(id.toString()).hashCode());
+        }
+        CmsUUID id1 = new CmsUUID("c300ba5c-01e8-3727-b305-5dcc9ccae1ee");
+        CmsUUID id2 = new CmsUUID("c300ba5c-01e8-3727-b305-5dcc9ccae1ef");
+        assertTrue(id1.compareTo(id2) < 0);
+        assertTrue(id2.compareTo(id1) > 0);
+        assertEquals(0, id1.compareTo(new CmsUUID(id1.toString())));
+    }
+
+    /**
+     * Tests that reading serialized data which is not a UUID fails instead of resulting in the null UUID.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testUUIDDeSerializationInvalid() throws Exception {
+
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        ObjectOutputStream oout = new ObjectOutputStream(bout);
+        oout.writeObject(Integer.valueOf(42));
+        oout.close();
+        ObjectInputStream oin = new ObjectInputStream(new ByteArrayInputStream(bout.toByteArray()));
+        CmsUUID id = new CmsUUID("c300ba5c-01e8-3727-b305-5dcc9ccae1ee");
+        try {
+            id.readExternal(oin);
+            fail("Reading data which is not a UUID must fail");
+        } catch (InvalidObjectException e) {
+            // expected
+        }
+    }
+
     /**
      * Tests the {@link CmsUUID#isValidUUID(String)} method.<p>
      *
@@ -0,0 +1,156 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.util;
+
+import org.opencms.test.OpenCmsTestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests for CmsUUIDMap.<p>
+ */
+public class TestCmsUUIDMap extends OpenCmsTestCase {
+
+    /**
+     * Tests that the entries and the hash code of the map are equal to the ones of a hash map,
+     * also after the map has grown several times.<p>
+     */
+    public void testEntries() {
+
+        CmsUUIDMap<String> map = new CmsUUIDMap<String>(1);
+        Map<CmsUUID, String> expected = new HashMap<CmsUUID, String>();
+        for (int i = 0; i < 100; i++) {
+            CmsUUID id = new CmsUUID();
+            map.put(id, "v" + i);
+            expected.put(id, "v" + i);
+            if ((i % 3) == 0) {
+                map.remove(id);
+                expected.remove(id);
+            }
+        }
+        assertEquals(expected.entrySet(), map.entrySet());
+        assertEquals(map.entrySet(), expected.entrySet());
+        assertEquals(expected.hashCode(), map.hashCode());
+        for (Map.Entry<CmsUUID, String> entry : map.entrySet()) {
+            assertEquals(expected.get(entry.getKey()), entry.getValue());
+            assertSame(entry.getKey(), entry.getKey());
+        }
+    }
+
+    /**
+     * Test for adding, replacing and removing entries.<p>
+     */
+    public void testPutAndRemove() {
+
+        CmsUUID id1 = new CmsUUID();
+        CmsUUID id2 = new CmsUUID();
+        CmsUUIDMap<String> map = new CmsUUIDMap<String>();
+        assertNull(map.put(id1, "v1"));
+        assertNull(map.put(id2, "v2"));
+        assertEquals("v1", map.get(new CmsUUID(id1.toString())));
+        assertEquals("v1", map.put(id1, "v1b"));
+        assertEquals("v1b", map.get(id1));
+        assertEquals(2, map.size());
+        assertFalse(map.containsKey(CmsUUID.getNullUUID()));
+        assertFalse(map.containsKey(id1.toString()));
+
+        assertEquals("v2", map.remove(id2));
+        assertNull(map.get(id2));
+        assertNull(map.remove(id2));
+        assertEquals(1, map.size());
+    }
+
+    /**
+     * Compares the map with a hash map for a sequence of random operations, including removal while iterating.<p>
+     */
+    public void testRandomOperations() {
+
+        Random random = new Random(42);
+        List<CmsUUID> keys = new ArrayList<CmsUUID>();
+        for (int i = 0; i < 200; i++) {
+            keys.add(new CmsUUID());
+        }
+        CmsUUIDMap<Integer> map = new CmsUUIDMap<Integer>();
+        Map<CmsUUID, Integer> expected = new HashMap<CmsUUID, Integer>();
+        for (int i = 0; i < 50000; i++) {
+            CmsUUID key = keys.get(random.nextInt(keys.size()));
+            switch (random.nextInt(3)) {
+                case 0:
+                    Integer value = Integer.valueOf(random.nextInt());
+                    assertEquals(expected.put(key, value), map.put(key, value));
+                    break;
+                case 1:
+                    assertEquals(expected.remove(key), map.remove(key));
+                    break;
+                default:
+                    assertEquals(expected.get(key), map.get(key));
+            }
+            assertEquals(expected.size(), map.size());
+            if ((i % 1000) == 0) {
+                Iterator<CmsUUID> it = map.keySet().iterator();
+                while (it.hasNext()) {
+                    CmsUUID removed = it.next();
+                    if (random.nextBoolean()) {
+                        it.remove();
+                        expected.remove(removed);
+                    }
+                }
+                assertEquals(expected, map);
+            }
+        }
+        assertEquals(expected, map);
+    }
+
+    /**
+     * Test for serializing the map.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testSerialization() throws Exception {
+
+        CmsUUIDMap<String> map = new CmsUUIDMap<String>();
+        for (int i = 0; i < 20; i++) {
+            map.put(new CmsUUID(), "v" + i);
+        }
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        ObjectOutputStream oout = new ObjectOutputStream(bout);
+        oout.writeObject(map);
+        oout.close();
+        ObjectInputStream oin = new ObjectInputStream(new ByteArrayInputStream(bout.toByteArray()));
+        assertEquals(map, oin.readObject());
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.webdav;
+
+import org.opencms.test.OpenCmsTestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+
+/**
+ * Unit tests for writing ranges of the content of a WebDAV item.<p>
+ */
+public class TestCmsWebdavRange extends OpenCmsTestCase {
+
+    /**
+     * Output stream collecting the written bytes.<p>
+     */
+    private static class CmsTestOutputStream extends ServletOutputStream {
+
+        /** The written bytes. */
+        private ByteArrayOutputStream m_out = new ByteArrayOutputStream();
+
+        /**
+         * Returns the written bytes.<p>
+         *
+         * @return the written bytes
+         */
+        public byte[] getBytes() {
+
+            return m_out.toByteArray();
+        }
+
+        /**
+         * @see javax.servlet.ServletOutputStream#isReady()
+         */
+        @Override
+        public boolean isReady() {
+
+            return true;
+        }
+
+        /**
+         * @see javax.servlet.ServletOutputStream#setWriteListener(javax.servlet.WriteListener)
+         */
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+
+            // not used
+        }
+
+        /**
+         * @see java.io.OutputStream#write(int)
+         */
+        @Override
+        public void write(int b) {
+
+            m_out.write(b);
+        }
+    }
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsWebdavRange(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests that ranges written from the content array match the ranges copied from a stream.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testCopyRangeMatchesStream() throws Exception {
+
+        CmsWebdavServlet servlet = new CmsWebdavServlet();
+        byte[] content = new byte[5000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte)(i % 251);
+        }
+        long[][] ranges = {{0, 0}, {0, 4999}, {10, 20}, {2047, 2049}, {4990, 6000}, {4999, 4999}};
+        for (long[] range : ranges) {
+            CmsTestOutputStream expected = new CmsTestOutputStream();
+            assertNull(servlet.copyRange(new ByteArrayInputStream(content), expected, range[0], range[1]));
+            CmsTestOutputStream actual = new CmsTestOutputStream();
+            assertNull(servlet.copyRange(content, actual, range[0], range[1]));
+            assertEquals(range[0] + "-" + range[1], expected.getBytes().length, actual.getBytes().length);
+            assertTrue(range[0] + "-" + range[1], Arrays.equals(expected.getBytes(), actual.getBytes()));
+        }
+    }
+
+    /**
+     * Tests writing ranges outside of the content.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testCopyRangeOutsideContent() throws Exception {
+
+        CmsWebdavServlet servlet = new CmsWebdavServlet();
+        byte[] content = "0123456789".getBytes();
+
+        CmsTestOutputStream out = new CmsTestOutputStream();
+        assertNull(servlet.copyRange(content, out, 20, 30));
+        assertEquals(0, out.getBytes().length);
+
+        out = new CmsTestOutputStream();
+        assertNull(servlet.copyRange(content, out, 8, 30));
+        assertEquals("89", new String(out.getBytes()));
+
+        out = new CmsTestOutputStream();
+        assertNull(servlet.copyRange((byte[])null, out, 0, 10));
+        assertEquals(0, out.getBytes().length);
+    }
+
+    /**
+     * Tests that an error writing the range is returned.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testCopyRangeWriteError() throws Exception {
+
+        CmsWebdavServlet servlet = new CmsWebdavServlet();
+        CmsTestOutputStream out = new CmsTestOutputStream() {
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+
+                throw new IOException("broken pipe");
+            }
+        };
+        IOException e = servlet.copyRange("0123456789".getBytes(), out, 0, 9);
+        assertNotNull(e);
+        assertEquals("broken pipe", e.getMessage());
+    }
+}
@@ -541,6 +541,27 @@ CREATE INDEX CMS_CONTENTS_04
 CREATE INDEX CMS_CONTENTS_05
     ON CMS_CONTENTS (RESOURCE_ID, ONLINE_FLAG);
 
+CREATE TABLE CMS_HISTORY_CONTENT_STORE (
+    CONTENT_HASH VARCHAR(64) CCSID 1208 NOT NULL,
+    COMPRESSION INT NOT NULL,
+    FILE_CONTENT BLOB(50M) NOT NULL,
+    CONSTRAINT PK_HISTORY_CONTENT_STORE PRIMARY KEY(CONTENT_HASH)
+);
+
+CREATE TABLE CMS_HISTORY_CONTENT_REFS (
+    RESOURCE_ID VARCHAR(36) CCSID 1208 NOT NULL,
+    PUBLISH_TAG_FROM INT NOT NULL,
+    PUBLISH_TAG_TO INT NOT NULL,
+    CONTENT_HASH VARCHAR(64) CCSID 1208 NOT NULL,
+    CONSTRAINT PK_HISTORY_CONTENT_REFS PRIMARY KEY(RESOURCE_ID, PUBLISH_TAG_FROM)
+);
+
+CREATE INDEX CMS_HISTORY_CONTENT_REFS_01
+    ON CMS_HISTORY_CONTENT_REFS (RESOURCE_ID, PUBLISH_TAG_TO);
+
+CREATE INDEX CMS_HISTORY_CONTENT_REFS_02
+    ON CMS_HISTORY_CONTENT_REFS (CONTENT_HASH);
+
 CREATE TABLE CMS_ONLINE_RESOURCE_RELATIONS (
     RELATION_SOURCE_ID VARCHAR(36) CCSID 1208 NOT NULL,
     RELATION_SOURCE_PATH VARCHAR(1024) CCSID 1208 NOT NULL,
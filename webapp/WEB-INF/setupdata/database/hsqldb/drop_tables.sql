@@ -7,6 +7,8 @@ DROP INDEX CMS_ALIASES_IDX_1;
 DROP INDEX CMS_REWRITES_IDX_01;
 
 DROP TABLE CMS_CONTENTS;
+DROP TABLE CMS_HISTORY_CONTENT_REFS;
+DROP TABLE CMS_HISTORY_CONTENT_STORE;
 DROP TABLE CMS_GROUPUSERS;
 DROP TABLE CMS_HISTORY_PRINCIPALS;
 DROP TABLE CMS_HISTORY_PROJECTRESOURCES;
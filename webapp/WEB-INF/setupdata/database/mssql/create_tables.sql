@@ -517,6 +517,27 @@ CREATE NONCLUSTERED INDEX CMS_CONTENTS_03_IDX
 CREATE NONCLUSTERED INDEX CMS_CONTENTS_04_IDX 
     ON CMS_CONTENTS (RESOURCE_ID, ONLINE_FLAG);
                 
+CREATE TABLE CMS_HISTORY_CONTENT_STORE (
+    CONTENT_HASH NVARCHAR(64) NOT NULL,
+    COMPRESSION INT NOT NULL,
+    FILE_CONTENT IMAGE NOT NULL,
+    PRIMARY KEY(CONTENT_HASH)
+);
+
+CREATE TABLE CMS_HISTORY_CONTENT_REFS (
+    RESOURCE_ID NVARCHAR(36) NOT NULL,
+    PUBLISH_TAG_FROM INT NOT NULL,
+    PUBLISH_TAG_TO INT NOT NULL,
+    CONTENT_HASH NVARCHAR(64) NOT NULL,
+    PRIMARY KEY(RESOURCE_ID, PUBLISH_TAG_FROM)
+);
+
+CREATE NONCLUSTERED INDEX CMS_HISTORY_CONTENT_REFS_01_IDX 
+    ON CMS_HISTORY_CONTENT_REFS (RESOURCE_ID, PUBLISH_TAG_TO);
+
+CREATE NONCLUSTERED INDEX CMS_HISTORY_CONTENT_REFS_02_IDX 
+    ON CMS_HISTORY_CONTENT_REFS (CONTENT_HASH);
+
 CREATE TABLE CMS_ONLINE_RESOURCE_RELATIONS (
     RELATION_SOURCE_ID NVARCHAR(36) NOT NULL,
     RELATION_SOURCE_PATH NVARCHAR(511) NOT NULL,
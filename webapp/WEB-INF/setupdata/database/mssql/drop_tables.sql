@@ -1,6 +1,8 @@
 USE ${database};
 
 DROP TABLE CMS_CONTENTS;
+DROP TABLE CMS_HISTORY_CONTENT_REFS;
+DROP TABLE CMS_HISTORY_CONTENT_STORE;
 DROP TABLE CMS_GROUPUSERS;
 DROP TABLE CMS_HISTORY_PRINCIPALS;
 DROP TABLE CMS_HISTORY_PROJECTRESOURCES;
@@ -395,6 +395,23 @@ CREATE TABLE CMS_CONTENTS (
     INDEX ONLINE_IDX (RESOURCE_ID, ONLINE_FLAG)
 ) ENGINE = MYISAM CHARACTER SET UTF8;
 
+CREATE TABLE CMS_HISTORY_CONTENT_STORE (
+    CONTENT_HASH VARCHAR(64) BINARY NOT NULL,
+    COMPRESSION INT NOT NULL,
+    FILE_CONTENT LONGBLOB NOT NULL,
+    PRIMARY KEY(CONTENT_HASH)
+) ENGINE = MYISAM CHARACTER SET UTF8;
+
+CREATE TABLE CMS_HISTORY_CONTENT_REFS (
+    RESOURCE_ID VARCHAR(36) BINARY NOT NULL,
+    PUBLISH_TAG_FROM INT NOT NULL,
+    PUBLISH_TAG_TO INT NOT NULL,
+    CONTENT_HASH VARCHAR(64) BINARY NOT NULL,
+    PRIMARY KEY(RESOURCE_ID, PUBLISH_TAG_FROM),
+    INDEX HISTORY_CONTENT_REFS_TAG_TO_IDX (RESOURCE_ID, PUBLISH_TAG_TO),
+    INDEX HISTORY_CONTENT_REFS_HASH_IDX (CONTENT_HASH)
+) ENGINE = MYISAM CHARACTER SET UTF8;
+
 CREATE TABLE CMS_ONLINE_RESOURCE_RELATIONS (
     RELATION_SOURCE_ID VARCHAR(36) BINARY NOT NULL,
     RELATION_SOURCE_PATH TEXT BINARY NOT NULL,
@@ -19,6 +19,8 @@ DROP TABLE CMS_ONLINE_PROPERTYDEF;
 DROP TABLE CMS_ONLINE_RESOURCES;
 DROP TABLE CMS_ONLINE_STRUCTURE;
 DROP TABLE CMS_CONTENTS;
+DROP TABLE CMS_HISTORY_CONTENT_REFS;
+DROP TABLE CMS_HISTORY_CONTENT_STORE;
 DROP TABLE CMS_PROJECTRESOURCES;
 DROP TABLE CMS_PROJECTS;
 DROP TABLE CMS_USERS;
@@ -640,6 +640,34 @@ CREATE INDEX CMS_CONTENTS_05_IDX
     ON CMS_CONTENTS (RESOURCE_ID, ONLINE_FLAG)
     TABLESPACE ${indexTablespace};
 
+CREATE TABLE CMS_HISTORY_CONTENT_STORE (
+    CONTENT_HASH VARCHAR2(64) NOT NULL,
+    COMPRESSION INT NOT NULL,
+    FILE_CONTENT BLOB NOT NULL,
+    CONSTRAINT PK_HISTORY_CONTENT_STORE PRIMARY KEY(CONTENT_HASH) USING INDEX TABLESPACE ${indexTablespace}
+)
+STORAGE (INITIAL 256K NEXT 1M PCTINCREASE 0)
+    LOB(FILE_CONTENT) STORE AS (
+        CHUNK 32K PCTVERSION 20  
+        CACHE
+);
+
+CREATE TABLE CMS_HISTORY_CONTENT_REFS (
+    RESOURCE_ID VARCHAR2(36) NOT NULL,
+    PUBLISH_TAG_FROM INT NOT NULL,
+    PUBLISH_TAG_TO INT NOT NULL,
+    CONTENT_HASH VARCHAR2(64) NOT NULL,
+    CONSTRAINT PK_HISTORY_CONTENT_REFS PRIMARY KEY(RESOURCE_ID, PUBLISH_TAG_FROM) USING INDEX TABLESPACE ${indexTablespace}
+);
+
+CREATE INDEX CMS_HISTORY_CONTENT_REFS_01_IDX
+    ON CMS_HISTORY_CONTENT_REFS (RESOURCE_ID, PUBLISH_TAG_TO)
+    TABLESPACE ${indexTablespace};
+
+CREATE INDEX CMS_HISTORY_CONTENT_REFS_02_IDX
+    ON CMS_HISTORY_CONTENT_REFS (CONTENT_HASH)
+    TABLESPACE ${indexTablespace};
+
 CREATE TABLE CMS_ONLINE_RESOURCE_RELATIONS (
     RELATION_SOURCE_ID VARCHAR2(36) NOT NULL,
     RELATION_SOURCE_PATH VARCHAR2(1024) NOT NULL,
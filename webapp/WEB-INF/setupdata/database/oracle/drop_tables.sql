@@ -80,6 +80,10 @@ DROP INDEX CMS_CONTENTS_03_IDX;
 DROP INDEX CMS_CONTENTS_04_IDX;
 DROP INDEX CMS_CONTENTS_05_IDX;
 DROP TABLE CMS_CONTENTS;
+DROP INDEX CMS_HISTORY_CONTENT_REFS_01_IDX;
+DROP INDEX CMS_HISTORY_CONTENT_REFS_02_IDX;
+DROP TABLE CMS_HISTORY_CONTENT_REFS;
+DROP TABLE CMS_HISTORY_CONTENT_STORE;
 DROP INDEX CMS_PROJECTRESOURCES_01_IDX;
 DROP TABLE CMS_PROJECTRESOURCES;
 DROP INDEX CMS_PROJECTS_01_IDX;
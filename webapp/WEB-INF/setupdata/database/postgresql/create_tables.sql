@@ -629,6 +629,29 @@ CREATE INDEX CMS_CONTENTS_05_IDX
 	ON CMS_CONTENTS (RESOURCE_ID, ONLINE_FLAG)
 	;
 
+CREATE TABLE CMS_HISTORY_CONTENT_STORE (
+	CONTENT_HASH VARCHAR(64) NOT NULL,
+	COMPRESSION INT NOT NULL,
+	FILE_CONTENT BYTEA NOT NULL,
+	CONSTRAINT PK_HISTORY_CONTENT_STORE PRIMARY KEY(CONTENT_HASH)
+);
+
+CREATE TABLE CMS_HISTORY_CONTENT_REFS (
+	RESOURCE_ID VARCHAR(36) NOT NULL,
+	PUBLISH_TAG_FROM INT NOT NULL,
+	PUBLISH_TAG_TO INT NOT NULL,
+	CONTENT_HASH VARCHAR(64) NOT NULL,
+	CONSTRAINT PK_HISTORY_CONTENT_REFS PRIMARY KEY(RESOURCE_ID, PUBLISH_TAG_FROM)
+);
+
+CREATE INDEX CMS_HISTORY_CONTENT_REFS_01_IDX
+	ON CMS_HISTORY_CONTENT_REFS (RESOURCE_ID, PUBLISH_TAG_TO)
+	;
+
+CREATE INDEX CMS_HISTORY_CONTENT_REFS_02_IDX
+	ON CMS_HISTORY_CONTENT_REFS (CONTENT_HASH)
+	;
+
 CREATE TABLE CMS_ONLINE_RESOURCE_RELATIONS (
 	RELATION_SOURCE_ID VARCHAR(36) NOT NULL,
 	RELATION_SOURCE_PATH VARCHAR(1024) NOT NULL,